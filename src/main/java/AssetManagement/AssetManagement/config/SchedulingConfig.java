@@ -0,0 +1,68 @@
+package AssetManagement.AssetManagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Separate schedulers per kind of job, so a long backup or reminder run cannot hold up mail
+ * polling. Jobs pick theirs with {@code @Scheduled(scheduler = ...)}; jobs that name none run
+ * on {@code taskScheduler}.
+ * <p>
+ * Boot only auto-configures {@code applicationTaskExecutor} when there is no other Executor
+ * bean, and these schedulers are Executors. It is declared here as Boot would, so MVC async
+ * requests and {@code @Async} keep a pooled executor configured by {@code spring.task.execution.*}.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String MAIL_SCHEDULER = "mailScheduler";
+    public static final String REMINDER_SCHEDULER = "reminderScheduler";
+    public static final String MAINTENANCE_SCHEDULER = "maintenanceScheduler";
+
+    // Leader lease heartbeat, kept off the job pools so a busy job cannot delay it
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        return scheduler("scheduling-", 1);
+    }
+
+    // Mailbox sync and outbox polling
+    @Bean(MAIL_SCHEDULER)
+    public ThreadPoolTaskScheduler mailScheduler(@Value("${app.scheduling.mailThreads:2}") int threads) {
+        return scheduler("mail-jobs-", threads);
+    }
+
+    // Ticket reminder mails
+    @Bean(REMINDER_SCHEDULER)
+    public ThreadPoolTaskScheduler reminderScheduler(@Value("${app.scheduling.reminderThreads:1}") int threads) {
+        return scheduler("reminder-jobs-", threads);
+    }
+
+    // Database backup and statistics rebuilds
+    @Bean(MAINTENANCE_SCHEDULER)
+    public ThreadPoolTaskScheduler maintenanceScheduler(@Value("${app.scheduling.maintenanceThreads:1}") int threads) {
+        return scheduler("maintenance-jobs-", threads);
+    }
+
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(String threadNamePrefix, int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(threads);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
@@ -49,45 +49,93 @@
 
 package AssetManagement.AssetManagement.controller;
 
+import AssetManagement.AssetManagement.dto.AssetCodeSheetRequest;
+import AssetManagement.AssetManagement.enums.CodeFormat;
+import AssetManagement.AssetManagement.exception.AssetNotFoundException;
 import AssetManagement.AssetManagement.repository.AssetRepository;
-import AssetManagement.AssetManagement.util.AssetCodeUtil;
+import AssetManagement.AssetManagement.service.AssetCodeService;
+import AssetManagement.AssetManagement.service.AssetCodeService.CodeImage;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/assets")
 @RequiredArgsConstructor
 public class AssetCodeController {
 
+    // Tags are never reused, so a label image never changes
+    private static final CacheControl LABEL_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate();
+
     private final AssetRepository repo;
+    private final AssetCodeService assetCodeService;
 
     @GetMapping(value = "/{assetTag}/qr", produces = MediaType.IMAGE_PNG_VALUE)
-    public ResponseEntity<byte[]> getQr(@PathVariable String assetTag) throws Exception {
-        System.out.println("QR requested for assetTag: " + assetTag);
+    public ResponseEntity<byte[]> getQr(@PathVariable String assetTag, WebRequest request) {
+        // The ETag only depends on the tag, so a revalidation needs neither the database nor a render
+        if (request.checkNotModified(assetCodeService.qrEtag(assetTag))) {
+            return null;
+        }
+        requireAsset(assetTag);
+        return label(assetCodeService.qr(assetTag));
+    }
 
-        var asset = repo.findByAssetTag(assetTag)
-                .orElseThrow(() -> new RuntimeException("Asset not found: " + assetTag));
+    @GetMapping(value = "/{assetTag}/barcode", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getBarcode(@PathVariable String assetTag, WebRequest request) {
+        if (request.checkNotModified(assetCodeService.barcodeEtag(assetTag))) {
+            return null;
+        }
+        requireAsset(assetTag);
+        return label(assetCodeService.barcode(assetTag));
+    }
 
-        // You can also put full URL instead of ASSET:...
-        String qrData = "ASSET:" + asset.getAssetTag();
+    // ---------------------- BULK ----------------------
 
+    /**
+     * All requested labels in one PNG grid. The grid layout is in the X-Sprite-* headers;
+     * labels are in request order, or by tag for a whole site. Limited to a few hundred labels
+     * (see {@link AssetCodeService#maxSpriteLabels}); the printable sheet takes larger runs.
+     */
+    @PostMapping(value = "/codes/sprite", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getSprite(@RequestBody AssetCodeSheetRequest body) {
+        List<String> tags = assetCodeService.resolveTags(body);
+        CodeFormat format = body.getFormat() != null ? body.getFormat() : CodeFormat.QR;
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_PNG_VALUE)
-                .body(AssetCodeUtil.generateQrPng(qrData, 200));
+                .contentType(MediaType.IMAGE_PNG)
+                .header("X-Sprite-Count", String.valueOf(tags.size()))
+                .header("X-Sprite-Columns", String.valueOf(assetCodeService.spriteColumns(body, tags)))
+                .header("X-Sprite-Cell-Width", String.valueOf(assetCodeService.cellWidth(format)))
+                .header("X-Sprite-Cell-Height", String.valueOf(assetCodeService.cellHeight(format)))
+                .body(assetCodeService.sprite(body, tags));
     }
 
-    @GetMapping(value = "/{assetTag}/barcode", produces = MediaType.IMAGE_PNG_VALUE)
-    public ResponseEntity<byte[]> getBarcode(@PathVariable String assetTag) throws Exception {
-        System.out.println("Barcode requested for assetTag: " + assetTag);
+    /** A printable HTML document with the labels laid out on A4 pages. */
+    @PostMapping(value = "/codes/sheet", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<byte[]> getPrintableSheet(@RequestBody AssetCodeSheetRequest body) {
+        List<String> tags = assetCodeService.resolveTags(body);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(assetCodeService.printableSheet(body, tags).getBytes(StandardCharsets.UTF_8));
+    }
 
-        var asset = repo.findByAssetTag(assetTag)
-                .orElseThrow(() -> new RuntimeException("Asset not found: " + assetTag));
+    private void requireAsset(String assetTag) {
+        if (!repo.existsByAssetTag(assetTag)) {
+            throw new AssetNotFoundException("Asset not found: " + assetTag);
+        }
+    }
 
+    private static ResponseEntity<byte[]> label(CodeImage image) {
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_PNG_VALUE)
-                .body(AssetCodeUtil.generateBarcodePng(asset.getAssetTag(), 400, 120));
+                .contentType(MediaType.IMAGE_PNG)
+                .eTag(image.etag())
+                .cacheControl(LABEL_CACHE)
+                .body(image.png());
     }
 }
@@ -10,6 +10,7 @@ import AssetManagement.AssetManagement.exception.AssetNotFoundException;
 import AssetManagement.AssetManagement.repository.AssetHistoryRepository;
 import AssetManagement.AssetManagement.repository.AssetRepository;
 import AssetManagement.AssetManagement.service.AssetImportService;
+import AssetManagement.AssetManagement.service.AssetSearchIndex;
 import AssetManagement.AssetManagement.service.AssetService;
 import AssetManagement.AssetManagement.util.AssetSpecification;
 import jakarta.servlet.http.HttpServletResponse;
@@ -50,12 +51,14 @@ public class AssetController {
     private final AssetHistoryRepository assetHistoryRepository;
     private final AssetRepository assetRepository;
     private final AssetImportService assetImportService;
+    private final AssetSearchIndex assetSearchIndex;
 
-    public AssetController(AssetService assetService, AssetHistoryRepository assetHistoryRepository, AssetRepository assetRepository, AssetImportService assetImportService) {
+    public AssetController(AssetService assetService, AssetHistoryRepository assetHistoryRepository, AssetRepository assetRepository, AssetImportService assetImportService, AssetSearchIndex assetSearchIndex) {
         this.assetService = assetService;
         this.assetHistoryRepository = assetHistoryRepository;
         this.assetRepository = assetRepository;
         this.assetImportService = assetImportService;
+        this.assetSearchIndex = assetSearchIndex;
     }
 
 
@@ -261,6 +264,7 @@ public ResponseEntity<PaginatedResponse<AssetDTO>> getAllAssets(
 
         childAsset.setParentAsset(parent);
         Asset savedChild = assetRepository.save(childAsset);
+        assetSearchIndex.update(savedChild);
 
         return ResponseEntity.ok(savedChild);
     }
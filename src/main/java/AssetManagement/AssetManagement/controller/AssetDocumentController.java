@@ -5,22 +5,18 @@ import AssetManagement.AssetManagement.entity.Asset;
 import AssetManagement.AssetManagement.entity.AssetDocument;
 import AssetManagement.AssetManagement.repository.AssetDocumentRepository;
 import AssetManagement.AssetManagement.repository.AssetRepository;
+import AssetManagement.AssetManagement.service.FileServingService;
+import AssetManagement.AssetManagement.service.FileStorageService;
 import AssetManagement.AssetManagement.util.AuthUtils;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.MediaType;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -37,6 +33,12 @@ public class AssetDocumentController {
     @Autowired
     private AssetRepository assetRepository;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileServingService fileServingService;
+
     /**
      * Upload one or multiple documents for a specific asset
      */
@@ -46,24 +48,20 @@ public class AssetDocumentController {
                 .orElseThrow(() -> new RuntimeException("Asset not found"));
 
         try {
-            File directory = new File(UPLOAD_DIR);
-            if (!directory.exists()) {
-                directory.mkdirs();
-            }
-
             StringBuilder uploadedFiles = new StringBuilder();
             for (MultipartFile file : files) {
                 if (!file.isEmpty()) {
-                    String fileName = assetTag + "_" + System.currentTimeMillis() + "_" + file.getOriginalFilename();
-                    Path filePath = Paths.get(UPLOAD_DIR).resolve(fileName);
-                    Files.write(filePath, file.getBytes());
-
-                    AssetDocument document = new AssetDocument();
-                    document.setDocumentUrl(fileName);
-                    document.setAsset(asset);
-                    document.setAddedAt(LocalDateTime.now());
-                    document.setAddedBy(AuthUtils.getAuthenticatedUsername());
-                    assetDocumentRepository.save(document);
+                    // Streamed into the shared store; identical files are kept once
+                    AssetDocument document = fileStorageService.storeFor(file, stored -> {
+                        AssetDocument created = new AssetDocument();
+                        created.setDocumentUrl(FileStorageService.keyOf(stored, file.getOriginalFilename()));
+                        created.setFileName(file.getOriginalFilename());
+                        created.setAsset(asset);
+                        created.setAddedAt(LocalDateTime.now());
+                        created.setAddedBy(AuthUtils.getAuthenticatedUsername());
+                        return assetDocumentRepository.save(created);
+                    });
+                    String fileName = document.getDocumentUrl();
 
                     uploadedFiles.append(fileName).append("\n");
                 }
@@ -89,31 +87,30 @@ public class AssetDocumentController {
         return ResponseEntity.ok(documentList);
     }
 
-    @GetMapping("/uploads/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(UPLOAD_DIR).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
-            }
+    /**
+     * Delete one document of an asset; the stored file goes once no other record uses the same bytes
+     */
+    @DeleteMapping("/{assetTag}/documents/{filename:.+}")
+    public ResponseEntity<String> deleteDocument(@PathVariable String assetTag, @PathVariable String filename) {
+        Asset asset = assetRepository.findByAssetTag(assetTag)
+                .orElseThrow(() -> new RuntimeException("Asset not found"));
+        AssetDocument document = assetDocumentRepository.findFirstByAssetAndDocumentUrl(asset, filename)
+                .orElseThrow(() -> new RuntimeException("Document not found"));
 
-            // Determine the content type
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream"; // Fallback type
-            }
+        fileStorageService.deleteFor(document.getDocumentUrl(), () -> assetDocumentRepository.delete(document));
+        return ResponseEntity.ok("Document deleted successfully");
+    }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType)) // ✅ Set proper MIME type
-                    .header("Content-Disposition", "attachment; filename=\"" + filename + "\"") // ✅ Force download
-                    .body(resource);
-        } catch (MalformedURLException e) {
-            return ResponseEntity.status(500).body(null);
-        } catch (IOException e) {
-            return ResponseEntity.status(500).body(null);
-        }
+    @GetMapping("/uploads/{filename:.+}")
+    public void serveFile(@PathVariable String filename, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        // New uploads live in the content-addressed store, older ones in UPLOAD_DIR.
+        // Ranges are honoured, so large PDFs can be viewed without downloading them whole.
+        // Store keys are hashes, so downloads are named after the upload; legacy names already are
+        String downloadName = assetDocumentRepository.findFirstByDocumentUrlOrderByIdDesc(filename)
+                .map(AssetDocument::getFileName)
+                .orElse(filename);
+        fileServingService.serve(filename, Paths.get(UPLOAD_DIR), downloadName, request, response);
     }
 
 //    @GetMapping("/all-documents")
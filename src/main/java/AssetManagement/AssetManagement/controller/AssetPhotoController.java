@@ -1,28 +1,31 @@
 package AssetManagement.AssetManagement.controller;
 
+import AssetManagement.AssetManagement.dto.AssetPhotoResponse;
 import AssetManagement.AssetManagement.entity.Asset;
 import AssetManagement.AssetManagement.entity.AssetPhoto;
 import AssetManagement.AssetManagement.repository.AssetPhotoRepository;
 import AssetManagement.AssetManagement.repository.AssetRepository;
+import AssetManagement.AssetManagement.service.FileServingService;
+import AssetManagement.AssetManagement.service.FileStorageService;
+import AssetManagement.AssetManagement.service.PhotoDerivativeService;
+import AssetManagement.AssetManagement.enums.PhotoVariant;
 
 import AssetManagement.AssetManagement.util.AuthUtils;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -37,6 +40,15 @@ public class AssetPhotoController {
     @Autowired
     private AssetRepository assetRepository;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    @Autowired
+    private PhotoDerivativeService photoDerivativeService;
+
     /**
      * Upload one or multiple photos for a specific asset
      */
@@ -46,24 +58,20 @@ public class AssetPhotoController {
                 .orElseThrow(() -> new RuntimeException("Asset not found"));
 
         try {
-            File directory = new File(UPLOAD_DIR);
-            if (!directory.exists()) {
-                directory.mkdirs();
-            }
-
             StringBuilder uploadedFiles = new StringBuilder();
             for (MultipartFile file : files) {
                 if (!file.isEmpty()) {
-                    String fileName = assetTag + "_" + System.currentTimeMillis() + "_" + file.getOriginalFilename();
-                    Path filePath = Paths.get(UPLOAD_DIR).resolve(fileName);
-                    Files.write(filePath, file.getBytes());
-
-                    AssetPhoto photo = new AssetPhoto();
-                    photo.setPhotoUrl(fileName);
-                    photo.setAsset(asset);
-                    photo.setAddedAt(LocalDateTime.now());
-                    photo.setAddedBy(AuthUtils.getAuthenticatedUsername());
-                    assetPhotoRepository.save(photo);
+                    // Streamed into the shared store; identical files are kept once
+                    AssetPhoto photo = fileStorageService.storeFor(file, stored -> {
+                        AssetPhoto created = new AssetPhoto();
+                        created.setPhotoUrl(FileStorageService.keyOf(stored, file.getOriginalFilename()));
+                        created.setAsset(asset);
+                        created.setAddedAt(LocalDateTime.now());
+                        created.setAddedBy(AuthUtils.getAuthenticatedUsername());
+                        return assetPhotoRepository.save(created);
+                    });
+                    String fileName = photo.getPhotoUrl();
+                    photoDerivativeService.schedule(fileName, Paths.get(UPLOAD_DIR));
 
                     uploadedFiles.append(fileName).append("\n");
                 }
@@ -75,48 +83,67 @@ public class AssetPhotoController {
     }
 
     /**
-     * Fetch all photo filenames for a given asset
+     * Fetch all photos for a given asset, with the URLs of their thumbnail and medium copies
      */
     @GetMapping("/{assetTag}/photos")
-    public ResponseEntity<List<String>> getPhotosByAssetTag(@PathVariable String assetTag) {
+    public ResponseEntity<List<AssetPhotoResponse>> getPhotosByAssetTag(@PathVariable String assetTag) {
         Asset asset = assetRepository.findByAssetTag(assetTag)
                 .orElseThrow(() -> new RuntimeException("Asset not found"));
 
-        List<String> photoFilenames = assetPhotoRepository.findByAsset(asset).stream()
-                .map(AssetPhoto::getPhotoUrl)
+        List<AssetPhotoResponse> photos = assetPhotoRepository.findByAsset(asset).stream()
+                .map(photo -> AssetPhotoResponse.of(photo.getPhotoUrl()))
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(photoFilenames);
+        return ResponseEntity.ok(photos);
+    }
+
+    /**
+     * Delete one photo of an asset; the stored file goes once no other record uses the same bytes
+     */
+    @DeleteMapping("/{assetTag}/photos/{filename:.+}")
+    public ResponseEntity<String> deletePhoto(@PathVariable String assetTag, @PathVariable String filename) {
+        Asset asset = assetRepository.findByAssetTag(assetTag)
+                .orElseThrow(() -> new RuntimeException("Asset not found"));
+        AssetPhoto photo = assetPhotoRepository.findFirstByAssetAndPhotoUrl(asset, filename)
+                .orElseThrow(() -> new RuntimeException("Photo not found"));
+
+        fileStorageService.deleteFor(photo.getPhotoUrl(), () -> assetPhotoRepository.delete(photo));
+        return ResponseEntity.ok("Photo deleted successfully");
     }
 
     /**
      * Serve image files dynamically
      */
     @GetMapping("/uploads/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(UPLOAD_DIR).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists()) {
-                return ResponseEntity.notFound().build();
-            }
+    public void serveFile(@PathVariable String filename, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        // New uploads live in the content-addressed store, older ones in UPLOAD_DIR
+        fileServingService.serve(filename, Paths.get(UPLOAD_DIR), null, request, response);
+    }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_JPEG) // Adjust for different image types if needed
-                    .body(resource);
-        } catch (MalformedURLException e) {
-            return ResponseEntity.status(500).body(null);
+    /**
+     * Serve the thumbnail or medium copy of a photo, rendering it first if it is missing.
+     * Falls back to the original when the file cannot be decoded as an image.
+     */
+    @GetMapping("/uploads/{variant:thumb|medium}/{filename:.+}")
+    public void serveDerivative(@PathVariable String variant, @PathVariable String filename,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        PhotoVariant photoVariant = PhotoVariant.valueOf(variant.toUpperCase(Locale.ROOT));
+        Optional<Path> derivative = photoDerivativeService.derivative(filename, Paths.get(UPLOAD_DIR), photoVariant);
+        if (derivative.isPresent()) {
+            fileServingService.serveFile(derivative.get(), MediaType.IMAGE_JPEG_VALUE, null, request, response);
+        } else {
+            fileServingService.serve(filename, Paths.get(UPLOAD_DIR), null, request, response);
         }
     }
 
     @GetMapping("/all-photos")
-    public ResponseEntity<List<String>> getAllPhotos() {
-        List<String> allPhotoFilenames = assetPhotoRepository.findAll().stream()
-                .map(AssetPhoto::getPhotoUrl)
+    public ResponseEntity<List<AssetPhotoResponse>> getAllPhotos() {
+        List<AssetPhotoResponse> allPhotos = assetPhotoRepository.findAll().stream()
+                .map(photo -> AssetPhotoResponse.of(photo.getPhotoUrl()))
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(allPhotoFilenames);
+        return ResponseEntity.ok(allPhotos);
     }
 
 }
@@ -1,42 +1,80 @@
 package AssetManagement.AssetManagement.controller;
 
+import AssetManagement.AssetManagement.dto.AssetPrintLabel;
+import AssetManagement.AssetManagement.dto.CursorPageResponse;
+import AssetManagement.AssetManagement.enums.AssetStatus;
+import AssetManagement.AssetManagement.exception.AssetNotFoundException;
 import AssetManagement.AssetManagement.repository.AssetRepository;
+import AssetManagement.AssetManagement.service.AssetPrintFeedService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
-import java.util.Map;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/tags/assets")
 @RequiredArgsConstructor
 public class AssetPrintController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final AssetRepository repo;
+    private final AssetPrintFeedService printFeedService;
 
     // ---------------------- PRINT ALL ASSETS ----------------------
+    // Same array as before, written while it is read instead of built in memory
     @GetMapping("/print")
-    public List<Map<String, String>> getAllForPrint() {
-        return repo.findAll().stream()
-                .map(asset -> Map.of(
-                        "assetTag", asset.getAssetTag(),
-                        "qrUrl", "/assets/" + asset.getAssetTag() + "/qr",
-                        "barcodeUrl", "/assets/" + asset.getAssetTag() + "/barcode"
-                ))
-                .toList();
+    public ResponseEntity<StreamingResponseBody> getAllForPrint(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) AssetStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo) {
+        AssetPrintFeedService.Filter filter = new AssetPrintFeedService.Filter(siteId, locationId, status, createdFrom, createdTo);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> printFeedService.writeJsonArray(filter, out));
     }
 
-    // ---------------------- PRINT SINGLE ASSET ----------------------
-    @GetMapping("/print/{assetTag}")
-    public Map<String, String> getOneForPrint(@PathVariable String assetTag) {
+    // ---------------------- PRINT FEED (PAGED) ----------------------
+    @GetMapping("/print/feed")
+    public CursorPageResponse<AssetPrintLabel> getPrintFeed(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) AssetStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "200") int size) {
+        return printFeedService.page(new AssetPrintFeedService.Filter(siteId, locationId, status, createdFrom, createdTo),
+                cursor, size);
+    }
 
-        var asset = repo.findByAssetTag(assetTag)
-                .orElseThrow(() -> new RuntimeException("Asset not found: " + assetTag));
+    // ---------------------- PRINT FEED (STREAMED) ----------------------
+    // One label per line, so the client can start printing before the last row is read
+    @GetMapping(value = "/print/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamPrintFeed(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) AssetStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo) {
+        AssetPrintFeedService.Filter filter = new AssetPrintFeedService.Filter(siteId, locationId, status, createdFrom, createdTo);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> printFeedService.writeNdjson(filter, out));
+    }
 
-        return Map.of(
-                "assetTag", asset.getAssetTag(),
-                "qrUrl", "/assets/" + asset.getAssetTag() + "/qr",
-                "barcodeUrl", "/assets/" + asset.getAssetTag() + "/barcode"
-        );
+    // ---------------------- PRINT SINGLE ASSET ----------------------
+    @GetMapping("/print/{assetTag}")
+    public AssetPrintLabel getOneForPrint(@PathVariable String assetTag) {
+        if (!repo.existsByAssetTag(assetTag)) {
+            throw new AssetNotFoundException("Asset not found: " + assetTag);
+        }
+        return AssetPrintLabel.of(assetTag);
     }
 }
@@ -9,6 +9,7 @@ import AssetManagement.AssetManagement.exception.BadRequestException;
 import AssetManagement.AssetManagement.exception.UserNotFoundException;
 import AssetManagement.AssetManagement.repository.UserRepository;
 import AssetManagement.AssetManagement.security.JwtTokenProvider;
+import AssetManagement.AssetManagement.security.PrincipalCache;
 import AssetManagement.AssetManagement.security.impl.UserDetailsServiceImpl;
 import AssetManagement.AssetManagement.util.AuthUtils;
 import lombok.RequiredArgsConstructor;
@@ -39,6 +40,7 @@ public class AuthController {
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
     @PostMapping("/login")
     public Map<String, Object> login(@RequestBody AuthRequest authRequest) {
@@ -108,6 +110,7 @@ public class AuthController {
         user.setSite(request.getSite());
 
         userRepository.save(user);
+        principalCache.evict(user.getEmployeeId()); // no cached principal may outlive a re-created employee id
 
         return ResponseEntity.ok(new ApiResponse<>(true, "User registered successfully", null));
     }
@@ -144,6 +147,7 @@ public void changePassword( String oldPassword, String newPassword) {
 
     user.setPassword(passwordEncoder.encode(newPassword));
     userRepository.save(user);
+    principalCache.evict(user.getEmployeeId());
 }
 }
 //@RestController
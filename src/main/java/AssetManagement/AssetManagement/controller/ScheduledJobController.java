@@ -0,0 +1,27 @@
+package AssetManagement.AssetManagement.controller;
+
+import AssetManagement.AssetManagement.dto.ScheduledJobStatsDTO;
+import AssetManagement.AssetManagement.service.ScheduledJobMonitor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/scheduled-jobs")
+public class ScheduledJobController {
+
+    private final ScheduledJobMonitor jobMonitor;
+
+    public ScheduledJobController(ScheduledJobMonitor jobMonitor) {
+        this.jobMonitor = jobMonitor;
+    }
+
+    // Last run, duration and failures of each scheduled job since startup
+    @GetMapping("/stats")
+    public ResponseEntity<List<ScheduledJobStatsDTO>> getStats() {
+        return ResponseEntity.ok(jobMonitor.stats());
+    }
+}
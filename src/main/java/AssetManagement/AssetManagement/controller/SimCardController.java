@@ -7,15 +7,14 @@ import AssetManagement.AssetManagement.service.SimAttachmentService;
 import AssetManagement.AssetManagement.service.SimCardImportService;
 import AssetManagement.AssetManagement.service.SimCardService;
 import AssetManagement.AssetManagement.service.impl.SimCardServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -225,19 +224,15 @@ public class SimCardController {
 
     // 2️⃣ Download attachment
     @GetMapping("/attachments/download/{attachmentId}")
-    public ResponseEntity<Resource> downloadAttachment(@PathVariable Long attachmentId) {
-        try {
-            Resource file = attachmentService.download(attachmentId);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + file.getFilename() + "\"")
-                    .body(file);
+    public void downloadAttachment(@PathVariable Long attachmentId, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        attachmentService.download(attachmentId, request, response);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .build();
-        }
+    @DeleteMapping("/attachments/{attachmentId}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long attachmentId) {
+        attachmentService.deleteAttachment(attachmentId);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/excel")
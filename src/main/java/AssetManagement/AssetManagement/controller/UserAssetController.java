@@ -10,6 +10,7 @@ import AssetManagement.AssetManagement.service.TicketService;
 import AssetManagement.AssetManagement.service.UserAssetService;
 import AssetManagement.AssetManagement.util.AuthUtils;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -18,8 +19,6 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -33,7 +32,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -79,10 +77,15 @@ public class UserAssetController {
     }
 
     @GetMapping("/admin/tickets")
-    public ResponseEntity<PaginatedResponse<TicketDTO>> getAllTicketsForAdmin(
+    public ResponseEntity<PaginatedResponse<?>> getAllTicketsForAdmin(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) TicketStatus status) {
+            @RequestParam(required = false) TicketStatus status,
+            @RequestParam(defaultValue = "full") String view) {
+
+        if (isSummaryView(view)) {
+            return ResponseEntity.ok(ticketService.getAllTicketSummariesForAdmin(page, size, status));
+        }
 
         PaginatedResponse<TicketDTO> response = ticketService.getAllTicketsForAdmin(page, size, status);
         return ResponseEntity.ok(response);
@@ -151,12 +154,16 @@ public class UserAssetController {
 
 
     @GetMapping("/tickets")
-    public ResponseEntity<PaginatedResponse<TicketDTO>> getUserTickets(
+    public ResponseEntity<PaginatedResponse<?>> getUserTickets(
             @RequestParam(required = false) TicketStatus status,
             @RequestParam(required = false, defaultValue = "ALL") String employeeId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "full") String view
     ) {
+        if (isSummaryView(view)) {
+            return ResponseEntity.ok(ticketService.getUserTicketSummaries(status, employeeId, page, size));
+        }
 //        System.out.println("Request came with employee id to fetch tickets "+employeeId);
         PaginatedResponse<TicketDTO> response = ticketService.getUserTickets(status, employeeId, page, size);
 //        System.out.println(response);
@@ -348,8 +355,9 @@ public class UserAssetController {
         return ResponseEntity.ok("Updation success ");
     }
     @GetMapping("/tickets/{id}/attachment")
-    public ResponseEntity<Resource> downloadAttachment(@PathVariable Long id) throws IOException {
-        return ticketService.downloadAttachment(id);
+    public void downloadAttachment(@PathVariable Long id, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        ticketService.downloadAttachment(id, request, response);
     }
 
     @PostMapping("/location-assignments")
@@ -491,6 +499,11 @@ public class UserAssetController {
         return ResponseEntity.ok(ticketService.getTicketCountByLocation());
     }
 
+    @GetMapping("/tickets/stats/overview")
+    public ResponseEntity<TicketStatsOverviewDTO> getTicketStatsOverview() {
+        return ResponseEntity.ok(ticketService.getTicketStatsOverview());
+    }
+
     // TicketFeedbackController.java
 
     @GetMapping("/feedback/all")
@@ -500,7 +513,7 @@ public class UserAssetController {
 
 
     @GetMapping("/updated/filter")
-    public PaginatedResponse<TicketDTO> filterTickets(
+    public PaginatedResponse<?> filterTickets(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) TicketStatus status,
             @RequestParam(required = false) TicketCategory category,
@@ -512,14 +525,37 @@ public class UserAssetController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long siteIdLocationId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "full") String view) {
 //        System.out.println("Request received ");
+        if (isSummaryView(view)) {
+            return ticketService.filterTicketSummaries(title, status, category, employeeId, locationId, assigneeId, createdAfter, createdBefore, search, siteIdLocationId, page, size);
+        }
         return ticketService.filterTickets(title, status, category, employeeId, locationId, assigneeId, createdAfter, createdBefore,search,siteIdLocationId, page, size);
     }
 
 
+    @GetMapping("/updated/filter/cursor")
+    public CursorPageResponse<TicketDTO> filterTicketsByCursor(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) TicketStatus status,
+            @RequestParam(required = false) TicketCategory category,
+            @RequestParam(required = false) String employeeId,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) String assigneeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Long siteIdLocationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ticketService.filterTicketsByCursor(title, status, category, employeeId, locationId, assigneeId, createdAfter, createdBefore, search, siteIdLocationId, cursor, size, includeTotal);
+    }
+
+
     @GetMapping("/updated/download")
-    public ResponseEntity<byte[]> downloadFilteredTickets(
+    public void downloadFilteredTickets(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) TicketStatus status,
             @RequestParam(required = false) TicketCategory category,
@@ -529,15 +565,19 @@ public class UserAssetController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) Long siteIdLocationId
+            @RequestParam(required = false) Long siteIdLocationId,
+            HttpServletResponse response
     ) throws IOException {
 
-        ByteArrayInputStream in = ticketService.exportTicketsToExcel(title, status, category, employeeId, locationId, assigneeId, createdAfter, createdBefore,search,siteIdLocationId);
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tickets.xlsx");
+
+        ticketService.exportTicketsToExcel(title, status, category, employeeId, locationId, assigneeId, createdAfter, createdBefore, search, siteIdLocationId, response.getOutputStream());
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tickets.xlsx")
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(in.readAllBytes());
+    // view=summary returns TicketSummaryDTO rows (no description or message thread)
+    private boolean isSummaryView(String view) {
+        return "summary".equalsIgnoreCase(view);
     }
 
 }
@@ -2,10 +2,12 @@ package AssetManagement.AssetManagement.controller;
 
 import AssetManagement.AssetManagement.dto.ChangePasswordRequest;
 import AssetManagement.AssetManagement.dto.PaginatedResponse;
+import AssetManagement.AssetManagement.dto.PrincipalCacheStatsDTO;
 import AssetManagement.AssetManagement.dto.UserDTO;
 import AssetManagement.AssetManagement.dto.UserResponseDto;
 import AssetManagement.AssetManagement.entity.User;
 import AssetManagement.AssetManagement.enums.Department;
+import AssetManagement.AssetManagement.security.PrincipalCache;
 import AssetManagement.AssetManagement.service.UserService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.ss.usermodel.Row;
@@ -29,9 +31,11 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final PrincipalCache principalCache;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, PrincipalCache principalCache) {
         this.userService = userService;
+        this.principalCache = principalCache;
     }
 
     // Get all users
@@ -106,6 +110,12 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    // Hit/miss counters of the JWT filter's principal cache
+    @GetMapping("/principal-cache/stats")
+    public ResponseEntity<PrincipalCacheStatsDTO> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.stats());
+    }
+
     @GetMapping("/filter")
     public PaginatedResponse<UserResponseDto> filterUsers(
             @RequestParam(required = false) String employeeId,
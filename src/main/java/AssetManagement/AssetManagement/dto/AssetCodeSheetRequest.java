@@ -0,0 +1,18 @@
+package AssetManagement.AssetManagement.dto;
+
+import AssetManagement.AssetManagement.enums.CodeFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AssetCodeSheetRequest {
+    private List<String> assetTags;  // labels in this order
+    private Long siteId;             // or every asset of a site, by tag
+    private CodeFormat format;       // defaults to QR
+    private Integer columns;         // labels per row
+}
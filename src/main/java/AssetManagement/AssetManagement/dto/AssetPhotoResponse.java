@@ -0,0 +1,10 @@
+package AssetManagement.AssetManagement.dto;
+
+public record AssetPhotoResponse(String fileName, String url, String thumbnailUrl, String mediumUrl) {
+
+    private static final String BASE = "/api/asset-photos/uploads/";
+
+    public static AssetPhotoResponse of(String fileName) {
+        return new AssetPhotoResponse(fileName, BASE + fileName, BASE + "thumb/" + fileName, BASE + "medium/" + fileName);
+    }
+}
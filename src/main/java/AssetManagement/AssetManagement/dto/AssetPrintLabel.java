@@ -0,0 +1,8 @@
+package AssetManagement.AssetManagement.dto;
+
+public record AssetPrintLabel(String assetTag, String qrUrl, String barcodeUrl) {
+
+    public static AssetPrintLabel of(String assetTag) {
+        return new AssetPrintLabel(assetTag, "/assets/" + assetTag + "/qr", "/assets/" + assetTag + "/barcode");
+    }
+}
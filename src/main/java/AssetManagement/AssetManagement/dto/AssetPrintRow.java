@@ -0,0 +1,5 @@
+package AssetManagement.AssetManagement.dto;
+
+// Just enough of an asset to print its label; the id is the keyset cursor
+public record AssetPrintRow(Long id, String assetTag) {
+}
@@ -0,0 +1,12 @@
+package AssetManagement.AssetManagement.dto;
+
+// The asset fields covered by the keyword search index
+public record AssetSearchDocument(
+        Long id,
+        String name,
+        String serialNumber,
+        String brand,
+        String model,
+        String description
+) {
+}
@@ -0,0 +1,16 @@
+package AssetManagement.AssetManagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;      // null when there is no next page
+    private boolean hasNext;
+    private Long totalElements;     // only filled when the caller asks for it
+}
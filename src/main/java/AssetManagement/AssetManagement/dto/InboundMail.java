@@ -0,0 +1,18 @@
+package AssetManagement.AssetManagement.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// A message read from the support mailbox, independent of the mailbox provider
+public record InboundMail(
+        String id,
+        String conversationId,
+        String internetMessageId,
+        String subject,
+        String senderEmail,
+        String bodyHtml,
+        List<String> ccEmails,
+        OffsetDateTime receivedAt,
+        boolean read
+) {
+}
@@ -0,0 +1,7 @@
+package AssetManagement.AssetManagement.dto;
+
+import java.util.List;
+
+// Everything that changed since the previous delta token, plus the token to resume from next time
+public record MailboxChanges(List<InboundMail> messages, String deltaToken) {
+}
@@ -13,5 +13,8 @@ public class ResolutionStats {
     private Double max;
     private Integer ticketClosed;
     private Integer ticketOpened;
+    // Estimated from the rollup histogram; averages hide the long tail
+    private Double p50;
+    private Double p90;
     // constructor, getters
 }
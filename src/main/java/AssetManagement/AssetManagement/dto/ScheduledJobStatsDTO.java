@@ -0,0 +1,27 @@
+package AssetManagement.AssetManagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledJobStatsDTO {
+    private String name;
+    private boolean running;
+    private long runs;
+    private long failures;
+    // Runs skipped because the previous one had not finished
+    private long skipped;
+    // Runs left to the leader instance
+    private long skippedOnStandby;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private Long lastDurationMillis;
+    private Long maxDurationMillis;
+    private LocalDateTime lastFailedAt;
+    private String lastError;
+}
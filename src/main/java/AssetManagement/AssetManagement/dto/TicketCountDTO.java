@@ -0,0 +1,20 @@
+package AssetManagement.AssetManagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One GROUP BY bucket of the ticket dashboard queries
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketCountDTO {
+    private String label;
+    private Long count;
+
+    public TicketCountDTO(LocalDate day, Long count) {
+        this(day != null ? day.toString() : null, count);
+    }
+}
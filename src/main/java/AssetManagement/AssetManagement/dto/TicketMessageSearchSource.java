@@ -0,0 +1,9 @@
+package AssetManagement.AssetManagement.dto;
+
+// Message body and sender fed to the full-text search index
+public record TicketMessageSearchSource(
+        Long ticketId,
+        String message,
+        String senderName
+) {
+}
@@ -0,0 +1,20 @@
+package AssetManagement.AssetManagement.dto;
+
+import AssetManagement.AssetManagement.enums.TicketDepartment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Just the columns of a closed ticket that feed the resolution rollup
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketResolutionSampleDTO {
+    private Long id;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private TicketDepartment ticketDepartment;
+    private Long assigneeId;
+}
@@ -0,0 +1,12 @@
+package AssetManagement.AssetManagement.dto;
+
+// Ticket columns fed to the full-text search index
+public record TicketSearchSource(
+        Long id,
+        String title,
+        String description,
+        String employeeName,
+        String assigneeName,
+        String locationName
+) {
+}
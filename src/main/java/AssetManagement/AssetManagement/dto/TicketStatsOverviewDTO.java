@@ -0,0 +1,20 @@
+package AssetManagement.AssetManagement.dto;
+
+import AssetManagement.AssetManagement.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketStatsOverviewDTO {
+    private Map<TicketStatus, Long> byStatus;
+    private Map<String, Long> createdPerDay;
+    private Map<String, Long> byCategory;
+    private Map<String, Long> byAssignee;
+    private Map<String, Long> byLocation;
+    private Map<String, Long> topReporters;
+}
@@ -0,0 +1,37 @@
+package AssetManagement.AssetManagement.dto;
+
+import AssetManagement.AssetManagement.enums.TicketCategory;
+import AssetManagement.AssetManagement.enums.TicketDepartment;
+import AssetManagement.AssetManagement.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Lightweight row for ticket list screens (view=summary); no description or messages.
+// Field order must match the constructor expressions in TicketRepository / TicketRepositoryImpl.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketSummaryDTO {
+    private Long id;
+    private String title;
+    private TicketStatus status;
+    private TicketCategory category;
+    private TicketDepartment ticketDepartment;
+    private String employeeId;
+    private String employeeName;
+    private String assigneeId;
+    private String assigneeName;
+    private Long locationId;
+    private String locationName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Same rule as TicketDTO: 3 days after creation. The due_date column is not read; tickets
+    // created from mail never set it
+    public LocalDateTime getDueDate() {
+        return createdAt != null ? createdAt.plusDays(3) : null;
+    }
+}
@@ -22,6 +22,8 @@ public class AssetDocument {
     @Column(nullable = false)
     private String documentUrl;  // Store document file path or URL
 
+    private String fileName; // Name the document was uploaded with, for downloads
+
     @ManyToOne
     @JoinColumn(name = "asset_id", nullable = false)
     @JsonBackReference
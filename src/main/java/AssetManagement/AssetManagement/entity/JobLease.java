@@ -0,0 +1,33 @@
+package AssetManagement.AssetManagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A named lease held by one instance until it expires; times are the database's clock
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "job_leases")
+public class JobLease {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(6)")
+    private LocalDateTime acquiredAt;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(6)")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,28 @@
+package AssetManagement.AssetManagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Delta token of the last fully processed mailbox sync
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "mailbox_sync_state")
+public class MailboxSyncState {
+
+    @Id
+    private String mailbox;
+
+    @Column(columnDefinition = "TEXT")
+    private String deltaToken;
+
+    private LocalDateTime lastSyncedAt;
+}
@@ -0,0 +1,73 @@
+package AssetManagement.AssetManagement.entity;
+
+import AssetManagement.AssetManagement.enums.OutboundMailStatus;
+import AssetManagement.AssetManagement.enums.OutboundMailType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A mail waiting to go out through Graph. Rows are written in the same transaction as the
+ * ticket change that triggers them and sent by MailOutboxDispatcher after commit.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "outbound_mail",
+        indexes = @Index(name = "idx_outbound_mail_due", columnList = "status, next_attempt_at"))
+public class OutboundMail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboundMailType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboundMailStatus status;
+
+    private Long ticketId;
+
+    @Column(nullable = false)
+    private String toEmail;
+
+    // Comma-separated
+    @Column(columnDefinition = "TEXT")
+    private String ccEmails;
+
+    @Column(length = 1000)
+    private String subject;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String bodyHtml;
+
+    // internetMessageId of the mail to reply to; replies fall back to the ticket's thread
+    @Column(length = 998)
+    private String inReplyToMessageId;
+
+    // Our own internetMessageId for this mail, fixed before the first attempt so a retry
+    // can find out whether an earlier attempt went out after all
+    @Column(length = 998)
+    private String internetMessageId;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 2000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,31 @@
+package AssetManagement.AssetManagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// An inbound mail that has already produced its ticket or reply; keyed by a hash of its Internet Message-ID
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "processed_inbound_mail")
+public class ProcessedInboundMail {
+
+    @Id
+    @Column(length = 64)
+    private String messageKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String internetMessageId;
+
+    private Long ticketId;
+
+    private LocalDateTime processedAt;
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.annotation.Nonnull;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
@@ -15,6 +16,7 @@ import java.util.List;
 @Data
 @ToString(exclude = "locations")
 @Builder
+@BatchSize(size = 100)
 public class Site {
 
     @Id
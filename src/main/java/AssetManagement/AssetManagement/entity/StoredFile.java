@@ -0,0 +1,40 @@
+package AssetManagement.AssetManagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One blob in the content-addressed upload store. Photos, documents and attachments with
+ * the same bytes share a row; refCount is the number of records pointing at it.
+ */
+@Entity
+@Table(name = "stored_files",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stored_files_sha256", columnNames = "sha256"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoredFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    private long size;
+
+    private String contentType;
+
+    // Relative to the storage root, e.g. ab/cd/abcd...
+    @Column(nullable = false)
+    private String storagePath;
+
+    private int refCount;
+
+    private LocalDateTime createdAt;
+}
@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.antlr.v4.runtime.misc.NotNull;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -18,6 +19,11 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_ticket_employee_created", columnList = "employee, created_at"),
+        @Index(name = "idx_ticket_assignee_created", columnList = "assignee, created_at"),
+        @Index(name = "idx_ticket_created_id", columnList = "created_at, id")
+})
 public class Ticket {
 
         @Id
@@ -58,6 +64,7 @@ public class Ticket {
         private LocalDateTime dueDate;
 
         @ElementCollection
+        @BatchSize(size = 100)
         private List<String> ccEmails; // Store CC'd email addresses
 
         @ManyToOne
@@ -74,5 +81,8 @@ public class Ticket {
         @Column(name = "attachment_path")
         private String attachmentPath; // File system path to the attachment
 
+        @Column(name = "attachment_name")
+        private String attachmentName; // Name the attachment was uploaded with, for downloads
+
 }
 
@@ -0,0 +1,63 @@
+package AssetManagement.AssetManagement.entity;
+
+import AssetManagement.AssetManagement.enums.TicketDepartment;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resolution times of closed tickets, rolled up per creation day, department and assignee.
+ * Buckets are keyed on the ticket's creation day so they line up with the weekly/monthly
+ * "opened" counts on the resolution dashboard.
+ * <p>
+ * Department and assignee may be null, and a unique index does not compare NULLs, so the
+ * bucket is made unique through {@code bucket_key}, which spells out all three parts.
+ */
+@Entity
+@Table(name = "ticket_resolution_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_bucket_key", columnNames = "bucket_key"),
+        indexes = {
+                @Index(name = "idx_rollup_bucket", columnList = "bucket_date, ticket_department, assignee_id"),
+                @Index(name = "idx_rollup_assignee_date", columnList = "assignee_id, bucket_date")
+        })
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TicketResolutionRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // "<day>|<department>|<assigneeId>", empty parts for null; rows from before it was added have none
+    @Column(name = "bucket_key", length = 64)
+    private String bucketKey;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ticket_department")
+    private TicketDepartment ticketDepartment;
+
+    @Column(name = "assignee_id")
+    private Long assigneeId;
+
+    private long closedCount;
+
+    private long sumMinutes;
+
+    private Long minMinutes;
+
+    private Long maxMinutes;
+
+    // ResolutionHistogram bucket counts
+    @Column(length = 512)
+    private String histogram;
+
+    private LocalDateTime updatedAt;
+}
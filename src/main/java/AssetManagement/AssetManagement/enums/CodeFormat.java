@@ -0,0 +1,6 @@
+package AssetManagement.AssetManagement.enums;
+
+public enum CodeFormat {
+    QR,
+    BARCODE
+}
@@ -0,0 +1,8 @@
+package AssetManagement.AssetManagement.enums;
+
+public enum OutboundMailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package AssetManagement.AssetManagement.enums;
+
+public enum OutboundMailType {
+    MESSAGE,                // Plain sendMail; can go out in a Graph $batch
+    TICKET_REPLY,           // Reply in the ticket's mail thread
+    TICKET_ACKNOWLEDGMENT   // First mail of a ticket; records the thread ids on the ticket
+}
@@ -0,0 +1,25 @@
+package AssetManagement.AssetManagement.enums;
+
+import java.util.Locale;
+
+/** Downscaled JPEG copies kept next to each asset photo. */
+public enum PhotoVariant {
+    THUMB(240),
+    MEDIUM(1024);
+
+    // Longest side in pixels
+    private final int maxDimension;
+
+    PhotoVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /** Name used in URLs and derivative file names. */
+    public String pathName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
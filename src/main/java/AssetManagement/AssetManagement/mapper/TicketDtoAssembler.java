@@ -0,0 +1,154 @@
+package AssetManagement.AssetManagement.mapper;
+
+import AssetManagement.AssetManagement.dto.TicketDTO;
+import AssetManagement.AssetManagement.dto.TicketMessageDTO;
+import AssetManagement.AssetManagement.dto.UserDTO;
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.entity.TicketMessage;
+import AssetManagement.AssetManagement.entity.User;
+import AssetManagement.AssetManagement.enums.TicketStatus;
+import AssetManagement.AssetManagement.repository.TicketMessageRepository;
+import AssetManagement.AssetManagement.service.UserService;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Builds {@link TicketDTO}s for a whole page of tickets at once.
+ * Messages (with their senders) are loaded with one query per chunk of tickets
+ * instead of one query per ticket, and each user is converted to a DTO only once.
+ */
+@Component
+public class TicketDtoAssembler {
+
+    // Keeps the IN (...) list bounded for exports that assemble thousands of tickets
+    private static final int MESSAGE_FETCH_CHUNK = 500;
+
+    private final TicketMessageRepository ticketMessageRepository;
+    private final UserService userService;
+
+    public TicketDtoAssembler(TicketMessageRepository ticketMessageRepository, UserService userService) {
+        this.ticketMessageRepository = ticketMessageRepository;
+        this.userService = userService;
+    }
+
+    public TicketDTO toDTO(Ticket ticket) {
+        return toDTOs(List.of(ticket)).get(0);
+    }
+
+    public List<TicketDTO> toDTOs(List<Ticket> tickets) {
+        if (tickets == null || tickets.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<TicketMessage>> messagesByTicket = loadMessages(tickets);
+        Map<Long, UserDTO> userDtos = new HashMap<>();
+
+        List<TicketDTO> result = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            List<TicketMessage> messages = messagesByTicket.getOrDefault(ticket.getId(), Collections.emptyList());
+            result.add(assemble(ticket, messages, userDtos));
+        }
+        return result;
+    }
+
+    private Map<Long, List<TicketMessage>> loadMessages(List<Ticket> tickets) {
+        List<Long> ticketIds = tickets.stream()
+                .map(Ticket::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Map<Long, List<TicketMessage>> messagesByTicket = new HashMap<>();
+        for (int from = 0; from < ticketIds.size(); from += MESSAGE_FETCH_CHUNK) {
+            List<Long> chunk = ticketIds.subList(from, Math.min(from + MESSAGE_FETCH_CHUNK, ticketIds.size()));
+            for (TicketMessage message : ticketMessageRepository.findByTicketIdInWithSender(chunk)) {
+                messagesByTicket.computeIfAbsent(message.getTicket().getId(), k -> new ArrayList<>()).add(message);
+            }
+        }
+        return messagesByTicket;
+    }
+
+    private TicketDTO assemble(Ticket ticket, List<TicketMessage> messageEntities, Map<Long, UserDTO> userDtos) {
+        Long employeeId = ticket.getEmployee() != null ? ticket.getEmployee().getId() : null;
+
+        // Single pass: message DTOs, first response and the latest activity
+        List<TicketMessageDTO> messages = new ArrayList<>(messageEntities.size());
+        LocalDateTime firstRespondedAt = null;
+        LocalDateTime lastUpdated = ticket.getUpdatedAt();
+
+        for (TicketMessage message : messageEntities) {
+            messages.add(convertMessageToDTO(message));
+
+            LocalDateTime sentAt = message.getSentAt();
+            if (sentAt == null) {
+                continue;
+            }
+            // Same rule as TicketMapper: the first message from anyone but the ticket's employee
+            if (employeeId != null && message.getSender() != null
+                    && !employeeId.equals(message.getSender().getId())
+                    && (firstRespondedAt == null || sentAt.isBefore(firstRespondedAt))) {
+                firstRespondedAt = sentAt;
+            }
+            if (lastUpdated == null || sentAt.isAfter(lastUpdated)) {
+                lastUpdated = sentAt;
+            }
+        }
+
+        // Due Date — 3 days after ticket creation
+        LocalDateTime dueDate = ticket.getCreatedAt() != null
+                ? ticket.getCreatedAt().plusDays(3)
+                : null;
+
+        // Closed At — only if ticket is closed
+        LocalDateTime closedAt = (ticket.getStatus() == TicketStatus.CLOSED)
+                ? ticket.getUpdatedAt()
+                : null;
+
+        return new TicketDTO(
+                ticket.getId(),
+                ticket.getTitle(),
+                ticket.getDescription(),
+                ticket.getCategory(),
+                ticket.getStatus(),
+                toUserDto(ticket.getEmployee(), userDtos),
+                ticket.getCreatedBy(),
+                toUserDto(ticket.getAssignee(), userDtos),
+                ticket.getAsset() != null ? ticket.getAsset().getAssetTag() : null,
+                ticket.getAsset() != null ? ticket.getAsset().getName() : "Other",
+                ticket.getLocation() != null ? ticket.getLocation().getName() : null,
+                ticket.getLocation() != null ? ticket.getLocation().getId() : null,
+                ticket.getTicketDepartment(),
+                ticket.getCcEmails(),
+                ticket.getCreatedAt(),
+                ticket.getUpdatedAt(),
+                messages,
+                firstRespondedAt,
+                lastUpdated,
+                dueDate,
+                closedAt,
+                ticket.getAttachmentPath()
+        );
+    }
+
+    private UserDTO toUserDto(User user, Map<Long, UserDTO> userDtos) {
+        if (user == null) {
+            return null;
+        }
+        if (user.getId() == null) {
+            return userService.convertUserToDto(user);
+        }
+        return userDtos.computeIfAbsent(user.getId(), id -> userService.convertUserToDto(user));
+    }
+
+    public TicketMessageDTO convertMessageToDTO(TicketMessage ticketMessage) {
+        return new TicketMessageDTO(
+                ticketMessage.getId(),
+                ticketMessage.getMessage(),
+                ticketMessage.getSender().getUsername(),
+                ticketMessage.getSentAt(),
+                ticketMessage.getTicketMessageType()
+        );
+    }
+}
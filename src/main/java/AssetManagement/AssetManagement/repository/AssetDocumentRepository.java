@@ -4,8 +4,13 @@ import AssetManagement.AssetManagement.entity.Asset;
 import AssetManagement.AssetManagement.entity.AssetDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
+import java.util.Optional;
 
 public interface AssetDocumentRepository extends JpaRepository<AssetDocument, Long> {
     List<AssetDocument> findByAsset(Asset asset);
+
+    Optional<AssetDocument> findFirstByDocumentUrlOrderByIdDesc(String documentUrl);
+
+    Optional<AssetDocument> findFirstByAssetAndDocumentUrl(Asset asset, String documentUrl);
 }
 
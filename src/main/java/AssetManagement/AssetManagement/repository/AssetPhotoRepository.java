@@ -4,8 +4,11 @@ import AssetManagement.AssetManagement.entity.Asset;
 import AssetManagement.AssetManagement.entity.AssetPhoto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
+import java.util.Optional;
 
 public interface AssetPhotoRepository extends JpaRepository<AssetPhoto, Long> {
     List<AssetPhoto> findByAsset(Asset asset);
+
+    Optional<AssetPhoto> findFirstByAssetAndPhotoUrl(Asset asset, String photoUrl);
 }
 
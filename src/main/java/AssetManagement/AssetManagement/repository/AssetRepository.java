@@ -1,17 +1,23 @@
 package AssetManagement.AssetManagement.repository;
 
+import AssetManagement.AssetManagement.dto.AssetPrintRow;
+import AssetManagement.AssetManagement.dto.AssetSearchDocument;
 import AssetManagement.AssetManagement.entity.Asset;
 import AssetManagement.AssetManagement.entity.User;
 import AssetManagement.AssetManagement.enums.AssetStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-public interface AssetRepository extends JpaRepository<Asset, Long>, JpaSpecificationExecutor<Asset> {
+public interface AssetRepository extends JpaRepository<Asset, Long>, JpaSpecificationExecutor<Asset>, AssetRepositoryCustom {
     List<Asset> findByAssignedUser(User user);
     List<Asset> findByNameContainingIgnoreCaseOrSerialNumberContainingIgnoreCase(String name, String serialNumber);
     List<Asset> findByLocationId(Long locationId);
@@ -19,8 +25,46 @@ public interface AssetRepository extends JpaRepository<Asset, Long>, JpaSpecific
     Optional<Asset> findBySerialNumber(String serialNumber);
     List<Asset> findByStatus(AssetStatus status);
     Optional<Asset> findByAssetTag(String assetTag);
+    boolean existsByAssetTag(String assetTag);
     @Query("SELECT a.assetType AS name, COUNT(a) AS value FROM Asset a GROUP BY a.assetType")
     List<Map<String, Object>> countAssetsByType();
-    
+
+    @Query("SELECT new AssetManagement.AssetManagement.dto.AssetSearchDocument(" +
+            "a.id, a.name, a.serialNumber, a.brand, a.model, a.description) FROM Asset a")
+    List<AssetSearchDocument> findAllSearchDocuments();
+
+    @Query("SELECT new AssetManagement.AssetManagement.dto.AssetSearchDocument(" +
+            "a.id, a.name, a.serialNumber, a.brand, a.model, a.description) FROM Asset a WHERE a.assetTag IN :assetTags")
+    List<AssetSearchDocument> findSearchDocumentsByAssetTagIn(@Param("assetTags") Collection<String> assetTags);
+
+    // Native so soft-deleted assets count too; the unique constraint covers them
+    @Query(value = "SELECT serial_number FROM asset WHERE serial_number IN (:serialNumbers)", nativeQuery = true)
+    List<String> findExistingSerialNumbers(@Param("serialNumbers") Collection<String> serialNumbers);
+
+    @Query("SELECT a.assetTag FROM Asset a WHERE a.assetTag IN :assetTags")
+    List<String> findExistingAssetTags(@Param("assetTags") Collection<String> assetTags);
+
+    @Query("SELECT a.assetTag FROM Asset a WHERE a.site.id = :siteId ORDER BY a.assetTag")
+    List<String> findAssetTagsBySiteId(@Param("siteId") Long siteId);
+
+    // Keyset page of the label print feed, in id order
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.AssetPrintRow(a.id, a.assetTag)
+    FROM Asset a
+    WHERE a.id > :afterId
+      AND (:siteId IS NULL OR a.site.id = :siteId)
+      AND (:locationId IS NULL OR a.location.id = :locationId)
+      AND (:status IS NULL OR a.status = :status)
+      AND (:createdFrom IS NULL OR a.createdAt >= :createdFrom)
+      AND (:createdTo IS NULL OR a.createdAt < :createdTo)
+    ORDER BY a.id
+""")
+    List<AssetPrintRow> findPrintRowsAfter(@Param("afterId") Long afterId,
+                                           @Param("siteId") Long siteId,
+                                           @Param("locationId") Long locationId,
+                                           @Param("status") AssetStatus status,
+                                           @Param("createdFrom") LocalDateTime createdFrom,
+                                           @Param("createdTo") LocalDateTime createdTo,
+                                           Pageable pageable);
 }
 
@@ -0,0 +1,12 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.entity.Asset;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface AssetRepositoryCustom {
+
+    // Ids of the assets matching spec, without loading the entities
+    List<Long> findIds(Specification<Asset> spec);
+}
@@ -0,0 +1,39 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Renews our own lease or takes over an expired one; returns 1 when we hold it afterwards.
+    // acquired_at is assigned first because MySQL evaluates SET left to right
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE job_leases
+    SET acquired_at = CASE WHEN owner = :owner THEN acquired_at ELSE NOW(6) END,
+        owner = :owner,
+        expires_at = TIMESTAMPADD(MICROSECOND, :ttlMillis * 1000, NOW(6))
+    WHERE name = :name AND (owner = :owner OR expires_at < NOW(6))
+""", nativeQuery = true)
+    int renewOrTakeOver(@Param("name") String name, @Param("owner") String owner, @Param("ttlMillis") long ttlMillis);
+
+    // First holder of a lease that has never existed; returns 0 if another instance inserted it first
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT IGNORE INTO job_leases (name, owner, acquired_at, expires_at)
+    VALUES (:name, :owner, NOW(6), TIMESTAMPADD(MICROSECOND, :ttlMillis * 1000, NOW(6)))
+""", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("owner") String owner, @Param("ttlMillis") long ttlMillis);
+
+    // Lets another instance take over at once instead of waiting for expiry
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE job_leases SET expires_at = NOW(6) WHERE name = :name AND owner = :owner", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,7 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.entity.MailboxSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MailboxSyncStateRepository extends JpaRepository<MailboxSyncState, String> {
+}
@@ -0,0 +1,46 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.entity.OutboundMail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+    @Query("""
+    SELECT m.id FROM OutboundMail m
+    WHERE m.status = AssetManagement.AssetManagement.enums.OutboundMailStatus.PENDING
+      AND m.nextAttemptAt <= :now
+    ORDER BY m.id
+""")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Returns 1 only for the dispatcher that wins the row
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE OutboundMail m
+    SET m.status = AssetManagement.AssetManagement.enums.OutboundMailStatus.SENDING, m.claimedAt = :now
+    WHERE m.id = :id AND m.status = AssetManagement.AssetManagement.enums.OutboundMailStatus.PENDING
+""")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Rows left in SENDING by a crashed or killed dispatcher go back to the queue. That send
+    // may have reached Graph, so it counts as an attempt and the retry checks for it first
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE OutboundMail m
+    SET m.status = AssetManagement.AssetManagement.enums.OutboundMailStatus.PENDING,
+        m.attempts = m.attempts + 1
+    WHERE m.status = AssetManagement.AssetManagement.enums.OutboundMailStatus.SENDING
+      AND m.claimedAt < :cutoff
+""")
+    int releaseStale(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,7 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.entity.ProcessedInboundMail;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProcessedInboundMailRepository extends JpaRepository<ProcessedInboundMail, String> {
+}
@@ -189,10 +189,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -207,6 +210,10 @@ public interface SimCardRepository extends JpaRepository<SimCard, Long>, JpaSpec
 
     boolean existsByPhoneNumber(String trim);
 
+    // Duplicate check for a whole import batch
+    @Query("SELECT s.phoneNumber FROM SimCard s WHERE s.phoneNumber IN :phoneNumbers")
+    List<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
     // ---- shared Specification builder ----
     private Specification<SimCard> buildFilterSpec(
             String phoneNumber,
@@ -0,0 +1,41 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+
+    Optional<StoredFile> findBySha256(String sha256);
+
+    // Creates the row without references unless it exists; atomic, so concurrent uploads of the same bytes are safe
+    @Modifying
+    @Query(value = """
+    INSERT INTO stored_files (sha256, size, content_type, storage_path, ref_count, created_at)
+    VALUES (:sha256, :size, :contentType, :storagePath, 0, :createdAt)
+    ON DUPLICATE KEY UPDATE ref_count = ref_count
+""", nativeQuery = true)
+    void insertIfAbsent(@Param("sha256") String sha256,
+                        @Param("size") long size,
+                        @Param("contentType") String contentType,
+                        @Param("storagePath") String storagePath,
+                        @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount + 1 WHERE f.sha256 = :sha256")
+    int addReference(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.sha256 = :sha256 AND f.refCount > 0")
+    int releaseReference(@Param("sha256") String sha256);
+
+    // Only succeeds for a row nothing points at; keeps it locked until the caller's transaction ends
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.sha256 = :sha256 AND f.refCount = 0")
+    int deleteUnreferenced(@Param("sha256") String sha256);
+}
@@ -1,9 +1,13 @@
 package AssetManagement.AssetManagement.repository;
 
+import AssetManagement.AssetManagement.dto.TicketMessageSearchSource;
 import AssetManagement.AssetManagement.entity.Ticket;
 import AssetManagement.AssetManagement.entity.TicketMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +20,21 @@ public interface TicketMessageRepository extends JpaRepository<TicketMessage, Lo
     TicketMessage findTopByTicketOrderBySentAtAsc(Ticket ticket);
 //    List<TicketMessage> findByTicket(Ticket ticket);
 
+    @Query("""
+    SELECT m FROM TicketMessage m
+    JOIN FETCH m.sender
+    LEFT JOIN FETCH m.statusUpdatedBy
+    WHERE m.ticket.id IN :ticketIds
+    ORDER BY m.id
+""")
+    List<TicketMessage> findByTicketIdInWithSender(@Param("ticketIds") Collection<Long> ticketIds);
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketMessageSearchSource(m.ticket.id, m.message, s.username)
+    FROM TicketMessage m
+    LEFT JOIN m.sender s
+    WHERE m.ticket.id IN :ticketIds
+""")
+    List<TicketMessageSearchSource> findSearchSourcesByTicketIdIn(@Param("ticketIds") Collection<Long> ticketIds);
+
 }
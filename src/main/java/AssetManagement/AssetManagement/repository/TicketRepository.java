@@ -1,5 +1,9 @@
 package AssetManagement.AssetManagement.repository;
 
+import AssetManagement.AssetManagement.dto.TicketCountDTO;
+import AssetManagement.AssetManagement.dto.TicketResolutionSampleDTO;
+import AssetManagement.AssetManagement.dto.TicketSearchSource;
+import AssetManagement.AssetManagement.dto.TicketSummaryDTO;
 import AssetManagement.AssetManagement.enums.TicketCategory;
 import AssetManagement.AssetManagement.entity.Location;
 import AssetManagement.AssetManagement.entity.Ticket;
@@ -13,9 +17,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -23,7 +29,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket>, TicketRepositoryCustom {
     List<Ticket> findByEmployee(User user);
 
     List<Ticket> findByAssignee(User senderUser);
@@ -32,6 +38,19 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
 
     int countByAssignee(User assignee);
 
+    // Touches only the mail thread ids, so a send that took seconds cannot overwrite other edits
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Ticket t
+    SET t.messageId = :messageId,
+        t.internetMessageId = COALESCE(:internetMessageId, t.internetMessageId)
+    WHERE t.id = :id
+""")
+    int updateMailThreadIds(@Param("id") Long id,
+                            @Param("messageId") String messageId,
+                            @Param("internetMessageId") String internetMessageId);
+
     @NotNull
     Page<Ticket> findAll(Specification<Ticket> spec, Pageable pageable);
 
@@ -47,6 +66,67 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
 
     List<Ticket> findByAssigneeAndStatus(User assignee, TicketStatus status);
 
+    @Query(value = """
+    SELECT t FROM Ticket t
+    WHERE (t.employee = :user OR t.assignee = :user)
+      AND (:status IS NULL OR t.status = :status)
+""", countQuery = """
+    SELECT COUNT(t) FROM Ticket t
+    WHERE (t.employee = :user OR t.assignee = :user)
+      AND (:status IS NULL OR t.status = :status)
+""")
+    Page<Ticket> findByEmployeeOrAssignee(
+            @Param("user") User user,
+            @Param("status") TicketStatus status,
+            Pageable pageable
+    );
+
+    @Query(value = """
+    SELECT new AssetManagement.AssetManagement.dto.TicketSummaryDTO(
+      t.id, t.title, t.status, t.category, t.ticketDepartment,
+      e.employeeId, e.username, a.employeeId, a.username,
+      l.id, l.name, t.createdAt, t.updatedAt
+    )
+    FROM Ticket t
+    LEFT JOIN t.employee e
+    LEFT JOIN t.assignee a
+    LEFT JOIN t.location l
+    WHERE (t.employee = :user OR t.assignee = :user)
+      AND (:status IS NULL OR t.status = :status)
+""", countQuery = """
+    SELECT COUNT(t) FROM Ticket t
+    WHERE (t.employee = :user OR t.assignee = :user)
+      AND (:status IS NULL OR t.status = :status)
+""")
+    Page<TicketSummaryDTO> findSummariesByEmployeeOrAssignee(
+            @Param("user") User user,
+            @Param("status") TicketStatus status,
+            Pageable pageable
+    );
+
+    @Query(value = """
+    SELECT new AssetManagement.AssetManagement.dto.TicketSummaryDTO(
+      t.id, t.title, t.status, t.category, t.ticketDepartment,
+      e.employeeId, e.username, a.employeeId, a.username,
+      l.id, l.name, t.createdAt, t.updatedAt
+    )
+    FROM Ticket t
+    LEFT JOIN t.employee e
+    LEFT JOIN t.assignee a
+    LEFT JOIN t.location l
+    WHERE (:department IS NULL OR t.ticketDepartment = :department)
+      AND (:status IS NULL OR t.status = :status)
+""", countQuery = """
+    SELECT COUNT(t) FROM Ticket t
+    WHERE (:department IS NULL OR t.ticketDepartment = :department)
+      AND (:status IS NULL OR t.status = :status)
+""")
+    Page<TicketSummaryDTO> findSummariesByDepartmentAndStatus(
+            @Param("department") TicketDepartment department,
+            @Param("status") TicketStatus status,
+            Pageable pageable
+    );
+
     Long countByStatus(TicketStatus status);
 
     @Query("SELECT t FROM Ticket t WHERE t.status = 'OPEN' AND t.createdAt <= :sevenDaysAgo")
@@ -109,5 +189,157 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
 
 
     List<Ticket> findByAssigneeAndCreatedAtBetween(User user, LocalDateTime filterStartDate, LocalDateTime now);
-}
 
+
+    // Dashboard aggregations: grouped in the database, one row per bucket
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(CAST(t.status AS String), COUNT(t))
+    FROM Ticket t
+    GROUP BY t.status
+""")
+    List<TicketCountDTO> countGroupedByStatus();
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(CAST(t.createdAt AS LocalDate), COUNT(t))
+    FROM Ticket t
+    WHERE t.createdAt BETWEEN :start AND :end
+    GROUP BY CAST(t.createdAt AS LocalDate)
+""")
+    List<TicketCountDTO> countCreatedPerDay(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(CAST(t.category AS String), COUNT(t))
+    FROM Ticket t
+    WHERE t.createdAt BETWEEN :start AND :end
+    GROUP BY t.category
+""")
+    List<TicketCountDTO> countGroupedByCategory(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(a.username, COUNT(t))
+    FROM Ticket t
+    LEFT JOIN t.assignee a
+    WHERE t.createdAt BETWEEN :start AND :end
+      AND (
+          (:isHrUser = true AND t.ticketDepartment = 'HR') OR
+          (:isHrUser = false AND t.ticketDepartment <> 'HR')
+      )
+    GROUP BY a.username
+""")
+    List<TicketCountDTO> countGroupedByAssignee(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("isHrUser") boolean isHrUser
+    );
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(l.name, COUNT(t))
+    FROM Ticket t
+    JOIN t.location l
+    WHERE t.createdAt BETWEEN :start AND :end
+    GROUP BY l.name
+""")
+    List<TicketCountDTO> countGroupedByLocation(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Reporters who are not IT executives, busiest first; limit through the Pageable
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(e.username, COUNT(t))
+    FROM Ticket t
+    JOIN t.employee e
+    WHERE t.createdAt BETWEEN :start AND :end
+      AND e.id NOT IN (SELECT la.itExecutive.id FROM LocationAssignment la)
+    GROUP BY e.username
+    ORDER BY COUNT(t) DESC
+""")
+    List<TicketCountDTO> countTopReporters(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Pageable pageable
+    );
+
+
+    // Resolution rollup: closed tickets reduced to the columns the rollup needs
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketResolutionSampleDTO(
+        t.id, t.createdAt, t.updatedAt, t.ticketDepartment, a.id)
+    FROM Ticket t
+    LEFT JOIN t.assignee a
+    WHERE t.status = AssetManagement.AssetManagement.enums.TicketStatus.CLOSED
+      AND t.createdAt IS NOT NULL AND t.updatedAt IS NOT NULL
+      AND t.id > :afterId
+    ORDER BY t.id
+""")
+    List<TicketResolutionSampleDTO> findResolutionSamplesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketResolutionSampleDTO(
+        t.id, t.createdAt, t.updatedAt, t.ticketDepartment, a.id)
+    FROM Ticket t
+    LEFT JOIN t.assignee a
+    WHERE t.status = AssetManagement.AssetManagement.enums.TicketStatus.CLOSED
+      AND t.createdAt >= :start AND t.createdAt < :end
+      AND t.updatedAt IS NOT NULL
+      AND ((:department IS NULL AND t.ticketDepartment IS NULL) OR t.ticketDepartment = :department)
+      AND ((:assigneeId IS NULL AND a.id IS NULL) OR a.id = :assigneeId)
+""")
+    List<TicketResolutionSampleDTO> findResolutionSamplesForBucket(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("department") TicketDepartment department,
+            @Param("assigneeId") Long assigneeId
+    );
+
+    @Query("""
+    SELECT COUNT(t) FROM Ticket t
+    WHERE t.createdAt IS NOT NULL
+      AND (t.ticketDepartment IS NULL OR t.ticketDepartment <> AssetManagement.AssetManagement.enums.TicketDepartment.HR)
+""")
+    long countOpenedExcludingHr();
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(CAST(t.createdAt AS LocalDate), COUNT(t))
+    FROM Ticket t
+    WHERE t.createdAt >= :start
+      AND (t.ticketDepartment IS NULL OR t.ticketDepartment <> AssetManagement.AssetManagement.enums.TicketDepartment.HR)
+    GROUP BY CAST(t.createdAt AS LocalDate)
+""")
+    List<TicketCountDTO> countOpenedPerDayExcludingHr(@Param("start") LocalDateTime start);
+
+    @Query("""
+    SELECT new AssetManagement.AssetManagement.dto.TicketCountDTO(CAST(t.createdAt AS LocalDate), COUNT(t))
+    FROM Ticket t
+    WHERE t.assignee = :assignee
+      AND t.createdAt BETWEEN :start AND :end
+    GROUP BY CAST(t.createdAt AS LocalDate)
+""")
+    List<TicketCountDTO> countOpenedPerDayByAssignee(
+            @Param("assignee") User assignee,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    @Query("""
+        SELECT new AssetManagement.AssetManagement.dto.TicketSearchSource(
+            t.id, t.title, t.description, e.username, a.username, l.name)
+        FROM Ticket t
+        LEFT JOIN t.employee e
+        LEFT JOIN t.assignee a
+        LEFT JOIN t.location l
+        WHERE t.id > :afterId
+        ORDER BY t.id
+    """)
+    List<TicketSearchSource> findSearchSourcesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+        SELECT new AssetManagement.AssetManagement.dto.TicketSearchSource(
+            t.id, t.title, t.description, e.username, a.username, l.name)
+        FROM Ticket t
+        LEFT JOIN t.employee e
+        LEFT JOIN t.assignee a
+        LEFT JOIN t.location l
+        WHERE t.id = :id
+    """)
+    Optional<TicketSearchSource> findSearchSource(@Param("id") Long id);
+}
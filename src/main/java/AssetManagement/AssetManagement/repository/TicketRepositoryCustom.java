@@ -0,0 +1,26 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.dto.TicketSummaryDTO;
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.util.TicketCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TicketRepositoryCustom {
+
+    // Same filtering as findAll(spec, pageable) but selects only the summary columns
+    Page<TicketSummaryDTO> findSummaries(Specification<Ticket> spec, Pageable pageable);
+
+    // Keyset page ordered by (createdAt DESC, id DESC), null createdAt last; pass a null afterId for the first page
+    List<Ticket> findPageAfter(Specification<Ticket> spec, LocalDateTime afterCreatedAt, Long afterId, int limit);
+
+    // Only the (createdAt, id) keys of the matching tickets, for filtering full-text hits cheaply
+    List<TicketCursor> findKeys(Specification<Ticket> spec);
+
+    // Same keyset paging, projected to summary rows (nothing is attached to the persistence context)
+    List<TicketSummaryDTO> findSummariesAfter(Specification<Ticket> spec, LocalDateTime afterCreatedAt, Long afterId, int limit);
+}
@@ -0,0 +1,173 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.dto.TicketSummaryDTO;
+import AssetManagement.AssetManagement.entity.Location;
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.entity.User;
+import AssetManagement.AssetManagement.util.TicketCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public class TicketRepositoryImpl implements TicketRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TicketSummaryDTO> findSummaries(Specification<Ticket> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TicketSummaryDTO> query = cb.createQuery(TicketSummaryDTO.class);
+        Root<Ticket> root = query.from(Ticket.class);
+
+        query.select(summaryOf(root, cb));
+        applySpecification(spec, root, query, cb);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<TicketSummaryDTO> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<TicketSummaryDTO> content = typedQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<Ticket> findPageAfter(Specification<Ticket> spec, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        return findAfter(Ticket.class, (root, cb) -> root, spec, afterCreatedAt, afterId, limit);
+    }
+
+    @Override
+    public List<TicketSummaryDTO> findSummariesAfter(Specification<Ticket> spec, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        return findAfter(TicketSummaryDTO.class, this::summaryOf, spec, afterCreatedAt, afterId, limit);
+    }
+
+    @Override
+    public List<TicketCursor> findKeys(Specification<Ticket> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TicketCursor> query = cb.createQuery(TicketCursor.class);
+        Root<Ticket> root = query.from(Ticket.class);
+
+        query.select(cb.construct(TicketCursor.class, root.get("createdAt"), root.get("id")));
+        applySpecification(spec, root, query, cb);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /*
+     * Keyset paging in two phases, so that every query is a range scan on (created_at, id):
+     * first the dated tickets after the position, then, once those run out, the tickets without
+     * a createdAt by id. Both are ordered by createdAt DESC, id DESC; MySQL sorts NULLs last
+     * in a descending order, so a first page may already run into the undated tickets.
+     */
+    private <T> List<T> findAfter(Class<T> type, BiFunction<Root<Ticket>, CriteriaBuilder, Selection<? extends T>> selection,
+                                  Specification<Ticket> spec, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        List<T> page = new ArrayList<>();
+        if (afterId == null || afterCreatedAt != null) {
+            page.addAll(findRange(type, selection, spec, (root, cb) -> {
+                if (afterId == null) {
+                    return null;
+                }
+                Path<LocalDateTime> createdAt = root.get("createdAt");
+                return cb.or(
+                        cb.lessThan(createdAt, afterCreatedAt),
+                        cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(root.get("id"), afterId)));
+            }, limit));
+            // Without a position the first query already covered the undated tickets
+            if (afterId == null || page.size() == limit) {
+                return page;
+            }
+        }
+
+        // Coming from a dated position every undated ticket is still ahead
+        Long undatedAfterId = afterCreatedAt == null ? afterId : null;
+        page.addAll(findRange(type, selection, spec, (root, cb) -> undatedAfterId == null
+                ? cb.isNull(root.get("createdAt"))
+                : cb.and(cb.isNull(root.get("createdAt")), cb.lessThan(root.get("id"), undatedAfterId)),
+                limit - page.size()));
+        return page;
+    }
+
+    private <T> List<T> findRange(Class<T> type, BiFunction<Root<Ticket>, CriteriaBuilder, Selection<? extends T>> selection,
+                                  Specification<Ticket> spec, BiFunction<Root<Ticket>, CriteriaBuilder, Predicate> position,
+                                  int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<Ticket> root = query.from(Ticket.class);
+
+        query.select(selection.apply(root, cb));
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate specPredicate = spec.toPredicate(root, query, cb);
+            if (specPredicate != null) {
+                predicates.add(specPredicate);
+            }
+        }
+        Predicate positionPredicate = position.apply(root, cb);
+        if (positionPredicate != null) {
+            predicates.add(positionPredicate);
+        }
+        query.where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    long count(Specification<Ticket> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ticket> root = query.from(Ticket.class);
+
+        query.select(cb.count(root));
+        applySpecification(spec, root, query, cb);
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    CompoundSelection<TicketSummaryDTO> summaryOf(Root<Ticket> root, CriteriaBuilder cb) {
+        Join<Ticket, User> employee = root.join("employee", JoinType.LEFT);
+        Join<Ticket, User> assignee = root.join("assignee", JoinType.LEFT);
+        Join<Ticket, Location> location = root.join("location", JoinType.LEFT);
+
+        return cb.construct(TicketSummaryDTO.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("status"),
+                root.get("category"),
+                root.get("ticketDepartment"),
+                employee.get("employeeId"),
+                employee.get("username"),
+                assignee.get("employeeId"),
+                assignee.get("username"),
+                location.get("id"),
+                location.get("name"),
+                root.get("createdAt"),
+                root.get("updatedAt"));
+    }
+
+    static void applySpecification(Specification<Ticket> spec, Root<Ticket> root,
+                                   CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec == null) {
+            return;
+        }
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package AssetManagement.AssetManagement.repository;
+
+import AssetManagement.AssetManagement.entity.TicketResolutionRollup;
+import AssetManagement.AssetManagement.enums.TicketDepartment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TicketResolutionRollupRepository extends JpaRepository<TicketResolutionRollup, Long> {
+
+    // Creates the bucket or adds one closed ticket to it in a single statement; the row stays locked
+    // until commit. The histogram is left to the caller (see findHistogramForUpdate)
+    @Modifying
+    @Query(value = """
+    INSERT INTO ticket_resolution_rollup
+        (bucket_key, bucket_date, ticket_department, assignee_id,
+         closed_count, sum_minutes, min_minutes, max_minutes, updated_at)
+    VALUES (:bucketKey, :day, :department, :assigneeId, 1, :minutes, :minutes, :minutes, :now)
+    ON DUPLICATE KEY UPDATE
+        closed_count = closed_count + 1,
+        sum_minutes = sum_minutes + VALUES(sum_minutes),
+        min_minutes = LEAST(COALESCE(min_minutes, VALUES(min_minutes)), VALUES(min_minutes)),
+        max_minutes = GREATEST(COALESCE(max_minutes, VALUES(max_minutes)), VALUES(max_minutes)),
+        updated_at = VALUES(updated_at)
+""", nativeQuery = true)
+    void incrementBucket(@Param("bucketKey") String bucketKey,
+                         @Param("day") LocalDate day,
+                         @Param("department") String department,
+                         @Param("assigneeId") Long assigneeId,
+                         @Param("minutes") long minutes,
+                         @Param("now") LocalDateTime now);
+
+    // Creates the bucket empty unless it exists, so that it is locked until commit either way
+    @Modifying
+    @Query(value = """
+    INSERT INTO ticket_resolution_rollup
+        (bucket_key, bucket_date, ticket_department, assignee_id, closed_count, sum_minutes, updated_at)
+    VALUES (:bucketKey, :day, :department, :assigneeId, 0, 0, :now)
+    ON DUPLICATE KEY UPDATE closed_count = closed_count
+""", nativeQuery = true)
+    void lockBucket(@Param("bucketKey") String bucketKey,
+                    @Param("day") LocalDate day,
+                    @Param("department") String department,
+                    @Param("assigneeId") Long assigneeId,
+                    @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT histogram FROM ticket_resolution_rollup WHERE bucket_key = :bucketKey FOR UPDATE",
+            nativeQuery = true)
+    String findHistogramForUpdate(@Param("bucketKey") String bucketKey);
+
+    @Modifying
+    @Query(value = "UPDATE ticket_resolution_rollup SET histogram = :histogram WHERE bucket_key = :bucketKey",
+            nativeQuery = true)
+    void updateHistogram(@Param("bucketKey") String bucketKey, @Param("histogram") String histogram);
+
+    // Department and assignee may be null, so they are matched null-safe; this also catches rows without a bucket_key
+    @Modifying
+    @Query("""
+    DELETE FROM TicketResolutionRollup r
+    WHERE r.bucketDate = :day
+      AND ((:department IS NULL AND r.ticketDepartment IS NULL) OR r.ticketDepartment = :department)
+      AND ((:assigneeId IS NULL AND r.assigneeId IS NULL) OR r.assigneeId = :assigneeId)
+""")
+    void deleteBucket(
+            @Param("day") LocalDate day,
+            @Param("department") TicketDepartment department,
+            @Param("assigneeId") Long assigneeId
+    );
+
+    // Dashboard views exclude HR tickets; tickets without a department are included
+    @Query("""
+    SELECT r FROM TicketResolutionRollup r
+    WHERE r.ticketDepartment IS NULL OR r.ticketDepartment <> AssetManagement.AssetManagement.enums.TicketDepartment.HR
+""")
+    List<TicketResolutionRollup> findAllExcludingHr();
+
+    @Query("""
+    SELECT r FROM TicketResolutionRollup r
+    WHERE r.bucketDate >= :from
+      AND (r.ticketDepartment IS NULL OR r.ticketDepartment <> AssetManagement.AssetManagement.enums.TicketDepartment.HR)
+""")
+    List<TicketResolutionRollup> findExcludingHrSince(@Param("from") LocalDate from);
+
+    List<TicketResolutionRollup> findByAssigneeId(Long assigneeId);
+
+    List<TicketResolutionRollup> findByAssigneeIdAndBucketDateBetween(Long assigneeId, LocalDate from, LocalDate to);
+}
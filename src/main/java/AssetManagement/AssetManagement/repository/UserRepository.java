@@ -13,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +40,8 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
 
     boolean existsByEmployeeId(String employeeId);
 
+    List<User> findByEmployeeIdIn(Collection<String> employeeIds);
+
     boolean existsByEmail(String email);
 
     List<User> findAllByEmail(String senderEmail);
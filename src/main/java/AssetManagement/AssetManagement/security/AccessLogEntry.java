@@ -0,0 +1,14 @@
+package AssetManagement.AssetManagement.security;
+
+import java.time.LocalDateTime;
+
+// What the request thread captures; formatting and geo lookup happen on the writer thread
+public record AccessLogEntry(
+        LocalDateTime timestamp,
+        String method,
+        String uri,
+        String user,
+        String ip,
+        String userAgent
+) {
+}
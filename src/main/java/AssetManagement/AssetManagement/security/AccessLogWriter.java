@@ -0,0 +1,233 @@
+package AssetManagement.AssetManagement.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Access log pipeline: request threads publish entries into a bounded lock-free ring buffer
+ * and return immediately; one background thread resolves the location, formats the line and
+ * appends it to trace.txt. When the buffer is full the entry is dropped and counted rather
+ * than blocking the request.
+ * <p>
+ * The log rotates when it passes the size limit or the day changes; older files are
+ * renamed trace-yyyyMMdd-HHmmss.txt and only the newest few are kept.
+ */
+@Slf4j
+@Component
+public class AccessLogWriter {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS");
+    private static final DateTimeFormatter ROTATED_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final int CAPACITY = 8192; // power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Value("${app.accessLog.path:trace.txt}")
+    private String logPath;
+
+    @Value("${app.accessLog.maxSizeMb:20}")
+    private long maxSizeMb;
+
+    @Value("${app.accessLog.maxRotatedFiles:14}")
+    private int maxRotatedFiles;
+
+    private final GeoIpResolver geoIpResolver;
+
+    // Multi-producer / single-consumer ring: producers claim a sequence with CAS on head,
+    // then publish into the slot; the writer consumes from tail and clears each slot it reads
+    private final AtomicReferenceArray<AccessLogEntry> slots = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private Path logFile;
+    private BufferedWriter out;
+    private long currentSize;
+    private LocalDate currentDay;
+
+    public AccessLogWriter(GeoIpResolver geoIpResolver) {
+        this.geoIpResolver = geoIpResolver;
+    }
+
+    /** Never blocks and never touches the disk; returns false if the entry was dropped. */
+    public boolean publish(AccessLogEntry entry) {
+        while (true) {
+            long sequence = head.get();
+            if (sequence - tail.get() >= CAPACITY) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (head.compareAndSet(sequence, sequence + 1)) {
+                slots.lazySet((int) (sequence & MASK), entry);
+                return true;
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        logFile = Path.of(logPath);
+        running = true;
+        writerThread = new Thread(this::runWriter, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void runWriter() {
+        while (running || tail.get() != head.get()) {
+            int written = drain();
+            if (written == 0) {
+                flushQuietly();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        flushQuietly();
+        closeQuietly();
+    }
+
+    private int drain() {
+        int written = 0;
+        long sequence = tail.get();
+        while (sequence != head.get()) {
+            int index = (int) (sequence & MASK);
+            AccessLogEntry entry = slots.get(index);
+            if (entry == null) {
+                // Claimed but not yet published by its producer
+                break;
+            }
+            slots.set(index, null);
+            sequence++;
+            tail.set(sequence);
+
+            write(format(entry));
+            written++;
+        }
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            write(String.format("[%s] access log buffer full, %d entries dropped%n",
+                    LocalDateTime.now().format(FORMATTER), lost));
+        }
+        return written;
+    }
+
+    private String format(AccessLogEntry entry) {
+        return String.format("[%s] %s %s by %s from IP: %s | Agent: %s | Location: %s%n",
+                entry.timestamp().format(FORMATTER),
+                entry.method(),
+                entry.uri(),
+                entry.user(),
+                entry.ip(),
+                entry.userAgent(),
+                geoIpResolver.resolve(entry.ip()));
+    }
+
+    private void write(String line) {
+        try {
+            rotateIfNeeded();
+            out.write(line);
+            currentSize += line.getBytes(StandardCharsets.UTF_8).length;
+        } catch (IOException e) {
+            log.warn("Could not write access log: {}", e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        LocalDate today = LocalDate.now();
+        if (out != null && (currentSize >= maxSizeMb * 1024 * 1024 || !today.equals(currentDay))) {
+            closeQuietly();
+            if (Files.exists(logFile)) {
+                Path rotated = logFile.resolveSibling(rotatedName(LocalDateTime.now()));
+                Files.move(logFile, rotated, StandardCopyOption.REPLACE_EXISTING);
+            }
+            pruneRotated();
+        }
+        if (out == null) {
+            Path parent = logFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            out = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            currentSize = Files.size(logFile);
+            currentDay = today;
+        }
+    }
+
+    private String rotatedName(LocalDateTime time) {
+        String name = logFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return base + "-" + time.format(ROTATED_SUFFIX) + extension;
+    }
+
+    private void pruneRotated() throws IOException {
+        String name = logFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String prefix = (dot > 0 ? name.substring(0, dot) : name) + "-";
+        Path dir = logFile.toAbsolutePath().getParent();
+
+        List<Path> rotated = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().startsWith(prefix)).forEach(rotated::add);
+        }
+        // Names embed the timestamp, so lexical order is age order
+        rotated.sort(Comparator.comparing(p -> p.getFileName().toString()));
+        for (int i = 0; i < rotated.size() - maxRotatedFiles; i++) {
+            Files.deleteIfExists(rotated.get(i));
+        }
+    }
+
+    private void flushQuietly() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                log.warn("Could not flush access log: {}", e.getMessage());
+                closeQuietly();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            out = null;
+        }
+    }
+}
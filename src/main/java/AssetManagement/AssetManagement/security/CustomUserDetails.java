@@ -124,4 +124,9 @@ public class CustomUserDetails implements UserDetails {
     public boolean isEnabled() {
         return true;
     }
+
+    // May come from PrincipalCache and be shared between requests: read it, don't modify it
+    public User getUser() {
+        return user;
+    }
 }
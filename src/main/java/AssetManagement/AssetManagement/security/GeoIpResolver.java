@@ -0,0 +1,155 @@
+package AssetManagement.AssetManagement.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Offline IPv4 -> city lookup for the access log. The range file is loaded once into sorted
+ * primitive arrays and searched with a binary search; recent answers are kept in a small LRU.
+ * <p>
+ * File format, one range per line: {@code startIp,endIp,city} (dotted IPv4, inclusive).
+ * Lines starting with '#' are comments. Without the file every address resolves to "Unknown".
+ */
+@Slf4j
+@Component
+public class GeoIpResolver {
+
+    private static final String UNKNOWN = "Unknown";
+    private static final int RECENT_CACHE_SIZE = 2048;
+
+    @Value("${app.geoip.path:geoip/ip-ranges.csv}")
+    private String rangesPath;
+
+    private long[] rangeStarts = new long[0];
+    private long[] rangeEnds = new long[0];
+    private String[] rangeCities = new String[0];
+
+    private final LinkedHashMap<String, String> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > RECENT_CACHE_SIZE;
+        }
+    };
+
+    @PostConstruct
+    void load() {
+        Path path = Path.of(rangesPath);
+        if (!Files.isReadable(path)) {
+            log.warn("Geo IP range file {} not found; access log locations will be '{}'", path, UNKNOWN);
+            return;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        List<String> cities = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",", 3);
+                if (parts.length < 3) {
+                    continue;
+                }
+                long start = ipv4ToLong(parts[0].trim());
+                long end = ipv4ToLong(parts[1].trim());
+                if (start < 0 || end < start) {
+                    continue;
+                }
+                ranges.add(new long[]{start, end, cities.size()});
+                cities.add(parts[2].trim());
+            }
+        } catch (IOException e) {
+            log.warn("Could not read geo IP range file {}: {}", path, e.getMessage());
+            return;
+        }
+
+        ranges.sort(Comparator.comparingLong(r -> r[0]));
+        long[] starts = new long[ranges.size()];
+        long[] ends = new long[ranges.size()];
+        String[] names = new String[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            starts[i] = range[0];
+            ends[i] = range[1];
+            names[i] = cities.get((int) range[2]);
+        }
+
+        this.rangeStarts = starts;
+        this.rangeEnds = ends;
+        this.rangeCities = names;
+        log.info("Loaded {} geo IP ranges from {}", starts.length, path);
+    }
+
+    public String resolve(String ip) {
+        if (ip == null) {
+            return UNKNOWN;
+        }
+        if (ip.contains("localhost") || ip.startsWith("0:0") || ip.startsWith("127.")) {
+            return "Localhost";
+        }
+
+        synchronized (recent) {
+            String cached = recent.get(ip);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String city = lookup(ipv4ToLong(ip));
+        synchronized (recent) {
+            recent.put(ip, city);
+        }
+        return city;
+    }
+
+    private String lookup(long address) {
+        if (address < 0 || rangeStarts.length == 0) {
+            return UNKNOWN;
+        }
+        // Last range starting at or before the address
+        int index = Arrays.binarySearch(rangeStarts, address);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        if (index >= 0 && address <= rangeEnds[index]) {
+            return rangeCities[index];
+        }
+        return UNKNOWN;
+    }
+
+    // -1 for anything that isn't a dotted IPv4 address (IPv6 included)
+    static long ipv4ToLong(String ip) {
+        long result = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || value > 255) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                octets++;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? result : -1;
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -26,6 +27,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -33,10 +37,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String empId = jwtTokenProvider.getEmployeeIdFromJWT(token);  // ✅ Extract empId instead of username
+            // One signature check per request; the claims come back typed
+            Optional<JwtClaims> claims = StringUtils.hasText(token) ? jwtTokenProvider.verify(token) : Optional.empty();
+
+            if (claims.isPresent()) {
+                String empId = claims.get().employeeId();  // ✅ Extract empId instead of username
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(empId);
+                UserDetails userDetails = principalCache.get(empId,
+                        id -> (CustomUserDetails) userDetailsService.loadUserByUsername(id));
                 if (userDetails == null) {
                     response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "User not found with Employee ID: " + empId);
                     return;
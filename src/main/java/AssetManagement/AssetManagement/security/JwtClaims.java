@@ -0,0 +1,11 @@
+package AssetManagement.AssetManagement.security;
+
+import java.time.Instant;
+
+// The claims of a token whose signature and expiry have been verified
+public record JwtClaims(String employeeId, String role, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -3,25 +3,59 @@ package AssetManagement.AssetManagement.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
 
+    // Verified tokens kept so repeat requests with the same token skip HS512 verification
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 4096;
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    // Built once; both are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    // SHA-256 of the full token -> claims; access-ordered LRU guarded by "this"
+    private final LinkedHashMap<String, JwtClaims> verifiedTokens =
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JwtClaims> eldest) {
+                    return size() > VERIFIED_TOKEN_CACHE_SIZE;
+                }
+            };
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     // ✅ Generate Token using `empId`
@@ -36,39 +70,74 @@ public class JwtTokenProvider {
                 .claim("role", role)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifies signature and expiry once and returns the typed claims, or empty for an invalid
+     * token. A token seen before is answered from the cache until it expires; the cache key is
+     * a hash of the whole token, so a tampered token never matches a verified one.
+     */
+    public Optional<JwtClaims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Instant now = Instant.now();
+        String key = hash(token);
+
+        JwtClaims cached;
+        synchronized (this) {
+            cached = verifiedTokens.get(key);
+        }
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return Optional.of(cached);
+            }
+            synchronized (this) {
+                verifiedTokens.remove(key);
+            }
+        }
+
+        try {
+            Claims body = parser.parseClaimsJws(token).getBody();
+            JwtClaims claims = new JwtClaims(
+                    body.getSubject(),
+                    body.get("role", String.class),
+                    body.getIssuedAt() != null ? body.getIssuedAt().toInstant() : null,
+                    body.getExpiration() != null ? body.getExpiration().toInstant() : null
+            );
+            synchronized (this) {
+                verifiedTokens.put(key, claims);
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException ex) {
+            System.out.println("⚠️ Invalid JWT Token: " + ex.getMessage());
+            return Optional.empty();
+        }
+    }
 
     // ✅ Extract Employee ID from Token
     public String getEmployeeIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();  // ✅ Extracting empId
+        return verify(token).map(JwtClaims::employeeId)
+                .orElseThrow(() -> new JwtException("Invalid JWT Token"));
     }
 
     // ✅ Extract Role from Token
     public String getRoleFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class);
+        return verify(token).map(JwtClaims::role)
+                .orElseThrow(() -> new JwtException("Invalid JWT Token"));
     }
 
     // ✅ Validate Token
     public boolean validateToken(String authToken) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException ex) {
-            System.out.println("⚠️ Invalid JWT Token: " + ex.getMessage());
-        }
-        return false;
+        return verify(authToken).isPresent();
+    }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 }
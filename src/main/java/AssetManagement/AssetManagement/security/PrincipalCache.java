@@ -0,0 +1,103 @@
+package AssetManagement.AssetManagement.security;
+
+import AssetManagement.AssetManagement.dto.PrincipalCacheStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of authenticated principals keyed by employee id, so the JWT filter
+ * doesn't load the user from the database on every request. Entries expire after a TTL and
+ * the least recently used ones are dropped past the size bound. UserService evicts a user
+ * as soon as their role, details, password or deleted flag change.
+ */
+@Component
+public class PrincipalCache {
+
+    private final long ttlMillis;
+    private final int maxSize;
+
+    // Access-ordered, so the eldest entry is the least recently used; guarded by "this"
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every eviction so a load that raced with it is not cached
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PrincipalCache(@Value("${app.principalCache.ttlSeconds:60}") long ttlSeconds,
+                          @Value("${app.principalCache.maxSize:1000}") int maxSize) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxSize = maxSize;
+    }
+
+    public CustomUserDetails get(String employeeId, Function<String, CustomUserDetails> loader) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+
+        synchronized (this) {
+            Entry entry = entries.get(employeeId);
+            if (entry != null && entry.expiresAt() > now) {
+                hits.incrementAndGet();
+                return entry.details();
+            }
+            if (entry != null) {
+                entries.remove(employeeId);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        // Loaded outside the lock; a failed lookup throws and is not cached
+        CustomUserDetails details = loader.apply(employeeId);
+
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(employeeId, new Entry(details, now + ttlMillis));
+                while (entries.size() > maxSize) {
+                    String eldest = entries.keySet().iterator().next();
+                    entries.remove(eldest);
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        return details;
+    }
+
+    public synchronized void evict(String employeeId) {
+        generation++;
+        if (employeeId != null && entries.remove(employeeId) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void evictAll() {
+        generation++;
+        evictions.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    public PrincipalCacheStatsDTO stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new PrincipalCacheStatsDTO(
+                hitCount,
+                missCount,
+                evictions.get(),
+                size,
+                lookups == 0 ? 0.0 : (double) hitCount / lookups
+        );
+    }
+
+    private record Entry(CustomUserDetails details, long expiresAt) {
+    }
+}
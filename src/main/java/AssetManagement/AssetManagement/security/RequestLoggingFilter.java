@@ -9,20 +9,20 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.Scanner;
 
+/**
+ * Records every request to the access log. Only captures the request details here;
+ * {@link AccessLogWriter} resolves the location and writes the file on its own thread.
+ */
 @Component
 public class RequestLoggingFilter extends OncePerRequestFilter {
 
-    private static final Path LOG_FILE = Path.of("trace.txt");
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS");
+    private final AccessLogWriter accessLogWriter;
+
+    public RequestLoggingFilter(AccessLogWriter accessLogWriter) {
+        this.accessLogWriter = accessLogWriter;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -46,44 +46,15 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             ip += " (localhost)";
         }
 
-        String userAgent = request.getHeader("User-Agent");
-        String uri = request.getRequestURI();
-        String method = request.getMethod();
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-
-        String geoInfo = fetchGeoInfo(ip);
-
-        String logEntry = String.format("[%s] %s %s by %s from IP: %s | Agent: %s | Location: %s%n",
-                timestamp, method, uri, user, ip, userAgent, geoInfo);
-
-        try {
-            Files.writeString(LOG_FILE, logEntry, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        accessLogWriter.publish(new AccessLogEntry(
+                LocalDateTime.now(),
+                request.getMethod(),
+                request.getRequestURI(),
+                user,
+                ip,
+                request.getHeader("User-Agent")
+        ));
 
         filterChain.doFilter(request, response);
     }
-
-    private String fetchGeoInfo(String ip) {
-        if (ip.contains("localhost") || ip.startsWith("0:0") || ip.startsWith("127.")) {
-            return "Localhost";
-        }
-
-        try {
-            URL url = new URL("https://ipapi.co/" + ip.replace(" (localhost)", "") + "/city/");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(3000);
-
-            try (Scanner scanner = new Scanner(conn.getInputStream())) {
-                return scanner.hasNext() ? scanner.nextLine() : "Unknown";
-            }
-        } catch (Exception e) {
-            return "Unknown";
-        }
-    }
 }
-
-
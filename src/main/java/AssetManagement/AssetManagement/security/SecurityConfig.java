@@ -44,10 +44,12 @@ public class SecurityConfig {
                         .requestMatchers("/api/info").hasAnyRole("USER", "ADMIN", "EXECUTIVE","HR_ADMIN")  // ✅ Only "USER", "ADMIN", "EXECUTIVE" roles can access
                         .requestMatchers("/api/assets/delete/**").hasRole("ADMIN")  // ✅ Only "ADMIN" can delete assets
                         .requestMatchers("/api/assets/**").hasAnyRole("ADMIN","EXECUTIVE","USER","HR_ADMIN")  // ✅ "ADMIN" & "EXECUTIVE" can create assets
+                        .requestMatchers("/api/users/principal-cache/**").hasRole("ADMIN")
                         .requestMatchers("/api/users/**").hasAnyRole("ADMIN","HR_ADMIN") // ✅ Only "ADMIN" can manage users
                         .requestMatchers("/api/user-assets/**").hasAnyRole("USER","ADMIN","HR_ADMIN")
                         .requestMatchers("/api/enum/**").hasAnyRole("USER","ADMIN","HR_ADMIN")
                         .requestMatchers("/api/sim-cards/**").hasAnyRole("USER","ADMIN","HR_ADMIN")
+                        .requestMatchers("/api/scheduled-jobs/**").hasRole("ADMIN")
                         .requestMatchers("/api/asset-photos/uploads/**").permitAll()
                         .requestMatchers("/api/asset-documents/uploads/**").permitAll()
                         .requestMatchers("/api/feedback/**").permitAll()
@@ -0,0 +1,376 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.AssetCodeSheetRequest;
+import AssetManagement.AssetManagement.enums.CodeFormat;
+import AssetManagement.AssetManagement.exception.BadRequestException;
+import AssetManagement.AssetManagement.repository.AssetRepository;
+import AssetManagement.AssetManagement.util.AssetCodeUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders asset QR codes and barcodes through a content-addressed cache. A render is
+ * identified by the SHA-256 of (format, size, payload); the hash names the file in the disk
+ * tier and is the image's ETag, so the same label is encoded once and clients can keep it.
+ * Recently used images stay in a memory LRU bounded by bytes; concurrent requests for the
+ * same image share one render.
+ * <p>
+ * Bulk requests render their labels in parallel and combine them into one sprite PNG or
+ * one printable HTML sheet. The sprite is a single image held uncompressed while it is drawn, so
+ * it is limited by pixel count (a few hundred labels); larger runs go through the HTML sheet.
+ */
+@Slf4j
+@Service
+public class AssetCodeService {
+
+    // Bump when the rendering changes so old cached files are no longer used
+    private static final String RENDER_VERSION = "1";
+
+    private static final int QR_SIZE = 200;
+    private static final int BARCODE_WIDTH = 400;
+    private static final int BARCODE_HEIGHT = 120;
+    private static final int CAPTION_HEIGHT = 24;
+
+    private static final int QR_COLUMNS = 4;
+    private static final int QR_ROWS_PER_PAGE = 5;
+    private static final int BARCODE_COLUMNS = 2;
+    private static final int BARCODE_ROWS_PER_PAGE = 8;
+
+    public record CodeImage(byte[] png, String etag) {
+    }
+
+    private final AssetRepository assetRepository;
+    private final Path cacheDir;
+    private final long memoryLimitBytes;
+    private final int maxBulkLabels;
+    private final long maxSpritePixels;
+
+    private final LinkedHashMap<String, CodeImage> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+    private final Map<String, CompletableFuture<CodeImage>> rendering = new ConcurrentHashMap<>();
+
+    private final ExecutorService renderers;
+
+    public AssetCodeService(AssetRepository assetRepository,
+                            @Value("${app.codeCache.path:code-cache}") String cachePath,
+                            @Value("${app.codeCache.memoryMb:32}") long memoryMb,
+                            @Value("${app.codeCache.maxBulkLabels:2000}") int maxBulkLabels,
+                            @Value("${app.codeCache.maxSpritePixels:16000000}") long maxSpritePixels) {
+        this.assetRepository = assetRepository;
+        this.cacheDir = Paths.get(cachePath);
+        this.memoryLimitBytes = memoryMb * 1024 * 1024;
+        this.maxBulkLabels = maxBulkLabels;
+        this.maxSpritePixels = maxSpritePixels;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.renderers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "code-renderer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ---------------------- SINGLE LABELS ----------------------
+
+    public String qrEtag(String assetTag) {
+        return etagOf(CodeFormat.QR, qrPayload(assetTag), QR_SIZE, QR_SIZE);
+    }
+
+    public String barcodeEtag(String assetTag) {
+        return etagOf(CodeFormat.BARCODE, assetTag, BARCODE_WIDTH, BARCODE_HEIGHT);
+    }
+
+    public CodeImage qr(String assetTag) {
+        return render(CodeFormat.QR, qrPayload(assetTag), QR_SIZE, QR_SIZE);
+    }
+
+    public CodeImage barcode(String assetTag) {
+        return render(CodeFormat.BARCODE, assetTag, BARCODE_WIDTH, BARCODE_HEIGHT);
+    }
+
+    // You can also put full URL instead of ASSET:...
+    private static String qrPayload(String assetTag) {
+        return "ASSET:" + assetTag;
+    }
+
+    private CodeImage of(CodeFormat format, String assetTag) {
+        return format == CodeFormat.BARCODE ? barcode(assetTag) : qr(assetTag);
+    }
+
+    // ---------------------- BULK ----------------------
+
+    /** Resolves the labels of a bulk request: the given tags that exist, or every tag of the site. */
+    public List<String> resolveTags(AssetCodeSheetRequest request) {
+        List<String> tags;
+        if (request.getAssetTags() != null && !request.getAssetTags().isEmpty()) {
+            Set<String> existing = new HashSet<>(assetRepository.findExistingAssetTags(request.getAssetTags()));
+            tags = request.getAssetTags().stream().filter(existing::contains).distinct().toList();
+        } else if (request.getSiteId() != null) {
+            tags = assetRepository.findAssetTagsBySiteId(request.getSiteId());
+        } else {
+            throw new BadRequestException("Either assetTags or siteId is required");
+        }
+        if (tags.size() > maxBulkLabels) {
+            throw new BadRequestException("At most " + maxBulkLabels + " labels per request, got " + tags.size());
+        }
+        return tags;
+    }
+
+    /** One PNG with the labels in a grid, left to right, top to bottom. */
+    public byte[] sprite(AssetCodeSheetRequest request, List<String> tags) {
+        CodeFormat format = formatOf(request);
+        int maxLabels = maxSpriteLabels(format);
+        if (tags.size() > maxLabels) {
+            throw new BadRequestException("At most " + maxLabels + " labels per sprite, got " + tags.size()
+                    + "; request fewer tags or use the printable sheet");
+        }
+        int columns = spriteColumns(request, tags);
+        int rows = Math.max(1, (tags.size() + columns - 1) / columns);
+        int cellWidth = cellWidth(format);
+        int cellHeight = cellHeight(format);
+
+        List<CodeImage> images = renderAll(format, tags);
+
+        BufferedImage sprite = new BufferedImage(columns * cellWidth, rows * cellHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = sprite.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, sprite.getWidth(), sprite.getHeight());
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 14));
+            FontMetrics metrics = g.getFontMetrics();
+
+            for (int i = 0; i < tags.size(); i++) {
+                int x = (i % columns) * cellWidth;
+                int y = (i / columns) * cellHeight;
+                g.drawImage(decode(images.get(i).png()), x, y, null);
+
+                String caption = tags.get(i);
+                g.setColor(Color.BLACK);
+                g.drawString(caption, x + (cellWidth - metrics.stringWidth(caption)) / 2,
+                        y + cellHeight - CAPTION_HEIGHT + metrics.getAscent());
+            }
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(sprite, "PNG", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /** Labels that fit in one sprite: 16M pixels (64 MB while drawing) is about 350 QR codes. */
+    public int maxSpriteLabels(CodeFormat format) {
+        return (int) Math.max(1, maxSpritePixels / ((long) cellWidth(format) * cellHeight(format)));
+    }
+
+    /** Columns of the sprite grid; never more than there are labels. */
+    public int spriteColumns(AssetCodeSheetRequest request, List<String> tags) {
+        return Math.max(1, Math.min(columnsOf(request), Math.max(tags.size(), 1)));
+    }
+
+    public int cellWidth(CodeFormat format) {
+        return format == CodeFormat.BARCODE ? BARCODE_WIDTH : QR_SIZE;
+    }
+
+    public int cellHeight(CodeFormat format) {
+        return (format == CodeFormat.BARCODE ? BARCODE_HEIGHT : QR_SIZE) + CAPTION_HEIGHT;
+    }
+
+    /** A self-contained HTML document with one A4 page per block of labels, ready to print. */
+    public String printableSheet(AssetCodeSheetRequest request, List<String> tags) {
+        CodeFormat format = formatOf(request);
+        int columns = columnsOf(request);
+        int perPage = columns * (format == CodeFormat.BARCODE ? BARCODE_ROWS_PER_PAGE : QR_ROWS_PER_PAGE);
+
+        List<CodeImage> images = renderAll(format, tags);
+        Base64.Encoder base64 = Base64.getEncoder();
+
+        StringBuilder html = new StringBuilder(tags.size() * 2048);
+        html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Asset labels</title><style>")
+                .append("@page{size:A4;margin:10mm}")
+                .append("body{margin:0;font-family:sans-serif}")
+                .append(".page{display:grid;grid-template-columns:repeat(").append(columns).append(",1fr);")
+                .append("gap:4mm;page-break-after:always}")
+                .append(".page:last-child{page-break-after:auto}")
+                .append(".label{text-align:center;font-weight:bold;font-size:11pt}")
+                .append(".label img{max-width:100%}")
+                .append("</style></head><body>");
+
+        for (int i = 0; i < tags.size(); i++) {
+            if (i % perPage == 0) {
+                if (i > 0) {
+                    html.append("</div>");
+                }
+                html.append("<div class=\"page\">");
+            }
+            String tag = escape(tags.get(i));
+            html.append("<div class=\"label\"><img alt=\"").append(tag).append("\" src=\"data:image/png;base64,")
+                    .append(base64.encodeToString(images.get(i).png())).append("\"><div>")
+                    .append(tag).append("</div></div>");
+        }
+        if (!tags.isEmpty()) {
+            html.append("</div>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    // Renders (or loads from cache) every label in parallel, keeping the order of the tags
+    private List<CodeImage> renderAll(CodeFormat format, List<String> tags) {
+        List<CompletableFuture<CodeImage>> futures = tags.stream()
+                .map(tag -> CompletableFuture.supplyAsync(() -> of(format, tag), renderers))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static CodeFormat formatOf(AssetCodeSheetRequest request) {
+        return request.getFormat() != null ? request.getFormat() : CodeFormat.QR;
+    }
+
+    private static int columnsOf(AssetCodeSheetRequest request) {
+        if (request.getColumns() != null && request.getColumns() > 0) {
+            return Math.min(request.getColumns(), 20);
+        }
+        return formatOf(request) == CodeFormat.BARCODE ? BARCODE_COLUMNS : QR_COLUMNS;
+    }
+
+    // ---------------------- CACHE ----------------------
+
+    private CodeImage render(CodeFormat format, String payload, int width, int height) {
+        String hash = sha256(cacheKey(format, payload, width, height));
+
+        CodeImage cached = fromMemory(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Only one thread renders a given image; the others wait for its result
+        CompletableFuture<CodeImage> mine = new CompletableFuture<>();
+        CompletableFuture<CodeImage> running = rendering.putIfAbsent(hash, mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            CodeImage image = fromDisk(hash);
+            if (image == null) {
+                byte[] png = format == CodeFormat.BARCODE
+                        ? AssetCodeUtil.generateBarcodePng(payload, width, height)
+                        : AssetCodeUtil.generateQrPng(payload, width);
+                image = new CodeImage(png, '"' + hash + '"');
+                toDisk(hash, png);
+            }
+            toMemory(hash, image);
+            mine.complete(image);
+            return image;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw new IllegalStateException("Could not render " + format + " for " + payload, e);
+        } finally {
+            rendering.remove(hash, mine);
+        }
+    }
+
+    private static String etagOf(CodeFormat format, String payload, int width, int height) {
+        return '"' + sha256(cacheKey(format, payload, width, height)) + '"';
+    }
+
+    private static String cacheKey(CodeFormat format, String payload, int width, int height) {
+        return RENDER_VERSION + '|' + format + '|' + width + 'x' + height + '|' + payload;
+    }
+
+    private synchronized CodeImage fromMemory(String hash) {
+        return memory.get(hash);
+    }
+
+    private synchronized void toMemory(String hash, CodeImage image) {
+        CodeImage previous = memory.put(hash, image);
+        if (previous != null) {
+            memoryBytes -= previous.png().length;
+        }
+        memoryBytes += image.png().length;
+
+        Iterator<CodeImage> eldest = memory.values().iterator();
+        while (memoryBytes > memoryLimitBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().png().length;
+            eldest.remove();
+        }
+    }
+
+    private CodeImage fromDisk(String hash) {
+        Path file = cacheDir.resolve(hash + ".png");
+        try {
+            return Files.exists(file) ? new CodeImage(Files.readAllBytes(file), '"' + hash + '"') : null;
+        } catch (IOException e) {
+            log.warn("Could not read cached code image {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void toDisk(String hash, byte[] png) {
+        try {
+            Files.createDirectories(cacheDir);
+            // Write aside and move so readers never see half a file
+            Path temp = Files.createTempFile(cacheDir, hash, ".tmp");
+            Files.write(temp, png);
+            Files.move(temp, cacheDir.resolve(hash + ".png"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The disk tier is only a cache; serve from memory
+            log.warn("Could not write code image {} to cache: {}", hash, e.getMessage());
+        }
+    }
+
+    private static BufferedImage decode(byte[] png) {
+        try {
+            return ImageIO.read(new ByteArrayInputStream(png));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderers.shutdownNow();
+    }
+}
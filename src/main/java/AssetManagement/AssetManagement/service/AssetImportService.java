@@ -1,7 +1,6 @@
 package AssetManagement.AssetManagement.service;
 
 import AssetManagement.AssetManagement.dto.AssetImportResult;
-import AssetManagement.AssetManagement.dto.RowError;
 import AssetManagement.AssetManagement.entity.Asset;
 import AssetManagement.AssetManagement.entity.Location;
 import AssetManagement.AssetManagement.entity.Site;
@@ -11,153 +10,224 @@ import AssetManagement.AssetManagement.enums.Department;
 import AssetManagement.AssetManagement.repository.AssetRepository;
 import AssetManagement.AssetManagement.repository.LocationRepository;
 import AssetManagement.AssetManagement.repository.SiteRepository;
-import jakarta.transaction.Transactional;
-import org.apache.poi.ss.usermodel.*;
+import AssetManagement.AssetManagement.util.AssetIdGenerator;
+import AssetManagement.AssetManagement.util.AuthUtils;
+import AssetManagement.AssetManagement.util.ingest.ImportColumn;
+import AssetManagement.AssetManagement.util.ingest.ImportRecord;
+import AssetManagement.AssetManagement.util.ingest.ImportReport;
+import AssetManagement.AssetManagement.util.ingest.ImportSink;
+import AssetManagement.AssetManagement.util.ingest.IngestionEngine;
+import AssetManagement.AssetManagement.util.ingest.SheetRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Imports assets from a spreadsheet on top of the {@link IngestionEngine}. Rows are mapped
+ * against sites and locations loaded once up front; each batch is then checked for
+ * duplicate serial numbers with a single IN query and inserted as one JDBC batch in its own
+ * transaction. Rows that fail are reported with their Excel row number; the rest of the
+ * batch still goes in.
+ */
+@Slf4j
 @Service
 public class AssetImportService {
 
+    private static final ImportColumn<String> NAME = ImportColumn.text(0, "Name");
+    private static final ImportColumn<String> DESCRIPTION = ImportColumn.text(1, "Description");
+    private static final ImportColumn<String> SERIAL_NUMBER = ImportColumn.text(2, "Serial Number");
+    private static final ImportColumn<LocalDate> PURCHASE_DATE = ImportColumn.date(3, "Purchase Date");
+    private static final ImportColumn<String> PURCHASE_FROM = ImportColumn.text(4, "Purchase From");
+    private static final ImportColumn<String> BRAND = ImportColumn.text(5, "Brand");
+    private static final ImportColumn<String> MODEL = ImportColumn.text(6, "Model");
+    private static final ImportColumn<AssetType> ASSET_TYPE = ImportColumn.enumeration(7, "Asset Type", AssetType.class);
+    private static final ImportColumn<Department> DEPARTMENT = ImportColumn.enumeration(8, "Department", Department.class);
+    private static final ImportColumn<BigDecimal> COST = ImportColumn.decimal(9, "Cost");
+    private static final ImportColumn<AssetStatus> STATUS = ImportColumn.enumeration(10, "Status", AssetStatus.class);
+    private static final ImportColumn<String> STATUS_NOTE = ImportColumn.text(11, "Status Note");
+    private static final ImportColumn<String> SITE = ImportColumn.text(12, "Site");
+    private static final ImportColumn<String> LOCATION = ImportColumn.text(13, "Location");
+
+    private static final String INSERT_SQL = """
+            INSERT INTO asset (asset_tag, name, description, serial_number, purchase_date, purchase_from,
+                               status, brand, model, asset_type, department, created_by, cost,
+                               location_id, site_id, status_note, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
     private final AssetRepository assetRepository;
-    private final AssetService assetService;
     private final SiteRepository siteRepository;
     private final LocationRepository locationRepository;
-
-    public AssetImportService(AssetRepository assetRepository, AssetService assetService, SiteRepository siteRepository, LocationRepository locationRepository) {
+    private final AssetSearchIndex assetSearchIndex;
+    private final IngestionEngine ingestionEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public AssetImportService(AssetRepository assetRepository, SiteRepository siteRepository,
+                              LocationRepository locationRepository, AssetSearchIndex assetSearchIndex,
+                              IngestionEngine ingestionEngine, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
         this.assetRepository = assetRepository;
-        this.assetService = assetService;
         this.siteRepository = siteRepository;
         this.locationRepository = locationRepository;
+        this.assetSearchIndex = assetSearchIndex;
+        this.ingestionEngine = ingestionEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public AssetImportResult importAssetsFromExcel(MultipartFile file) {
-        int success = 0;
-        List<RowError> errors = new ArrayList<>();
-
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(is)) {
-
-            Sheet sheet = workbook.getSheetAt(0); // first sheet
-            // assume first row is header
-            for (int rowIdx = 1; rowIdx <= sheet.getLastRowNum(); rowIdx++) {
-                Row row = sheet.getRow(rowIdx);
-                if (row == null) {
-                    continue;
-                }
-
-                try {
-                    Asset asset = mapRowToAsset(row);
-                    // reuse your existing logic – this calls validateUniqueFields inside
-                    assetService.saveAsset(asset);
-                    success++;
-                } catch (Exception ex) {
-                    errors.add(new RowError(rowIdx + 1, ex.getMessage())); // +1 for human-friendly row number
-                }
-            }
-        } catch (IOException e) {
-            errors.add(new RowError(0, "Failed to read Excel file: " + e.getMessage()));
-        }
+        ImportLookups lookups = ImportLookups.load(siteRepository, locationRepository);
+        AssetSink sink = new AssetSink(AuthUtils.getAuthenticatedUserExactName());
 
-        int failure = errors.size();
-        return new AssetImportResult(success, failure, errors);
+        ImportReport report = ingestionEngine.ingest(file, row -> mapRowToAsset(row, lookups), sink);
+        return new AssetImportResult(report.getAccepted(), report.getRejected(), report.getErrors());
     }
 
-    private Asset mapRowToAsset(Row row) {
+    private static Asset mapRowToAsset(SheetRow row, ImportLookups lookups) {
         Asset asset = new Asset();
 
-        asset.setName(getStringCell(row, 0));
-        asset.setDescription(getStringCell(row, 1));
-        asset.setSerialNumber(getStringCell(row, 2));
-        asset.setAssetTag(null); // let @PrePersist generate
+        asset.setName(row.get(NAME));
+        asset.setDescription(row.get(DESCRIPTION));
+        asset.setSerialNumber(row.get(SERIAL_NUMBER));
+        asset.setAssetTag(null); // generated when the batch is inserted
 
-        asset.setPurchaseDate(getDateCell(row, 3));      // ✅ 3 = purchaseDate
-        asset.setPurchaseFrom(getStringCell(row, 4));    // ✅ 4 = purchaseFrom
-        asset.setBrand(getStringCell(row, 5));           // ✅ 5 = brand
-        asset.setModel(getStringCell(row, 6));           // ✅ 6 = model
-
-        String assetTypeStr = getStringCell(row, 7);     // ✅ 7 = assetType
-        if (assetTypeStr != null && !assetTypeStr.isBlank()) {
-            asset.setAssetType(AssetType.valueOf(assetTypeStr.trim()));
+        if (asset.getSerialNumber() == null) {
+            throw new IllegalArgumentException("Serial Number is required for asset import");
         }
 
-        String deptStr = getStringCell(row, 8);          // ✅ 8 = department
-        if (deptStr != null && !deptStr.isBlank()) {
-            asset.setDepartment(Department.valueOf(deptStr.trim()));
-        }
+        asset.setPurchaseDate(row.get(PURCHASE_DATE));
+        asset.setPurchaseFrom(row.get(PURCHASE_FROM));
+        asset.setBrand(row.get(BRAND));
+        asset.setModel(row.get(MODEL));
+        asset.setAssetType(row.get(ASSET_TYPE));
+        asset.setDepartment(row.get(DEPARTMENT));
+        asset.setCost(row.get(COST));
+        asset.setStatus(row.get(STATUS));
+        asset.setStatusNote(row.get(STATUS_NOTE));
 
-        Cell costCell = row.getCell(9);                  // ✅ 9 = cost
-        if (costCell != null && costCell.getCellType() == CellType.NUMERIC) {
-            asset.setCost(BigDecimal.valueOf(costCell.getNumericCellValue()));
-        }
+        // --- Site & Location by name ---
+        String siteName = row.get(SITE);
+        String locationName = row.get(LOCATION);
 
-        String statusStr = getStringCell(row, 10);       // ✅ 10 = status
-        if (statusStr != null && !statusStr.isBlank()) {
-            asset.setStatus(AssetStatus.valueOf(statusStr.trim()));
+        if (siteName == null) {
+            throw new IllegalArgumentException("Site name is required for asset import");
         }
+        Site site = lookups.site(siteName);
+        if (site == null) {
+            throw new IllegalArgumentException("Site '" + siteName + "' not found in database");
+        }
+        asset.setSite(site);
 
-        asset.setStatusNote(getStringCell(row, 11));     // ✅ 11 = statusNote
-
-        // --- Site & Location by name ---
-        String siteName = getStringCell(row, 12);        // ✅ 12 = siteName
-        String locationName = getStringCell(row, 13);    // ✅ 13 = locationName
-
-        if (siteName != null && !siteName.isBlank()) {
-            Site site = siteRepository.findByName(siteName.trim())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Site '" + siteName + "' not found in database"));
-            asset.setSite(site);
-
-            if (locationName != null && !locationName.isBlank()) {
-                Location location = locationRepository
-                        .findByNameAndSite(locationName.trim(), site)
-                        .orElseThrow(() -> new IllegalArgumentException(
-                                "Location '" + locationName + "' not found in site '" + siteName + "'"));
-                asset.setLocation(location);
-            } else {
-                throw new IllegalArgumentException(
-                        "Location name is required when site is specified");
-            }
-        } else {
-            throw new IllegalArgumentException(
-                    "Site name is required for asset import");
+        if (locationName == null) {
+            throw new IllegalArgumentException("Location name is required when site is specified");
         }
+        Location location = lookups.location(site, locationName);
+        if (location == null) {
+            throw new IllegalArgumentException("Location '" + locationName + "' not found in site '" + siteName + "'");
+        }
+        asset.setLocation(location);
 
         return asset;
     }
 
+    // Writes mapped assets batch by batch; keeps the serial numbers seen so far in this file
+    private final class AssetSink implements ImportSink<Asset> {
+
+        private final String createdBy;
+        private final Set<String> seenSerials = new HashSet<>();
 
-    private String getStringCell(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
-        if (cell.getCellType() == CellType.STRING) {
-            return cell.getStringCellValue().trim();
+        AssetSink(String createdBy) {
+            this.createdBy = createdBy;
         }
-        if (cell.getCellType() == CellType.NUMERIC) {
-            return String.valueOf((long) cell.getNumericCellValue());
+
+        @Override
+        public void write(List<ImportRecord<Asset>> batch, ImportReport report) {
+            List<String> serials = batch.stream().map(record -> record.value().getSerialNumber()).toList();
+            Set<String> existing = new HashSet<>(assetRepository.findExistingSerialNumbers(serials));
+
+            List<ImportRecord<Asset>> toInsert = new ArrayList<>(batch.size());
+            for (ImportRecord<Asset> record : batch) {
+                String serial = record.value().getSerialNumber();
+                if (existing.contains(serial) || !seenSerials.add(serial)) {
+                    report.reject(record.rowNumber(), "Serial Number must be unique. Duplicate found!");
+                } else {
+                    record.value().setAssetTag("MGIT" + AssetIdGenerator.getNextId());
+                    toInsert.add(record);
+                }
+            }
+
+            if (!toInsert.isEmpty()) {
+                insert(toInsert, report);
+            }
         }
-        return null;
-    }
 
-    private LocalDate getDateCell(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
-        if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-            return cell.getLocalDateTimeCellValue().toLocalDate();
+        private void insert(List<ImportRecord<Asset>> rows, ImportReport report) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, rows.stream().map(this::toParams).toList()));
+                rows.forEach(row -> report.accept());
+                indexForSearch(rows);
+            } catch (DataAccessException batchFailure) {
+                // The batch was rolled back; insert row by row so only the bad rows are reported
+                log.warn("Asset import batch of {} rows failed, retrying one by one: {}",
+                        rows.size(), batchFailure.getMessage());
+                List<ImportRecord<Asset>> inserted = new ArrayList<>();
+                for (ImportRecord<Asset> row : rows) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                jdbcTemplate.update(INSERT_SQL, toParams(row)));
+                        inserted.add(row);
+                        report.accept();
+                    } catch (DataIntegrityViolationException e) {
+                        report.reject(row.rowNumber(), e.getMostSpecificCause().getMessage());
+                    } catch (DataAccessException e) {
+                        report.reject(row.rowNumber(), e.getMessage());
+                    }
+                }
+                indexForSearch(inserted);
+            }
         }
-        String text = cell.getCellType() == CellType.STRING ? cell.getStringCellValue().trim() : null;
-        if (text != null && !text.isBlank()) {
-            return LocalDate.parse(text); // expects YYYY-MM-DD
+
+        private Object[] toParams(ImportRecord<Asset> row) {
+            Asset asset = row.value();
+            return new Object[]{
+                    asset.getAssetTag(),
+                    asset.getName(),
+                    asset.getDescription(),
+                    asset.getSerialNumber(),
+                    asset.getPurchaseDate(),
+                    asset.getPurchaseFrom(),
+                    asset.getStatus() != null ? asset.getStatus().name() : null,
+                    asset.getBrand(),
+                    asset.getModel(),
+                    asset.getAssetType() != null ? asset.getAssetType().name() : null,
+                    asset.getDepartment() != null ? asset.getDepartment().name() : null,
+                    createdBy,
+                    asset.getCost(),
+                    asset.getLocation().getId(),
+                    asset.getSite().getId(),
+                    asset.getStatusNote(),
+                    LocalDateTime.now()
+            };
         }
-        return null;
-    }
 
+        // Rows went in over JDBC, so read their ids back by tag for the search index
+        private void indexForSearch(List<ImportRecord<Asset>> rows) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<String> tags = rows.stream().map(row -> row.value().getAssetTag()).toList();
+            assetRepository.findSearchDocumentsByAssetTagIn(tags).forEach(assetSearchIndex::update);
+        }
+    }
 }
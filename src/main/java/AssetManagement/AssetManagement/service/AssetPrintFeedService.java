@@ -0,0 +1,134 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.AssetPrintLabel;
+import AssetManagement.AssetManagement.dto.AssetPrintRow;
+import AssetManagement.AssetManagement.dto.CursorPageResponse;
+import AssetManagement.AssetManagement.enums.AssetStatus;
+import AssetManagement.AssetManagement.exception.BadRequestException;
+import AssetManagement.AssetManagement.repository.AssetRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Feed of asset labels to print. Only id and tag are selected, in keyset pages on id, so
+ * neither the cursor pages nor the streamed outputs ever hold more than one batch of rows
+ * however many assets there are.
+ */
+@Service
+public class AssetPrintFeedService {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    /** Filters of the feed; every field is optional. Dates are inclusive days. */
+    public record Filter(Long siteId, Long locationId, AssetStatus status, LocalDate createdFrom, LocalDate createdTo) {
+    }
+
+    private final AssetRepository assetRepository;
+    private final ObjectMapper objectMapper;
+
+    public AssetPrintFeedService(AssetRepository assetRepository, ObjectMapper objectMapper) {
+        this.assetRepository = assetRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public CursorPageResponse<AssetPrintLabel> page(Filter filter, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // One extra row tells us whether another page exists without counting
+        List<AssetPrintRow> rows = fetch(filter, decodeCursor(cursor), size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = hasNext ? String.valueOf(rows.get(rows.size() - 1).id()) : null;
+        return new CursorPageResponse<>(
+                rows.stream().map(row -> AssetPrintLabel.of(row.assetTag())).toList(),
+                size,
+                nextCursor,
+                hasNext,
+                null
+        );
+    }
+
+    /** Writes every matching label as one JSON object per line (NDJSON). */
+    public void writeNdjson(Filter filter, OutputStream out) throws IOException {
+        byte[] newline = {'\n'};
+        forEachBatch(filter, rows -> {
+            for (AssetPrintRow row : rows) {
+                out.write(objectMapper.writeValueAsBytes(AssetPrintLabel.of(row.assetTag())));
+                out.write(newline);
+            }
+            out.flush();
+        });
+    }
+
+    /** Writes every matching label into one JSON array, element by element. */
+    public void writeJsonArray(Filter filter, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // The servlet container owns the response stream
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.writeStartArray();
+            forEachBatch(filter, rows -> {
+                for (AssetPrintRow row : rows) {
+                    json.writeObject(AssetPrintLabel.of(row.assetTag()));
+                }
+                json.flush();
+            });
+            json.writeEndArray();
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(List<AssetPrintRow> rows) throws IOException;
+    }
+
+    private void forEachBatch(Filter filter, BatchWriter writer) throws IOException {
+        long afterId = 0;
+        while (true) {
+            List<AssetPrintRow> rows = fetch(filter, afterId, STREAM_BATCH_SIZE);
+            if (rows.isEmpty()) {
+                return;
+            }
+            writer.write(rows);
+            if (rows.size() < STREAM_BATCH_SIZE) {
+                return;
+            }
+            afterId = rows.get(rows.size() - 1).id();
+        }
+    }
+
+    private List<AssetPrintRow> fetch(Filter filter, long afterId, int limit) {
+        return assetRepository.findPrintRowsAfter(
+                afterId,
+                filter.siteId(),
+                filter.locationId(),
+                filter.status(),
+                filter.createdFrom() != null ? filter.createdFrom().atStartOfDay() : null,
+                // createdTo is inclusive, so compare with the start of the next day
+                filter.createdTo() != null ? filter.createdTo().plusDays(1).atStartOfDay() : null,
+                PageRequest.of(0, limit));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
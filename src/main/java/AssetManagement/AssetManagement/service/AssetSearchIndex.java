@@ -0,0 +1,290 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.AssetSearchDocument;
+import AssetManagement.AssetManagement.entity.Asset;
+import AssetManagement.AssetManagement.enums.AssetStatus;
+import AssetManagement.AssetManagement.repository.AssetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over asset name, serial number, brand, model and description,
+ * used for keyword search instead of LIKE '%kw%' scans. A query's trigrams are intersected
+ * to get candidates, each candidate is checked for the real substring, and matches are
+ * ranked by which field matched and how (exact, prefix, anywhere).
+ * <p>
+ * Built from the database on startup; AssetService keeps it current after each commit.
+ * Until the first build finishes {@link #isReady()} is false and callers use the
+ * database search.
+ */
+@Slf4j
+@Component
+public class AssetSearchIndex {
+
+    // Same order as the fields of AssetSearchDocument
+    private static final int[] FIELD_WEIGHTS = {5, 5, 3, 3, 1};
+    private static final int EXACT = 4;
+    private static final int PREFIX = 2;
+    private static final int CONTAINS = 1;
+
+    private final AssetRepository assetRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Lowercased searchable fields per asset id
+    private Map<Long, String[]> documents = new HashMap<>();
+    // Trigram (three chars packed into a long) -> ids of assets containing it
+    private Map<Long, Set<Long>> postings = new HashMap<>();
+    // Changes made while a rebuild is loading, replayed on the fresh index; null otherwise
+    private List<Runnable> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    public AssetSearchIndex(AssetRepository assetRepository) {
+        this.assetRepository = assetRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<AssetSearchDocument> all;
+        try {
+            all = assetRepository.findAllSearchDocuments();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                // The changes were already applied to the current index
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        Map<Long, String[]> freshDocuments = new HashMap<>(all.size() * 2);
+        Map<Long, Set<Long>> freshPostings = new HashMap<>();
+        for (AssetSearchDocument doc : all) {
+            String[] fields = normalize(doc);
+            freshDocuments.put(doc.id(), fields);
+            addPostings(freshPostings, doc.id(), fields);
+        }
+
+        lock.writeLock().lock();
+        try {
+            documents = freshDocuments;
+            postings = freshPostings;
+            pendingDuringRebuild.forEach(Runnable::run);
+            pendingDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Asset search index built with {} assets and {} trigrams", freshDocuments.size(), freshPostings.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Re-indexes the asset once the current transaction commits (immediately outside one). */
+    public void update(Asset asset) {
+        if (asset == null || asset.getId() == null) {
+            return;
+        }
+        if (asset.getStatus() == AssetStatus.DELETED) {
+            remove(asset.getId());
+            return;
+        }
+        update(new AssetSearchDocument(asset.getId(), asset.getName(), asset.getSerialNumber(),
+                asset.getBrand(), asset.getModel(), asset.getDescription()));
+    }
+
+    public void update(AssetSearchDocument doc) {
+        afterCommit(() -> put(doc));
+    }
+
+    public void remove(Long assetId) {
+        if (assetId != null) {
+            afterCommit(() -> delete(assetId));
+        }
+    }
+
+    /** Ids of assets with the keyword in any indexed field, best match first. */
+    public List<Long> search(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        String query = keyword.trim().toLowerCase(Locale.ROOT);
+
+        List<long[]> scored = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(query)) {
+                int score = score(documents.get(id), query);
+                if (score > 0) {
+                    scored.add(new long[]{id, score});
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Higher score first, newer asset first among equals
+        scored.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(b[0], a[0]));
+        List<Long> ids = new ArrayList<>(scored.size());
+        for (long[] entry : scored) {
+            ids.add(entry[0]);
+        }
+        return ids;
+    }
+
+    private Collection<Long> candidates(String query) {
+        // Too short to have a trigram; the documents map is small enough to scan
+        if (query.length() < 3) {
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (long gram : trigrams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> result = new ArrayList<>();
+        Set<Long> smallest = lists.get(0);
+        outer:
+        for (Long id : smallest) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue outer;
+                }
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    private static int score(String[] fields, String query) {
+        if (fields == null) {
+            return 0;
+        }
+        int score = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            int at = field.indexOf(query);
+            if (at < 0) {
+                continue;
+            }
+            int kind = field.length() == query.length() ? EXACT : at == 0 ? PREFIX : CONTAINS;
+            score += FIELD_WEIGHTS[i] * kind;
+        }
+        return score;
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    private void put(AssetSearchDocument doc) {
+        delete(doc.id());
+        String[] fields = normalize(doc);
+        documents.put(doc.id(), fields);
+        addPostings(postings, doc.id(), fields);
+    }
+
+    // Callers hold the write lock
+    private void delete(Long id) {
+        String[] old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String field : old) {
+            if (field == null) {
+                continue;
+            }
+            for (long gram : trigrams(field)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addPostings(Map<Long, Set<Long>> target, Long id, String[] fields) {
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            for (long gram : trigrams(field)) {
+                target.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+            }
+        }
+    }
+
+    private static String[] normalize(AssetSearchDocument doc) {
+        return new String[]{
+                lower(doc.name()),
+                lower(doc.serialNumber()),
+                lower(doc.brand()),
+                lower(doc.model()),
+                lower(doc.description())
+        };
+    }
+
+    private static String lower(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
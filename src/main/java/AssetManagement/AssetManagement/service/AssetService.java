@@ -19,6 +19,7 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -37,6 +38,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -53,9 +55,10 @@ public class AssetService {
     private final LocationRepository locationRepository;
     private final AssetHistoryService assetHistoryService;
     private final SimCardRepository simCardRepository;
+    private final AssetSearchIndex assetSearchIndex;
     private static final Logger logger = LoggerFactory.getLogger(AssetService.class);
 
-    public AssetService(AssetRepository assetRepository, UserRepository userRepository, AssetHistoryRepository assetHistoryRepository, SiteRepository siteRepository, AssetMapper assetMapper, LocationRepository locationRepository, AssetHistoryService assetHistoryService, SiteRepository simCardRepository, SimCardRepository simCardRepository1) {
+    public AssetService(AssetRepository assetRepository, UserRepository userRepository, AssetHistoryRepository assetHistoryRepository, SiteRepository siteRepository, AssetMapper assetMapper, LocationRepository locationRepository, AssetHistoryService assetHistoryService, SiteRepository simCardRepository, SimCardRepository simCardRepository1, AssetSearchIndex assetSearchIndex) {
         this.assetRepository = assetRepository;
         this.userRepository = userRepository;
         this.assetHistoryRepository = assetHistoryRepository;
@@ -65,6 +68,7 @@ public class AssetService {
         this.assetHistoryService = assetHistoryService;
 
         this.simCardRepository = simCardRepository1;
+        this.assetSearchIndex = assetSearchIndex;
     }
     public AssetDTO dispose(String assetTag, String statusNote) {
         String modifiedBy=AuthUtils.getAuthenticatedUserExactName();
@@ -280,8 +284,19 @@ public class AssetService {
                 .and(AssetSpecification.hasSite(siteId))
                 .and(AssetSpecification.hasLocation(locationId))
                 .and(AssetSpecification.purchaseDateBetween(purchaseStart, purchaseEnd))
-                .and(AssetSpecification.createdAtBetween(createdStart, createdEnd))
-                .and(AssetSpecification.keywordSearch(keyword));
+                .and(AssetSpecification.createdAtBetween(createdStart, createdEnd));
+
+        keyword = searchableKeyword(keyword);
+        if (useSearchIndex(keyword)) {
+            // Only ids are filtered and sliced; the entities of the page are loaded afterwards
+            List<Long> ranked = findRankedIdsByKeyword(spec, keyword);
+            Pageable pageable = PageRequest.of(page, size);
+            int from = (int) Math.min(pageable.getOffset(), ranked.size());
+            int to = Math.min(from + size, ranked.size());
+            List<AssetDTO> content = findAssetsInOrder(ranked.subList(from, to)).stream().map(this::convertAssetToDto).toList();
+            return new PageImpl<>(content, pageable, ranked.size());
+        }
+        spec = spec.and(AssetSpecification.keywordSearch(keyword));
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
 
@@ -314,13 +329,63 @@ public class AssetService {
                 .and(AssetSpecification.hasSite(siteId))
                 .and(AssetSpecification.hasLocation(locationId))
                 .and(AssetSpecification.purchaseDateBetween(purchaseStart, purchaseEnd))
-                .and(AssetSpecification.createdAtBetween(createdStart, createdEnd))
-                .and(AssetSpecification.keywordSearch(keyword));
+                .and(AssetSpecification.createdAtBetween(createdStart, createdEnd));
+
+        keyword = searchableKeyword(keyword);
+        if (useSearchIndex(keyword)) {
+            return findAssetsInOrder(findRankedIdsByKeyword(spec, keyword)).stream().map(this::convertAssetToDto).toList();
+        }
+        spec = spec.and(AssetSpecification.keywordSearch(keyword));
 
         List<Asset> list = assetRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "createdAt"));
         return list.stream().map(this::convertAssetToDto).toList();
     }
 
+    // A single character matches nearly every asset, so such keywords filter nothing
+    private static final int MIN_KEYWORD_LENGTH = 2;
+    // Search hits are checked against the filters, and assets loaded, this many ids per query
+    private static final int SEARCH_HIT_BATCH = 1000;
+
+    private static String searchableKeyword(String keyword) {
+        return keyword != null && keyword.trim().length() >= MIN_KEYWORD_LENGTH ? keyword : null;
+    }
+
+    private boolean useSearchIndex(String keyword) {
+        return keyword != null && !keyword.isBlank() && assetSearchIndex.isReady();
+    }
+
+    // Ids of keyword matches from the search index that also pass the other filters, best match first
+    private List<Long> findRankedIdsByKeyword(Specification<Asset> filters, String keyword) {
+        List<Long> rankedIds = assetSearchIndex.search(keyword);
+        List<Long> matches = new ArrayList<>();
+        for (int from = 0; from < rankedIds.size(); from += SEARCH_HIT_BATCH) {
+            List<Long> batch = rankedIds.subList(from, Math.min(from + SEARCH_HIT_BATCH, rankedIds.size()));
+            matches.addAll(orderByRank(assetRepository.findIds(filters.and(AssetSpecification.idIn(batch))),
+                    Function.identity(), batch));
+        }
+        return matches;
+    }
+
+    // Loads assets by id, keeping the order of the ids
+    private List<Asset> findAssetsInOrder(List<Long> ids) {
+        List<Asset> assets = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += SEARCH_HIT_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(from + SEARCH_HIT_BATCH, ids.size()));
+            assets.addAll(orderByRank(assetRepository.findAllById(batch), Asset::getId, batch));
+        }
+        return assets;
+    }
+
+    private static <T> List<T> orderByRank(List<T> rows, Function<T, Long> idOf, List<Long> rankedIds) {
+        Map<Long, Integer> rank = new HashMap<>(rankedIds.size() * 2);
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        List<T> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparingInt(row -> rank.getOrDefault(idOf.apply(row), Integer.MAX_VALUE)));
+        return ordered;
+    }
+
 
 
     public void writeAssetsToExcel(List<AssetDTO> assets, OutputStream os) throws IOException {
@@ -418,6 +483,7 @@ public class AssetService {
         asset.setCreatedBy(createdBy);
         asset.setCreatedAt(LocalDateTime.now());
         Asset savedAsset = assetRepository.save(asset);
+        assetSearchIndex.update(savedAsset);
         AssetDTO dto = convertAssetToDto(savedAsset);
         return dto;
     }
@@ -454,6 +520,7 @@ public class AssetService {
 
         // ✅ Save all at once — fewer DB round trips
         List<Asset> savedAssets = assetRepository.saveAll(assetsToSave);
+        savedAssets.forEach(assetSearchIndex::update);
 
         // ✅ Convert entities back to DTOs for response
         return savedAssets.stream()
@@ -498,6 +565,7 @@ public class AssetService {
         // ⚠️ Option 1: Soft Delete (Recommended)
         asset.setStatus(AssetStatus.DELETED);
         assetRepository.save(asset);
+        assetSearchIndex.remove(asset.getId());
 
     }
 
@@ -542,6 +610,7 @@ public class AssetService {
 
         // 💾 Save updated asset
         Asset savedAsset = assetRepository.save(existingAsset);
+        assetSearchIndex.update(savedAsset);
 
         logger.info("Asset [{}] updated by [{}]", existingAsset.getId(), modifiedBy);
         return convertAssetToDto(savedAsset);
@@ -1148,7 +1217,14 @@ public class AssetService {
                 .collect(Collectors.toList());
     }
     public List<Asset> searchAssets(String query) {
-        return assetRepository.findByNameContainingIgnoreCaseOrSerialNumberContainingIgnoreCase(query, query);
+        if (!assetSearchIndex.isReady()) {
+            return assetRepository.findByNameContainingIgnoreCaseOrSerialNumberContainingIgnoreCase(query, query);
+        }
+        List<Long> rankedIds = assetSearchIndex.search(query);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        return findAssetsInOrder(rankedIds);
     }
 
     // Helper methods
@@ -1,92 +1,25 @@
 package AssetManagement.AssetManagement.service;
 
-import jakarta.annotation.PostConstruct;
-import org.springframework.beans.factory.annotation.Value;
+import AssetManagement.AssetManagement.config.SchedulingConfig;
+import AssetManagement.AssetManagement.service.backup.DatabaseBackupService;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
 @Service
 public class DatabaseBackupScheduler {
 
-    @Value("${db.host}")
-    private String dbHost;
-
-    @Value("${db.port}")
-    private String dbPort;
-
-    @Value("${db.name}")
-    private String dbName;
-
-    @Value("${db.username}")
-    private String dbUsername;
-
-    @Value("${db.password}")
-    private String dbPassword;
+    private final DatabaseBackupService backupService;
+    private final ScheduledJobMonitor jobMonitor;
 
-    @Value("${backup.directory}")
-    private String backupDirectory;
-
-    @Value("${mysqldump.path}")
-    private String mysqldumpPath;
-
-
-    @PostConstruct
-    public void checkProperties() {
-        System.out.println("DB Host: " + dbHost);
-        System.out.println("DB Port: " + dbPort);
-        System.out.println("DB Name: " + dbName);
-        System.out.println("DB User: " + dbUsername);
-        System.out.println("DB Password: " + dbPassword);
-        System.out.println("Backup Dir: " + backupDirectory);
-        System.out.println("mysqldump Path: " + mysqldumpPath);
+    public DatabaseBackupScheduler(DatabaseBackupService backupService, ScheduledJobMonitor jobMonitor) {
+        this.backupService = backupService;
+        this.jobMonitor = jobMonitor;
     }
 
-    // Runs at 7 AM and 7 PM every day
-    @Scheduled(cron = "0 0 7,19 * * *")
+    // Runs at 7 AM and 7 PM every day, on the maintenance pool so mail jobs keep running
+    @Scheduled(cron = "0 0 7,19 * * *", scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
 //    @Scheduled(cron = "0 * * * * *")
     public void backupDatabase() {
-        try {
-            File backupDir = new File(backupDirectory);
-            if (!backupDir.exists()) {
-                backupDir.mkdirs(); // Create directory if not exists
-            }
-
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            String backupFile = backupDirectory + File.separator + "backup_" + timestamp + ".sql";
-
-            ProcessBuilder pb = new ProcessBuilder(
-                    mysqldumpPath,
-                    "-h", dbHost,
-                    "-P", dbPort,
-                    "-u", dbUsername,
-                    "-p" + dbPassword,
-                    dbName,
-                    "-r", backupFile
-            );
-
-            Process process = pb.start();
-            int processComplete = process.waitFor();
-
-            if (processComplete == 0) {
-                System.out.println("✅ Backup successful: " + backupFile);
-            } else {
-                System.err.println("❌ Backup failed.");
-            }
-
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-        }
+        jobMonitor.runOnLeader("database-backup", backupService::backup);
     }
-
-
-
-
 }
-
-
@@ -1,6 +1,8 @@
 package AssetManagement.AssetManagement.service;
 
+import AssetManagement.AssetManagement.dto.InboundMail;
 import AssetManagement.AssetManagement.dto.TicketDTO;
+import AssetManagement.AssetManagement.entity.ProcessedInboundMail;
 import AssetManagement.AssetManagement.entity.Ticket;
 import AssetManagement.AssetManagement.entity.TicketMessage;
 import AssetManagement.AssetManagement.entity.User;
@@ -10,36 +12,36 @@ import AssetManagement.AssetManagement.enums.TicketMessageType;
 import AssetManagement.AssetManagement.enums.TicketStatus;
 import AssetManagement.AssetManagement.exception.UserNotFoundException;
 import AssetManagement.AssetManagement.mapper.TicketMapper;
+import AssetManagement.AssetManagement.repository.ProcessedInboundMailRepository;
 import AssetManagement.AssetManagement.repository.TicketMessageRepository;
 import AssetManagement.AssetManagement.repository.TicketRepository;
 import AssetManagement.AssetManagement.repository.UserRepository;
 import AssetManagement.AssetManagement.util.AuthUtils;
-import AssetManagement.AssetManagement.util.GraphClientProvider;
-import com.microsoft.graph.models.Message;
-import com.microsoft.graph.requests.GraphServiceClient;
-import com.microsoft.graph.requests.MessageCollectionPage;
 import jakarta.annotation.Nullable;
 import jakarta.mail.Address;
-import com.microsoft.graph.models.*;
-import com.microsoft.graph.requests.GraphServiceClient;
 import jakarta.mail.BodyPart;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import jakarta.mail.internet.MimeMultipart;
 import jakarta.persistence.EntityNotFoundException;
-import okhttp3.Request;
 import org.jsoup.Jsoup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -54,6 +56,8 @@ public class EmailService {
     private UserRepository userRepository;
     @Autowired
     private TicketMessageRepository ticketMessageRepository;
+    @Autowired
+    private TicketSearchEngine ticketSearchEngine;
     private static final List<String> COMPANY_DOMAINS = List.of(
             "@mahavirauto.co",
             "@mahavirgroup.co",
@@ -77,144 +81,88 @@ public class EmailService {
 //    @Autowired
 //    private JavaMailSender mailSender; // Inject Spring Mail Sender
 
-    private final GraphServiceClient<Request> graphClient;
-
-    public EmailService(GraphClientProvider graphClientProvider) {
-        this.graphClient = graphClientProvider.getGraphClient();
+    private final MailOutboxService mailOutboxService;
+    private final ProcessedInboundMailRepository processedInboundMailRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock ticketFromMailLock = new ReentrantLock();
+
+    public EmailService(MailOutboxService mailOutboxService,
+                        ProcessedInboundMailRepository processedInboundMailRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.mailOutboxService = mailOutboxService;
+        this.processedInboundMailRepository = processedInboundMailRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
 
+    // Queued in the outbox; MailOutboxDispatcher sends it via Graph after the caller commits
     public void sendEmailViaGraph(String toEmail, String subject, String bodyHtml, List<String> ccEmails) {
-        Recipient toRecipient = new Recipient();
-        EmailAddress emailAddress = new EmailAddress();
-        emailAddress.address = toEmail;
-        toRecipient.emailAddress = emailAddress;
-
-        List<Recipient> ccRecipients = new ArrayList<>();
-        if (ccEmails != null) {
-            for (String ccEmail : ccEmails) {
-                Recipient ccRecipient = new Recipient();
-                EmailAddress ccAddress = new EmailAddress();
-                ccAddress.address = ccEmail;
-                ccRecipient.emailAddress = ccAddress;
-                ccRecipients.add(ccRecipient);
-            }
-        }
-
-        Message message = new Message();
-        message.subject = subject;
-
-        ItemBody body = new ItemBody();
-        body.contentType = BodyType.HTML;
-        body.content = bodyHtml;
-        message.body = body;
-
-        message.toRecipients = List.of(toRecipient);
-        message.ccRecipients = ccRecipients;
+        mailOutboxService.enqueueMessage(toEmail, ccEmails, subject, bodyHtml);
 
-        graphClient
-                .users("support@mahavirgroup.co")
-                .sendMail(UserSendMailParameterSet
-                        .newBuilder()
-                        .withMessage(message)
-                        .withSaveToSentItems(true)
-                        .build())
-                .buildRequest()
-                .post();
-
-        System.out.println("✅ Email sent to " + toEmail + " via Graph API");
+        System.out.println("✅ Email to " + toEmail + " queued for Graph API");
     }
 
-    @Scheduled(fixedRate = 60000)
-    public void checkEmailsForTickets() {
-        String mailboxUser = "support@mahavirgroup.co";
+    // Called by MailboxIngestionService for every unread inbox message
+    public void processInboundMail(InboundMail mail) {
+        String subject = mail.subject();
+        String senderEmail = mail.senderEmail();
+        String content = Jsoup.parse(mail.bodyHtml()).text();
+        List<String> ccEmails = mail.ccEmails();
+
+        System.out.println("Received Email - Subject: " + subject);
+        System.out.println("From: " + senderEmail);
+        System.out.println("CC Recipients: " + ccEmails);
+
+        Long ticketId = extractTicketIdFromSubject(subject);
+        if (ticketId != null) {
+            processOnce(mail, () -> {
+                saveReplyToTicket(ticketId, senderEmail, content, ccEmails);
+                return ticketId;
+            });
+            return;
+        }
 
+        // New tickets may create a temp user; keep parallel conversations from racing on it.
+        // The lock is held until the transaction has committed
+        ticketFromMailLock.lock();
         try {
-            MessageCollectionPage messages = graphClient
-                    .users(mailboxUser)
-                    .messages()
-                    .buildRequest()
-                    .select("subject,from,body,isRead,internetMessageHeaders")
-                    .top(20)
-                    .get();
-
-            List<Message> messageList = messages.getCurrentPage();
-
-            for (Message message : messageList) {
-                if (Boolean.TRUE.equals(message.isRead)) {
-                    continue; // Skip already processed emails
-                }
-
-                String subject = message.subject;
-                String senderEmail = message.from.emailAddress.address;
-//                String content = message.body.content;
-
-                String htmlContent = message.body.content;
-                String content = Jsoup.parse(htmlContent).text();
-
-
-
-                List<String> ccEmails = extractCcRecipients(message); // Custom method to extract CCs
-                String messageId = extractHeaderValue(message, "Message-ID");
-
-                System.out.println("Received Email - Subject: " + subject);
-//                System.out.println("Content: " + content);
-                System.out.println("From: " + senderEmail);
-                System.out.println("CC Recipients: " + ccEmails);
-
-                try {
-                    Long ticketId = extractTicketIdFromSubject(subject);
-                    if (ticketId != null) {
-                        saveReplyToTicket(ticketId, senderEmail, content, ccEmails);
-                    } else {
-                        TicketDTO ticketDTO = createTicketFromEmail(subject, content, senderEmail);
-                        sendTicketAcknowledgmentEmail(
-                                senderEmail,
-                                ticketRepository.findById(ticketDTO.getId()).orElseThrow(),
-                                ccEmails,
-                                null,
-                                null
-//                                messageId,
-//                                subject
-                        );
-                    }
-
-                    // Mark as read
-                    Message messageUpdate = new Message();
-                    messageUpdate.isRead = true;
-                    graphClient.users(mailboxUser)
-                            .messages(message.id)
-                            .buildRequest()
-                            .patch(messageUpdate);
-
-                } catch (Exception processingEx) {
-                    System.err.println("Failed to process email: " + processingEx.getMessage());
-                    processingEx.printStackTrace();
-                }
-            }
-
-        } catch (Exception e) {
-            System.err.println("Error during email polling: " + e.getMessage());
-            e.printStackTrace();
+            processOnce(mail, () -> {
+                Ticket ticket = createTicket(subject, content, senderEmail);
+                sendTicketAcknowledgmentEmail(senderEmail, ticket, ccEmails, null, null);
+                return ticket.getId();
+            });
+        } finally {
+            ticketFromMailLock.unlock();
         }
     }
 
-
-
-    private String extractHeaderValue(Message message, String headerName) {
-        if (message.internetMessageHeaders == null) return null;
-        return message.internetMessageHeaders.stream()
-                .filter(h -> headerName.equalsIgnoreCase(h.name))
-                .map(h -> h.value)
-                .findFirst()
-                .orElse(null);
+    // Runs the handler and records the mail as processed in one transaction. A mail that is
+    // already recorded (redelivered, or retried after markRead failed) is skipped, and a failed
+    // handler leaves nothing behind, so a retry never creates a second ticket
+    private void processOnce(InboundMail mail, Supplier<Long> handler) {
+        String messageKey = messageKeyOf(mail);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (processedInboundMailRepository.existsById(messageKey)) {
+                System.out.println("Skipping already processed email: " + mail.subject());
+                return;
+            }
+            Long ticketId = handler.get();
+            processedInboundMailRepository.save(
+                    new ProcessedInboundMail(messageKey, mail.internetMessageId(), ticketId, LocalDateTime.now()));
+        });
     }
 
-    private List<String> extractCcRecipients(Message message) {
-        if (message.ccRecipients == null) return List.of();
-        return message.ccRecipients.stream()
-                .map(recipient -> recipient.emailAddress.address)
-                .toList();
+    // Internet Message-IDs can be longer than an index allows, so the key is their hash
+    static String messageKeyOf(InboundMail mail) {
+        String id = mail.internetMessageId() != null && !mail.internetMessageId().isBlank()
+                ? mail.internetMessageId()
+                : "mailbox:" + mail.id();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(id.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
 
@@ -291,6 +239,10 @@ public class EmailService {
 
     @Transactional
     public TicketDTO createTicketFromEmail(String emailSubject, String emailBody, String senderEmail) {
+        return ticketMapper.toDTO(createTicket(emailSubject, emailBody, senderEmail));
+    }
+
+    private Ticket createTicket(String emailSubject, String emailBody, String senderEmail) {
 
         Ticket ticket = new Ticket();
         ticket.setTitle(emailSubject);
@@ -352,7 +304,8 @@ public class EmailService {
         ticket.setUpdatedAt(LocalDateTime.now());
 
         Ticket savedTicket = ticketRepository.save(ticket);
-        return ticketMapper.toDTO(savedTicket);
+        ticketSearchEngine.reindex(savedTicket.getId());
+        return savedTicket;
     }
 
 
@@ -533,6 +486,7 @@ public class EmailService {
         replyMessage.setSentAt(LocalDateTime.now());
 
         ticketMessageRepository.save(replyMessage);
+        ticketSearchEngine.reindex(ticketId);
 
         System.out.println("✅ Reply sent for Ticket ID: " + ticketId + " via Graph API");
     }
@@ -609,6 +563,7 @@ public class EmailService {
         ticketMessage.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
 
         ticketMessageRepository.save(ticketMessage);
+        ticketSearchEngine.reindex(ticketId);
         System.out.println("✅ Saved latest reply for Ticket ID: " + ticketId);
 
 //        sendEmailViaGraph(
@@ -622,24 +577,6 @@ public class EmailService {
     }
 
     public void sendInternalMail(String senderEmail, String messagePreview, List<String> ccEmails,Ticket ticket) {
-        // Build TO recipient (sender)
-        Recipient toRecipient = new Recipient();
-        EmailAddress senderAddress = new EmailAddress();
-        senderAddress.address = senderEmail;
-        toRecipient.emailAddress = senderAddress;
-
-        // Build CC recipients
-        List<Recipient> ccRecipients = new ArrayList<>();
-        if (ccEmails != null && !ccEmails.isEmpty()) {
-            for (String ccEmail : ccEmails) {
-                Recipient ccRecipient = new Recipient();
-                EmailAddress ccAddress = new EmailAddress();
-                ccAddress.address = ccEmail;
-                ccRecipient.emailAddress = ccAddress;
-                ccRecipients.add(ccRecipient);
-            }
-        }
-
         // Attractive HTML body
         String bodyHtml = """
         <html>
@@ -658,30 +595,14 @@ public class EmailService {
         </html>
     """.formatted(messagePreview);
 
-        // Create and send message
-        Message message = new Message();
-//        message.subject = "Ticket Notification";  // You can hardcode or make dynamic
-         message.subject = "Re: Ticket ID: " + ticket.getId() + " - " + ticket.getTitle();
-        ItemBody body = new ItemBody();
-        body.contentType = BodyType.HTML;
-        body.content = bodyHtml;
-        message.body = body;
-        message.toRecipients = List.of(toRecipient);
-        message.ccRecipients = ccRecipients;
-
-        graphClient
-                .users("support@mahavirgroup.co")
-                .sendMail(UserSendMailParameterSet
-                        .newBuilder()
-                        .withMessage(message)
-                        .withSaveToSentItems(true)
-                        .build())
-                .buildRequest()
-                .post();
-
-        System.out.println("✅ Styled email sent to " + senderEmail + " with CC: " + ccEmails);
+        String subject = "Re: Ticket ID: " + ticket.getId() + " - " + ticket.getTitle();
+        mailOutboxService.enqueueMessage(senderEmail, ccEmails, subject, bodyHtml);
+
+        System.out.println("✅ Styled email to " + senderEmail + " with CC: " + ccEmails + " queued");
     }
 
+    // Recipients are worked out here, where the authenticated sender is known; the Graph
+    // create-reply / patch / send chain runs later in MailOutboxDispatcher
     public void sendAcknowledgmentReplyToTicket(
             Long ticketId,
             String messageContent,
@@ -693,121 +614,56 @@ public class EmailService {
         User sender = userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername())
                 .orElseThrow(() -> new UserNotFoundException("Authenticated user not found"));
 
-        try {
-            // Step 0: Resolve message from internetMessageId
-            MessageCollectionPage results = graphClient
-                    .users("support@mahavirgroup.co")
-                    .messages()
-                    .buildRequest()
-                    .filter("internetMessageId eq '" + inReplyToMessageId + "'")
-                    .get();
-
-            List<Message> messages = results.getCurrentPage();
-            if (messages.isEmpty()) {
-                System.err.println("❌ No message found with internetMessageId: " + inReplyToMessageId
-                        + "In ticket #"+ticketId);
-                return;
-            }
-
-            String messageId = messages.get(0).id;
-
-            // Step 1: Create a reply draft
-            Message replyDraft = graphClient
-                    .users("support@mahavirgroup.co")
-                    .messages(messageId)
-                    .createReply(MessageCreateReplyParameterSet.newBuilder().build())
-                    .buildRequest()
-                    .post();
-
-            // Step 2: Determine To and CC logic
-            String recipientEmail;
-            Set<String> ccSet = new HashSet<>();
-
+        // Determine To and CC logic
+        String recipientEmail;
+        Set<String> ccSet = new HashSet<>();
 
-            if (sender.getId().equals(ticket.getEmployee().getId())) {
-                // Employee is replying
-                if (ticket.getAssignee() != null) {
-                    recipientEmail = ticket.getAssignee().getEmail();
-                    ccSet.add(ticket.getEmployee().getEmail());  // add employee to CC
-                } else {
 
-                    // when no one is assignee (might be ticket created by mail so after followup maill
-                    // will go on this email only
-                    recipientEmail = "it.manager@mahavirgroup.co";
-                }
-            } else if (ticket.getAssignee() != null && sender.getId().equals(ticket.getAssignee().getId())) {
-                // Assignee is replying
-                recipientEmail = ticket.getEmployee().getEmail();
-                ccSet.add(ticket.getAssignee().getEmail());  // add assignee to CC
+        if (sender.getId().equals(ticket.getEmployee().getId())) {
+            // Employee is replying
+            if (ticket.getAssignee() != null) {
+                recipientEmail = ticket.getAssignee().getEmail();
+                ccSet.add(ticket.getEmployee().getEmail());  // add employee to CC
             } else {
+
+                // when no one is assignee (might be ticket created by mail so after followup maill
+                // will go on this email only
                 recipientEmail = "it.manager@mahavirgroup.co";
             }
+        } else if (ticket.getAssignee() != null && sender.getId().equals(ticket.getAssignee().getId())) {
+            // Assignee is replying
+            recipientEmail = ticket.getEmployee().getEmail();
+            ccSet.add(ticket.getAssignee().getEmail());  // add assignee to CC
+        } else {
+            recipientEmail = "it.manager@mahavirgroup.co";
+        }
 
-            // Add previously stored CC emails
-            if (ticket.getCcEmails() != null) {
-                ccSet.addAll(ticket.getCcEmails());
-            }
+        // Add previously stored CC emails
+        if (ticket.getCcEmails() != null) {
+            ccSet.addAll(ticket.getCcEmails());
+        }
+
+        // Remove recipient from CC
+        ccSet.removeIf(email -> email.equalsIgnoreCase(recipientEmail));
 
-            // Remove recipient from CC
-            ccSet.removeIf(email -> email.equalsIgnoreCase(recipientEmail));
-
-            // Build recipient objects
-            Recipient toRecipient = new Recipient();
-            EmailAddress toEmail = new EmailAddress();
-            toEmail.address = recipientEmail;
-            toRecipient.emailAddress = toEmail;
-
-            List<Recipient> ccRecipients = ccSet.stream().map(email -> {
-                Recipient r = new Recipient();
-                EmailAddress ea = new EmailAddress();
-                ea.address = email;
-                r.emailAddress = ea;
-                return r;
-            }).toList();
-
-            // Step 3: Compose reply content
-            Message updatedReply = new Message();
-
-            ItemBody body = new ItemBody();
-            body.contentType = BodyType.HTML;
-            body.content = """
+        // Compose reply content
+        String bodyHtml = """
             <p>%s</p>
             <p><strong>Regards,</strong><br>%s</p>
         """.formatted(messageContent, sender.getUsername());
 
-            updatedReply.body = body;
-            updatedReply.toRecipients = List.of(toRecipient);
-            if (!ccRecipients.isEmpty()) {
-                updatedReply.ccRecipients = ccRecipients;
-            }
+        // A null thread id is resolved from the ticket when the reply is sent
+        mailOutboxService.enqueueTicketReply(ticketId, recipientEmail, ccSet, bodyHtml, inReplyToMessageId);
 
-            // Step 4: Patch and send
-            graphClient
-                    .users("support@mahavirgroup.co")
-                    .messages(replyDraft.id)
-                    .buildRequest()
-                    .patch(updatedReply);
-
-            graphClient
-                    .users("support@mahavirgroup.co")
-                    .messages(replyDraft.id)
-                    .send()
-                    .buildRequest()
-                    .post();
-
-            System.out.printf("✅ Acknowledgment reply sent to %s (cc: %s)%n",
-                    recipientEmail, String.join(", ", ccSet));
-
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send acknowledgment reply for ticket ID: " + ticketId);
-            e.printStackTrace();
-        }
+        System.out.printf("✅ Acknowledgment reply to %s (cc: %s) queued%n",
+                recipientEmail, String.join(", ", ccSet));
     }
 
 
 
 
 
+    // Queued; the dispatcher sends it and stores messageId/internetMessageId on the ticket
     public void sendTicketAcknowledgmentEmail(
             String recipientEmail,
             Ticket ticket,
@@ -815,12 +671,10 @@ public class EmailService {
             @Nullable String internetMessageId,
             @Nullable String originalSubject
     ) {
-//        System.out.println("trying to send by sendTicketAcknowledgmentEmail");
-        try {
-            String subject = "Ticket ID: " + ticket.getId() + " - " +
-                    (originalSubject != null ? originalSubject : ticket.getTitle());
+        String subject = "Ticket ID: " + ticket.getId() + " - " +
+                (originalSubject != null ? originalSubject : ticket.getTitle());
 
-            String htmlContent = """
+        String htmlContent = """
         <html>
             <body style=\"font-family: Arial, sans-serif;\">
                 <p>Dear User,</p>
@@ -837,112 +691,16 @@ public class EmailService {
             </body>
         </html>
         """.formatted(
-                    ticket.getId(),
-                    ticket.getDescription(),
-                    ticket.getStatus().name(),
-                    ticket.getCreatedAt().toString()
-            );
-
-            // Prepare recipient and CC
-            Recipient toRecipient = new Recipient();
-            EmailAddress toEmail = new EmailAddress();
-            toEmail.address = recipientEmail;
-            toRecipient.emailAddress = toEmail;
-
-            List<Recipient> ccRecipients = new ArrayList<>();
-            if (ccEmails != null) {
-                for (String cc : ccEmails) {
-                    EmailAddress ccEmail = new EmailAddress();
-                    ccEmail.address = cc;
-                    Recipient ccRecipient = new Recipient();
-                    ccRecipient.emailAddress = ccEmail;
-                    ccRecipients.add(ccRecipient);
-                }
-            }
-
-            ItemBody body = new ItemBody();
-            body.contentType = BodyType.HTML;
-            body.content = htmlContent;
-
-//            System.out.println("🔍 Searching for message with filter: internetMessageId eq '" + internetMessageId + "'");
-
-            // If internetMessageId is present, search and reply to it
-            if (internetMessageId != null && !internetMessageId.isEmpty()) {
-                MessageCollectionPage results = graphClient
-                        .users("support@mahavirgroup.co")
-                        .messages()
-                        .buildRequest()
-                        .filter("internetMessageId eq '" + internetMessageId + "'")
-                        .get();
-
-                List<Message> messages = results.getCurrentPage();
-                if (!messages.isEmpty()) {
-                    Message originalMessage = messages.get(0);
-                    Message replyDraft = graphClient
-                            .users("support@mahavirgroup.co")
-                            .messages(originalMessage.id)
-                            .createReply(MessageCreateReplyParameterSet.newBuilder().build())
-                            .buildRequest()
-                            .post();
-
-                    replyDraft.subject = subject;
-                    replyDraft.body = body;
-                    replyDraft.toRecipients = List.of(toRecipient);
-                    if (!ccRecipients.isEmpty()) {
-                        replyDraft.ccRecipients = ccRecipients;
-                    }
-
-                    graphClient
-                            .users("support@mahavirgroup.co")
-                            .messages(replyDraft.id)
-                            .buildRequest()
-                            .patch(replyDraft);
-
-                    graphClient
-                            .users("support@mahavirgroup.co")
-                            .messages(replyDraft.id)
-                            .send()
-                            .buildRequest()
-                            .post();
-
-                    ticket.setMessageId(replyDraft.id);
-                } else {
-                    System.err.println("❌ No message found for internetMessageId: " + internetMessageId);
-                }
-            } else {
-                // New message (not a reply)
-                Message message = new Message();
-                message.subject = subject;
-                message.body = body;
-                message.toRecipients = List.of(toRecipient);
-                if (!ccRecipients.isEmpty()) {
-                    message.ccRecipients = ccRecipients;
-                }
+                ticket.getId(),
+                ticket.getDescription(),
+                ticket.getStatus().name(),
+                ticket.getCreatedAt().toString()
+        );
 
-                Message draft = graphClient
-                        .users("support@mahavirgroup.co")
-                        .messages()
-                        .buildRequest()
-                        .post(message);
-
-                ticket.setMessageId(draft.id);
-                ticket.setInternetMessageId(draft.internetMessageId);  // <-- Add this field in Ticket entity
-                ticketRepository.save(ticket);
-
-                graphClient
-                        .users("support@mahavirgroup.co")
-                        .messages(draft.id)
-                        .send()
-                        .buildRequest()
-                        .post();
-            }
+        mailOutboxService.enqueueTicketAcknowledgment(
+                ticket.getId(), recipientEmail, ccEmails, subject, htmlContent, internetMessageId);
 
-            ticketRepository.save(ticket);
-            System.out.println("✅ Acknowledgment email sent to " + recipientEmail);
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send acknowledgment email to " + recipientEmail);
-            e.printStackTrace();
-        }
+        System.out.println("✅ Acknowledgment email to " + recipientEmail + " queued");
     }
 
 
@@ -15,15 +15,19 @@ import AssetManagement.AssetManagement.repository.AssetRepository;
 import AssetManagement.AssetManagement.repository.LocationRepository;
 import AssetManagement.AssetManagement.repository.SiteRepository;
 import AssetManagement.AssetManagement.repository.UserRepository;
+import AssetManagement.AssetManagement.security.PrincipalCache;
 import AssetManagement.AssetManagement.util.AuthUtils;
+import AssetManagement.AssetManagement.util.ingest.ImportColumn;
+import AssetManagement.AssetManagement.util.ingest.ImportRecord;
+import AssetManagement.AssetManagement.util.ingest.ImportReport;
+import AssetManagement.AssetManagement.util.ingest.IngestionEngine;
+import AssetManagement.AssetManagement.util.ingest.SheetRow;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -57,44 +61,53 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EmployeeOnboardingService {
 
+    // Each row raises tickets, so hand rows to the sink in small batches
+    private static final int ONBOARDING_BATCH_SIZE = 50;
+
+    // Column order of the onboarding template; names are the keys of the row map
+    private static final List<ImportColumn<String>> COLUMNS = List.of(
+            ImportColumn.displayText(0, "employeeId"),
+            ImportColumn.displayText(1, "username"),
+            ImportColumn.displayText(2, "professionalEmail"),
+            ImportColumn.displayText(3, "personalEmail"),
+            ImportColumn.displayText(4, "phoneNumber"),
+            ImportColumn.displayText(5, "department"),
+            ImportColumn.displayText(6, "siteName"),
+            ImportColumn.displayText(7, "locationName"),
+            ImportColumn.displayText(8, "aadharNumber"),
+            ImportColumn.displayText(9, "panNumber"),
+            ImportColumn.displayText(10, "note"),
+            ImportColumn.displayText(11, "cugRequired"),
+            ImportColumn.displayText(12, "isLaptopOrDesktopRequired"),
+            ImportColumn.displayText(13, "designation"),
+            ImportColumn.displayText(14, "replacementEmployee"),
+            ImportColumn.displayText(15, "emailProvisionRequired"));
+
     private final UserRepository userRepository;
     private final SiteRepository siteRepository;
     private final LocationRepository locationRepository;
     private final AssetRepository assetRepository; // kept for possible link usage in future
     private final TicketService ticketService;     // existing service: createTicket(TicketDTO, MultipartFile)
+    private final IngestionEngine ingestionEngine;
+    private final PrincipalCache principalCache;
 
 //    @Transactional()
     public OnboardingResultDto processOnboardingExcel(MultipartFile file) {
-        int total = 0, success = 0, failed = 0;
         List<OnboardingRowResult> results = new ArrayList<>();
+        int[] outcome = new int[2]; // success, failed
 
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(is)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                throw new RuntimeException("Excel sheet is empty");
-            }
-
-            // assume first row is header
-            int firstDataRow = Math.max(1, sheet.getFirstRowNum() + 1);
-            int lastRow = sheet.getLastRowNum();
-            total = Math.max(0, lastRow - firstDataRow + 1);
-
-            for (int r = firstDataRow; r <= lastRow; r++) {
-                Row row = sheet.getRow(r);
-                if (row == null) continue;
-
-                int displayRowNumber = r + 1; // human-friendly
+        ImportReport report = ingestionEngine.ingest(file, this::readRowIntoMap, (batch, rowReport) -> {
+            for (ImportRecord<Map<String, String>> record : batch) {
+                int displayRowNumber = record.rowNumber();
                 try {
-                    OnboardingRowResult rowResult = processSingleRow(row, displayRowNumber);
+                    OnboardingRowResult rowResult = processSingleRow(record.value(), displayRowNumber);
                     results.add(rowResult);
 
                     if (rowResult.getStatus() == OnboardingStatus.SUCCESS ||
                             rowResult.getStatus() == OnboardingStatus.PARTIAL_SUCCESS) {
-                        success++;
+                        outcome[0]++;
                     } else {
-                        failed++;
+                        outcome[1]++;
                     }
                 } catch (Exception exRow) {
                     log.error("Row {} processing failed: {}", displayRowNumber, exRow.getMessage(), exRow);
@@ -103,26 +116,31 @@ public class EmployeeOnboardingService {
                     err.setStatus(OnboardingStatus.FAILED);
                     err.setMessage("Row processing error: " + exRow.getMessage());
                     results.add(err);
-                    failed++;
+                    outcome[1]++;
                 }
+                rowReport.accept();
+            }
+        }, ONBOARDING_BATCH_SIZE);
+
+        // Rows the engine could not read (or the whole file, as row 0)
+        for (RowError error : report.getErrors()) {
+            log.error("Failed to process onboarding row {}: {}", error.rowNumber(), error.message());
+            results.add(new OnboardingRowResult(error.rowNumber(), "N/A", OnboardingStatus.FAILED,
+                    error.rowNumber() == 0 ? error.message() : "Row processing error: " + error.message(),
+                    Collections.emptyList(), null));
+            if (error.rowNumber() > 0) {
+                outcome[1]++;
             }
-
-        } catch (Exception e) {
-            log.error("Failed to process onboarding file", e);
-            results.add(new OnboardingRowResult(0, "N/A", OnboardingStatus.FAILED,
-                    "Failed to read file: " + e.getMessage(), Collections.emptyList(), null));
         }
+        results.sort(Comparator.comparingInt(OnboardingRowResult::getRowNumber));
 
-        return new OnboardingResultDto(total, success, failed, results);
+        return new OnboardingResultDto(report.getRowsRead(), outcome[0], outcome[1], results);
     }
 
-    private OnboardingRowResult processSingleRow(Row row, int rowNumber) {
+    private OnboardingRowResult processSingleRow(Map<String, String> rowMap, int rowNumber) {
         OnboardingRowResult result = new OnboardingRowResult();
         result.setRowNumber(rowNumber);
 
-        // Parse row into a structured map + DTO-like fields
-        Map<String, String> rowMap = readRowIntoMap(row);
-
         // Validate required fields
         String employeeId = rowMap.get("employeeId");
         String professionalEmail = rowMap.get("professionalEmail");
@@ -220,24 +238,11 @@ public class EmployeeOnboardingService {
         return result;
     }
 
-    private Map<String, String> readRowIntoMap(Row row) {
+    private Map<String, String> readRowIntoMap(SheetRow row) {
         Map<String, String> m = new HashMap<>();
-        m.put("employeeId", safeGetString(row, 0));
-        m.put("username", safeGetString(row, 1));
-        m.put("professionalEmail", safeGetString(row, 2));
-        m.put("personalEmail", safeGetString(row, 3));
-        m.put("phoneNumber", safeGetString(row, 4));
-        m.put("department", safeGetString(row, 5));
-        m.put("siteName", safeGetString(row, 6));
-        m.put("locationName", safeGetString(row, 7));
-        m.put("aadharNumber", safeGetString(row, 8));
-        m.put("panNumber", safeGetString(row, 9));
-        m.put("note", safeGetString(row, 10));
-        m.put("cugRequired", safeGetString(row, 11));
-        m.put("isLaptopOrDesktopRequired", safeGetString(row, 12));
-        m.put("designation", safeGetString(row, 13));
-        m.put("replacementEmployee", safeGetString(row, 14));
-        m.put("emailProvisionRequired", safeGetString(row, 15));
+        for (ImportColumn<String> column : COLUMNS) {
+            m.put(column.getName(), row.get(column));
+        }
         return m;
     }
 
@@ -301,6 +306,7 @@ public class EmployeeOnboardingService {
 
 //            u.setIsDeleted(false);
             User saved = userRepository.save(u);
+            principalCache.evict(saved.getEmployeeId()); // details may have changed
             log.info("Updated user for employeeId {}", employeeId);
             return saved;
         } else {
@@ -322,6 +328,7 @@ public class EmployeeOnboardingService {
             newUser.setCreatedBy(createdBy);
 
             User saved = userRepository.save(newUser);
+            principalCache.evict(saved.getEmployeeId()); // no cached principal may outlive a change to the employee id
             log.info("Created new user for employeeId {}", employeeId);
             return saved;
         }
@@ -360,43 +367,6 @@ public class EmployeeOnboardingService {
                 .orElse(null);
     }
 
-    // --- Helpers for Excel cell reading ---
-    private String safeGetString(Row row, int colIndex) {
-        Cell cell = row.getCell(colIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
-
-        CellType t = cell.getCellType();
-        if (t == CellType.STRING) {
-            return cell.getStringCellValue().trim();
-        } else if (t == CellType.NUMERIC) {
-            if (DateUtil.isCellDateFormatted(cell)) {
-                return cell.getDateCellValue().toString();
-            } else {
-                double d = cell.getNumericCellValue();
-                long l = (long) d;
-                if (Double.compare(d, (double) l) == 0) {
-                    return String.valueOf(l);
-                } else {
-                    return String.valueOf(d);
-                }
-            }
-        } else if (t == CellType.BOOLEAN) {
-            return String.valueOf(cell.getBooleanCellValue());
-        } else if (t == CellType.FORMULA) {
-            try {
-                return cell.getStringCellValue().trim();
-            } catch (Exception ignored) {
-                try {
-                    double d = cell.getNumericCellValue();
-                    return String.valueOf((long) d);
-                } catch (Exception e) {
-                    return null;
-                }
-            }
-        }
-        return null;
-    }
-
     private boolean isAffirmative(String value) {
         if (isBlank(value)) return false;
         String v = value.trim().toLowerCase();
@@ -0,0 +1,254 @@
+package AssetManagement.AssetManagement.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Writes uploaded files to the response without loading them. Bodies go out through the
+ * container's sendfile support when it has it, otherwise through {@link FileChannel#transferTo}.
+ * Every response carries an ETag and Last-Modified, so revalidation is answered with 304, and
+ * single byte ranges are answered with 206 so large PDFs can be read page by page.
+ * <p>
+ * Blobs from {@link FileStorageService} never change, so their hash is the ETag and they may be
+ * cached for a year. Files from before the store get an ETag from their size and mtime.
+ */
+@Slf4j
+@Service
+public class FileServingService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE = "private, max-age=31536000, immutable";
+    private static final String LEGACY_CACHE = "private, max-age=86400";
+
+    private final FileStorageService fileStorageService;
+
+    public FileServingService(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * Serves what a record points at: a store key, or a name in {@code legacyDir} (a plain path
+     * when {@code legacyDir} is null) for records written before the store existed.
+     *
+     * @param downloadName name for Content-Disposition; null serves the file inline
+     */
+    public void serve(String reference, Path legacyDir, String downloadName,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (FileStorageService.isKey(reference)) {
+            Path path = fileStorageService.resolveKey(reference).orElse(null);
+            String contentType = fileStorageService.contentTypeOf(reference)
+                    .orElseGet(() -> contentTypeByName(downloadName != null ? downloadName : reference));
+            send(path, contentType, true, downloadName, request, response);
+            return;
+        }
+
+        Path path = legacyPath(reference, legacyDir);
+        String name = downloadName != null ? downloadName : reference;
+        send(path, contentTypeByName(name), false, downloadName, request, response);
+    }
+
+    /** Serves a file by path; a path inside the store is treated as immutable. */
+    public void serveFile(Path path, String contentType, String downloadName,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean stored = path != null && FileStorageService.isKey(path.getFileName().toString());
+        if (contentType == null || contentType.isBlank()) {
+            contentType = contentTypeByName(downloadName != null ? downloadName : String.valueOf(path));
+        }
+        send(path, contentType, stored, downloadName, request, response);
+    }
+
+    private void send(Path path, String contentType, boolean immutable, String downloadName,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (path == null || !Files.isRegularFile(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long length = attributes.size();
+        // HTTP dates have second precision
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = immutable
+                ? "\"" + path.getFileName() + "\""
+                : "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE_CACHE : LEGACY_CACHE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(contentType);
+        if (downloadName != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(downloadName, StandardCharsets.UTF_8)
+                    .build()
+                    .toString());
+        }
+
+        long start = 0;
+        long end = length - 1;
+        long[] range = requestedRange(request, etag, lastModified, length);
+        if (range != null) {
+            if (range.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The connector writes the bytes itself once the request returns
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * The single range asked for as {start, end} (inclusive), an empty array when it cannot be
+     * satisfied, or null to send the whole file. Multiple ranges are answered with the whole file.
+     */
+    private static long[] requestedRange(HttpServletRequest request, String etag, long lastModified, long length) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+
+        // A range only applies to the version the client already has part of
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            boolean current = ifRange.startsWith("\"") || ifRange.startsWith("W/")
+                    ? ifRange.trim().equals(etag)
+                    : dateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+            if (!current) {
+                return null;
+            }
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // Suffix range: the last n bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+            if (start >= length || start > end) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean matches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static Path legacyPath(String reference, Path legacyDir) {
+        if (reference == null) {
+            return null;
+        }
+        if (legacyDir == null) {
+            return Paths.get(reference);
+        }
+        Path dir = legacyDir.toAbsolutePath().normalize();
+        Path path = dir.resolve(reference).normalize();
+        // Names come from the URL, so keep them inside the upload directory
+        return path.startsWith(dir) ? path : null;
+    }
+
+    private static String contentTypeByName(String name) {
+        return MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+}
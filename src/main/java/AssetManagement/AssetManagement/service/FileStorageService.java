@@ -0,0 +1,298 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.entity.StoredFile;
+import AssetManagement.AssetManagement.repository.StoredFileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for uploaded files. An upload is streamed to a temp file while its
+ * SHA-256 is computed, then moved to {@code <root>/ab/cd/<hash>}; bytes that are already
+ * stored are not written twice. Every record that points at a blob holds one reference on
+ * its stored_files row, taken by {@link #storeFor} in the transaction that saves the record
+ * and dropped by {@link #deleteFor} (or {@link #release}) in the one that deletes it. The last
+ * release removes the row and the blob with its derivatives. A blob whose record failed to
+ * save stays on disk with no reference.
+ * <p>
+ * Records refer to a blob by a key, the hash plus the original extension
+ * ({@code <hash>.pdf}), which keeps download names and content type detection working.
+ */
+@Slf4j
+@Service
+public class FileStorageService {
+
+    private static final Pattern KEY = Pattern.compile("([0-9a-f]{64})(\\.[A-Za-z0-9]{1,10})?");
+
+    private static final int MAX_CACHED_TYPES = 10_000;
+
+    // A released blob waits under this name until its transaction ends
+    private static final String RELEASED_SUFFIX = ".released";
+
+    private final StoredFileRepository storedFileRepository;
+    private final Path root;
+
+    // Content type recorded at upload, per hash; read once from stored_files
+    private final Map<String, Optional<String>> contentTypes = new ConcurrentHashMap<>();
+
+    public FileStorageService(StoredFileRepository storedFileRepository,
+                              @Value("${app.storage.path:uploads/store}") String rootPath) {
+        this.storedFileRepository = storedFileRepository;
+        this.root = Paths.get(rootPath).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Stores the upload, then saves the record that points at it through {@code saveOwner} and
+     * takes the blob's reference, all in one transaction: if the save fails, nothing is counted.
+     */
+    @Transactional
+    public <T> T storeFor(MultipartFile file, Function<StoredFile, T> saveOwner) throws IOException {
+        StoredFile stored = store(file);
+        T owner = saveOwner.apply(stored);
+        storedFileRepository.addReference(stored.getSha256());
+        return owner;
+    }
+
+    // Writes the blob (or finds the same bytes already stored) and makes sure its row exists
+    private StoredFile store(MultipartFile file) throws IOException {
+        Path tempDir = Files.createDirectories(root.resolve("tmp"));
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String storagePath = shardOf(hash);
+
+            // Row first: it stays locked until this transaction ends, and the last release of
+            // the same bytes holds that lock while it removes the blob, so the check below
+            // never sees a blob that is about to go
+            storedFileRepository.insertIfAbsent(hash, size, file.getContentType(), storagePath, LocalDateTime.now());
+
+            Path target = root.resolve(storagePath);
+            if (Files.exists(target)) {
+                log.debug("Upload {} is a duplicate of stored file {}", file.getOriginalFilename(), hash);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Same bytes stored by a concurrent upload
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+            return storedFileRepository.findBySha256(hash)
+                    .orElseThrow(() -> new IllegalStateException("Stored file row missing for " + hash));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Deletes the record that points at {@code reference} through {@code deleteOwner} and drops
+     * its reference, in one transaction.
+     */
+    @Transactional
+    public void deleteFor(String reference, Runnable deleteOwner) {
+        deleteOwner.run();
+        release(reference);
+    }
+
+    /**
+     * Drops the reference a record held on a blob. Call it in the transaction that deletes the
+     * record or points it at another file. {@code reference} is what the record keeps: a key,
+     * or the blob's path; anything else (a legacy file name) is ignored. When this was the last
+     * reference the row is deleted and the blob is removed once the transaction commits.
+     */
+    @Transactional
+    public void release(String reference) {
+        String sha256 = hashOf(reference);
+        if (sha256 == null) {
+            return;
+        }
+        if (storedFileRepository.releaseReference(sha256) == 0) {
+            log.warn("Released stored file {} that had no references", sha256);
+            return;
+        }
+        if (storedFileRepository.deleteUnreferenced(sha256) == 1) {
+            discard(sha256);
+        }
+    }
+
+    /*
+     * Moves the blob aside while the row is still locked, so an upload of the same bytes that
+     * runs after the commit writes it again instead of finding it. The blob and its derivatives
+     * are deleted after commit; a rollback moves it back.
+     */
+    private void discard(String sha256) {
+        Path blob = resolve(sha256);
+        Path released = blob.resolveSibling(sha256 + RELEASED_SUFFIX);
+        try {
+            Files.move(blob, released, StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            log.warn("Stored file {} was already missing from disk", sha256);
+        } catch (IOException e) {
+            // Left in place; an upload of the same bytes will simply reuse it
+            log.warn("Could not remove stored file {}: {}", sha256, e.getMessage());
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteReleased(sha256);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    deleteReleased(sha256);
+                } else {
+                    restore(blob, released);
+                }
+            }
+        });
+    }
+
+    // Removes the released blob and whatever was derived from it (<hash>.<suffix>)
+    private void deleteReleased(String sha256) {
+        Path dir = resolve(sha256).getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, sha256 + ".*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            log.debug("Removed stored file {}", sha256);
+        } catch (NoSuchFileException e) {
+            // Nothing left to remove
+        } catch (IOException | DirectoryIteratorException e) {
+            log.warn("Could not delete released stored file {}: {}", sha256, e.getMessage());
+        }
+    }
+
+    private static void restore(Path blob, Path released) {
+        try {
+            if (Files.exists(released)) {
+                // An upload may have written the same bytes back meanwhile
+                Files.move(released, blob, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Could not restore stored file {}: {}", blob.getFileName(), e.getMessage());
+        }
+    }
+
+    private String hashOf(String reference) {
+        if (isKey(reference)) {
+            return reference.substring(0, 64);
+        }
+        if (reference == null) {
+            return null;
+        }
+        Path path = Paths.get(reference).toAbsolutePath().normalize();
+        String name = path.getFileName() != null ? path.getFileName().toString() : "";
+        // Blobs are named by their bare hash
+        return path.startsWith(root) && name.length() == 64 && isKey(name) ? name : null;
+    }
+
+    /** Key that records keep for a stored upload: the hash and the original extension. */
+    public static String keyOf(StoredFile storedFile, String originalFilename) {
+        return storedFile.getSha256() + extensionOf(originalFilename);
+    }
+
+    /** True for keys handed out by {@link #keyOf}; older records hold plain file names. */
+    public static boolean isKey(String value) {
+        return value != null && KEY.matcher(value).matches();
+    }
+
+    /** Path of the blob behind a key, if it is stored. */
+    public Optional<Path> resolveKey(String key) {
+        if (!isKey(key)) {
+            return Optional.empty();
+        }
+        Path path = resolve(key.substring(0, 64));
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /** Path for a file derived from a stored blob, such as a thumbnail, next to the blob. */
+    public Path derivativePath(String key, String suffix) {
+        if (!isKey(key)) {
+            throw new IllegalArgumentException("Not a stored file key: " + key);
+        }
+        String hash = key.substring(0, 64);
+        return resolve(hash).resolveSibling(hash + "." + suffix);
+    }
+
+    /** Content type recorded when the blob was first uploaded, if any. */
+    public Optional<String> contentTypeOf(String key) {
+        if (!isKey(key)) {
+            return Optional.empty();
+        }
+        String hash = key.substring(0, 64);
+        Optional<String> cached = contentTypes.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<String> type = storedFileRepository.findBySha256(hash)
+                .map(StoredFile::getContentType)
+                .filter(value -> !value.isBlank() && !value.equals("application/octet-stream"));
+        if (contentTypes.size() >= MAX_CACHED_TYPES) {
+            contentTypes.clear();
+        }
+        contentTypes.put(hash, type);
+        return type;
+    }
+
+    public Path resolve(StoredFile storedFile) {
+        return root.resolve(storedFile.getStoragePath());
+    }
+
+    private Path resolve(String sha256) {
+        return root.resolve(shardOf(sha256));
+    }
+
+    // Two directory levels keep each directory small: ab/cd/abcd...
+    private static String shardOf(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0 || dot == filename.length() - 1) {
+            return "";
+        }
+        String extension = filename.substring(dot).toLowerCase(Locale.ROOT);
+        return KEY.matcher("0".repeat(64) + extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.entity.OutboundMail;
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.repository.TicketRepository;
+import AssetManagement.AssetManagement.util.GraphClientProvider;
+import com.microsoft.graph.content.BatchRequestContent;
+import com.microsoft.graph.content.BatchResponseContent;
+import com.microsoft.graph.http.HttpMethod;
+import com.microsoft.graph.models.*;
+import com.microsoft.graph.requests.GraphServiceClient;
+import com.microsoft.graph.requests.MessageCollectionPage;
+import okhttp3.Request;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * The Graph calls behind the mail outbox. Only MailOutboxDispatcher calls this;
+ * everything else enqueues through EmailService.
+ */
+@Component
+public class GraphMailSender {
+
+    static final String MAILBOX = "support@mahavirgroup.co";
+
+    // Graph accepts at most 20 requests per $batch
+    static final int MAX_BATCH_SIZE = 20;
+
+    private final GraphServiceClient<Request> graphClient;
+    private final TicketRepository ticketRepository;
+
+    public GraphMailSender(GraphClientProvider graphClientProvider, TicketRepository ticketRepository) {
+        this.graphClient = graphClientProvider.getGraphClient();
+        this.ticketRepository = ticketRepository;
+    }
+
+    /**
+     * Sends plain messages, up to {@link #MAX_BATCH_SIZE} per Graph $batch round-trip.
+     * Returns the failure of each mail that did not go out, keyed by outbox id.
+     */
+    public Map<Long, String> sendMessages(List<OutboundMail> pending) {
+        Map<Long, String> failures = new HashMap<>();
+        List<OutboundMail> mails = new ArrayList<>();
+        for (OutboundMail mail : pending) {
+            try {
+                if (findEarlierSend(mail) == null) {
+                    mails.add(mail);
+                }
+            } catch (Exception e) {
+                failures.put(mail.getId(), e.getMessage());
+            }
+        }
+        if (mails.isEmpty()) {
+            return failures;
+        }
+        if (mails.size() == 1) {
+            OutboundMail mail = mails.get(0);
+            try {
+                graphClient.users(MAILBOX)
+                        .sendMail(sendMailParameters(mail))
+                        .buildRequest()
+                        .post();
+            } catch (Exception e) {
+                failures.put(mail.getId(), e.getMessage());
+            }
+            return failures;
+        }
+
+        for (int from = 0; from < mails.size(); from += MAX_BATCH_SIZE) {
+            List<OutboundMail> chunk = mails.subList(from, Math.min(from + MAX_BATCH_SIZE, mails.size()));
+            BatchRequestContent batch = new BatchRequestContent();
+            Map<String, OutboundMail> steps = new LinkedHashMap<>();
+
+            for (OutboundMail mail : chunk) {
+                UserSendMailParameterSet parameters = sendMailParameters(mail);
+                String stepId = batch.addBatchRequestStep(
+                        graphClient.users(MAILBOX).sendMail(parameters).buildRequest(),
+                        HttpMethod.POST,
+                        parameters);
+                steps.put(stepId, mail);
+            }
+
+            try {
+                BatchResponseContent response = graphClient.batch().buildRequest().post(batch);
+                steps.forEach((stepId, mail) -> {
+                    var step = response != null ? response.getResponseById(stepId) : null;
+                    if (step == null) {
+                        failures.put(mail.getId(), "No response in $batch");
+                    } else if (step.status >= 300) {
+                        failures.put(mail.getId(), "Graph returned HTTP " + step.status);
+                    }
+                });
+            } catch (Exception e) {
+                // The whole round-trip failed; every mail in it is retried
+                steps.values().forEach(mail -> failures.put(mail.getId(), e.getMessage()));
+            }
+        }
+        return failures;
+    }
+
+    /** Replies inside the ticket's thread, as EmailService.sendAcknowledgmentReplyToTicket used to. */
+    public void sendTicketReply(OutboundMail mail) {
+        if (findEarlierSend(mail) != null) {
+            return;
+        }
+
+        String inReplyTo = mail.getInReplyToMessageId();
+        if (inReplyTo == null && mail.getTicketId() != null) {
+            // The acknowledgment may have been sent after this reply was queued
+            inReplyTo = ticketRepository.findById(mail.getTicketId())
+                    .map(Ticket::getInternetMessageId)
+                    .orElse(null);
+        }
+        if (inReplyTo == null) {
+            throw new IllegalStateException("Ticket #" + mail.getTicketId() + " has no mail thread yet");
+        }
+
+        Message original = findByInternetMessageId(inReplyTo);
+        if (original == null) {
+            throw new IllegalStateException("No message found with internetMessageId: " + inReplyTo);
+        }
+
+        Message reply = new Message();
+        reply.internetMessageId = mail.getInternetMessageId();
+        reply.body = htmlBody(mail.getBodyHtml());
+        reply.toRecipients = List.of(recipient(mail.getToEmail()));
+        List<Recipient> cc = ccRecipients(mail);
+        if (!cc.isEmpty()) {
+            reply.ccRecipients = cc;
+        }
+
+        createPatchAndSendReply(original.id, reply);
+    }
+
+    /**
+     * Sends the "ticket created" mail and stores the thread ids on the ticket, so later
+     * replies land in the same conversation.
+     */
+    public void sendTicketAcknowledgment(OutboundMail mail) {
+        if (!ticketRepository.existsById(mail.getTicketId())) {
+            throw new IllegalStateException("Ticket #" + mail.getTicketId() + " no longer exists");
+        }
+
+        boolean threaded = mail.getInReplyToMessageId() != null && !mail.getInReplyToMessageId().isEmpty();
+        Message earlier = findEarlierSend(mail);
+        if (earlier != null) {
+            ticketRepository.updateMailThreadIds(mail.getTicketId(), earlier.id, threaded ? null : earlier.internetMessageId);
+            return;
+        }
+
+        Message message = new Message();
+        message.internetMessageId = mail.getInternetMessageId();
+        message.subject = mail.getSubject();
+        message.body = htmlBody(mail.getBodyHtml());
+        message.toRecipients = List.of(recipient(mail.getToEmail()));
+        List<Recipient> cc = ccRecipients(mail);
+        if (!cc.isEmpty()) {
+            message.ccRecipients = cc;
+        }
+
+        if (threaded) {
+            Message original = findByInternetMessageId(mail.getInReplyToMessageId());
+            if (original == null) {
+                throw new IllegalStateException("No message found for internetMessageId: " + mail.getInReplyToMessageId());
+            }
+            Message draft = createPatchAndSendReply(original.id, message);
+            ticketRepository.updateMailThreadIds(mail.getTicketId(), draft.id, null);
+        } else {
+            Message draft = graphClient
+                    .users(MAILBOX)
+                    .messages()
+                    .buildRequest()
+                    .post(message);
+
+            graphClient
+                    .users(MAILBOX)
+                    .messages(draft.id)
+                    .send()
+                    .buildRequest()
+                    .post();
+
+            ticketRepository.updateMailThreadIds(mail.getTicketId(), draft.id, draft.internetMessageId);
+        }
+    }
+
+    private Message createPatchAndSendReply(String originalId, Message content) {
+        Message replyDraft = graphClient
+                .users(MAILBOX)
+                .messages(originalId)
+                .createReply(MessageCreateReplyParameterSet.newBuilder().build())
+                .buildRequest()
+                .post();
+
+        graphClient
+                .users(MAILBOX)
+                .messages(replyDraft.id)
+                .buildRequest()
+                .patch(content);
+
+        graphClient
+                .users(MAILBOX)
+                .messages(replyDraft.id)
+                .send()
+                .buildRequest()
+                .post();
+
+        return replyDraft;
+    }
+
+    private Message findByInternetMessageId(String internetMessageId) {
+        MessageCollectionPage results = graphClient
+                .users(MAILBOX)
+                .messages()
+                .buildRequest()
+                .filter("internetMessageId eq '" + internetMessageId + "'")
+                .get();
+
+        List<Message> messages = results.getCurrentPage();
+        return messages.isEmpty() ? null : messages.get(0);
+    }
+
+    /**
+     * The sent copy of a retried mail, if an earlier attempt delivered it before failing
+     * (a timeout after Graph accepted the send, a lost $batch response, a dispatcher that
+     * died mid-send). Drafts left by an attempt that never reached send don't count.
+     */
+    private Message findEarlierSend(OutboundMail mail) {
+        if (mail.getAttempts() == 0 || mail.getInternetMessageId() == null) {
+            return null;
+        }
+
+        MessageCollectionPage results = graphClient
+                .users(MAILBOX)
+                .messages()
+                .buildRequest()
+                .filter("internetMessageId eq '" + mail.getInternetMessageId() + "'")
+                .select("id,internetMessageId,isDraft")
+                .get();
+
+        return results.getCurrentPage().stream()
+                .filter(m -> !Boolean.TRUE.equals(m.isDraft))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private UserSendMailParameterSet sendMailParameters(OutboundMail mail) {
+        Message message = new Message();
+        message.internetMessageId = mail.getInternetMessageId();
+        message.subject = mail.getSubject();
+        message.body = htmlBody(mail.getBodyHtml());
+        message.toRecipients = List.of(recipient(mail.getToEmail()));
+        message.ccRecipients = ccRecipients(mail);
+
+        return UserSendMailParameterSet
+                .newBuilder()
+                .withMessage(message)
+                .withSaveToSentItems(true)
+                .build();
+    }
+
+    private static ItemBody htmlBody(String html) {
+        ItemBody body = new ItemBody();
+        body.contentType = BodyType.HTML;
+        body.content = html;
+        return body;
+    }
+
+    private static Recipient recipient(String email) {
+        EmailAddress address = new EmailAddress();
+        address.address = email;
+        Recipient recipient = new Recipient();
+        recipient.emailAddress = address;
+        return recipient;
+    }
+
+    private static List<Recipient> ccRecipients(OutboundMail mail) {
+        return MailOutboxService.splitAddresses(mail.getCcEmails()).stream()
+                .map(GraphMailSender::recipient)
+                .toList();
+    }
+}
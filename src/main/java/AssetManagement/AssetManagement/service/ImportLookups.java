@@ -0,0 +1,50 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.entity.Location;
+import AssetManagement.AssetManagement.entity.Site;
+import AssetManagement.AssetManagement.repository.LocationRepository;
+import AssetManagement.AssetManagement.repository.SiteRepository;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sites and locations loaded once per import so rows can be checked without a query each.
+ * Read-only after loading, which lets import schemas use it from the validation threads.
+ */
+final class ImportLookups {
+
+    private final Map<String, Site> sitesByName = new HashMap<>();
+    private final Map<Long, Map<String, Location>> locationsBySite = new HashMap<>();
+
+    private ImportLookups() {
+    }
+
+    static ImportLookups load(SiteRepository siteRepository, LocationRepository locationRepository) {
+        ImportLookups lookups = new ImportLookups();
+        // Names compared case-insensitively, like the database collation did for findByName
+        for (Site site : siteRepository.findAll()) {
+            lookups.sitesByName.putIfAbsent(key(site.getName()), site);
+        }
+        for (Location location : locationRepository.findAll()) {
+            if (location.getSite() != null) {
+                lookups.locationsBySite.computeIfAbsent(location.getSite().getId(), id -> new HashMap<>())
+                        .putIfAbsent(key(location.getName()), location);
+            }
+        }
+        return lookups;
+    }
+
+    Site site(String name) {
+        return sitesByName.get(key(name));
+    }
+
+    Location location(Site site, String name) {
+        return locationsBySite.getOrDefault(site.getId(), Map.of()).get(key(name));
+    }
+
+    private static String key(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
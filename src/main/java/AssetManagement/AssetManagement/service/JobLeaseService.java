@@ -0,0 +1,108 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.repository.JobLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * Leases in the job_leases table, so that jobs which must run once per cluster run on one
+ * instance only. Acquiring is a single conditional UPDATE (or INSERT for a new lease), and
+ * expiry uses the database clock, so instances need not agree on the time.
+ * <p>
+ * One lease, {@value #LEADER_LEASE}, elects the instance that runs singleton jobs. The leader
+ * renews it on every heartbeat; if it stops (crash, lost database connection) another instance
+ * takes over once the lease expires. An instance stops considering itself leader when its own
+ * last successful renewal is older than the TTL, before anyone else can take the lease.
+ */
+@Slf4j
+@Service
+public class JobLeaseService {
+
+    public static final String LEADER_LEASE = "scheduled-jobs-leader";
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final long ttlMillis;
+    private final String owner;
+
+    // System.nanoTime() until which this instance may act as leader
+    private volatile long leaderUntil;
+    private volatile boolean leader;
+
+    public JobLeaseService(JobLeaseRepository jobLeaseRepository,
+                           @Value("${app.cluster.leaseTtlMillis:30000}") long ttlMillis) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.ttlMillis = ttlMillis;
+        this.owner = instanceId();
+    }
+
+    /** Takes or renews a lease for {@code ttlMillis}; true if this instance holds it afterwards. */
+    public boolean tryAcquire(String name, long ttlMillis) {
+        return jobLeaseRepository.renewOrTakeOver(name, owner, ttlMillis) == 1
+                || jobLeaseRepository.insertIfAbsent(name, owner, ttlMillis) == 1;
+    }
+
+    public void release(String name) {
+        jobLeaseRepository.release(name, owner);
+    }
+
+    /** True while this instance holds the leader lease; singleton jobs run only then. */
+    public boolean isLeader() {
+        return leader && System.nanoTime() - leaderUntil < 0;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    // Runs on the default scheduler, which no other job uses, so a busy pool cannot delay renewal
+    @Scheduled(fixedDelayString = "${app.cluster.heartbeatMillis:10000}")
+    public void heartbeat() {
+        // Measured before the query, so our view of the lease never outlives the database's
+        long started = System.nanoTime();
+        boolean held;
+        try {
+            held = tryAcquire(LEADER_LEASE, ttlMillis);
+        } catch (Exception e) {
+            log.warn("Could not renew the {} lease: {}", LEADER_LEASE, e.getMessage());
+            return;
+        }
+
+        if (held) {
+            leaderUntil = started + ttlMillis * 1_000_000;
+        }
+        if (held != leader) {
+            log.info(held ? "{} is now the scheduled jobs leader" : "{} is no longer the scheduled jobs leader", owner);
+        }
+        leader = held;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (leader) {
+            leader = false;
+            try {
+                release(LEADER_LEASE);
+            } catch (Exception e) {
+                log.warn("Could not release the {} lease: {}", LEADER_LEASE, e.getMessage());
+            }
+        }
+    }
+
+    private static String instanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        // The random part tells apart two instances on one host, and a restart from its predecessor
+        return host + ":" + ManagementFactory.getRuntimeMXBean().getPid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
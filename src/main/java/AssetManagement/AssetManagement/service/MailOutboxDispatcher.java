@@ -0,0 +1,193 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.config.SchedulingConfig;
+import AssetManagement.AssetManagement.entity.OutboundMail;
+import AssetManagement.AssetManagement.enums.OutboundMailStatus;
+import AssetManagement.AssetManagement.enums.OutboundMailType;
+import AssetManagement.AssetManagement.repository.OutboundMailRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the mail outbox on a single background thread, so at most one Graph conversation
+ * is in flight per instance no matter how many requests enqueue mail. Plain messages go out
+ * in Graph $batch requests; failed sends are retried with exponential backoff.
+ */
+@Slf4j
+@Component
+public class MailOutboxDispatcher {
+
+    private static final int CLAIM_BATCH_SIZE = 50;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    // A row claimed longer ago than this belongs to a dispatcher that died mid-send
+    private static final Duration STALE_CLAIM = Duration.ofMinutes(10);
+
+    private final OutboundMailRepository outboundMailRepository;
+    private final GraphMailSender graphMailSender;
+    private final ScheduledJobMonitor jobMonitor;
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("mail-outbox-", 0).factory());
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean wakeRequested = new AtomicBoolean(false);
+
+    public MailOutboxDispatcher(OutboundMailRepository outboundMailRepository, GraphMailSender graphMailSender,
+                                ScheduledJobMonitor jobMonitor) {
+        this.outboundMailRepository = outboundMailRepository;
+        this.graphMailSender = graphMailSender;
+        this.jobMonitor = jobMonitor;
+    }
+
+    /** Starts a drain unless one is running; a running drain picks the new mail up before it stops. */
+    public void wakeUp() {
+        wakeRequested.set(true);
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    // Backstop for mail enqueued before a restart and for retries that have become due
+    @Scheduled(fixedDelay = 30000, scheduler = SchedulingConfig.MAIL_SCHEDULER)
+    public void poll() {
+        jobMonitor.run("mail-outbox-poll", this::releaseStaleAndWake);
+    }
+
+    private void releaseStaleAndWake() {
+        int released = outboundMailRepository.releaseStale(LocalDateTime.now().minus(STALE_CLAIM));
+        if (released > 0) {
+            log.warn("Released {} outbound mails left in SENDING", released);
+        }
+        wakeUp();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void drainLoop() {
+        try {
+            while (wakeRequested.getAndSet(false)) {
+                drain();
+            }
+        } catch (Exception e) {
+            log.error("Mail outbox drain failed", e);
+        } finally {
+            running.set(false);
+        }
+        // A wake-up that raced with the end of the loop
+        if (wakeRequested.get() && running.compareAndSet(false, true)) {
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> dueIds = outboundMailRepository.findDueIds(now, PageRequest.of(0, CLAIM_BATCH_SIZE));
+            if (dueIds.isEmpty()) {
+                return;
+            }
+
+            List<OutboundMail> claimed = new ArrayList<>();
+            for (Long id : dueIds) {
+                if (outboundMailRepository.claim(id, now) == 1) {
+                    outboundMailRepository.findById(id).ifPresent(claimed::add);
+                }
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            dispatch(claimed);
+        }
+    }
+
+    private void dispatch(List<OutboundMail> mails) {
+        List<OutboundMail> messages = new ArrayList<>();
+        List<OutboundMail> threaded = new ArrayList<>();
+        for (OutboundMail mail : mails) {
+            if (mail.getInternetMessageId() == null) {
+                // Queued before outbox mails carried their own message id
+                mail.setInternetMessageId(MailOutboxService.newInternetMessageId());
+                outboundMailRepository.save(mail);
+            }
+            (mail.getType() == OutboundMailType.MESSAGE ? messages : threaded).add(mail);
+        }
+
+        if (!messages.isEmpty()) {
+            Map<Long, String> failures = graphMailSender.sendMessages(messages);
+            for (OutboundMail mail : messages) {
+                if (failures.containsKey(mail.getId())) {
+                    markFailedAttempt(mail, failures.get(mail.getId()));
+                } else {
+                    markSent(mail);
+                }
+            }
+        }
+
+        // Thread replies are create-reply / patch / send chains and go one at a time, in queue order
+        for (OutboundMail mail : threaded) {
+            try {
+                if (mail.getType() == OutboundMailType.TICKET_ACKNOWLEDGMENT) {
+                    graphMailSender.sendTicketAcknowledgment(mail);
+                } else {
+                    graphMailSender.sendTicketReply(mail);
+                }
+                markSent(mail);
+            } catch (Exception e) {
+                markFailedAttempt(mail, e.getMessage());
+            }
+        }
+    }
+
+    private void markSent(OutboundMail mail) {
+        mail.setStatus(OutboundMailStatus.SENT);
+        mail.setSentAt(LocalDateTime.now());
+        mail.setAttempts(mail.getAttempts() + 1);
+        mail.setLastError(null);
+        outboundMailRepository.save(mail);
+        log.info("Outbound mail {} ({}) sent to {}", mail.getId(), mail.getType(), mail.getToEmail());
+    }
+
+    private void markFailedAttempt(OutboundMail mail, String error) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(error != null && error.length() > 2000 ? error.substring(0, 2000) : error);
+
+        if (attempts >= MAX_ATTEMPTS) {
+            mail.setStatus(OutboundMailStatus.FAILED);
+            log.error("Outbound mail {} to {} failed after {} attempts: {}", mail.getId(), mail.getToEmail(), attempts, error);
+        } else {
+            mail.setStatus(OutboundMailStatus.PENDING);
+            mail.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+            log.warn("Outbound mail {} to {} failed (attempt {}), retrying: {}", mail.getId(), mail.getToEmail(), attempts, error);
+        }
+        outboundMailRepository.save(mail);
+    }
+
+    // 30s, 1m, 2m, ... capped at an hour, with up to 20% jitter so retries don't arrive together
+    private static Duration backoff(int attempts) {
+        long millis = BASE_BACKOFF.toMillis() << Math.min(attempts - 1, 20);
+        millis = Math.min(millis, MAX_BACKOFF.toMillis());
+        millis += ThreadLocalRandom.current().nextLong(millis / 5 + 1);
+        return Duration.ofMillis(millis);
+    }
+}
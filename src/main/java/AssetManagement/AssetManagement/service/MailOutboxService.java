@@ -0,0 +1,116 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.entity.OutboundMail;
+import AssetManagement.AssetManagement.enums.OutboundMailStatus;
+import AssetManagement.AssetManagement.enums.OutboundMailType;
+import AssetManagement.AssetManagement.repository.OutboundMailRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Writes outgoing mail to the outbox in the caller's transaction. The dispatcher is woken
+ * only after that transaction commits, so a rolled-back ticket change never sends mail and
+ * a request never waits on Graph.
+ */
+@Service
+public class MailOutboxService {
+
+    private final OutboundMailRepository outboundMailRepository;
+    private final MailOutboxDispatcher dispatcher;
+
+    public MailOutboxService(OutboundMailRepository outboundMailRepository, MailOutboxDispatcher dispatcher) {
+        this.outboundMailRepository = outboundMailRepository;
+        this.dispatcher = dispatcher;
+    }
+
+    @Transactional
+    public OutboundMail enqueueMessage(String toEmail, Collection<String> ccEmails, String subject, String bodyHtml) {
+        return enqueue(OutboundMailType.MESSAGE, null, toEmail, ccEmails, subject, bodyHtml, null);
+    }
+
+    @Transactional
+    public OutboundMail enqueueTicketReply(Long ticketId, String toEmail, Collection<String> ccEmails,
+                                           String bodyHtml, String inReplyToMessageId) {
+        return enqueue(OutboundMailType.TICKET_REPLY, ticketId, toEmail, ccEmails, null, bodyHtml, inReplyToMessageId);
+    }
+
+    @Transactional
+    public OutboundMail enqueueTicketAcknowledgment(Long ticketId, String toEmail, Collection<String> ccEmails,
+                                                    String subject, String bodyHtml, String inReplyToMessageId) {
+        return enqueue(OutboundMailType.TICKET_ACKNOWLEDGMENT, ticketId, toEmail, ccEmails, subject, bodyHtml, inReplyToMessageId);
+    }
+
+    @Transactional
+    public OutboundMail enqueue(OutboundMailType type, Long ticketId, String toEmail, Collection<String> ccEmails,
+                                String subject, String bodyHtml, String inReplyToMessageId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        OutboundMail mail = new OutboundMail();
+        mail.setType(type);
+        mail.setStatus(OutboundMailStatus.PENDING);
+        mail.setTicketId(ticketId);
+        mail.setToEmail(toEmail);
+        mail.setCcEmails(joinAddresses(ccEmails));
+        mail.setSubject(subject);
+        mail.setBodyHtml(bodyHtml);
+        mail.setInReplyToMessageId(inReplyToMessageId);
+        mail.setInternetMessageId(newInternetMessageId());
+        mail.setAttempts(0);
+        mail.setCreatedAt(now);
+        mail.setNextAttemptAt(now);
+
+        OutboundMail saved = outboundMailRepository.save(mail);
+
+        // The entry points are @Transactional, but a self-invocation or a caller outside any
+        // transaction manager must not fail the enqueue: the row is saved either way
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        } else {
+            dispatcher.wakeUp();
+        }
+
+        return saved;
+    }
+
+    static String newInternetMessageId() {
+        String domain = GraphMailSender.MAILBOX.substring(GraphMailSender.MAILBOX.indexOf('@') + 1);
+        return "<outbox-" + UUID.randomUUID() + "@" + domain + ">";
+    }
+
+    static String joinAddresses(Collection<String> addresses) {
+        if (addresses == null || addresses.isEmpty()) {
+            return null;
+        }
+        return addresses.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(a -> !a.isEmpty())
+                .distinct()
+                .collect(Collectors.joining(","));
+    }
+
+    static List<String> splitAddresses(String addresses) {
+        if (addresses == null || addresses.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(addresses.split(","))
+                .map(String::trim)
+                .filter(a -> !a.isEmpty())
+                .toList();
+    }
+}
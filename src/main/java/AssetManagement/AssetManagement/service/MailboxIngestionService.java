@@ -0,0 +1,150 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.config.SchedulingConfig;
+import AssetManagement.AssetManagement.dto.InboundMail;
+import AssetManagement.AssetManagement.dto.MailboxChanges;
+import AssetManagement.AssetManagement.entity.MailboxSyncState;
+import AssetManagement.AssetManagement.repository.MailboxSyncStateRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Turns new support-mailbox mail into tickets and ticket replies.
+ * Each sync asks the {@link MailboxSource} for changes since the stored delta token.
+ * Different conversations are processed in parallel; messages within one conversation
+ * are processed in the order they were received.
+ */
+@Slf4j
+@Service
+public class MailboxIngestionService {
+
+    private static final int MAX_PARALLEL_CONVERSATIONS = 4;
+    // A message failing this often is left unread for a person to look at
+    private static final int MAX_ATTEMPTS_PER_MESSAGE = 5;
+
+    private final MailboxSource mailboxSource;
+    private final EmailService emailService;
+    private final MailboxSyncStateRepository syncStateRepository;
+    private final ScheduledJobMonitor jobMonitor;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits = new Semaphore(MAX_PARALLEL_CONVERSATIONS);
+    private final Map<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    public MailboxIngestionService(MailboxSource mailboxSource,
+                                   EmailService emailService,
+                                   MailboxSyncStateRepository syncStateRepository,
+                                   ScheduledJobMonitor jobMonitor) {
+        this.mailboxSource = mailboxSource;
+        this.emailService = emailService;
+        this.syncStateRepository = syncStateRepository;
+        this.jobMonitor = jobMonitor;
+    }
+
+    @Scheduled(fixedDelay = 30000, scheduler = SchedulingConfig.MAIL_SCHEDULER)
+    public void syncMailbox() {
+        jobMonitor.runOnLeader("mailbox-sync", this::sync);
+    }
+
+    private void sync() {
+        MailboxSyncState state = syncStateRepository.findById(mailboxSource.mailbox())
+                .orElseGet(() -> new MailboxSyncState(mailboxSource.mailbox(), null, null));
+
+        MailboxChanges changes;
+        try {
+            changes = mailboxSource.fetchChanges(state.getDeltaToken());
+        } catch (Exception e) {
+            log.error("Error during mailbox sync of {}: {}", mailboxSource.mailbox(), e.getMessage(), e);
+            return;
+        }
+
+        // Delta also reports messages we marked read ourselves; only unread ones are new work
+        Map<String, List<InboundMail>> byConversation = new LinkedHashMap<>();
+        for (InboundMail mail : changes.messages()) {
+            if (!mail.read()) {
+                String key = mail.conversationId() != null ? mail.conversationId() : mail.id();
+                byConversation.computeIfAbsent(key, k -> new ArrayList<>()).add(mail);
+            }
+        }
+
+        boolean allProcessed = processConversations(byConversation.values());
+
+        // On failure keep the old token: the next sync sees the failed messages again, and the
+        // ones already handled come back marked read and are skipped
+        if (allProcessed) {
+            state.setDeltaToken(changes.deltaToken());
+            state.setLastSyncedAt(LocalDateTime.now());
+            syncStateRepository.save(state);
+        }
+    }
+
+    private boolean processConversations(Collection<List<InboundMail>> conversations) {
+        List<Future<Boolean>> results = new ArrayList<>(conversations.size());
+        for (List<InboundMail> conversation : conversations) {
+            conversation.sort(Comparator.comparing(InboundMail::receivedAt,
+                    Comparator.nullsLast(Comparator.<OffsetDateTime>naturalOrder())));
+            results.add(executor.submit(() -> processConversation(conversation)));
+        }
+
+        boolean allProcessed = true;
+        for (Future<Boolean> result : results) {
+            try {
+                allProcessed &= result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                log.error("Mailbox conversation worker failed", e.getCause());
+                allProcessed = false;
+            }
+        }
+        return allProcessed;
+    }
+
+    private boolean processConversation(List<InboundMail> conversation) throws InterruptedException {
+        permits.acquire();
+        try {
+            for (InboundMail mail : conversation) {
+                if (!processMessage(mail)) {
+                    // Later messages of the conversation wait for this one
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean processMessage(InboundMail mail) {
+        try {
+            emailService.processInboundMail(mail);
+            mailboxSource.markRead(mail.id());
+            failedAttempts.remove(mail.id());
+            return true;
+        } catch (Exception e) {
+            int attempts = failedAttempts.merge(mail.id(), 1, Integer::sum);
+            if (attempts >= MAX_ATTEMPTS_PER_MESSAGE) {
+                log.error("Giving up on mail '{}' from {} after {} attempts: {}",
+                        mail.subject(), mail.senderEmail(), attempts, e.getMessage());
+                failedAttempts.remove(mail.id());
+                return true;
+            }
+            log.warn("Failed to process email '{}' from {} (attempt {}): {}",
+                    mail.subject(), mail.senderEmail(), attempts, e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
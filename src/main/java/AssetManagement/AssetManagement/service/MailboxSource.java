@@ -0,0 +1,21 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.MailboxChanges;
+
+/**
+ * Where inbound support mail comes from. Production reads the Graph inbox with delta
+ * queries; a local fake can stand in for it when exercising MailboxIngestionService.
+ */
+public interface MailboxSource {
+
+    /** Key the delta token is stored under. */
+    String mailbox();
+
+    /**
+     * Returns every message added or changed since {@code deltaToken}, across all pages.
+     * A null token starts a fresh sync.
+     */
+    MailboxChanges fetchChanges(String deltaToken);
+
+    void markRead(String messageId);
+}
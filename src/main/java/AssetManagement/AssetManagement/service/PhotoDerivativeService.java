@@ -0,0 +1,316 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.enums.PhotoVariant;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.*;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thumbnail and medium JPEG copies of asset photos, so galleries do not download the camera
+ * originals. Derivatives are rendered on a small bounded pool right after upload and written
+ * next to the original ({@code <original>.thumb.jpg}); one that is missing (an older photo, or a
+ * render dropped because the queue was full) is rendered when it is first asked for.
+ * <p>
+ * Phone cameras store pixels as the sensor saw them and record the rotation in the EXIF
+ * Orientation tag; derivatives are turned upright, since they are served without that tag.
+ */
+@Slf4j
+@Service
+public class PhotoDerivativeService {
+
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final String APP1_MARKER = "225";
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolExecutor workers;
+
+    // One render per derivative at a time; later callers wait for the same result
+    private final Map<Path, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    public PhotoDerivativeService(FileStorageService fileStorageService,
+                                  @Value("${app.photos.derivativeThreads:2}") int threads,
+                                  @Value("${app.photos.derivativeQueue:500}") int queueCapacity) {
+        this.fileStorageService = fileStorageService;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "photo-derivatives-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Queues every derivative of a newly uploaded photo. */
+    public void schedule(String reference, Path legacyDir) {
+        Path original = originalPath(reference, legacyDir);
+        if (original == null) {
+            return;
+        }
+        for (PhotoVariant variant : PhotoVariant.values()) {
+            Path target = derivativePath(reference, legacyDir, variant);
+            if (!Files.exists(target)) {
+                submit(original, target, variant).exceptionally(e -> {
+                    log.debug("Derivative {} not rendered now: {}", target.getFileName(), e.getMessage());
+                    return null;
+                });
+            }
+        }
+    }
+
+    /**
+     * The derivative of a photo, rendered now if it does not exist yet. Empty when the original
+     * is missing or cannot be decoded, in which case callers serve the original.
+     */
+    public Optional<Path> derivative(String reference, Path legacyDir, PhotoVariant variant) {
+        Path original = originalPath(reference, legacyDir);
+        if (original == null) {
+            return Optional.empty();
+        }
+        Path target = derivativePath(reference, legacyDir, variant);
+        if (Files.isRegularFile(target)) {
+            return Optional.of(target);
+        }
+        try {
+            return Optional.of(submit(original, target, variant).join());
+        } catch (CompletionException e) {
+            log.warn("Could not render {} of photo {}: {}", variant.pathName(), reference, e.getCause().getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private CompletableFuture<Path> submit(Path original, Path target, PhotoVariant variant) {
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = rendering.putIfAbsent(target, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    created.complete(render(original, target, variant));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    rendering.remove(target, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rendering.remove(target, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private Path render(Path original, Path target, PhotoVariant variant) throws IOException {
+        if (Files.isRegularFile(target)) {
+            return target;
+        }
+
+        BufferedImage source = read(original, variant.getMaxDimension());
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) variant.getMaxDimension() / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        // RGB without alpha, so PNG or GIF originals become plain JPEGs on white
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try {
+            writeJpeg(scaled, temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.debug("Rendered {} ({}x{})", target.getFileName(), targetWidth, targetHeight);
+        return target;
+    }
+
+    // Subsampled while decoding, so an 8 MB original is never held at full resolution; then turned upright
+    private static BufferedImage read(Path original, int maxDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Not a readable image: " + original.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Keep twice the target size so the final scale still has pixels to average
+                int step = Math.max(1, longest / (maxDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                int orientation = exifOrientation(reader);
+                return orient(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // EXIF Orientation of a JPEG, 1 (stored upright) when it has none or it cannot be read
+    private static int exifOrientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+                return 1;
+            }
+            IIOMetadataNode tree = (IIOMetadataNode) metadata.getAsTree(JPEG_METADATA_FORMAT);
+            NodeList segments = tree.getElementsByTagName("unknown");
+            for (int i = 0; i < segments.getLength(); i++) {
+                IIOMetadataNode segment = (IIOMetadataNode) segments.item(i);
+                if (APP1_MARKER.equals(segment.getAttribute("MarkerTag"))
+                        && segment.getUserObject() instanceof byte[] data) {
+                    int orientation = orientationOf(data);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read EXIF orientation: {}", e.getMessage());
+        }
+        return 1;
+    }
+
+    /**
+     * The Orientation tag (1-8) of an APP1 segment's payload: "Exif\0\0", a TIFF header with
+     * the byte order and the offset of IFD0, then IFD0's 12-byte entries. 0 when it is missing.
+     */
+    static int orientationOf(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd > tiff.limit() - 2) {
+            return 0;
+        }
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry > tiff.limit() - 12) {
+                break;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == EXIF_ORIENTATION_TAG) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    // Mirrors and/or rotates the decoded pixels so that orientation 1 results
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+
+        boolean swap = orientation >= 5;
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage upright = new BufferedImage(swap ? h : w, swap ? w : h, type);
+        Graphics2D g = upright.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return upright;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Path originalPath(String reference, Path legacyDir) {
+        if (FileStorageService.isKey(reference)) {
+            return fileStorageService.resolveKey(reference).orElse(null);
+        }
+        Path dir = legacyDir.toAbsolutePath().normalize();
+        Path path = dir.resolve(reference).normalize();
+        return path.startsWith(dir) && Files.isRegularFile(path) ? path : null;
+    }
+
+    private Path derivativePath(String reference, Path legacyDir, PhotoVariant variant) {
+        String suffix = variant.pathName() + ".jpg";
+        if (FileStorageService.isKey(reference)) {
+            return fileStorageService.derivativePath(reference, suffix);
+        }
+        Path dir = legacyDir.toAbsolutePath().normalize();
+        return dir.resolve(reference + "." + suffix).normalize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,124 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.ScheduledJobStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs scheduled jobs by name: a run that starts while the previous one is still going is
+ * skipped rather than queued, and each job's runs, failures and durations are kept for
+ * {@link #stats()}. Failures are logged here and not rethrown.
+ * <p>
+ * Jobs that must not run on every instance of a cluster go through {@link #runOnLeader}, which
+ * only runs them on the instance holding the leader lease.
+ */
+@Slf4j
+@Component
+public class ScheduledJobMonitor {
+
+    @FunctionalInterface
+    public interface Job {
+        void run() throws Exception;
+    }
+
+    private final JobLeaseService jobLeaseService;
+    private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
+
+    public ScheduledJobMonitor(JobLeaseService jobLeaseService) {
+        this.jobLeaseService = jobLeaseService;
+    }
+
+    /** Runs the job on the leader instance only; other instances count it as a standby skip. */
+    public void runOnLeader(String name, Job job) {
+        if (!jobLeaseService.isLeader()) {
+            jobs.computeIfAbsent(name, JobState::new).standby();
+            log.debug("Not running scheduled job {}: this instance is not the leader", name);
+            return;
+        }
+        run(name, job);
+    }
+
+    public void run(String name, Job job) {
+        JobState state = jobs.computeIfAbsent(name, JobState::new);
+        if (!state.running.compareAndSet(false, true)) {
+            state.skipped();
+            log.warn("Skipping scheduled job {}: the previous run is still going", name);
+            return;
+        }
+
+        long started = System.nanoTime();
+        state.started(LocalDateTime.now());
+        try {
+            job.run();
+            state.finished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), null);
+        } catch (Exception e) {
+            state.finished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), e);
+            log.error("Scheduled job {} failed: {}", name, e.getMessage(), e);
+        } finally {
+            state.running.set(false);
+        }
+    }
+
+    public List<ScheduledJobStatsDTO> stats() {
+        return jobs.values().stream()
+                .map(JobState::snapshot)
+                .sorted(Comparator.comparing(ScheduledJobStatsDTO::getName))
+                .toList();
+    }
+
+    private static final class JobState {
+        private final String name;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private long runs;
+        private long failures;
+        private long skipped;
+        private long skippedOnStandby;
+        private LocalDateTime lastStartedAt;
+        private LocalDateTime lastFinishedAt;
+        private Long lastDurationMillis;
+        private Long maxDurationMillis;
+        private LocalDateTime lastFailedAt;
+        private String lastError;
+
+        private JobState(String name) {
+            this.name = name;
+        }
+
+        synchronized void started(LocalDateTime at) {
+            lastStartedAt = at;
+        }
+
+        synchronized void finished(long durationMillis, Exception error) {
+            runs++;
+            lastFinishedAt = LocalDateTime.now();
+            lastDurationMillis = durationMillis;
+            maxDurationMillis = maxDurationMillis == null ? durationMillis : Math.max(maxDurationMillis, durationMillis);
+            if (error != null) {
+                failures++;
+                lastFailedAt = lastFinishedAt;
+                lastError = error.getClass().getSimpleName() + ": " + error.getMessage();
+            }
+        }
+
+        synchronized void skipped() {
+            skipped++;
+        }
+
+        synchronized void standby() {
+            skippedOnStandby++;
+        }
+
+        synchronized ScheduledJobStatsDTO snapshot() {
+            return new ScheduledJobStatsDTO(name, running.get(), runs, failures, skipped, skippedOnStandby, lastStartedAt,
+                    lastFinishedAt, lastDurationMillis, maxDurationMillis, lastFailedAt, lastError);
+        }
+    }
+}
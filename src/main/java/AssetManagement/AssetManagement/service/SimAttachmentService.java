@@ -7,13 +7,14 @@ import AssetManagement.AssetManagement.enums.SimStatus;
 import AssetManagement.AssetManagement.mapper.SimAttachmentMapper;
 import AssetManagement.AssetManagement.repository.SimAttachmentRepository;
 import AssetManagement.AssetManagement.repository.SimCardRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 
 @Service
@@ -22,10 +23,8 @@ public class SimAttachmentService {
 
     private final SimCardRepository simCardRepository;
     private final SimAttachmentRepository simAttachmentRepository;
-
-//    private final String BASE_UPLOAD_DIR = "/uploads/cug/";
-
-    private final String BASE_UPLOAD_DIR = System.getProperty("user.dir") + "/uploads/cug/";
+    private final FileStorageService fileStorageService;
+    private final FileServingService fileServingService;
 
 
     public SimAttachmentDto uploadAttachment(Long simId, MultipartFile file, String note) throws Exception {
@@ -33,30 +32,18 @@ public class SimAttachmentService {
         SimCard sim = simCardRepository.findById(simId)
                 .orElseThrow(() -> new RuntimeException("SIM not found"));
 
-        // Create a folder for this SIM
-        String simFolderPath = BASE_UPLOAD_DIR + "sim-" + simId;
-        File simFolder = new File(simFolderPath);
-        if (!simFolder.exists()) {
-            simFolder.mkdirs();
-        }
-
-        // Final file path
-        String filePath = simFolderPath + "/" + file.getOriginalFilename();
-
-        // Save file locally
-        File dest = new File(filePath);
-        file.transferTo(dest);
-
-        // Create attachment entry
-        SimAttachment attachment = new SimAttachment();
-        attachment.setSimCard(sim);
-        attachment.setFileName(file.getOriginalFilename());
-        attachment.setFileType(file.getContentType());
-        attachment.setFileSize(file.getSize());
-        attachment.setFileUrl(filePath);
-        attachment.setNote(note);
-
-        simAttachmentRepository.save(attachment);
+        // Streamed into the shared store; identical files are kept once
+        SimAttachment attachment = fileStorageService.storeFor(file, stored -> {
+            // Create attachment entry
+            SimAttachment created = new SimAttachment();
+            created.setSimCard(sim);
+            created.setFileName(file.getOriginalFilename());
+            created.setFileType(file.getContentType());
+            created.setFileSize(file.getSize());
+            created.setFileUrl(fileStorageService.resolve(stored).toString());
+            created.setNote(note);
+            return simAttachmentRepository.save(created);
+        });
 
         // Update flag → only if status is ASSIGNED & first time
         if (sim.getStatus() == SimStatus.ASSIGNED && !sim.getAssignmentUploaded()) {
@@ -75,15 +62,20 @@ public class SimAttachmentService {
                 .toList();
     }
 
-    public Resource download(Long attachmentId) throws Exception {
+    public void download(Long attachmentId, HttpServletRequest request, HttpServletResponse response) throws IOException {
         SimAttachment att = simAttachmentRepository.findById(attachmentId)
                 .orElseThrow(() -> new RuntimeException("Attachment not found"));
 
-        File file = new File(att.getFileUrl());
-        if (!file.exists()) {
-            throw new RuntimeException("File not found on disk");
-        }
-        return new FileSystemResource(file);
+        // Content type and name as uploaded; the blob itself has neither
+        fileServingService.serveFile(Paths.get(att.getFileUrl()), att.getFileType(), att.getFileName(), request, response);
+    }
+
+    public void deleteAttachment(Long attachmentId) {
+        SimAttachment att = simAttachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new RuntimeException("Attachment not found"));
+
+        // Drops the blob's reference in the same transaction; the bytes go with the last one
+        fileStorageService.deleteFor(att.getFileUrl(), () -> simAttachmentRepository.delete(att));
     }
 
 }
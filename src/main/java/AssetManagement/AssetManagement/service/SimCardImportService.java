@@ -1,226 +1,166 @@
-
-
 package AssetManagement.AssetManagement.service;
 
-import AssetManagement.AssetManagement.dto.RowError;
 import AssetManagement.AssetManagement.dto.SimCardRequestDto;
 import AssetManagement.AssetManagement.dto.SimImportResult;
-import AssetManagement.AssetManagement.entity.Location;
 import AssetManagement.AssetManagement.entity.Site;
 import AssetManagement.AssetManagement.entity.User;
 import AssetManagement.AssetManagement.enums.SimProvider;
 import AssetManagement.AssetManagement.enums.SimStatus;
-import AssetManagement.AssetManagement.exception.UserNotFoundException;
 import AssetManagement.AssetManagement.repository.LocationRepository;
 import AssetManagement.AssetManagement.repository.SimCardRepository;
 import AssetManagement.AssetManagement.repository.SiteRepository;
-
 import AssetManagement.AssetManagement.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import AssetManagement.AssetManagement.util.ingest.ImportColumn;
+import AssetManagement.AssetManagement.util.ingest.ImportRecord;
+import AssetManagement.AssetManagement.util.ingest.ImportReport;
+import AssetManagement.AssetManagement.util.ingest.ImportSink;
+import AssetManagement.AssetManagement.util.ingest.IngestionEngine;
+import AssetManagement.AssetManagement.util.ingest.SheetRow;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class SimCardImportService {
 
+    private static final ImportColumn<String> PHONE_NUMBER = ImportColumn.text(0, "Phone Number");
+    private static final ImportColumn<String> ICCID = ImportColumn.text(1, "ICCID");
+    private static final ImportColumn<String> IMSI = ImportColumn.text(2, "IMSI");
+    private static final ImportColumn<SimProvider> PROVIDER = ImportColumn.enumeration(3, "Provider", SimProvider.class);
+    private static final ImportColumn<SimStatus> STATUS = ImportColumn.enumeration(4, "Status", SimStatus.class);
+    private static final ImportColumn<LocalDate> ACTIVATED_AT = ImportColumn.date(5, "Activated At");
+    private static final ImportColumn<LocalDate> PURCHASE_DATE = ImportColumn.date(6, "Purchase Date");
+    private static final ImportColumn<String> PURCHASE_FROM = ImportColumn.text(7, "Purchase From");
+    private static final ImportColumn<BigDecimal> COST = ImportColumn.decimal(8, "Cost");
+    private static final ImportColumn<String> NOTE = ImportColumn.text(9, "Note");
+    private static final ImportColumn<String> SITE = ImportColumn.text(10, "Site");
+    private static final ImportColumn<String> LOCATION = ImportColumn.text(11, "Location");
+    private static final ImportColumn<String> EMPLOYEE_ID = ImportColumn.text(12, "Employee ID");
+
     private final SimCardService simCardService;
     private final SiteRepository siteRepository;
     private final LocationRepository locationRepository;
     private final UserRepository userRepository;
     private final SimCardRepository simCardRepository;
+    private final IngestionEngine ingestionEngine;
 
 
     public SimImportResult importSimsFromExcel(MultipartFile file) {
+        ImportLookups lookups = ImportLookups.load(siteRepository, locationRepository);
 
-        int success = 0;
-        List<RowError> errors = new ArrayList<>();
-
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(is)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-
-            for (int rowIdx = 1; rowIdx <= sheet.getLastRowNum(); rowIdx++) {
-
-                Row row = sheet.getRow(rowIdx);
-                if (row == null) continue;
-
-                try {
-                    SimCardRequestDto dto = mapRowToSim(row);
-                    simCardService.createSimCard(dto);
-                    success++;
-
-                } catch (Exception ex) {
-                    errors.add(new RowError(rowIdx + 1,
-                            ex.getMessage() != null ? ex.getMessage() : "Unknown error"));
-                }
-            }
-
-        } catch (Exception e) {
-            errors.add(new RowError(0, "Failed to read file: " + e.getMessage()));
-        }
-
-        return new SimImportResult(success, errors.size(), errors);
+        ImportReport report = ingestionEngine.ingest(file, row -> mapRowToSim(row, lookups), new SimSink());
+        return new SimImportResult(report.getAccepted(), report.getRejected(), report.getErrors());
     }
 
-    private SimCardRequestDto mapRowToSim(Row row) {
+    private static SimCardRequestDto mapRowToSim(SheetRow row, ImportLookups lookups) {
         SimCardRequestDto dto = new SimCardRequestDto();
 
-        // ✅ FIXED: Proper column reading (0-based index)
-        dto.setPhoneNumber(getStringCell(row, 0));        // A - phoneNumber
-        String phoneNumber = getStringCell(row, 0);
-        if (phoneNumber != null && !phoneNumber.isBlank()) {
-            if (simCardRepository.existsByPhoneNumber(phoneNumber.trim())) {
-                throw new RuntimeException("❌ Duplicate phone number '" + phoneNumber + "' already exists (Row " + (row.getRowNum() + 1) + ")");
-            }
-            dto.setPhoneNumber(phoneNumber.trim());
-        }
-
-        dto.setIccid(getStringCell(row, 1));              // B - iccid
-        dto.setImsi(getStringCell(row, 2));               // C - imsi
-        dto.setProvider(getEnumCell(row, 3, SimProvider.class));  // D - provider
-        dto.setStatus(getEnumCell(row, 4, SimStatus.class));      // E - status
-        dto.setActivatedAt(getDateCell(row, 5));          // F - activatedAt
-        dto.setPurchaseDate(getDateCell(row, 6));         // G - purchaseDate
-        dto.setPurchaseFrom(getStringCell(row, 7));       // H - purchaseFrom
-        dto.setCost(getBigDecimalCell(row, 8));           // I - cost
-        dto.setNote(getStringCell(row, 9));               // J - note
-
-        String siteName = getStringCell(row, 10);         // K - siteName
-        String locationName = getStringCell(row, 11);     // L - locationName
-        String employeeId = getStringCell(row, 12);       // M - assignedUserId
+        dto.setPhoneNumber(row.get(PHONE_NUMBER));
+        dto.setIccid(row.get(ICCID));
+        dto.setImsi(row.get(IMSI));
+        dto.setProvider(row.get(PROVIDER));
+        dto.setStatus(row.get(STATUS));
+        dto.setActivatedAt(row.get(ACTIVATED_AT));
+        dto.setPurchaseDate(row.get(PURCHASE_DATE));
+        dto.setPurchaseFrom(row.get(PURCHASE_FROM));
+        dto.setCost(row.get(COST));
+        dto.setNote(row.get(NOTE));
 
-//        System.out.println("📊 Row data: site=" + siteName + ", loc=" + locationName + ", emp=" + employeeId);
+        String siteName = row.get(SITE);
+        String locationName = row.get(LOCATION);
 
         // ✅ Site/Location validation
-        if (siteName != null && !siteName.isBlank()) {
-            Site site = siteRepository.findByName(siteName.trim())
-                    .orElseThrow(() -> new RuntimeException("Site not found: '" + siteName + "'"));
-
-            if (locationName != null && !locationName.isBlank()) {
-                Location location = locationRepository.findByNameAndSite(locationName.trim(), site)
-                        .orElseThrow(() -> new RuntimeException("Location '" + locationName + "' not found in site '" + siteName + "'"));
-                dto.setLocationName(locationName.trim());
+        if (siteName != null) {
+            Site site = lookups.site(siteName);
+            if (site == null) {
+                throw new IllegalArgumentException("Site not found: '" + siteName + "'");
             }
-            dto.setSiteName(siteName.trim());
-        }
 
-        // ✅ Optional user assignment
-//        if (employeeId != null && !employeeId.isBlank()) {
-//
-//            User user = userRepository.findByEmployeeId(employeeId.trim())
-//                    .orElseThrow(() -> new UserNotFoundException("User not found: " + employeeId));
-//            dto.setAssignedUserId(user.getId());
-//        }
-
-
-// ✅ With this auto-create logic:
-        if (employeeId != null && !employeeId.isBlank()) {
-            String cleanEmployeeId = employeeId.trim();
-            Optional<User> existingUser = userRepository.findByEmployeeId(cleanEmployeeId);
-
-            if (existingUser.isPresent()) {
-                dto.setAssignedUserId(existingUser.get().getEmployeeId());
-            } else {
-                // Auto-create missing user
-                String newUserId = createSystemUserForImport(cleanEmployeeId, row);
-                dto.setAssignedUserId(newUserId);
+            if (locationName != null) {
+                if (lookups.location(site, locationName) == null) {
+                    throw new IllegalArgumentException("Location '" + locationName + "' not found in site '" + siteName + "'");
+                }
+                dto.setLocationName(locationName);
             }
+            dto.setSiteName(siteName);
         }
 
+        // Resolved (or auto-created) by the sink
+        dto.setAssignedUserId(row.get(EMPLOYEE_ID));
 
         return dto;
     }
 
-    // ✅ FIXED: Proper string cell reading (NO cell.setCellType!)
-    private String getStringCell(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
-
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue().trim();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> null;
-        };
-    }
-
-    // ✅ NEW: Enum cell helper
-    private <E extends Enum<E>> E getEnumCell(Row row, int index, Class<E> enumClass) {
-        String value = getStringCell(row, index);
-        if (value == null || value.isBlank()) return null;
-        try {
-            return Enum.valueOf(enumClass, value.trim().toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new RuntimeException("Invalid enum value '" + value + "' at column " + (index + 1));
-        }
-    }
-
-    // ✅ FIXED: BigDecimal (no cell.setCellType)
-    private BigDecimal getBigDecimalCell(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
-
-        try {
-            if (cell.getCellType() == CellType.NUMERIC) {
-                return BigDecimal.valueOf(cell.getNumericCellValue());
-            }
-            if (cell.getCellType() == CellType.STRING) {
-                return new BigDecimal(cell.getStringCellValue().trim());
+    // Checks phone numbers and employees per batch, then creates the SIM cards in file order
+    private final class SimSink implements ImportSink<SimCardRequestDto> {
+
+        // Phone numbers taken by earlier rows of this file
+        private final Set<String> seenPhoneNumbers = new HashSet<>();
+
+        @Override
+        public void write(List<ImportRecord<SimCardRequestDto>> batch, ImportReport report) {
+            List<String> phoneNumbers = batch.stream()
+                    .map(record -> record.value().getPhoneNumber())
+                    .filter(Objects::nonNull)
+                    .toList();
+            Set<String> existingPhones = phoneNumbers.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(simCardRepository.findExistingPhoneNumbers(phoneNumbers));
+
+            Set<String> employeeIds = new HashSet<>();
+            batch.forEach(record -> {
+                if (record.value().getAssignedUserId() != null) {
+                    employeeIds.add(record.value().getAssignedUserId());
+                }
+            });
+            Set<String> knownEmployees = new HashSet<>();
+            if (!employeeIds.isEmpty()) {
+                userRepository.findByEmployeeIdIn(employeeIds).forEach(user -> knownEmployees.add(user.getEmployeeId()));
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid number '" + cell + "' at column " + (index + 1));
-        }
-        return null;
-    }
-
 
-    private LocalDate getDateCell(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
+            for (ImportRecord<SimCardRequestDto> record : batch) {
+                SimCardRequestDto dto = record.value();
+                try {
+                    String phoneNumber = dto.getPhoneNumber();
+                    if (phoneNumber != null && (existingPhones.contains(phoneNumber) || seenPhoneNumbers.contains(phoneNumber))) {
+                        throw new IllegalArgumentException("❌ Duplicate phone number '" + phoneNumber + "' already exists (Row " + record.rowNumber() + ")");
+                    }
 
-        try {
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-                return cell.getLocalDateTimeCellValue().toLocalDate();
-            }
+                    // ✅ Auto-create missing users
+                    String employeeId = dto.getAssignedUserId();
+                    if (employeeId != null && !knownEmployees.contains(employeeId)) {
+                        knownEmployees.add(createSystemUserForImport(employeeId, dto, record.rowNumber()));
+                    }
 
-            if (cell.getCellType() == CellType.STRING) {
-                return LocalDate.parse(cell.getStringCellValue().trim());
+                    simCardService.createSimCard(dto);
+                    if (phoneNumber != null) {
+                        seenPhoneNumbers.add(phoneNumber);
+                    }
+                    report.accept();
+                } catch (Exception ex) {
+                    report.reject(record.rowNumber(), ex.getMessage() != null ? ex.getMessage() : "Unknown error");
+                }
             }
-
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid date at column " + (index + 1));
         }
-
-        return null;
     }
 
-
-    private String createSystemUserForImport(String employeeId, Row row) {
+    private String createSystemUserForImport(String employeeId, SimCardRequestDto dto, int rowNumber) {
         User systemUser = new User();
         systemUser.setEmployeeId(employeeId);
         systemUser.setUsername(employeeId);  // System-generated
         systemUser.setRole("USER");                   // Default role
-        systemUser.setPhoneNumber(getStringCell(row, 0));  // From SIM phone
+        systemUser.setPhoneNumber(dto.getPhoneNumber());  // From SIM phone
         systemUser.setPersonalEmail(employeeId + "@system.infradesk");  // Temp email
 
         // ✅ Audit trail in note
-        String siteName = getStringCell(row, 10);
-        String locationName = getStringCell(row, 11);
         systemUser.setNote(String.format(
                 "🔄 AUTO-CREATED by SIM import | Row %d | Site: %s | Location: %s | UPDATE with real data",
-                row.getRowNum() + 1, siteName, locationName
+                rowNumber, dto.getSiteName(), dto.getLocationName()
         ));
 
         // Default values
@@ -229,8 +169,6 @@ public class SimCardImportService {
         systemUser.setCreatedBy("SYSTEM_IMPORT");
 
         User savedUser = userRepository.save(systemUser);
-//        log.info("👤 Created system user for employeeId: {} (ID: {})", employeeId, savedUser.getId());
-
         return savedUser.getEmployeeId();
     }
 
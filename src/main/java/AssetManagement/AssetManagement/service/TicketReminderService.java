@@ -1,5 +1,6 @@
 package AssetManagement.AssetManagement.service;
 
+import AssetManagement.AssetManagement.config.SchedulingConfig;
 import AssetManagement.AssetManagement.entity.Location;
 import AssetManagement.AssetManagement.entity.Ticket;
 import AssetManagement.AssetManagement.entity.User;
@@ -25,18 +26,25 @@ public class TicketReminderService {
     private final UserRepository userRepository;
     private final LocationAssignmentRepository locationAssignmentRepository;
     private final EmailService emailService;
+    private final ScheduledJobMonitor jobMonitor;
 
     public TicketReminderService(TicketRepository ticketRepository,
                                  EmailService EmailService,
-                                 UserRepository userRepository, LocationAssignmentRepository locationAssignmentRepository, AssetManagement.AssetManagement.service.EmailService emailService) {
+                                 UserRepository userRepository, LocationAssignmentRepository locationAssignmentRepository, AssetManagement.AssetManagement.service.EmailService emailService,
+                                 ScheduledJobMonitor jobMonitor) {
         this.ticketRepository = ticketRepository;
         this.EmailService = EmailService;
         this.userRepository = userRepository;
         this.locationAssignmentRepository = locationAssignmentRepository;
         this.emailService = emailService;
+        this.jobMonitor = jobMonitor;
     }
-    @Scheduled(cron = "0 0 9 * * *") // Runs daily at 9 AM for 7 days old tickets
+    @Scheduled(cron = "0 0 9 * * *", scheduler = SchedulingConfig.REMINDER_SCHEDULER) // Runs daily at 9 AM for 7 days old tickets
     public void sendReminderForOldTickets() {
+        jobMonitor.runOnLeader("ticket-reminder-7-days", this::remindOldTickets);
+    }
+
+    private void remindOldTickets() {
         LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
         List<Ticket> oldOpenTickets = ticketRepository.findOpenTicketsOlderThan(sevenDaysAgo);
 
@@ -101,8 +109,12 @@ public class TicketReminderService {
         return html.toString();
     }
 
-    @Scheduled(cron = "0 30 9 * * *") // Runs daily at 9:30 AM
+    @Scheduled(cron = "0 30 9 * * *", scheduler = SchedulingConfig.REMINDER_SCHEDULER) // Runs daily at 9:30 AM
     public void sendReminderForTicketsOlderThan15Days() {
+        jobMonitor.runOnLeader("ticket-reminder-15-days", this::remindTicketsOlderThan15Days);
+    }
+
+    private void remindTicketsOlderThan15Days() {
         LocalDateTime fifteenDaysAgo = LocalDateTime.now().minusDays(15);
         List<Ticket> oldTickets = ticketRepository.findOpenTicketsOlderThan(fifteenDaysAgo);
 
@@ -150,8 +162,12 @@ public class TicketReminderService {
         return html.toString();
     }
 
-    @Scheduled(cron = "0 0 10,17 * * *") // Every day at 10 AM and 5 PM
+    @Scheduled(cron = "0 0 10,17 * * *", scheduler = SchedulingConfig.REMINDER_SCHEDULER) // Every day at 10 AM and 5 PM
     public void sendReminderForUnassignedTickets() {
+        jobMonitor.runOnLeader("ticket-reminder-unassigned", this::remindUnassignedTickets);
+    }
+
+    private void remindUnassignedTickets() {
         List<Ticket> unassignedTickets = ticketRepository.findByStatus(TicketStatus.UNASSIGNED);
 
         List<String> recipients = List.of(
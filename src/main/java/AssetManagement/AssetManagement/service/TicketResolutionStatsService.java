@@ -0,0 +1,377 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.config.SchedulingConfig;
+import AssetManagement.AssetManagement.dto.ResolutionStats;
+import AssetManagement.AssetManagement.dto.ResolutionTimeStatsDTO;
+import AssetManagement.AssetManagement.dto.TicketCountDTO;
+import AssetManagement.AssetManagement.dto.TicketResolutionSampleDTO;
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.entity.TicketResolutionRollup;
+import AssetManagement.AssetManagement.entity.User;
+import AssetManagement.AssetManagement.enums.TicketDepartment;
+import AssetManagement.AssetManagement.repository.TicketRepository;
+import AssetManagement.AssetManagement.repository.TicketResolutionRollupRepository;
+import AssetManagement.AssetManagement.util.ResolutionHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Resolution-time dashboard backed by {@link TicketResolutionRollup}.
+ * Closing a ticket folds its resolution time into its (creation day, department, assignee)
+ * bucket, so the dashboards merge a few hundred bucket rows instead of loading every ticket.
+ * A nightly rebuild recomputes all buckets from the tickets table.
+ */
+@Slf4j
+@Service
+public class TicketResolutionStatsService {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final double MINUTES_PER_DAY = 1440.0;
+    private static final long BACKFILL_LEASE_MILLIS = 60 * 60 * 1000L;
+
+    private final TicketResolutionRollupRepository rollupRepository;
+    private final TicketRepository ticketRepository;
+    private final ScheduledJobMonitor jobMonitor;
+    private final JobLeaseService jobLeaseService;
+
+    public TicketResolutionStatsService(TicketResolutionRollupRepository rollupRepository,
+                                        TicketRepository ticketRepository,
+                                        ScheduledJobMonitor jobMonitor,
+                                        JobLeaseService jobLeaseService) {
+        this.rollupRepository = rollupRepository;
+        this.ticketRepository = ticketRepository;
+        this.jobMonitor = jobMonitor;
+        this.jobLeaseService = jobLeaseService;
+    }
+
+    // ---------------------------------------------------------------------
+    // Rollup maintenance
+    // ---------------------------------------------------------------------
+
+    /** Adds a ticket that has just moved to CLOSED to its bucket. */
+    @Transactional
+    public void recordClosed(Ticket ticket) {
+        TicketResolutionSampleDTO sample = sampleOf(ticket);
+        if (sample == null) {
+            return;
+        }
+        BucketKey key = BucketKey.of(sample);
+        long minutes = resolutionMinutes(sample);
+
+        // One upsert, so tickets closing together can neither both create the bucket nor lose a
+        // count; it leaves the row locked for the histogram, which is one encoded column
+        rollupRepository.incrementBucket(key.id(), key.day(), key.departmentName(), key.assigneeId(),
+                minutes, LocalDateTime.now());
+        ResolutionHistogram histogram = ResolutionHistogram.decode(rollupRepository.findHistogramForUpdate(key.id()));
+        histogram.add(minutes);
+        rollupRepository.updateHistogram(key.id(), histogram.encode());
+    }
+
+    /**
+     * Recomputes the bucket of a ticket from the tickets table. Used when a closed ticket is
+     * reopened: min, max and histogram counts can't be subtracted, but one bucket is small.
+     */
+    @Transactional
+    public void rebuildBucketOf(Ticket ticket) {
+        if (ticket.getCreatedAt() == null) {
+            return;
+        }
+        BucketKey key = new BucketKey(
+                ticket.getCreatedAt().toLocalDate(),
+                ticket.getTicketDepartment(),
+                ticket.getAssignee() != null ? ticket.getAssignee().getId() : null
+        );
+
+        // Locks the bucket even when it does not exist yet, so a ticket closing meanwhile waits
+        rollupRepository.lockBucket(key.id(), key.day(), key.departmentName(), key.assigneeId(), LocalDateTime.now());
+        rollupRepository.deleteBucket(key.day(), key.department(), key.assigneeId());
+
+        List<TicketResolutionSampleDTO> samples = ticketRepository.findResolutionSamplesForBucket(
+                key.day().atStartOfDay(), key.day().plusDays(1).atStartOfDay(), key.department(), key.assigneeId());
+        if (samples.isEmpty()) {
+            return;
+        }
+
+        RollupAccumulator accumulator = new RollupAccumulator();
+        samples.forEach(s -> accumulator.add(resolutionMinutes(s)));
+        TicketResolutionRollup row = key.newRow();
+        accumulator.writeTo(row);
+        rollupRepository.save(row);
+    }
+
+    /** Full backfill; also repairs drift from tickets closed or edited outside updateTicketStatus. */
+    @Scheduled(cron = "0 30 2 * * *", scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    @Transactional
+    public void rebuildAll() {
+        jobMonitor.runOnLeader("ticket-resolution-rebuild", this::rebuild);
+    }
+
+    private void rebuild() {
+        Map<BucketKey, RollupAccumulator> buckets = new HashMap<>();
+        long afterId = 0L;
+        int tickets = 0;
+
+        List<TicketResolutionSampleDTO> batch;
+        do {
+            batch = ticketRepository.findResolutionSamplesAfter(afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (TicketResolutionSampleDTO sample : batch) {
+                buckets.computeIfAbsent(BucketKey.of(sample), k -> new RollupAccumulator())
+                        .add(resolutionMinutes(sample));
+                afterId = sample.getId();
+            }
+            tickets += batch.size();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+
+        List<TicketResolutionRollup> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((key, accumulator) -> {
+            TicketResolutionRollup row = key.newRow();
+            accumulator.writeTo(row);
+            rows.add(row);
+        });
+
+        rollupRepository.deleteAllInBatch();
+        rollupRepository.saveAll(rows);
+        log.info("Rebuilt ticket resolution rollup: {} closed tickets in {} buckets", tickets, rows.size());
+    }
+
+    // Runs before the first leader heartbeat, so a lease keeps instances started together from
+    // all backfilling; it is left to expire rather than released, so a late starter skips too
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 && jobLeaseService.tryAcquire("ticket-resolution-backfill", BACKFILL_LEASE_MILLIS)) {
+            jobMonitor.run("ticket-resolution-rebuild", this::rebuild);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Dashboard queries
+    // ---------------------------------------------------------------------
+
+    /** All non-HR tickets: overall, weekly (current month) and monthly (last 3 months). */
+    @Transactional(readOnly = true)
+    public ResolutionTimeStatsDTO getResolutionTimeStats() {
+        LocalDate today = LocalDate.now();
+        LocalDate firstOf3rdLastMonth = today.withDayOfMonth(1).minusMonths(2);
+
+        List<TicketResolutionRollup> allRows = rollupRepository.findAllExcludingHr();
+        List<TicketResolutionRollup> recentRows = allRows.stream()
+                .filter(r -> !r.getBucketDate().isBefore(firstOf3rdLastMonth))
+                .collect(Collectors.toList());
+
+        return buildStats(
+                today,
+                allRows,
+                ticketRepository.countOpenedExcludingHr(),
+                recentRows,
+                ticketRepository.countOpenedPerDayExcludingHr(firstOf3rdLastMonth.atStartOfDay())
+        );
+    }
+
+    /** Tickets assigned to one user across all departments. */
+    @Transactional(readOnly = true)
+    public ResolutionTimeStatsDTO getAssigneeResolutionStats(User assignee) {
+        LocalDate today = LocalDate.now();
+        LocalDate firstOf3rdLastMonth = today.withDayOfMonth(1).minusMonths(2);
+
+        return buildStats(
+                today,
+                rollupRepository.findByAssigneeId(assignee.getId()),
+                ticketRepository.countByAssignee(assignee),
+                rollupRepository.findByAssigneeIdAndBucketDateBetween(assignee.getId(), firstOf3rdLastMonth, today),
+                ticketRepository.countOpenedPerDayByAssignee(
+                        assignee, firstOf3rdLastMonth.atStartOfDay(), today.atTime(LocalTime.MAX))
+        );
+    }
+
+    private ResolutionTimeStatsDTO buildStats(LocalDate today,
+                                              List<TicketResolutionRollup> overallRows,
+                                              long overallOpened,
+                                              List<TicketResolutionRollup> recentRows,
+                                              List<TicketCountDTO> openedPerDay) {
+        RollupAccumulator overall = new RollupAccumulator();
+        overallRows.forEach(overall::merge);
+
+        Map<String, RollupAccumulator> weeklyClosed = new LinkedHashMap<>();
+        Map<String, RollupAccumulator> monthlyClosed = new LinkedHashMap<>();
+        Map<String, Integer> weeklyOpened = new LinkedHashMap<>();
+        Map<String, Integer> monthlyOpened = new LinkedHashMap<>();
+
+        for (TicketResolutionRollup row : recentRows) {
+            LocalDate day = row.getBucketDate();
+            monthlyClosed.computeIfAbsent(monthKey(day), k -> new RollupAccumulator()).merge(row);
+            if (isSameMonth(day, today)) {
+                weeklyClosed.computeIfAbsent(weekKey(day), k -> new RollupAccumulator()).merge(row);
+            }
+        }
+
+        for (TicketCountDTO row : openedPerDay) {
+            LocalDate day = LocalDate.parse(row.getLabel());
+            int count = row.getCount().intValue();
+            monthlyOpened.merge(monthKey(day), count, Integer::sum);
+            if (isSameMonth(day, today)) {
+                weeklyOpened.merge(weekKey(day), count, Integer::sum);
+            }
+        }
+
+        // --- Pad missing weeks in current month ---
+        int lastWeekIndex = weekOfMonth(today);
+        String thisMonthAbbrev = today.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+        for (int i = 1; i <= lastWeekIndex; i++) {
+            weeklyClosed.putIfAbsent(thisMonthAbbrev + " W" + i, new RollupAccumulator());
+        }
+
+        Map<String, ResolutionStats> weeklyStats = weeklyClosed.entrySet().stream()
+                .sorted(Comparator.comparing(e -> Integer.parseInt(e.getKey().split(" W")[1])))
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        e -> e.getValue().toStats(weeklyOpened.getOrDefault(e.getKey(), 0)),
+                        (a, b) -> a, LinkedHashMap::new
+                ));
+
+        // Latest 3 months that have closed tickets, oldest first
+        Map<String, ResolutionStats> monthlyStats = monthlyClosed.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.reverseOrder()))
+                .limit(3)
+                .sorted(Map.Entry.comparingByKey())
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        e -> e.getValue().toStats(monthlyOpened.getOrDefault(e.getKey(), 0)),
+                        (a, b) -> a, LinkedHashMap::new
+                ));
+
+        return new ResolutionTimeStatsDTO(overall.toStats((int) overallOpened), weeklyStats, monthlyStats);
+    }
+
+    private static String monthKey(LocalDate day) {
+        return day.getYear() + "-" + String.format("%02d", day.getMonthValue());
+    }
+
+    private static String weekKey(LocalDate day) {
+        return day.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + " W" + weekOfMonth(day);
+    }
+
+    private static int weekOfMonth(LocalDate day) {
+        return ((day.getDayOfMonth() - 1) / 7) + 1;
+    }
+
+    private static boolean isSameMonth(LocalDate day, LocalDate today) {
+        return day.getYear() == today.getYear() && day.getMonthValue() == today.getMonthValue();
+    }
+
+    private static TicketResolutionSampleDTO sampleOf(Ticket ticket) {
+        if (ticket.getCreatedAt() == null || ticket.getUpdatedAt() == null) {
+            return null;
+        }
+        return new TicketResolutionSampleDTO(
+                ticket.getId(),
+                ticket.getCreatedAt(),
+                ticket.getUpdatedAt(),
+                ticket.getTicketDepartment(),
+                ticket.getAssignee() != null ? ticket.getAssignee().getId() : null
+        );
+    }
+
+    private static long resolutionMinutes(TicketResolutionSampleDTO sample) {
+        return Duration.between(sample.getCreatedAt(), sample.getUpdatedAt()).toMinutes();
+    }
+
+    private record BucketKey(LocalDate day, TicketDepartment department, Long assigneeId) {
+
+        static BucketKey of(TicketResolutionSampleDTO sample) {
+            return new BucketKey(sample.getCreatedAt().toLocalDate(), sample.getTicketDepartment(), sample.getAssigneeId());
+        }
+
+        // Value of the unique bucket_key column
+        String id() {
+            return day + "|" + (department != null ? department.name() : "") + "|" + (assigneeId != null ? assigneeId : "");
+        }
+
+        String departmentName() {
+            return department != null ? department.name() : null;
+        }
+
+        TicketResolutionRollup newRow() {
+            TicketResolutionRollup row = new TicketResolutionRollup();
+            row.setBucketKey(id());
+            row.setBucketDate(day);
+            row.setTicketDepartment(department);
+            row.setAssigneeId(assigneeId);
+            return row;
+        }
+    }
+
+    // Count, sum, min, max and histogram of resolution minutes; merges like the rows it reads
+    private static final class RollupAccumulator {
+        private long closedCount;
+        private long sumMinutes;
+        private Long minMinutes;
+        private Long maxMinutes;
+        private final ResolutionHistogram histogram = new ResolutionHistogram();
+
+        void add(long minutes) {
+            closedCount++;
+            sumMinutes += minutes;
+            minMinutes = minMinutes == null ? minutes : Math.min(minMinutes, minutes);
+            maxMinutes = maxMinutes == null ? minutes : Math.max(maxMinutes, minutes);
+            histogram.add(minutes);
+        }
+
+        void merge(TicketResolutionRollup row) {
+            if (row.getClosedCount() == 0) {
+                return;
+            }
+            closedCount += row.getClosedCount();
+            sumMinutes += row.getSumMinutes();
+            if (row.getMinMinutes() != null) {
+                minMinutes = minMinutes == null ? row.getMinMinutes() : Math.min(minMinutes, row.getMinMinutes());
+            }
+            if (row.getMaxMinutes() != null) {
+                maxMinutes = maxMinutes == null ? row.getMaxMinutes() : Math.max(maxMinutes, row.getMaxMinutes());
+            }
+            histogram.merge(ResolutionHistogram.decode(row.getHistogram()));
+        }
+
+        void writeTo(TicketResolutionRollup row) {
+            row.setClosedCount(closedCount);
+            row.setSumMinutes(sumMinutes);
+            row.setMinMinutes(minMinutes);
+            row.setMaxMinutes(maxMinutes);
+            row.setHistogram(histogram.encode());
+            row.setUpdatedAt(LocalDateTime.now());
+        }
+
+        // Durations are reported in days, like the dashboard always has
+        ResolutionStats toStats(int openedCount) {
+            if (closedCount == 0) {
+                return new ResolutionStats(null, null, null, 0, openedCount, null, null);
+            }
+            return new ResolutionStats(
+                    sumMinutes / (double) closedCount / MINUTES_PER_DAY,
+                    minMinutes / MINUTES_PER_DAY,
+                    maxMinutes / MINUTES_PER_DAY,
+                    (int) closedCount,
+                    openedCount,
+                    toDays(histogram.percentile(0.5, minMinutes, maxMinutes)),
+                    toDays(histogram.percentile(0.9, minMinutes, maxMinutes))
+            );
+        }
+
+        private static Double toDays(Long minutes) {
+            return minutes != null ? minutes / MINUTES_PER_DAY : null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package AssetManagement.AssetManagement.service;
+
+import java.util.List;
+
+/**
+ * Full-text search over tickets: title, description, message bodies and participant
+ * (reporter, assignee, message sender) and location names. Returns ranked ticket ids only;
+ * visibility rules are applied by the caller's ticket specification.
+ */
+public interface TicketSearchEngine {
+
+    /** False until the initial build has finished; callers fall back to the LIKE search. */
+    boolean isReady();
+
+    /** Ids of matching tickets, most relevant first, at most {@code limit} of them. */
+    List<Long> search(String query, int limit);
+
+    /** Refreshes one ticket from the database once the current transaction commits. */
+    void reindex(Long ticketId);
+}
@@ -3,51 +3,47 @@ package AssetManagement.AssetManagement.service;
 import AssetManagement.AssetManagement.dto.*;
 import AssetManagement.AssetManagement.entity.*;
 import AssetManagement.AssetManagement.enums.*;
+import AssetManagement.AssetManagement.exception.BadRequestException;
 import AssetManagement.AssetManagement.exception.UserNotFoundException;
+import AssetManagement.AssetManagement.mapper.TicketDtoAssembler;
 import AssetManagement.AssetManagement.mapper.TicketMapper;
 import AssetManagement.AssetManagement.repository.*;
 import AssetManagement.AssetManagement.util.AuthUtils;
+import AssetManagement.AssetManagement.util.TicketCursor;
 import AssetManagement.AssetManagement.util.TicketDepartmentMapper;
 import AssetManagement.AssetManagement.util.TicketSpecification;
 import AssetManagement.AssetManagement.util.TicketsSpecification;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.tomcat.util.http.fileupload.ByteArrayOutputStream;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.OutputStream;
 import java.nio.file.Paths;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.time.format.TextStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.IsoFields;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -64,10 +60,15 @@ public class TicketService {
     private final AssetRepository assetRepository;
     private final LocationAssignmentRepository locationAssignmentRepository;
     private final TicketMapper ticketMapper;
+    private final TicketDtoAssembler ticketDtoAssembler;
     private final LocationRepository locationRepository;
     private final EmailService emailTicketService;
+    private final TicketResolutionStatsService resolutionStatsService;
+    private final TicketSearchEngine ticketSearchEngine;
+    private final FileStorageService fileStorageService;
+    private final FileServingService fileServingService;
 
-    public TicketService(TicketRepository ticketRepository, TicketMessageRepository ticketMessageRepository, UserRepository userRepository, UserService userService, TicketFeedbackRepository ticketFeedbackRepository, AssetRepository assetRepository, LocationAssignmentRepository locationAssignmentRepository, TicketMapper ticketMapper, LocationRepository locationRepository, EmailService emailTicketService, EmailService emailTicketService1) {
+    public TicketService(TicketRepository ticketRepository, TicketMessageRepository ticketMessageRepository, UserRepository userRepository, UserService userService, TicketFeedbackRepository ticketFeedbackRepository, AssetRepository assetRepository, LocationAssignmentRepository locationAssignmentRepository, TicketMapper ticketMapper, TicketDtoAssembler ticketDtoAssembler, LocationRepository locationRepository, EmailService emailTicketService, EmailService emailTicketService1, TicketResolutionStatsService resolutionStatsService, TicketSearchEngine ticketSearchEngine, FileStorageService fileStorageService, FileServingService fileServingService) {
         this.ticketRepository = ticketRepository;
         this.ticketMessageRepository = ticketMessageRepository;
         this.userRepository = userRepository;
@@ -76,8 +77,13 @@ public class TicketService {
         this.assetRepository = assetRepository;
         this.locationAssignmentRepository = locationAssignmentRepository;
         this.ticketMapper = ticketMapper;
+        this.ticketDtoAssembler = ticketDtoAssembler;
         this.locationRepository = locationRepository;
         this.emailTicketService = emailTicketService1;
+        this.resolutionStatsService = resolutionStatsService;
+        this.ticketSearchEngine = ticketSearchEngine;
+        this.fileStorageService = fileStorageService;
+        this.fileServingService = fileServingService;
     }
 
 
@@ -160,21 +166,20 @@ public class TicketService {
 
         // ✅ Store the file if uploaded
         if (attachment != null && !attachment.isEmpty()) {
-            String uploadDir = "uploads/tickets/";
-            new File(uploadDir).mkdirs(); // Ensure directory exists
-
-            String filename = savedTicket.getId() + "_" + attachment.getOriginalFilename();
-            Path filePath = Paths.get(uploadDir, filename);
-
             try {
-                Files.write(filePath, attachment.getBytes());
-                savedTicket.setAttachmentPath(filePath.toString());
-                ticketRepository.save(savedTicket); // Save path
+                // Streamed into the shared store; the ticket keeps the content key
+                fileStorageService.storeFor(attachment, stored -> {
+                    savedTicket.setAttachmentPath(FileStorageService.keyOf(stored, attachment.getOriginalFilename()));
+                    savedTicket.setAttachmentName(attachment.getOriginalFilename());
+                    return ticketRepository.save(savedTicket); // Save path
+                });
             } catch (IOException e) {
                 throw new RuntimeException("Failed to store attachment", e);
             }
         }
 
+        ticketSearchEngine.reindex(savedTicket.getId());
+
         // ✅ Send acknowledgment email
         emailTicketService.sendTicketAcknowledgmentEmail(
                 employeeUser.getEmail(),
@@ -190,13 +195,12 @@ public class TicketService {
     public ResponseEntity<List<TicketDTO>> createBulkTicket(List<Ticket> ticketList, MultipartFile attachment) {
         // Save all tickets
         List<Ticket> savedTickets = ticketRepository.saveAll(ticketList);
+        savedTickets.forEach(ticket -> ticketSearchEngine.reindex(ticket.getId()));
 
         // Optionally handle attachment here for each ticket or store globally (e.g., save to S3, DB, etc.)
 
         // Convert to DTOs
-        List<TicketDTO> ticketDTOs = savedTickets.stream()
-                .map(ticketMapper::toDTO)
-                .collect(Collectors.toList());
+        List<TicketDTO> ticketDTOs = ticketDtoAssembler.toDTOs(savedTickets);
 
         return new ResponseEntity<>(ticketDTOs, HttpStatus.CREATED);
     }
@@ -235,6 +239,7 @@ public class TicketService {
             ticket.setLocation(location);
         }
 
+        ticketSearchEngine.reindex(ticketId);
         return ticketRepository.save(ticket);
     }
 
@@ -252,8 +257,8 @@ public class TicketService {
             spec = TicketSpecification.getFilteredTickets(ticketId, title, user); // restricted
         }
 
-        return ticketRepository.findAll(spec, pageable)
-                .map(this::convertTicketToDTO);
+        Page<Ticket> ticketPage = ticketRepository.findAll(spec, pageable);
+        return new PageImpl<>(ticketDtoAssembler.toDTOs(ticketPage.getContent()), pageable, ticketPage.getTotalElements());
     }
 
     public TicketDTO updateLocation(Long ticketId, Long locationId) {
@@ -280,6 +285,7 @@ public class TicketService {
         message.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
 
         ticketMessageRepository.save(message);
+        ticketSearchEngine.reindex(ticketId);
 
         return convertTicketToDTO(savedTicket);
     }
@@ -309,21 +315,14 @@ public class TicketService {
         message.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
 
         ticketMessageRepository.save(message);
+        ticketSearchEngine.reindex(ticketId);
 
         return convertTicketToDTO(savedTicket);
     }
 
 
     public PaginatedResponse<TicketDTO> getAllTicketsForAdmin(int page, int size, TicketStatus status) {
-        // Fetch the authenticated user
-        User user = userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername())
-                .orElseThrow(() -> new UserNotFoundException("Authenticated User not found"));
-
-        String role = user.getRole();
-
-        if (!role.equalsIgnoreCase("ADMIN") && !role.equalsIgnoreCase("HR_ADMIN")) {
-            throw new RuntimeException("Access Denied: Only admins and HR admins can view all tickets.");
-        }
+        User user = getAuthenticatedTicketAdmin();
 
         TicketDepartment userDepartment = TicketDepartment.valueOf(user.getDepartment().name()); // Assuming Department is an enum
 
@@ -345,9 +344,7 @@ public class TicketService {
             ticketPage = ticketRepository.findByTicketDepartmentAndStatus(userDepartment, status, pageRequest);
         }
 
-        List<TicketDTO> ticketDTOs = ticketPage.getContent().stream()
-                .map(ticketMapper::toDTO)
-                .collect(Collectors.toList());
+        List<TicketDTO> ticketDTOs = ticketDtoAssembler.toDTOs(ticketPage.getContent());
 
         return new PaginatedResponse<>(
                 ticketDTOs,
@@ -359,6 +356,47 @@ public class TicketService {
         );
     }
 
+    public PaginatedResponse<TicketSummaryDTO> getAllTicketSummariesForAdmin(int page, int size, TicketStatus status) {
+        User user = getAuthenticatedTicketAdmin();
+
+        // Same rules as getAllTicketsForAdmin: UNASSIGNED spans departments, otherwise the admin's department
+        TicketDepartment department = null;
+        if (status != TicketStatus.UNASSIGNED) {
+            department = TicketDepartment.valueOf(user.getDepartment().name());
+        }
+
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        Page<TicketSummaryDTO> summaryPage =
+                ticketRepository.findSummariesByDepartmentAndStatus(department, status, pageRequest);
+
+        return toPaginatedResponse(summaryPage);
+    }
+
+    private User getAuthenticatedTicketAdmin() {
+        User user = AuthUtils.getAuthenticatedUser()
+                .or(() -> userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername()))
+                .orElseThrow(() -> new UserNotFoundException("Authenticated User not found"));
+
+        String role = user.getRole();
+
+        if (!role.equalsIgnoreCase("ADMIN") && !role.equalsIgnoreCase("HR_ADMIN")) {
+            throw new RuntimeException("Access Denied: Only admins and HR admins can view all tickets.");
+        }
+        return user;
+    }
+
+    private <T> PaginatedResponse<T> toPaginatedResponse(Page<T> page) {
+        return new PaginatedResponse<>(
+                page.getContent(),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isLast()
+        );
+    }
+
     private User findExecutiveByLocationAndDepartment(Long locationId, TicketDepartment department) {
         // Fetch executives responsible for the given department and location
         List<User> executives = locationAssignmentRepository.findExecutivesByLocationAndDepartment(locationId, department);
@@ -418,7 +456,7 @@ public class TicketService {
         message.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
 
         ticketMessageRepository.save(message);
-
+        ticketSearchEngine.reindex(ticketId);
 
         return convertTicketToDTO(updatedTicket);
     }
@@ -440,6 +478,7 @@ public class TicketService {
         ticketMessage.setTicketMessageType(ticketMessageDTO.getTicketMessageType());
 
         TicketMessage savedMessage = ticketMessageRepository.save(ticketMessage);
+        ticketSearchEngine.reindex(ticketId);
 
         // modify the rule of send mail to internal
         if(savedMessage.getTicketMessageType()== TicketMessageType.INTERNAL_NOTE){
@@ -476,6 +515,7 @@ public class TicketService {
         message.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
 
         ticketMessageRepository.save(message);
+        ticketSearchEngine.reindex(ticketId);
 
     }
 
@@ -507,11 +547,12 @@ public class TicketService {
         message.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
 
         ticketMessageRepository.save(message);
+        ticketSearchEngine.reindex(ticketId);
 
 //        return ticket; // No change
     }
 
-    public ResponseEntity<Resource> downloadAttachment(Long ticketId) throws IOException {
+    public void downloadAttachment(Long ticketId, HttpServletRequest request, HttpServletResponse response) throws IOException {
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new EntityNotFoundException("Ticket not found"));
 
@@ -519,17 +560,11 @@ public class TicketService {
             throw new FileNotFoundException("Attachment not found for this ticket");
         }
 
-        Path path = Paths.get(ticket.getAttachmentPath());
-        String fileName = path.getFileName().toString();
-        String contentType = Files.probeContentType(path); // auto-detect content type
-
-        Resource resource = new UrlResource(path.toUri());
-
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType != null ? contentType : "application/octet-stream"))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(resource);
+        // Older tickets hold a file path named after the upload, newer ones a key into the file store
+        String fileName = ticket.getAttachmentName() != null
+                ? ticket.getAttachmentName()
+                : Paths.get(ticket.getAttachmentPath()).getFileName().toString();
+        fileServingService.serve(ticket.getAttachmentPath(), null, fileName, request, response);
     }
 
 
@@ -662,7 +697,7 @@ public class TicketService {
                 siteId, ticketDepartment, status, startDate, endDate, pageable);
 
 
-        return tickets.map(this::convertTicketToDTO);
+        return new PageImpl<>(ticketDtoAssembler.toDTOs(tickets.getContent()), pageable, tickets.getTotalElements());
     }
 
     public ResponseEntity<String> updateFeedback(Long ticketId, int rating) {
@@ -892,6 +927,8 @@ public class TicketService {
         // Save ticket first before creating message
         Ticket savedTicket = ticketRepository.save(ticket);
 
+        updateResolutionRollup(savedTicket, oldStatus, newStatus);
+
         // Create a new TicketMessage entry for status update
         TicketMessage message = new TicketMessage();
         message.setTicket(ticket);
@@ -903,6 +940,7 @@ public class TicketService {
         message.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
 
         ticketMessageRepository.save(message);
+        ticketSearchEngine.reindex(ticketId);
 
         if (!savedTicket.getAssignee().equals(savedTicket.getEmployee())) {
             String toEmail = ticket.getEmployee().getEmail();
@@ -916,6 +954,20 @@ public class TicketService {
         return convertTicketToDTO(ticket);
     }
 
+    // The rollup is only a cache of closed-ticket stats: a failure here must not block the
+    // status change, and the nightly rebuild in TicketResolutionStatsService repairs it
+    private void updateResolutionRollup(Ticket ticket, TicketStatus oldStatus, TicketStatus newStatus) {
+        try {
+            if (newStatus == TicketStatus.CLOSED && oldStatus != TicketStatus.CLOSED) {
+                resolutionStatsService.recordClosed(ticket);
+            } else if (oldStatus == TicketStatus.CLOSED && newStatus != TicketStatus.CLOSED) {
+                resolutionStatsService.rebuildBucketOf(ticket);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not update resolution rollup for ticket {}: {}", ticket.getId(), e.getMessage());
+        }
+    }
+
 
 
 //    public PaginatedResponse<TicketDTO> getUserTickets(TicketStatus status, String employeeId, int page, int size) {
@@ -962,61 +1014,57 @@ public class TicketService {
 //        );
 //    }
 
+    @Transactional(readOnly = true)
     public PaginatedResponse<TicketDTO> getUserTickets(TicketStatus status, String employeeId, int page, int size) {
-        User user;
+        User user = resolveTicketOwner(employeeId);
 
-        // Determine the user context
-        if ("ALL".equalsIgnoreCase(employeeId)) {
-            String authenticatedEmployeeId = AuthUtils.getAuthenticatedUsername();
-            user = userRepository.findByEmployeeId(authenticatedEmployeeId)
-                    .orElseThrow(() -> new UserNotFoundException("Authenticated user not found"));
-        } else {
-            user = userRepository.findByEmployeeId(employeeId)
-                    .orElseThrow(() -> new UserNotFoundException("Specified user not found"));
-        }
+        // Employee-or-assignee match, ordering and slicing all happen in the database
+        Pageable pageable = userTicketsPage(page, size);
 
-        List<Ticket> combinedTickets;
+        Page<Ticket> ticketPage = ticketRepository.findByEmployeeOrAssignee(user, status, pageable);
 
-        if (status != null) {
-            List<Ticket> employeeTickets = ticketRepository.findByEmployeeAndStatus(user, status);
-            List<Ticket> assigneeTickets = ticketRepository.findByAssigneeAndStatus(user, status);
-            combinedTickets = Stream.concat(employeeTickets.stream(), assigneeTickets.stream())
-                    .distinct()
-                    .sorted(Comparator.comparing(Ticket::getCreatedAt).reversed()) // Sort by createdAt descending
-                    .toList();
-        } else {
-            List<Ticket> employeeTickets = ticketRepository.findByEmployee(user);
-            List<Ticket> assigneeTickets = ticketRepository.findByAssignee(user);
-            combinedTickets = Stream.concat(employeeTickets.stream(), assigneeTickets.stream())
-                    .distinct()
-                    .sorted(Comparator.comparing(Ticket::getCreatedAt).reversed()) // Sort by createdAt descending
-                    .toList();
-        }
+        List<TicketDTO> ticketDTOs = ticketDtoAssembler.toDTOs(ticketPage.getContent());
 
-        // Manual pagination
-        int start = Math.min(page * size, combinedTickets.size());
-        int end = Math.min(start + size, combinedTickets.size());
+        return new PaginatedResponse<>(
+                ticketDTOs,
+                ticketPage.getNumber(),
+                ticketPage.getSize(),
+                ticketPage.getTotalElements(),
+                ticketPage.getTotalPages(),
+                ticketPage.isLast()
+        );
+    }
 
-        List<TicketDTO> paginatedList = combinedTickets.subList(start, end).stream()
-                .map(this::convertTicketToDTO)
-                .collect(Collectors.toList());
 
+    public PaginatedResponse<TicketSummaryDTO> getUserTicketSummaries(TicketStatus status, String employeeId, int page, int size) {
+        User user = resolveTicketOwner(employeeId);
 
-        return new PaginatedResponse<>(
-                paginatedList,
-                page,
-                size,
-                combinedTickets.size(),
-                (int) Math.ceil((double) combinedTickets.size() / size),
-                end >= combinedTickets.size()
-        );
+        Page<TicketSummaryDTO> summaryPage =
+                ticketRepository.findSummariesByEmployeeOrAssignee(user, status, userTicketsPage(page, size));
+
+        return toPaginatedResponse(summaryPage);
+    }
+
+    private User resolveTicketOwner(String employeeId) {
+        // "ALL" means the tickets of the logged-in user
+        if ("ALL".equalsIgnoreCase(employeeId)) {
+            // Reuse the principal the JWT filter already resolved; it is only used as a query parameter
+            return AuthUtils.getAuthenticatedUser()
+                    .or(() -> userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername()))
+                    .orElseThrow(() -> new UserNotFoundException("Authenticated user not found"));
+        }
+        return userRepository.findByEmployeeId(employeeId)
+                .orElseThrow(() -> new UserNotFoundException("Specified user not found"));
+    }
+
+    private Pageable userTicketsPage(int page, int size) {
+        return PageRequest.of(page, size,
+                Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
     }
 
 
     public List<TicketDTO> getAllTickets() {
-        return ticketRepository.findAll().stream()
-                .map(this::convertTicketToDTO)
-                .collect(Collectors.toList());
+        return ticketDtoAssembler.toDTOs(ticketRepository.findAll());
     }
 
 
@@ -1053,7 +1101,7 @@ public class TicketService {
                 return Collections.emptyList();
             }
 
-            return tickets.stream().map(this::convertTicketToDTO).collect(Collectors.toList());
+            return ticketDtoAssembler.toDTOs(tickets);
         }
 
     public List<TicketDTO> getAssignedTickets(String assignee) {
@@ -1061,7 +1109,7 @@ public class TicketService {
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         List<Ticket> tickets = ticketRepository.findByAssignee(assigneeUser);
-        return tickets.stream().map(this::convertTicketToDTO).collect(Collectors.toList());
+        return ticketDtoAssembler.toDTOs(tickets);
     }
 
 
@@ -1146,72 +1194,7 @@ public class TicketService {
 
 
     private TicketDTO convertTicketToDTO(Ticket ticket) {
-        List<TicketMessage> messageEntities = ticketMessageRepository.findByTicket(ticket);
-
-        List<TicketMessageDTO> messages = messageEntities
-                .stream()
-                .map(this::convertMessageToDTO)
-                .collect(Collectors.toList());
-
-        // 1. First Responded At — first message by someone other than ticket creator
-        LocalDateTime firstRespondedAt = null;
-
-        if (ticket.getAssignee() != null) {
-            firstRespondedAt = messageEntities.stream()
-                    .filter(msg -> msg.getSender() != null
-                            && msg.getSender().getId().equals(ticket.getAssignee().getId()))
-                    .map(TicketMessage::getSentAt)
-                    .filter(Objects::nonNull)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(null);
-        }
-
-
-        // 2. Last Updated — latest message or ticket updatedAt
-        LocalDateTime lastUpdated = Stream.concat(
-                        messageEntities.stream().map(TicketMessage::getSentAt),
-                        Stream.of(ticket.getUpdatedAt())
-                ).filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(ticket.getUpdatedAt());
-
-        // 3. Due Date — example: 3 business days after ticket creation
-        LocalDateTime dueDate = ticket.getCreatedAt() != null
-                ? ticket.getCreatedAt().plusDays(3)
-                : null;
-
-        // 4. Closed At — only if ticket is closed
-        LocalDateTime closedAt = (ticket.getStatus() == TicketStatus.CLOSED)
-                ? ticket.getUpdatedAt()
-                : null;
-
-        // Build DTO
-        TicketDTO dto = new TicketDTO(
-                ticket.getId(),
-                ticket.getTitle(),
-                ticket.getDescription(),
-                ticket.getCategory(),
-                ticket.getStatus(),
-                ticket.getEmployee() != null ? userService.convertUserToDto(ticket.getEmployee()) : null,
-                ticket.getCreatedBy(),
-                ticket.getAssignee() != null ? userService.convertUserToDto(ticket.getAssignee()) : null,
-                ticket.getAsset() != null ? ticket.getAsset().getAssetTag() : null,
-                ticket.getAsset() != null ? ticket.getAsset().getName() : "Other",
-                ticket.getLocation() != null ? ticket.getLocation().getName() : null,
-                ticket.getLocation() != null ? ticket.getLocation().getId() : null,
-                ticket.getTicketDepartment(),
-                ticket.getCcEmails(),
-                ticket.getCreatedAt(),
-                ticket.getUpdatedAt(),
-                messages,
-                firstRespondedAt,
-                lastUpdated,
-                dueDate,
-                closedAt,
-                ticket.getAttachmentPath()
-        );
-
-        return dto;
+        return ticketDtoAssembler.toDTO(ticket);
     }
 
     public TicketMessageDTO convertMessageToDTO(TicketMessage ticketMessage) {
@@ -1231,61 +1214,69 @@ public class TicketService {
 
 
     public Map<TicketStatus, Long> getTicketCountByStatus() {
-        return Arrays.stream(TicketStatus.values())
-                .collect(Collectors.toMap(status -> status, status -> ticketRepository.countByStatus(status)));
+        Map<TicketStatus, Long> stats = new EnumMap<>(TicketStatus.class);
+        for (TicketStatus status : TicketStatus.values()) {
+            stats.put(status, 0L);
+        }
+        for (TicketCountDTO row : ticketRepository.countGroupedByStatus()) {
+            if (row.getLabel() != null) {
+                stats.put(TicketStatus.valueOf(row.getLabel()), row.getCount());
+            }
+        }
+        return stats;
     }
 
     public Map<String, Long> getTicketsCreatedPerDay() {
-        Map<String, Long> stats = new TreeMap<>();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        return getTicketsCreatedPerDay(StatsWindow.last30Days());
+    }
 
-        ZoneId zone = ZoneId.of("Asia/Kolkata");
-        LocalDate today = LocalDate.now(zone);
-        LocalDate startDate = today.minusDays(29);
-        LocalDateTime startOfDay = startDate.atStartOfDay();
-        LocalDateTime endOfToday = today.atTime(LocalTime.MAX);
+    private Map<String, Long> getTicketsCreatedPerDay(StatsWindow window) {
+        Map<String, Long> stats = new TreeMap<>();
 
         // Pre-fill with zeros for all 30 days
-        for (int i = 0; i < 30; i++) {
-            String date = startDate.plusDays(i).format(formatter);
-            stats.put(date, 0L);
+        LocalDate startDate = window.start().toLocalDate();
+        for (int i = 0; i < StatsWindow.DAYS; i++) {
+            stats.put(startDate.plusDays(i).toString(), 0L);
         }
 
-        List<Ticket> tickets = ticketRepository.findTicketsCreatedBetween(startOfDay, endOfToday);
-
-        for (Ticket ticket : tickets) {
-            if (ticket.getCreatedAt() != null) {
-                String date = ticket.getCreatedAt()
-                        .atZone(ZoneId.systemDefault())
-                        .withZoneSameInstant(zone)
-                        .toLocalDate()
-                        .format(formatter);
-                stats.put(date, stats.get(date) + 1);
+        for (TicketCountDTO row : ticketRepository.countCreatedPerDay(window.start(), window.end())) {
+            if (row.getLabel() != null) {
+                stats.put(row.getLabel(), row.getCount());
             }
         }
 
         return stats;
     }
 
+    public Map<String, Long> getTicketCountByCategory() {
+        return getTicketCountByCategory(StatsWindow.last30Days());
+    }
 
+    private Map<String, Long> getTicketCountByCategory(StatsWindow window) {
+        return toCountMap(ticketRepository.countGroupedByCategory(window.start(), window.end()), "Uncategorized");
+    }
 
+    /**
+     * The dashboard's last-30-days window. Days are taken in Asia/Kolkata, while the buckets
+     * are grouped on the stored createdAt date in the database.
+     */
+    private record StatsWindow(LocalDateTime start, LocalDateTime end) {
+        static final int DAYS = 30;
 
+        static StatsWindow last30Days() {
+            LocalDate today = LocalDate.now(ZoneId.of("Asia/Kolkata"));
+            return new StatsWindow(today.minusDays(DAYS - 1).atStartOfDay(), today.atTime(LocalTime.MAX));
+        }
+    }
 
-
-    public Map<String, Long> getTicketCountByCategory() {
-        ZoneId zone = ZoneId.of("Asia/Kolkata");
-        LocalDate today = LocalDate.now(zone);
-        LocalDate startDate = today.minusDays(29);
-        LocalDateTime startOfDay = startDate.atStartOfDay();
-        LocalDateTime endOfToday = today.atTime(LocalTime.MAX);
-
-
-        List<Ticket> tickets = ticketRepository.findTicketsCreatedBetween(startOfDay,endOfToday);
-        return tickets.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().name() : "Uncategorized",
-                        Collectors.counting()
-                ));
+    // Null keys (e.g. unassigned, uncategorized) are reported under nullLabel
+    private Map<String, Long> toCountMap(List<TicketCountDTO> rows, String nullLabel) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (TicketCountDTO row : rows) {
+            String key = row.getLabel() != null ? row.getLabel() : nullLabel;
+            counts.merge(key, row.getCount(), Long::sum);
+        }
+        return counts;
     }
 
 //    public Map<String, Long> getTicketCountByAssignee() {
@@ -1445,103 +1436,7 @@ public class TicketService {
 
 
     public ResolutionTimeStatsDTO getResolutionTimeStats() {
-        List<Ticket> tickets = ticketRepository.findAll();
-
-        LocalDate today = LocalDate.now();
-        int thisMonth = today.getMonthValue();
-        int thisYear = today.getYear();
-        LocalDate firstOfCurrentMonth = today.withDayOfMonth(1);
-        LocalDate firstOf3rdLastMonth = firstOfCurrentMonth.minusMonths(2);
-
-        // --- Filtered lists ---
-        List<Ticket> closedTickets = tickets.stream()
-                .filter(t -> t.getCreatedAt() != null
-                        && t.getUpdatedAt() != null
-                        && t.getStatus() == TicketStatus.CLOSED
-                        && (t.getTicketDepartment() == null || t.getTicketDepartment() != TicketDepartment.HR))
-                .collect(Collectors.toList());
-
-        List<Ticket> createdInLast3Months = tickets.stream()
-                .filter(t -> t.getCreatedAt() != null
-                        && (t.getTicketDepartment() == null || t.getTicketDepartment() != TicketDepartment.HR)
-                        && !t.getCreatedAt().toLocalDate().isBefore(firstOf3rdLastMonth))
-                .collect(Collectors.toList());
-
-        // --- Overall stats ---
-        List<Long> overallClosedDurations = closedTickets.stream()
-                .map(t -> Duration.between(t.getCreatedAt(), t.getUpdatedAt()).toMinutes())
-                .collect(Collectors.toList());
-
-        int overallOpenedCount = (int) tickets.stream()
-                .filter(t -> t.getCreatedAt() != null
-                        && (t.getTicketDepartment() == null || t.getTicketDepartment() != TicketDepartment.HR))
-                .count();
-
-        Map<String, List<Long>> weeklyClosed = new LinkedHashMap<>();
-        Map<String, Integer> weeklyOpened = new LinkedHashMap<>();
-        Map<String, List<Long>> monthlyClosed = new LinkedHashMap<>();
-        Map<String, Integer> monthlyOpened = new LinkedHashMap<>();
-
-        // --- Populate weekly/monthly data ---
-        for (Ticket t : createdInLast3Months) {
-            LocalDateTime created = t.getCreatedAt();
-
-            // Keys
-            String monthKey = created.getYear() + "-" + String.format("%02d", created.getMonthValue());
-            String monthAbbrev = created.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-            int weekOfMonth = ((created.getDayOfMonth() - 1) / 7) + 1;
-            String weekKey = monthAbbrev + " W" + weekOfMonth;
-
-            // Count all tickets created in that period
-            monthlyOpened.merge(monthKey, 1, Integer::sum);
-            if (created.getYear() == thisYear && created.getMonthValue() == thisMonth) {
-                weeklyOpened.merge(weekKey, 1, Integer::sum);
-            }
-
-            // Closed tickets: add durations
-            if (t.getStatus() == TicketStatus.CLOSED && t.getUpdatedAt() != null) {
-                long minutes = Duration.between(created, t.getUpdatedAt()).toMinutes();
-                monthlyClosed.computeIfAbsent(monthKey, k -> new ArrayList<>()).add(minutes);
-                if (created.getYear() == thisYear && created.getMonthValue() == thisMonth) {
-                    weeklyClosed.computeIfAbsent(weekKey, k -> new ArrayList<>()).add(minutes);
-                }
-            }
-        }
-
-        // --- Pad missing weeks in current month ---
-        int lastWeekIndex = ((today.getDayOfMonth() - 1) / 7) + 1;
-        String thisMonthAbbrev = today.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-        for (int i = 1; i <= lastWeekIndex; i++) {
-            String wkKey = thisMonthAbbrev + " W" + i;
-            weeklyClosed.putIfAbsent(wkKey, new ArrayList<>());
-            weeklyOpened.putIfAbsent(wkKey, 0);
-        }
-
-        // --- Weekly stats ---
-        Map<String, ResolutionStats> weeklyStats = weeklyClosed.entrySet().stream()
-                .sorted(Comparator.comparing(e -> Integer.parseInt(e.getKey().split(" W")[1])))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> calculateStats(e.getValue(), weeklyOpened.getOrDefault(e.getKey(), 0)),
-                        (a, b) -> a, LinkedHashMap::new
-                ));
-
-        // --- Monthly stats ---
-        Map<String, ResolutionStats> monthlyStats = monthlyClosed.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey(Comparator.reverseOrder()))
-                .limit(3)
-                .sorted(Map.Entry.comparingByKey())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> calculateStats(e.getValue(), monthlyOpened.getOrDefault(e.getKey(), 0)),
-                        (a, b) -> a, LinkedHashMap::new
-                ));
-
-        return new ResolutionTimeStatsDTO(
-                calculateStats(overallClosedDurations, overallOpenedCount),
-                weeklyStats,
-                monthlyStats
-        );
+        return resolutionStatsService.getResolutionTimeStats();
     }
 
 
@@ -1646,97 +1541,7 @@ public class TicketService {
         User user = userRepository.findByEmployeeId(assigneeId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with employee ID: " + assigneeId));
 
-        LocalDate today = LocalDate.now();
-        LocalDate firstOfCurrentMonth = today.withDayOfMonth(1);
-        LocalDate firstOf3rdLastMonth = firstOfCurrentMonth.minusMonths(2);
-
-        // Tickets in last 3 months
-        List<Ticket> recentTickets = ticketRepository.findByAssigneeAndCreatedAtBetween(
-                user, firstOf3rdLastMonth.atStartOfDay(), today.atTime(LocalTime.MAX)
-        );
-
-        // All tickets for overall
-        List<Ticket> allTickets = ticketRepository.findByAssignee(user);
-
-        // --- Overall stats ---
-        List<Long> allClosedDurations = allTickets.stream()
-                .filter(t -> t.getStatus() == TicketStatus.CLOSED
-                        && t.getCreatedAt() != null && t.getUpdatedAt() != null)
-                .map(t -> Duration.between(t.getCreatedAt(), t.getUpdatedAt()).toMinutes())
-                .collect(Collectors.toList());
-
-        int overallOpenedCount = (int) allTickets.stream()
-                .filter(t -> t.getCreatedAt() != null)
-                .count();
-
-        // --- Monthly & Weekly maps ---
-        Map<String, List<Long>> monthlyClosed = new LinkedHashMap<>();
-        Map<String, Integer> monthlyOpened = new LinkedHashMap<>();
-
-        Map<String, List<Long>> weeklyClosed = new LinkedHashMap<>();
-        Map<String, Integer> weeklyOpened = new LinkedHashMap<>();
-
-        int thisMonth = today.getMonthValue();
-        int thisYear = today.getYear();
-
-        for (Ticket t : recentTickets) {
-            LocalDateTime created = t.getCreatedAt();
-            if (created == null) continue;
-
-            String monthKey = created.getYear() + "-" + String.format("%02d", created.getMonthValue());
-            String monthAbbrev = created.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-            int weekOfMonth = ((created.getDayOfMonth() - 1) / 7) + 1;
-            String weekKey = monthAbbrev + " W" + weekOfMonth;
-
-            // Count "opened" tickets (all created in period)
-            monthlyOpened.merge(monthKey, 1, Integer::sum);
-            if (created.getYear() == thisYear && created.getMonthValue() == thisMonth) {
-                weeklyOpened.merge(weekKey, 1, Integer::sum);
-            }
-
-            // Count closed durations
-            if (t.getStatus() == TicketStatus.CLOSED && t.getUpdatedAt() != null) {
-                long minutes = Duration.between(created, t.getUpdatedAt()).toMinutes();
-                monthlyClosed.computeIfAbsent(monthKey, k -> new ArrayList<>()).add(minutes);
-                if (created.getYear() == thisYear && created.getMonthValue() == thisMonth) {
-                    weeklyClosed.computeIfAbsent(weekKey, k -> new ArrayList<>()).add(minutes);
-                }
-            }
-        }
-
-        // --- Monthly stats (last 3 months) ---
-        Map<String, ResolutionStats> monthlyStats = monthlyClosed.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey(Comparator.reverseOrder()))
-                .limit(3)
-                .sorted(Map.Entry.comparingByKey()) // oldest first
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> calculateStats(e.getValue(), monthlyOpened.getOrDefault(e.getKey(), 0)),
-                        (a, b) -> a, LinkedHashMap::new
-                ));
-
-        // --- Weekly stats ---
-        int lastWeekIndex = ((today.getDayOfMonth() - 1) / 7) + 1;
-        String currentMonthAbbrev = today.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-        for (int i = 1; i <= lastWeekIndex; i++) {
-            String wkKey = currentMonthAbbrev + " W" + i;
-            weeklyClosed.putIfAbsent(wkKey, new ArrayList<>());
-            weeklyOpened.putIfAbsent(wkKey, 0);
-        }
-
-        Map<String, ResolutionStats> weeklyStats = weeklyClosed.entrySet().stream()
-                .sorted(Comparator.comparing(e -> Integer.parseInt(e.getKey().split(" W")[1])))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> calculateStats(e.getValue(), weeklyOpened.getOrDefault(e.getKey(), 0)),
-                        (a, b) -> a, LinkedHashMap::new
-                ));
-
-        return new ResolutionTimeStatsDTO(
-                calculateStats(allClosedDurations, overallOpenedCount),
-                weeklyStats,
-                monthlyStats
-        );
+        return resolutionStatsService.getAssigneeResolutionStats(user);
     }
 
 
@@ -1762,43 +1567,20 @@ public class TicketService {
 //        }
 
 
-    public ResolutionStats calculateStats(List<Long> times, int openCount) {
-        int ticketClosedCount = times.size();
-        if (ticketClosedCount == 0) {
-            return new ResolutionStats(null, null, null, 0, openCount);
-        }
-
-        Double min = times.stream().mapToLong(Long::longValue).min().orElse(0) / 1440.0; // days
-        Double max = times.stream().mapToLong(Long::longValue).max().orElse(0) / 1440.0;
-        Double avg = times.stream().mapToLong(Long::longValue).average().orElse(0) / 1440.0;
-
-        return new ResolutionStats(avg, min, max, ticketClosedCount, openCount);
-    }
-
-
-
-
     public Map<String, Long> getTicketCountByAssignee() {
-        ZoneId zone = ZoneId.of("Asia/Kolkata");
-        LocalDate today = LocalDate.now(zone);
-        LocalDate startDate = today.minusDays(29);
-        LocalDateTime startOfDay = startDate.atStartOfDay();
-        LocalDateTime endOfToday = today.atTime(LocalTime.MAX);
-
         User user = userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername())
                 .orElseThrow(() -> new UserNotFoundException("Authenticated user not found"));
 
+        return getTicketCountByAssignee(StatsWindow.last30Days(), user);
+    }
+
+    private Map<String, Long> getTicketCountByAssignee(StatsWindow window, User user) {
         boolean isHrUser = user.getDepartment().name().equalsIgnoreCase("HR");
 
-        List<Ticket> tickets = ticketRepository.findTicketsCreatedBetweenFiltered(
-                startOfDay, endOfToday, isHrUser
+        return toCountMap(
+                ticketRepository.countGroupedByAssignee(window.start(), window.end(), isHrUser),
+                "Unassigned"
         );
-
-        return tickets.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getAssignee() != null ? t.getAssignee().getUsername() : "Unassigned",
-                        Collectors.counting()
-                ));
     }
 
 
@@ -1832,56 +1614,44 @@ public class TicketService {
 //    }
 
     public Map<String, Long> getTopTicketReporters() {
-        ZoneId zone = ZoneId.of("Asia/Kolkata");
-        LocalDate today = LocalDate.now(zone);
-        LocalDate startDate = today.minusDays(29);
-        LocalDateTime startOfDay = startDate.atStartOfDay();
-        LocalDateTime endOfToday = today.atTime(LocalTime.MAX);
-
-        // Get all tickets from the past 30 days
-        List<Ticket> tickets = ticketRepository.findTicketsCreatedBetween(startOfDay, endOfToday);
-
-        // Fetch all users who are IT Executives from LocationAssignment
-        List<User> itExecutives = locationAssignmentRepository.findAll().stream()
-                .map(LocationAssignment::getItExecutive)
-                .distinct()
-                .toList();
+        return getTopTicketReporters(StatsWindow.last30Days());
+    }
 
-        Set<Long> itExecutiveIds = itExecutives.stream()
-                .map(User::getId)
-                .collect(Collectors.toSet());
+    private Map<String, Long> getTopTicketReporters(StatsWindow window) {
+        // Sorted by count descending and limited to top 15 in the query; IT executives are excluded
+        List<TicketCountDTO> rows = ticketRepository.countTopReporters(
+                window.start(), window.end(), PageRequest.of(0, 15));
+        return toCountMap(rows, "Unknown");
+    }
 
-        // Group and count tickets by employee, excluding IT executives
-        Map<String, Long> reporterCounts = tickets.stream()
-                .filter(t -> t.getEmployee() != null && !itExecutiveIds.contains(t.getEmployee().getId()))
-                .collect(Collectors.groupingBy(
-                        t -> t.getEmployee().getUsername(),
-                        Collectors.counting()
-                ));
 
-        // Sort by count descending and limit to top 15
-        return reporterCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
-                .limit(15)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new // maintain order
-                ));
+    public Map<String, Long> getTicketCountByLocation() {
+        return getTicketCountByLocation(StatsWindow.last30Days());
     }
 
+    private Map<String, Long> getTicketCountByLocation(StatsWindow window) {
+        return toCountMap(ticketRepository.countGroupedByLocation(window.start(), window.end()), "Unknown");
+    }
 
-    public Map<String, Long> getTicketCountByLocation() {
-        ZoneId zone = ZoneId.of("Asia/Kolkata");
-        LocalDate today = LocalDate.now(zone);
-        LocalDate startDate = today.minusDays(29);
-        LocalDateTime startOfDay = startDate.atStartOfDay();
-        LocalDateTime endOfToday = today.atTime(LocalTime.MAX);
+    /**
+     * All dashboard widgets in one request, read in one transaction: each widget is a single
+     * GROUP BY query instead of a scan of the last 30 days of ticket entities.
+     */
+    @Transactional(readOnly = true)
+    public TicketStatsOverviewDTO getTicketStatsOverview() {
+        User user = userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername())
+                .orElseThrow(() -> new UserNotFoundException("Authenticated user not found"));
+
+        StatsWindow window = StatsWindow.last30Days();
 
-        return ticketRepository.findTicketsCreatedBetween(startOfDay,endOfToday).stream()
-                .filter(t -> t.getLocation() != null)
-                .collect(Collectors.groupingBy(t -> t.getLocation().getName(), Collectors.counting()));
+        return new TicketStatsOverviewDTO(
+                getTicketCountByStatus(),
+                getTicketsCreatedPerDay(window),
+                getTicketCountByCategory(window),
+                getTicketCountByAssignee(window, user),
+                getTicketCountByLocation(window),
+                getTopTicketReporters(window)
+        );
     }
 
 
@@ -1919,6 +1689,7 @@ public class TicketService {
     }
 
 
+    @Transactional(readOnly = true)
     public PaginatedResponse<TicketDTO> filterTickets(String title, TicketStatus status, TicketCategory category,
                                                       String employeeId, Long locationId, String assigneeId,
                                                       LocalDateTime createdAfter, LocalDateTime createdBefore,
@@ -1926,6 +1697,193 @@ public class TicketService {
                                                       Long siteIdLocationId,
                                                       int page, int size) {
 
+        List<Long> searchHits = searchTicketIds(search);
+        Specification<Ticket> spec = buildTicketFilterSpec(title, status, category, employeeId, locationId, assigneeId,
+                createdAfter, createdBefore, likeSearch(search, searchHits), siteIdLocationId);
+
+        Page<Ticket> ticketPage;
+        if (searchHits != null) {
+            // Relevance order from the search index instead of newest first; only the page is loaded
+            Page<Long> idPage = pageOf(visibleHitIds(spec, searchHits), page, size);
+            ticketPage = new PageImpl<>(findTicketsInOrder(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
+        } else {
+            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+            ticketPage = ticketRepository.findAll(spec, pageable);
+        }
+
+        List<TicketDTO> ticketDTOs = ticketDtoAssembler.toDTOs(ticketPage.getContent());
+
+        return new PaginatedResponse<>(
+                ticketDTOs,
+                ticketPage.getNumber(),
+                ticketPage.getSize(),
+                ticketPage.getTotalElements(),
+                ticketPage.getTotalPages(),
+                ticketPage.isLast()
+        );
+    }
+
+    public PaginatedResponse<TicketSummaryDTO> filterTicketSummaries(String title, TicketStatus status, TicketCategory category,
+                                                                     String employeeId, Long locationId, String assigneeId,
+                                                                     LocalDateTime createdAfter, LocalDateTime createdBefore,
+                                                                     String search,
+                                                                     Long siteIdLocationId,
+                                                                     int page, int size) {
+
+        List<Long> searchHits = searchTicketIds(search);
+        Specification<Ticket> spec = buildTicketFilterSpec(title, status, category, employeeId, locationId, assigneeId,
+                createdAfter, createdBefore, likeSearch(search, searchHits), siteIdLocationId);
+
+        if (searchHits != null) {
+            Page<Long> idPage = pageOf(visibleHitIds(spec, searchHits), page, size);
+            List<TicketSummaryDTO> summaries = orderByRank(
+                    ticketRepository.findSummaries(TicketsSpecification.idIn(idPage.getContent()), Pageable.unpaged()).getContent(),
+                    TicketSummaryDTO::getId, idPage.getContent());
+            return toPaginatedResponse(new PageImpl<>(summaries, idPage.getPageable(), idPage.getTotalElements()));
+        }
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        return toPaginatedResponse(ticketRepository.findSummaries(spec, pageable));
+    }
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    /**
+     * Keyset variant of filterTickets: pages by (createdAt, id) instead of OFFSET, so deep pages cost
+     * the same as the first one. The total count is only computed when includeTotal is set.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TicketDTO> filterTicketsByCursor(String title, TicketStatus status, TicketCategory category,
+                                                               String employeeId, Long locationId, String assigneeId,
+                                                               LocalDateTime createdAfter, LocalDateTime createdBefore,
+                                                               String search,
+                                                               Long siteIdLocationId,
+                                                               String cursor, int size, boolean includeTotal) {
+
+        // Keyset pages stay in (createdAt, id) order; search hits only narrow the rows
+        List<Long> searchHits = searchTicketIds(search);
+        Specification<Ticket> spec = buildTicketFilterSpec(title, status, category, employeeId, locationId, assigneeId,
+                createdAfter, createdBefore, likeSearch(search, searchHits), siteIdLocationId);
+
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        TicketCursor after = TicketCursor.decode(cursor);
+
+        // One extra row tells us whether another page exists without counting
+        List<Ticket> tickets;
+        Long totalElements;
+        if (searchHits != null) {
+            List<TicketCursor> keys = visibleHits(spec, searchHits);
+            tickets = findTicketsInOrder(keysetPage(keys, after, size + 1));
+            totalElements = includeTotal ? (long) keys.size() : null;
+        } else {
+            tickets = ticketRepository.findPageAfter(spec,
+                    after != null ? after.createdAt() : null,
+                    after != null ? after.id() : null,
+                    size + 1);
+            totalElements = includeTotal ? ticketRepository.count(spec) : null;
+        }
+
+        boolean hasNext = tickets.size() > size;
+        if (hasNext) {
+            tickets = tickets.subList(0, size);
+        }
+
+        String nextCursor = hasNext ? TicketCursor.of(tickets.get(tickets.size() - 1)).encode() : null;
+
+        return new CursorPageResponse<>(
+                ticketDtoAssembler.toDTOs(tickets),
+                size,
+                nextCursor,
+                hasNext,
+                totalElements
+        );
+    }
+
+    // Search hits are checked against the filters, and tickets loaded, this many ids per query
+    private static final int SEARCH_HIT_BATCH = 1000;
+
+    // All ranked ids from the full-text index; null when there is no search or the index is still building
+    private List<Long> searchTicketIds(String search) {
+        if (search == null || search.isBlank() || !ticketSearchEngine.isReady()) {
+            return null;
+        }
+        return ticketSearchEngine.search(search, Integer.MAX_VALUE);
+    }
+
+    // The term for the LIKE fallback; null when the index answered and its hits are applied instead
+    private static String likeSearch(String search, List<Long> searchHits) {
+        return searchHits != null ? null : search;
+    }
+
+    /**
+     * Keys of the search hits that pass {@code filters}, in rank order. Every hit is checked, a
+     * batch at a time, so department and role rules are applied before anything is cut off.
+     */
+    private List<TicketCursor> visibleHits(Specification<Ticket> filters, List<Long> searchHits) {
+        List<TicketCursor> visible = new ArrayList<>();
+        for (int from = 0; from < searchHits.size(); from += SEARCH_HIT_BATCH) {
+            List<Long> batch = searchHits.subList(from, Math.min(from + SEARCH_HIT_BATCH, searchHits.size()));
+            visible.addAll(orderByRank(ticketRepository.findKeys(filters.and(TicketsSpecification.idIn(batch))),
+                    TicketCursor::id, batch));
+        }
+        return visible;
+    }
+
+    private List<Long> visibleHitIds(Specification<Ticket> filters, List<Long> searchHits) {
+        return visibleHits(filters, searchHits).stream().map(TicketCursor::id).toList();
+    }
+
+    // Loads tickets by id, keeping the order of the ids
+    private List<Ticket> findTicketsInOrder(List<Long> ids) {
+        List<Ticket> tickets = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += SEARCH_HIT_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(from + SEARCH_HIT_BATCH, ids.size()));
+            tickets.addAll(orderByRank(ticketRepository.findAll(TicketsSpecification.idIn(batch)), Ticket::getId, batch));
+        }
+        return tickets;
+    }
+
+    // Ids of the first {@code limit} keys after {@code after} in keyset order, as findPageAfter orders them
+    private static List<Long> keysetPage(List<TicketCursor> keys, TicketCursor after, int limit) {
+        Comparator<TicketCursor> newestFirst = Comparator.comparing(TicketCursor::createdAt,
+                        Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                .thenComparing(TicketCursor::id)
+                .reversed();
+        return keys.stream()
+                .filter(key -> after == null || newestFirst.compare(key, after) > 0)
+                .sorted(newestFirst)
+                .limit(limit)
+                .map(TicketCursor::id)
+                .toList();
+    }
+
+    private static <T> List<T> orderByRank(List<T> rows, Function<T, Long> idOf, List<Long> rankedIds) {
+        Map<Long, Integer> rank = new HashMap<>(rankedIds.size() * 2);
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        List<T> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparingInt(row -> rank.getOrDefault(idOf.apply(row), Integer.MAX_VALUE)));
+        return ordered;
+    }
+
+    private static <T> Page<T> pageOf(List<T> rows, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + size, rows.size());
+        return new PageImpl<>(rows.subList(from, to), pageable, rows.size());
+    }
+
+    // Department/role visibility rules plus the optional filters of the ticket filter screen
+    private Specification<Ticket> buildTicketFilterSpec(String title, TicketStatus status, TicketCategory category,
+                                                        String employeeId, Long locationId, String assigneeId,
+                                                        LocalDateTime createdAfter, LocalDateTime createdBefore,
+                                                        String search, Long siteIdLocationId) {
+
         User user = userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername())
                 .orElseThrow(() -> new UserNotFoundException("Authenticated User not found"));
 
@@ -1995,7 +1953,7 @@ public class TicketService {
         }
 
 
-        Specification<Ticket> spec = Specification.where(deptSpec)
+        return Specification.where(deptSpec)
                 .and(TicketsSpecification.hasTitle(title))
                 .and(TicketsSpecification.hasStatus(status))
                 .and(TicketsSpecification.hasCategory(category))
@@ -2006,115 +1964,126 @@ public class TicketService {
                 .and(TicketsSpecification.createdBefore(createdBefore))
                 .and(TicketsSpecification.globalSearch(search))
                 .and(TicketsSpecification.hasSiteAndLocation(siteIdLocationId, locationId));
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-
-        System.out.println("Specification built: " + spec);
-
-        Page<Ticket> ticketPage = ticketRepository.findAll(spec, pageable);
-
-        List<TicketDTO> ticketDTOs = ticketPage.stream()
-                .map(this::convertTicketToDTO)
-                .collect(Collectors.toList());
-
-        return new PaginatedResponse<>(
-                ticketDTOs,
-                ticketPage.getNumber(),
-                ticketPage.getSize(),
-                ticketPage.getTotalElements(),
-                ticketPage.getTotalPages(),
-                ticketPage.isLast()
-        );
     }
 
 
 
-    public ByteArrayInputStream exportTicketsToExcel(String title, TicketStatus status, TicketCategory category,
-                                                         String employeeId, Long locationId, String assigneeId,
-                                                         LocalDateTime createdAfter, LocalDateTime createdBefore,
-                                                         String search,
-        Long siteIdLocationId) throws IOException {
-            List<TicketDTO> tickets = filterTicketsNoPagination(title, status, category, employeeId, locationId, assigneeId, createdAfter, createdBefore,search, siteIdLocationId);
-
-            try (Workbook workbook = new XSSFWorkbook()) {
-                Sheet sheet = workbook.createSheet("Tickets");
-
-                Row header = sheet.createRow(0);
-                header.createCell(0).setCellValue("ID");
-                header.createCell(1).setCellValue("Title");
-                header.createCell(2).setCellValue("Status");
-                header.createCell(3).setCellValue("Category");
-                header.createCell(4).setCellValue("Employee");
-                header.createCell(5).setCellValue("Assignee");
-                header.createCell(6).setCellValue("Location");
-                header.createCell(7).setCellValue("Created At");
-                header.createCell(8).setCellValue("Closed At");
-
-                int rowIdx = 1;
-//                for (TicketDTO ticket : tickets) {
-//                    Row row = sheet.createRow(rowIdx++);
-//                    row.createCell(0).setCellValue(ticket.getId());
-//                    row.createCell(1).setCellValue(ticket.getTitle());
-//                    row.createCell(2).setCellValue(ticket.getStatus() != null ? ticket.getStatus().name() : "");
-//                    row.createCell(3).setCellValue(ticket.getCategory() != null ? ticket.getCategory().name() : "");
-//                    row.createCell(4).setCellValue(ticket.getEmployee().getUsername() != null ? ticket.getEmployee().getUsername() : "");
-//                    row.createCell(5).setCellValue(ticket.getAssignee().getUsername() != null ? ticket.getAssignee().getUsername() : "");
-//                    row.createCell(6).setCellValue(ticket.getLocationName() != null ? ticket.getLocationName() : "");
-//                    row.createCell(7).setCellValue(ticket.getCreatedAt() != null ? ticket.getCreatedAt().toString() : "");
-//                }
+    // Rows kept in memory by SXSSF before older rows are flushed to the temp file
+    private static final int EXPORT_ROW_WINDOW = 200;
+    // Tickets fetched per keyset query while exporting
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Streams the filtered tickets as XLSX straight into {@code out}. Rows are read with keyset
+     * pages of summary projections and written through an SXSSF window, so heap use does not grow
+     * with the number of exported tickets.
+     */
+    public void exportTicketsToExcel(String title, TicketStatus status, TicketCategory category,
+                                     String employeeId, Long locationId, String assigneeId,
+                                     LocalDateTime createdAfter, LocalDateTime createdBefore,
+                                     String search,
+                                     Long siteIdLocationId,
+                                     OutputStream out) throws IOException {
+
+        List<Long> searchHits = searchTicketIds(search);
+        Specification<Ticket> spec = buildTicketExportSpec(title, status, category, employeeId, locationId, assigneeId,
+                createdAfter, createdBefore, likeSearch(search, searchHits), siteIdLocationId);
+        // With index hits the export keeps their visible keys in memory (ids and dates only)
+        List<Long> hitIds = searchHits != null ? keysetPage(visibleHits(spec, searchHits), null, Integer.MAX_VALUE) : null;
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+
+        try (workbook) {
+            Sheet sheet = workbook.createSheet("Tickets");
+
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("ID");
+            header.createCell(1).setCellValue("Title");
+            header.createCell(2).setCellValue("Status");
+            header.createCell(3).setCellValue("Category");
+            header.createCell(4).setCellValue("Employee");
+            header.createCell(5).setCellValue("Assignee");
+            header.createCell(6).setCellValue("Location");
+            header.createCell(7).setCellValue("Created At");
+            header.createCell(8).setCellValue("Closed At");
+
+            int rowIdx = 1;
+            LocalDateTime afterCreatedAt = null;
+            Long afterId = null;
+
+            int hitOffset = 0;
+
+            while (true) {
+                List<TicketSummaryDTO> batch;
+                if (hitIds != null) {
+                    List<Long> ids = hitIds.subList(hitOffset, Math.min(hitOffset + EXPORT_FETCH_SIZE, hitIds.size()));
+                    hitOffset += ids.size();
+                    batch = orderByRank(ticketRepository.findSummaries(TicketsSpecification.idIn(ids), Pageable.unpaged()).getContent(),
+                            TicketSummaryDTO::getId, ids);
+                } else {
+                    batch = ticketRepository.findSummariesAfter(spec, afterCreatedAt, afterId, EXPORT_FETCH_SIZE);
+                }
 
-                for (TicketDTO ticket : tickets) {
+                for (TicketSummaryDTO ticket : batch) {
                     Row row = sheet.createRow(rowIdx++);
 
                     row.createCell(0).setCellValue(ticket.getId());
                     row.createCell(1).setCellValue(ticket.getTitle());
                     row.createCell(2).setCellValue(ticket.getStatus() != null ? ticket.getStatus().name() : "");
                     row.createCell(3).setCellValue(ticket.getCategory() != null ? ticket.getCategory().name() : "");
-
-                    // Employee (nullable)
-                    String employeeName = "";
-                    if (ticket.getEmployee() != null && ticket.getEmployee().getUsername() != null) {
-                        employeeName = ticket.getEmployee().getUsername();
-                    }
-                    row.createCell(4).setCellValue(employeeName);
-
-                    // Assignee (nullable)
-                    String assigneeName = "";
-                    if (ticket.getAssignee() != null && ticket.getAssignee().getUsername() != null) {
-                        assigneeName = ticket.getAssignee().getUsername();
-                    }
-                    row.createCell(5).setCellValue(assigneeName);
-
-                    // Location
-                    row.createCell(6).setCellValue(
-                            ticket.getLocationName() != null ? ticket.getLocationName() : ""
-                    );
-
-                    // Created At
+                    row.createCell(4).setCellValue(ticket.getEmployeeName() != null ? ticket.getEmployeeName() : "");
+                    row.createCell(5).setCellValue(ticket.getAssigneeName() != null ? ticket.getAssigneeName() : "");
+                    row.createCell(6).setCellValue(ticket.getLocationName() != null ? ticket.getLocationName() : "");
                     row.createCell(7).setCellValue(
                             ticket.getCreatedAt() != null ? ticket.getCreatedAt().toString() : ""
                     );
 
-                    // Closed At
-                    row.createCell(8).setCellValue(
-                            ticket.getClosedAt() != null ? ticket.getClosedAt().toString() : ""
-                    );
+                    // Closed At — same rule as TicketDTO: updatedAt of a CLOSED ticket
+                    LocalDateTime closedAt = ticket.getStatus() == TicketStatus.CLOSED ? ticket.getUpdatedAt() : null;
+                    row.createCell(8).setCellValue(closedAt != null ? closedAt.toString() : "");
                 }
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-                workbook.write(out);
-                return new ByteArrayInputStream(out.toByteArray());
+                if (hitIds != null ? hitOffset >= hitIds.size() : batch.size() < EXPORT_FETCH_SIZE) {
+                    break;
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                TicketSummaryDTO last = batch.get(batch.size() - 1);
+                afterCreatedAt = last.getCreatedAt();
+                afterId = last.getId();
             }
-        }
 
-        // Make sure your TicketDTO has the corresponding fields: employeeUsername, assigneeUsername, locationName etc.
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+        }
+    }
 
 
+    @Transactional(readOnly = true)
     public List<TicketDTO> filterTicketsNoPagination(String title, TicketStatus status, TicketCategory category,
                                                      String employeeId, Long locationId, String assigneeId,
                                                      LocalDateTime createdAfter, LocalDateTime createdBefore
             ,String search, Long siteIdLocationId) {
 
+        List<Long> searchHits = searchTicketIds(search);
+        Specification<Ticket> spec = buildTicketExportSpec(title, status, category, employeeId, locationId, assigneeId,
+                createdAfter, createdBefore, likeSearch(search, searchHits), siteIdLocationId);
+
+        List<Ticket> tickets = searchHits != null
+                ? findTicketsInOrder(visibleHitIds(spec, searchHits))
+                : ticketRepository.findAll(spec);
+
+        return ticketDtoAssembler.toDTOs(tickets);
+    }
+
+    // Export visibility differs from the filter screen: HR admins see only HR tickets here
+    private Specification<Ticket> buildTicketExportSpec(String title, TicketStatus status, TicketCategory category,
+                                                        String employeeId, Long locationId, String assigneeId,
+                                                        LocalDateTime createdAfter, LocalDateTime createdBefore,
+                                                        String search, Long siteIdLocationId) {
 
         User user = userRepository.findByEmployeeId(AuthUtils.getAuthenticatedUsername())
                 .orElseThrow(() -> new UserNotFoundException("Authenticated User not found"));
@@ -2150,10 +2119,9 @@ public class TicketService {
             TicketDepartment userDept = TicketDepartment.valueOf(user.getDepartment().name());
 
             deptSpec = TicketsSpecification.hasDepartment(userDept);
-//            System.out.println("Department filter applied: " + userDept);
         }
 
-        Specification<Ticket> spec = Specification.where(deptSpec)
+        return Specification.where(deptSpec)
                 .and(TicketsSpecification.hasTitle(title))
                 .and(TicketsSpecification.hasStatus(status))
                 .and(TicketsSpecification.hasCategory(category))
@@ -2164,14 +2132,6 @@ public class TicketService {
                 .and(TicketsSpecification.createdBefore(createdBefore))
                 .and(TicketsSpecification.globalSearch(search))
                 .and(TicketsSpecification.hasSiteAndLocation(siteIdLocationId, locationId));
-
-
-
-        List<Ticket> tickets = ticketRepository.findAll(spec);
-
-        return tickets.stream()
-                .map(this::convertTicketToDTO)
-                .collect(Collectors.toList());
     }
 
 
@@ -1,65 +1,62 @@
 package AssetManagement.AssetManagement.service;
 
-import AssetManagement.AssetManagement.dto.RowError;
 import AssetManagement.AssetManagement.dto.UserImportResult;
 import AssetManagement.AssetManagement.entity.User;
 import AssetManagement.AssetManagement.repository.UserRepository;
+import AssetManagement.AssetManagement.util.ingest.ImportColumn;
+import AssetManagement.AssetManagement.util.ingest.ImportRecord;
+import AssetManagement.AssetManagement.util.ingest.ImportReport;
+import AssetManagement.AssetManagement.util.ingest.IngestionEngine;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-
-import static java.sql.JDBCType.NUMERIC;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class UserPreImportService {
 
+    // Same sheet as the SIM import; only the employee column matters here
+    private static final ImportColumn<String> EMPLOYEE_ID = ImportColumn.text(12, "Employee ID");  // Column M
+
     private final UserRepository userRepository;
+    private final IngestionEngine ingestionEngine;
 
     public UserImportResult validateAndCreateUsers(MultipartFile file) {
-        int created = 0, skipped = 0;
         List<String> createdUsers = new ArrayList<>();
-        List<RowError> errors = new ArrayList<>();
-
-        try (InputStream is = file.getInputStream(); Workbook wb = WorkbookFactory.create(is)) {
-            Sheet sheet = wb.getSheetAt(0);
+        // Employee ids already handled earlier in this file
+        Set<String> seen = new HashSet<>();
 
-            for (int rowIdx = 1; rowIdx <= sheet.getLastRowNum(); rowIdx++) {
-                Row row = sheet.getRow(rowIdx);
-                if (row == null) continue;
-
-                try {
-                    String employeeId = getStringCell(row, 12);  // Column M
-                    if (employeeId != null && !employeeId.trim().isBlank()) {
-                        processEmployeeId(employeeId.trim(), createdUsers, created, skipped);
-                    }
-                    skipped++;  // Count even if no employeeId
-                } catch (Exception ex) {
-                    errors.add(new RowError(rowIdx + 1, "User processing failed: " + ex.getMessage()));
-                }
-            }
-        } catch (Exception e) {
-            errors.add(new RowError(0, "Failed to read file: " + e.getMessage()));
-        }
+        ImportReport report = ingestionEngine.ingest(file, row -> Optional.ofNullable(row.get(EMPLOYEE_ID)),
+                (batch, rowReport) -> createMissingUsers(batch, rowReport, seen, createdUsers));
 
-        return new UserImportResult(created, skipped, createdUsers, errors);
+        int skipped = report.getAccepted() - createdUsers.size();
+        return new UserImportResult(createdUsers.size(), skipped, createdUsers, report.getErrors());
     }
 
-    private void processEmployeeId(String employeeId, List<String> createdUsers, int created, int skipped) {
-        if (userRepository.findByEmployeeId(employeeId).isPresent()) {
-            // ✅ User exists - skip
-            return;
+    private void createMissingUsers(List<ImportRecord<Optional<String>>> batch, ImportReport report,
+                                    Set<String> seen, List<String> createdUsers) {
+        Set<String> employeeIds = new HashSet<>();
+        batch.forEach(record -> record.value().ifPresent(employeeIds::add));
+        if (!employeeIds.isEmpty()) {
+            // ✅ Users that exist are skipped
+            userRepository.findByEmployeeIdIn(employeeIds).forEach(user -> seen.add(user.getEmployeeId()));
         }
 
-        // ✅ Create missing user
-        User newUser = createSystemUser(employeeId);
-        userRepository.save(newUser);
-        createdUsers.add(employeeId);
+        for (ImportRecord<Optional<String>> record : batch) {
+            try {
+                String employeeId = record.value().orElse(null);
+                if (employeeId != null && seen.add(employeeId)) {
+                    // ✅ Create missing user
+                    userRepository.save(createSystemUser(employeeId));
+                    createdUsers.add(employeeId);
+                }
+                report.accept();
+            } catch (Exception ex) {
+                report.reject(record.rowNumber(), "User processing failed: " + ex.getMessage());
+            }
+        }
     }
 
     private User createSystemUser(String employeeId) {
@@ -73,15 +70,4 @@ public class UserPreImportService {
         user.setNote("👤 AUTO-CREATED by SIM pre-import | Update personal details");
         return user;
     }
-
-    private String getStringCell(Row row, int index) {
-        // Same as your SimCardImportService method
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue().trim();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            default -> null;
-        };
-    }
 }
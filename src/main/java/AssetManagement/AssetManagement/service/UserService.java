@@ -8,6 +8,7 @@ import AssetManagement.AssetManagement.enums.Department;
 import AssetManagement.AssetManagement.exception.UserNotFoundException;
 import AssetManagement.AssetManagement.mapper.UserMapper;
 import AssetManagement.AssetManagement.repository.UserRepository;
+import AssetManagement.AssetManagement.security.PrincipalCache;
 import AssetManagement.AssetManagement.util.AuthUtils;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.*;
@@ -30,10 +31,12 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
     }
     public PaginatedResponse<UserDTO> getAllUsers(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -106,6 +109,7 @@ public class UserService {
 
         // Save the user
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser.getEmployeeId()); // no cached principal may outlive a re-created employee id
 
         return convertUserToDto(savedUser);
     }
@@ -115,6 +119,7 @@ public class UserService {
         for (User user : users) {
             user.setRole("USER");
             User savedUser = userRepository.save(user);
+            principalCache.evict(savedUser.getEmployeeId());
             createdUsers.add(convertUserToDto(savedUser)); // Implement convertToDTO() if not already
         }
         return createdUsers;
@@ -147,6 +152,7 @@ public class UserService {
         existingUser.setUpdatedBy(updater);
 
         User savedUser = userRepository.save(existingUser);
+        principalCache.evict(savedUser.getEmployeeId()); // role or details may have changed
         return convertUserToDto(savedUser);
     }
 
@@ -158,6 +164,7 @@ public class UserService {
             User user = optionalUser.get();
             user.setDeleted(true); // Set soft delete flag
             userRepository.save(user); // Save updated user
+            principalCache.evict(user.getEmployeeId());
             return true;
         } else {
             return false;
@@ -225,6 +232,7 @@ public class UserService {
 
             // 4) save
             userRepository.save(user);
+            principalCache.evict(user.getEmployeeId());
         }
 
     public PaginatedResponse<UserResponseDto> filterUsers(
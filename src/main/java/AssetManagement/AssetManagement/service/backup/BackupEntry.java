@@ -0,0 +1,14 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import java.time.LocalDateTime;
+
+/**
+ * One verified backup in the manifest.
+ *
+ * @param sha256            checksum of the compressed file
+ * @param sizeBytes         size of the compressed file
+ * @param uncompressedBytes size of the SQL inside, counted during verification
+ */
+public record BackupEntry(String file, LocalDateTime createdAt, long sizeBytes, long uncompressedBytes,
+                          String sha256, long durationMillis) {
+}
@@ -0,0 +1,45 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.*;
+
+/**
+ * Generations retention: the newest backup of each of the last {@code daily} days that have
+ * one, and the newest of each of the last {@code weekly} ISO weeks. The newest backup overall
+ * is always kept.
+ */
+public class BackupRetentionPolicy {
+
+    private final int daily;
+    private final int weekly;
+
+    public BackupRetentionPolicy(int daily, int weekly) {
+        if (daily < 1 || weekly < 0) {
+            throw new IllegalArgumentException("Retention needs at least one daily backup");
+        }
+        this.daily = daily;
+        this.weekly = weekly;
+    }
+
+    /** File names of the entries to keep. */
+    public Set<String> keep(List<BackupEntry> entries) {
+        List<BackupEntry> newestFirst = new ArrayList<>(entries);
+        newestFirst.sort(Comparator.comparing(BackupEntry::createdAt).reversed());
+
+        Set<String> keep = new HashSet<>();
+        Set<LocalDate> days = new HashSet<>();
+        Set<String> weeks = new HashSet<>();
+        for (BackupEntry entry : newestFirst) {
+            LocalDate day = entry.createdAt().toLocalDate();
+            if (days.size() < daily && days.add(day)) {
+                keep.add(entry.file());
+            }
+            String week = day.get(IsoFields.WEEK_BASED_YEAR) + "-W" + day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+            if (weeks.size() < weekly && weeks.add(week)) {
+                keep.add(entry.file());
+            }
+        }
+        return keep;
+    }
+}
@@ -0,0 +1,238 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Database backups: the dump's stdout is gzipped straight into {@code backup_<time>.sql.gz}
+ * on the calling thread (the maintenance scheduler's), checked by decompressing it again,
+ * recorded in {@code manifest.json} (size, checksum, duration) and then old generations are
+ * rotated out. Files that are not in the manifest, such as the plain {@code .sql} dumps written
+ * before, are never touched.
+ */
+@Slf4j
+@Service
+public class DatabaseBackupService {
+
+    private static final String MANIFEST = "manifest.json";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int STDERR_TAIL = 4096;
+    // mysqldump ends every complete dump with this comment
+    private static final String DUMP_TRAILER = "-- Dump completed";
+
+    private final DatabaseDumpCommand dumpCommand;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final BackupRetentionPolicy retention;
+    private final long timeoutMinutes;
+
+    public DatabaseBackupService(DatabaseDumpCommand dumpCommand,
+                                 ObjectMapper objectMapper,
+                                 @Value("${backup.directory}") String directory,
+                                 @Value("${backup.retention.daily:7}") int dailyGenerations,
+                                 @Value("${backup.retention.weekly:4}") int weeklyGenerations,
+                                 @Value("${backup.timeoutMinutes:120}") long timeoutMinutes) {
+        this.dumpCommand = dumpCommand;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.retention = new BackupRetentionPolicy(dailyGenerations, weeklyGenerations);
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
+    /** Runs one backup and returns its manifest entry. */
+    public BackupEntry backup() throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        LocalDateTime createdAt = LocalDateTime.now();
+        String fileName = "backup_" + createdAt.format(FILE_TIME) + ".sql.gz";
+        Path target = directory.resolve(fileName);
+        Path part = directory.resolve(fileName + ".part");
+
+        long started = System.nanoTime();
+        try {
+            String sha256 = dump(part);
+            long uncompressed = verify(part, sha256);
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+
+            BackupEntry entry = new BackupEntry(fileName, createdAt, Files.size(target), uncompressed, sha256,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            List<BackupEntry> entries = new ArrayList<>(readManifest());
+            entries.add(entry);
+            writeManifest(rotate(entries));
+
+            log.info("Backup written: {} ({} bytes, {} uncompressed, {} ms)",
+                    fileName, entry.sizeBytes(), uncompressed, entry.durationMillis());
+            return entry;
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /** Streams the dump through gzip into {@code part}; returns the SHA-256 of the written file. */
+    private String dump(Path part) throws IOException, InterruptedException {
+        Process process = dumpCommand.start();
+        process.getOutputStream().close();
+
+        // A dump that hangs is killed, which also ends the copy below
+        process.onExit()
+                .orTimeout(timeoutMinutes, TimeUnit.MINUTES)
+                .exceptionally(e -> {
+                    log.error("Database dump exceeded {} minutes, killing it", timeoutMinutes);
+                    process.destroyForcibly();
+                    return null;
+                });
+
+        // stderr must be drained or the dump blocks once the pipe fills
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        Thread stderrReader = new Thread(() -> drainTail(process.getErrorStream(), stderr), "db-backup-stderr");
+        stderrReader.setDaemon(true);
+        stderrReader.start();
+
+        MessageDigest digest = sha256();
+        try (InputStream in = process.getInputStream();
+             OutputStream out = new GZIPOutputStream(
+                     new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(part), BUFFER_SIZE), digest),
+                     BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            process.destroyForcibly();
+            throw e;
+        }
+
+        int exitCode = process.waitFor();
+        stderrReader.join(TimeUnit.SECONDS.toMillis(5));
+        if (exitCode != 0) {
+            String message;
+            synchronized (stderr) {
+                message = stderr.toString(StandardCharsets.UTF_8).trim();
+            }
+            throw new IOException("Dump exited with code " + exitCode + (message.isEmpty() ? "" : ": " + message));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Decompresses the whole file (which checks the gzip CRC), compares its checksum and
+     * checks that the dump ran to its end. Returns the uncompressed size.
+     */
+    private long verify(Path file, String sha256) throws IOException {
+        MessageDigest digest = sha256();
+        long uncompressed = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] tail = new byte[256];
+        int tailLength = 0;
+        try (InputStream in = new GZIPInputStream(
+                new DigestInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), digest),
+                BUFFER_SIZE)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                uncompressed += read;
+                // Keep the last bytes only, for the trailer check
+                if (read >= tail.length) {
+                    System.arraycopy(buffer, read - tail.length, tail, 0, tail.length);
+                    tailLength = tail.length;
+                } else {
+                    int keep = Math.min(tailLength, tail.length - read);
+                    System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+                    System.arraycopy(buffer, 0, tail, keep, read);
+                    tailLength = keep + read;
+                }
+            }
+            // Read the rest of the compressed stream so the digest covers the whole file
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (!actual.equals(sha256)) {
+            throw new IOException("Backup checksum mismatch: wrote " + sha256 + ", read " + actual);
+        }
+        if (uncompressed == 0) {
+            throw new IOException("Backup is empty");
+        }
+        String ending = new String(tail, 0, tailLength, StandardCharsets.UTF_8).strip();
+        String lastLine = ending.substring(ending.lastIndexOf('\n') + 1);
+        if (!lastLine.startsWith(DUMP_TRAILER)) {
+            throw new IOException("Backup is truncated: it does not end with '" + DUMP_TRAILER + "'");
+        }
+        return uncompressed;
+    }
+
+    /** Deletes the backups the retention policy drops; returns the entries that remain. */
+    private List<BackupEntry> rotate(List<BackupEntry> entries) {
+        Set<String> keep = retention.keep(entries);
+        List<BackupEntry> remaining = new ArrayList<>();
+        for (BackupEntry entry : entries) {
+            if (keep.contains(entry.file())) {
+                remaining.add(entry);
+                continue;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(entry.file()));
+                log.info("Backup rotated out: {}", entry.file());
+            } catch (IOException e) {
+                // Stays in the manifest, so the next run tries again
+                log.warn("Could not delete old backup {}: {}", entry.file(), e.getMessage());
+                remaining.add(entry);
+            }
+        }
+        return remaining;
+    }
+
+    public List<BackupEntry> readManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return List.of();
+        }
+        return objectMapper.readValue(manifest.toFile(), new TypeReference<List<BackupEntry>>() {
+        });
+    }
+
+    private void writeManifest(List<BackupEntry> entries) throws IOException {
+        entries.sort(Comparator.comparing(BackupEntry::createdAt));
+        Path temp = directory.resolve(MANIFEST + ".part");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), entries);
+        Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drainTail(InputStream in, ByteArrayOutputStream tail) {
+        byte[] buffer = new byte[1024];
+        try (in) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                synchronized (tail) {
+                    if (tail.size() + read > STDERR_TAIL) {
+                        tail.reset();
+                    }
+                    tail.write(buffer, 0, read);
+                }
+            }
+        } catch (IOException ignored) {
+            // Process ended
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import java.io.IOException;
+
+/**
+ * Starts a process that writes an SQL dump of the database to its standard output.
+ * {@link MysqlDumpCommand} is the real one; a {@code @Primary} bean of this type (a script that
+ * prints a fixed dump, say) replaces it.
+ */
+public interface DatabaseDumpCommand {
+
+    Process start() throws IOException;
+}
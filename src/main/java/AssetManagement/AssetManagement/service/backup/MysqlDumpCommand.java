@@ -0,0 +1,83 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * mysqldump of the application database. The password goes through an options file readable
+ * only by the owner, so it never shows up in the process list.
+ */
+@Component
+public class MysqlDumpCommand implements DatabaseDumpCommand {
+
+    private final String mysqldumpPath;
+    private final String host;
+    private final String port;
+    private final String database;
+    private final String username;
+    private final String password;
+
+    public MysqlDumpCommand(@Value("${mysqldump.path}") String mysqldumpPath,
+                            @Value("${db.host}") String host,
+                            @Value("${db.port}") String port,
+                            @Value("${db.name}") String database,
+                            @Value("${db.username}") String username,
+                            @Value("${db.password}") String password) {
+        this.mysqldumpPath = mysqldumpPath;
+        this.host = host;
+        this.port = port;
+        this.database = database;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public Process start() throws IOException {
+        Path options = writeOptionsFile();
+        try {
+            Process process = new ProcessBuilder(
+                    mysqldumpPath,
+                    // Must be the first option
+                    "--defaults-extra-file=" + options.toAbsolutePath(),
+                    "-h", host,
+                    "-P", port,
+                    "-u", username,
+                    // Consistent InnoDB snapshot, rows streamed instead of buffered per table
+                    "--single-transaction",
+                    "--quick",
+                    "--routines",
+                    database
+            ).start();
+            process.onExit().whenComplete((p, e) -> deleteQuietly(options));
+            return process;
+        } catch (IOException e) {
+            deleteQuietly(options);
+            throw e;
+        }
+    }
+
+    private Path writeOptionsFile() throws IOException {
+        Path file = FileSystems.getDefault().supportedFileAttributeViews().contains("posix")
+                ? Files.createTempFile("mysqldump-", ".cnf",
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")))
+                : Files.createTempFile("mysqldump-", ".cnf");
+        String escaped = password.replace("\\", "\\\\").replace("\"", "\\\"");
+        Files.writeString(file, "[client]\npassword=\"" + escaped + "\"\n", StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Temp directory is cleaned eventually
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package AssetManagement.AssetManagement.service.impl;
+
+import AssetManagement.AssetManagement.dto.InboundMail;
+import AssetManagement.AssetManagement.dto.MailboxChanges;
+import AssetManagement.AssetManagement.service.MailboxSource;
+import AssetManagement.AssetManagement.util.GraphClientProvider;
+import com.microsoft.graph.models.Message;
+import com.microsoft.graph.requests.GraphServiceClient;
+import com.microsoft.graph.requests.MessageDeltaCollectionPage;
+import com.microsoft.graph.requests.MessageDeltaCollectionRequest;
+import com.microsoft.graph.requests.MessageDeltaCollectionRequestBuilder;
+import okhttp3.Request;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the support inbox through Graph delta queries: each sync returns only messages
+ * added or changed since the stored delta link, however many pages that takes.
+ */
+@Component
+public class GraphMailboxSource implements MailboxSource {
+
+    private static final String MAILBOX = "support@mahavirgroup.co";
+    private static final String SELECT =
+            "subject,from,body,isRead,ccRecipients,conversationId,internetMessageId,receivedDateTime";
+    // A fresh sync only looks back this far instead of replaying the whole inbox
+    private static final int INITIAL_SYNC_DAYS = 7;
+
+    private final GraphServiceClient<Request> graphClient;
+
+    public GraphMailboxSource(GraphClientProvider graphClientProvider) {
+        this.graphClient = graphClientProvider.getGraphClient();
+    }
+
+    @Override
+    public String mailbox() {
+        return MAILBOX;
+    }
+
+    @Override
+    public MailboxChanges fetchChanges(String deltaToken) {
+        MessageDeltaCollectionRequest request;
+        if (deltaToken == null) {
+            String since = OffsetDateTime.now(ZoneOffset.UTC).minusDays(INITIAL_SYNC_DAYS)
+                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            request = graphClient
+                    .users(MAILBOX)
+                    .mailFolders("inbox")
+                    .messages()
+                    .delta()
+                    .buildRequest()
+                    .select(SELECT)
+                    .filter("receivedDateTime ge " + since);
+        } else {
+            // The delta link already carries the $select of the initial request
+            request = new MessageDeltaCollectionRequestBuilder(deltaToken, graphClient, null).buildRequest();
+        }
+
+        List<InboundMail> messages = new ArrayList<>();
+        MessageDeltaCollectionPage page = request.get();
+        while (true) {
+            for (Message message : page.getCurrentPage()) {
+                InboundMail mail = toInboundMail(message);
+                if (mail != null) {
+                    messages.add(mail);
+                }
+            }
+            if (page.getNextPage() == null) {
+                break;
+            }
+            page = page.getNextPage().buildRequest().get();
+        }
+
+        return new MailboxChanges(messages, page.deltaLink());
+    }
+
+    @Override
+    public void markRead(String messageId) {
+        Message messageUpdate = new Message();
+        messageUpdate.isRead = true;
+        graphClient.users(MAILBOX)
+                .messages(messageId)
+                .buildRequest()
+                .patch(messageUpdate);
+    }
+
+    private InboundMail toInboundMail(Message message) {
+        // Deleted or moved messages come back as "@removed" stubs without content
+        if (message.additionalDataManager().containsKey("@removed")
+                || message.from == null || message.from.emailAddress == null || message.body == null) {
+            return null;
+        }
+
+        List<String> ccEmails = message.ccRecipients == null
+                ? List.of()
+                : message.ccRecipients.stream()
+                .map(recipient -> recipient.emailAddress.address)
+                .toList();
+
+        return new InboundMail(
+                message.id,
+                message.conversationId,
+                message.internetMessageId,
+                message.subject,
+                message.from.emailAddress.address,
+                message.body.content,
+                ccEmails,
+                message.receivedDateTime,
+                Boolean.TRUE.equals(message.isRead)
+        );
+    }
+}
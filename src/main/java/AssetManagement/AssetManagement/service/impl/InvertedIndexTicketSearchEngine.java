@@ -0,0 +1,333 @@
+package AssetManagement.AssetManagement.service.impl;
+
+import AssetManagement.AssetManagement.dto.TicketMessageSearchSource;
+import AssetManagement.AssetManagement.dto.TicketSearchSource;
+import AssetManagement.AssetManagement.repository.TicketMessageRepository;
+import AssetManagement.AssetManagement.repository.TicketRepository;
+import AssetManagement.AssetManagement.service.TicketSearchEngine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded inverted index for ticket search, ranked with BM25. Terms from the title and
+ * participant names count more than terms from the description and messages. Every query
+ * term has to match; the last one also matches as a prefix so results update while typing.
+ * A query that is a ticket number puts that ticket first.
+ * <p>
+ * All writes run on one indexer thread: the initial build on startup and a refresh of each
+ * ticket after a commit that touched it, read back from the database. Searches only take
+ * the read lock.
+ */
+@Slf4j
+@Component
+public class InvertedIndexTicketSearchEngine implements TicketSearchEngine {
+
+    private static final int BUILD_BATCH_SIZE = 500;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int NAME_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>|&[a-zA-Z#0-9]+;");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "in", "is",
+            "it", "of", "on", "or", "that", "the", "this", "to", "was", "we", "with", "you");
+
+    private final TicketRepository ticketRepository;
+    private final TicketMessageRepository ticketMessageRepository;
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ticket-search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private volatile boolean ready;
+
+    public InvertedIndexTicketSearchEngine(TicketRepository ticketRepository,
+                                           TicketMessageRepository ticketMessageRepository) {
+        this.ticketRepository = ticketRepository;
+        this.ticketMessageRepository = ticketMessageRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        indexer.execute(this::rebuild);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void reindex(Long ticketId) {
+        if (ticketId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexer.execute(() -> refresh(ticketId));
+                }
+            });
+        } else {
+            indexer.execute(() -> refresh(ticketId));
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        Long ticketNumber = parseTicketNumber(query);
+        if (terms.isEmpty() && ticketNumber == null) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < terms.size(); i++) {
+                boolean last = i == terms.size() - 1;
+                Map<Long, Double> termScores = index.score(terms.get(i), last && terms.get(i).length() >= MIN_PREFIX_LENGTH);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Every term has to match
+                    Map<Long, Double> combined = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double other = termScores.get(entry.getKey());
+                        if (other != null) {
+                            combined.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            if (scores == null) {
+                scores = new HashMap<>();
+            }
+            if (ticketNumber != null && index.documentLengths.containsKey(ticketNumber)) {
+                scores.put(ticketNumber, Double.MAX_VALUE);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Best score first, newer ticket first among equals
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Runs on the indexer thread
+    private void rebuild() {
+        try {
+            Index fresh = new Index();
+            Long afterId = 0L;
+            while (true) {
+                List<TicketSearchSource> batch = ticketRepository.findSearchSourcesAfter(afterId,
+                        PageRequest.of(0, BUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Map.Entry<Long, Map<String, Integer>> doc : termsOf(batch).entrySet()) {
+                    fresh.put(doc.getKey(), doc.getValue());
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("Ticket search index built with {} tickets and {} terms",
+                    fresh.documentLengths.size(), fresh.postings.size());
+        } catch (Exception e) {
+            log.error("Failed to build ticket search index: {}", e.getMessage(), e);
+        }
+    }
+
+    // Runs on the indexer thread
+    private void refresh(Long ticketId) {
+        try {
+            Optional<TicketSearchSource> source = ticketRepository.findSearchSource(ticketId);
+            Map<String, Integer> terms = source.map(s -> termsOf(List.of(s)).get(ticketId)).orElse(null);
+
+            lock.writeLock().lock();
+            try {
+                index.remove(ticketId);
+                if (terms != null) {
+                    index.put(ticketId, terms);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh ticket {} in search index: {}", ticketId, e.getMessage());
+        }
+    }
+
+    private Map<Long, Map<String, Integer>> termsOf(List<TicketSearchSource> tickets) {
+        Map<Long, Map<String, Integer>> docs = new LinkedHashMap<>();
+        for (TicketSearchSource ticket : tickets) {
+            Map<String, Integer> terms = new HashMap<>();
+            addTerms(terms, ticket.title(), TITLE_WEIGHT);
+            addTerms(terms, ticket.employeeName(), NAME_WEIGHT);
+            addTerms(terms, ticket.assigneeName(), NAME_WEIGHT);
+            addTerms(terms, ticket.locationName(), NAME_WEIGHT);
+            addTerms(terms, ticket.description(), TEXT_WEIGHT);
+            docs.put(ticket.id(), terms);
+        }
+
+        for (TicketMessageSearchSource message : ticketMessageRepository.findSearchSourcesByTicketIdIn(docs.keySet())) {
+            Map<String, Integer> terms = docs.get(message.ticketId());
+            if (terms != null) {
+                addTerms(terms, message.message(), TEXT_WEIGHT);
+                addTerms(terms, message.senderName(), NAME_WEIGHT);
+            }
+        }
+        return docs;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+
+    // Lowercased words and numbers; HTML from mail bodies is stripped first
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String plain = HTML_TAG.matcher(text).replaceAll(" ").toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= plain.length(); i++) {
+            boolean wordChar = i < plain.length() && Character.isLetterOrDigit(plain.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = plain.substring(start, i);
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Long parseTicketNumber(String query) {
+        if (query == null) {
+            return null;
+        }
+        String trimmed = query.trim();
+        if (trimmed.startsWith("#")) {
+            trimmed = trimmed.substring(1);
+        }
+        if (trimmed.isEmpty() || trimmed.length() > 18 || !trimmed.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.parseLong(trimmed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    // Not thread-safe on its own; guarded by the engine's lock once published
+    private static final class Index {
+
+        // Sorted so the last query term can be expanded as a prefix
+        final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        final Map<Long, Map<String, Integer>> documentTerms = new HashMap<>();
+        final Map<Long, Integer> documentLengths = new HashMap<>();
+        long totalLength;
+
+        void put(Long ticketId, Map<String, Integer> terms) {
+            int length = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(ticketId, term.getValue());
+                length += term.getValue();
+            }
+            documentTerms.put(ticketId, terms);
+            documentLengths.put(ticketId, length);
+            totalLength += length;
+        }
+
+        void remove(Long ticketId) {
+            Map<String, Integer> terms = documentTerms.remove(ticketId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(ticketId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= documentLengths.remove(ticketId);
+        }
+
+        // BM25 contribution of one query term per matching ticket
+        Map<Long, Double> score(String term, boolean prefix) {
+            Map<Long, Double> scores = new HashMap<>();
+            int documentCount = documentLengths.size();
+            if (documentCount == 0) {
+                return scores;
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Collection<Map.Entry<String, Map<Long, Integer>>> matches = prefix
+                    ? postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()
+                    : Optional.ofNullable(postings.get(term)).map(docs -> List.of(Map.entry(term, docs))).orElse(List.of());
+
+            for (Map.Entry<String, Map<Long, Integer>> match : matches) {
+                Map<Long, Integer> docs = match.getValue();
+                double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                    double tf = doc.getValue();
+                    double norm = 1 - B + B * documentLengths.get(doc.getKey()) / averageLength;
+                    double value = idf * tf * (K1 + 1) / (tf + K1 * norm);
+                    // Several expansions of a prefix in one ticket: keep the best one
+                    scores.merge(doc.getKey(), value, Math::max);
+                }
+            }
+            return scores;
+        }
+    }
+}
@@ -1,22 +1,142 @@
 package AssetManagement.AssetManagement.util;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out asset tag numbers from blocks reserved in the database. One UPDATE on the
+ * asset_tag_block row reserves {@code blockSize} numbers for this node; numbers are then
+ * taken from memory with a CAS, and only the thread that finds the block used up goes back
+ * to the database. Numbers left in a block when the node stops are skipped, so tags can
+ * have gaps but are never reused, also with several nodes.
+ */
+@Slf4j
 @Component
 public class AssetIdGenerator {
 
-    private static JdbcTemplate jdbcTemplate;
+    private static final String SEQUENCE_NAME = "asset";
+
+    private static AssetIdGenerator instance;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reserveTransaction;
+    private final int blockSize;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+    private final Object refillLock = new Object();
 
     @Autowired
-    public AssetIdGenerator(JdbcTemplate jdbcTemplate) {
-        AssetIdGenerator.jdbcTemplate = jdbcTemplate;
+    public AssetIdGenerator(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.assetTag.blockSize:50}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Own transaction: the row lock is released at once and a caller's rollback
+        // cannot give back numbers that are already in memory
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        initSequence();
+        AssetIdGenerator.instance = this;
+    }
+
+    // Used from Asset's @PrePersist, which cannot have beans injected
+    public static long getNextId() {
+        return instance.next();
+    }
+
+    long next() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                return value;
+            }
+            synchronized (refillLock) {
+                // Another thread may have refilled while we waited
+                if (current.get() == block) {
+                    current.set(reserveBlock());
+                }
+            }
+        }
+    }
+
+    private Block reserveBlock() {
+        Long start = reserveTransaction.execute(status -> jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            // LAST_INSERT_ID(expr) hands the pre-update value back on this connection
+            try (PreparedStatement update = con.prepareStatement(
+                    "UPDATE asset_tag_block SET next_value = LAST_INSERT_ID(next_value) + ? WHERE name = ?")) {
+                update.setInt(1, blockSize);
+                update.setString(2, SEQUENCE_NAME);
+                if (update.executeUpdate() != 1) {
+                    throw new IllegalStateException("asset_tag_block row missing for " + SEQUENCE_NAME);
+                }
+            }
+            try (Statement select = con.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }));
+        log.debug("Reserved asset tag numbers {} to {}", start, start + blockSize - 1);
+        return new Block(start, start + blockSize);
     }
 
-    public static synchronized int getNextId() {
-        jdbcTemplate.update("INSERT INTO asset_sequence VALUES ()");
-        Integer nextVal = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
-        return (nextVal != null) ? nextVal : 1;
+    // Creates the block row on first start, continuing after the highest number already used
+    private void initSequence() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS asset_tag_block (
+                    name VARCHAR(50) NOT NULL PRIMARY KEY,
+                    next_value BIGINT NOT NULL
+                )""");
+
+        Integer exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM asset_tag_block WHERE name = ?", Integer.class, SEQUENCE_NAME);
+        if (exists != null && exists > 0) {
+            return;
+        }
+
+        long highest = Math.max(
+                queryHighest("SELECT COALESCE(MAX(id), 0) FROM asset_sequence"),
+                queryHighest("SELECT COALESCE(MAX(CAST(SUBSTRING(asset_tag, 5) AS UNSIGNED)), 0) FROM asset WHERE asset_tag LIKE 'MGIT%'"));
+
+        // IGNORE: another node starting at the same time may have inserted it first
+        jdbcTemplate.update("INSERT IGNORE INTO asset_tag_block (name, next_value) VALUES (?, ?)",
+                SEQUENCE_NAME, highest + 1);
+        log.info("Asset tag sequence starts at {}", highest + 1);
+    }
+
+    private long queryHighest(String sql) {
+        try {
+            Long value = jdbcTemplate.queryForObject(sql, Long.class);
+            return value != null ? value : 0;
+        } catch (DataAccessException e) {
+            // Table not there on a fresh database
+            return 0;
+        }
+    }
+
+    // Numbers [next, end) reserved for this node
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
     }
 }
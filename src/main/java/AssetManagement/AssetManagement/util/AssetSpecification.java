@@ -8,6 +8,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public class AssetSpecification {
 
@@ -68,6 +69,11 @@ public class AssetSpecification {
         return null;
     }
 
+    public static Specification<Asset> idIn(Collection<Long> ids) {
+        return (root, query, cb) ->
+                ids == null ? null : root.get("id").in(ids);
+    }
+
     public static Specification<Asset> keywordSearch(String keyword) {
         return (root, query, cb) -> {
             if (keyword == null || keyword.isBlank()) return null;
@@ -2,10 +2,13 @@ package AssetManagement.AssetManagement.util;
 
 import AssetManagement.AssetManagement.entity.User;
 import AssetManagement.AssetManagement.repository.UserRepository;
+import AssetManagement.AssetManagement.security.CustomUserDetails;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 @Component
 public class AuthUtils {
 
@@ -25,8 +28,22 @@ public class AuthUtils {
         return "Unknown User";
     }
 
+    // ✅ User resolved by the JWT filter; a detached snapshot, so don't modify or save it
+    public static Optional<User> getAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails details) {
+            return Optional.of(details.getUser());
+        }
+        return Optional.empty();
+    }
+
     // ✅ Get the exact employee name
     public static String getAuthenticatedUserExactName() {
+        Optional<User> principal = getAuthenticatedUser();
+        if (principal.isPresent()) {
+            return principal.get().getUsername();
+        }
+
         String employeeId = getAuthenticatedUsername();
         if (employeeId.equals("Unknown User")) {
             return "Unknown User";
@@ -0,0 +1,101 @@
+package AssetManagement.AssetManagement.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket histogram of resolution times in minutes. Every histogram uses the same
+ * bucket bounds, so two of them merge by adding counts, which is what lets daily rollup
+ * rows be combined into weekly, monthly and all-time percentiles.
+ */
+public final class ResolutionHistogram {
+
+    // Exclusive upper bounds in minutes: 15m .. 90d; the last bucket is open-ended
+    private static final long[] UPPER_BOUNDS = {
+            15, 30, 60, 120, 240, 480, 720,
+            1_440, 2_880, 4_320, 7_200, 10_080, 14_400, 20_160,
+            30_240, 43_200, 64_800, 86_400, 129_600
+    };
+
+    public static final int BUCKETS = UPPER_BOUNDS.length + 1;
+
+    private final long[] counts;
+
+    public ResolutionHistogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    private ResolutionHistogram(long[] counts) {
+        this.counts = counts;
+    }
+
+    public void add(long minutes) {
+        counts[bucketOf(Math.max(0, minutes))]++;
+    }
+
+    public void merge(ResolutionHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public long total() {
+        return Arrays.stream(counts).sum();
+    }
+
+    /**
+     * Estimates the q-quantile (0..1) by interpolating inside the bucket that holds it.
+     * The result is clamped to the exact min/max tracked alongside the histogram.
+     */
+    public Long percentile(double q, long min, long max) {
+        long total = total();
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (seen + counts[i] >= rank) {
+                long lower = i == 0 ? 0 : UPPER_BOUNDS[i - 1];
+                long upper = i < UPPER_BOUNDS.length ? UPPER_BOUNDS[i] : Math.max(max, lower);
+                double fraction = (double) (rank - seen) / counts[i];
+                long estimate = lower + Math.round((upper - lower) * fraction);
+                return Math.min(max, Math.max(min, estimate));
+            }
+            seen += counts[i];
+        }
+        return max;
+    }
+
+    private static int bucketOf(long minutes) {
+        int index = Arrays.binarySearch(UPPER_BOUNDS, minutes);
+        // Exact hit on a bound belongs to the next bucket (bounds are exclusive)
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // Stored as comma-separated bucket counts
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(counts[i]);
+        }
+        return sb.toString();
+    }
+
+    public static ResolutionHistogram decode(String encoded) {
+        long[] counts = new long[BUCKETS];
+        if (encoded != null && !encoded.isBlank()) {
+            String[] parts = encoded.split(",");
+            for (int i = 0; i < Math.min(parts.length, BUCKETS); i++) {
+                counts[i] = Long.parseLong(parts[i].trim());
+            }
+        }
+        return new ResolutionHistogram(counts);
+    }
+}
@@ -0,0 +1,44 @@
+package AssetManagement.AssetManagement.util;
+
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last ticket returned by a keyset page, ordered by (createdAt DESC, id DESC)
+ * with tickets that have no createdAt after all others. Clients only see the opaque encoded form.
+ * <p>
+ * A null createdAt is encoded as an empty date, so cursors issued before nulls were paged stay valid.
+ */
+public record TicketCursor(LocalDateTime createdAt, Long id) {
+
+    public static TicketCursor of(Ticket ticket) {
+        return new TicketCursor(ticket.getCreatedAt(), ticket.getId());
+    }
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TicketCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String date = raw.substring(0, separator);
+            return new TicketCursor(
+                    date.isEmpty() ? null : LocalDateTime.parse(date),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
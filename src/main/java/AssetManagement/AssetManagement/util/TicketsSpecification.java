@@ -13,6 +13,7 @@ import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.Join;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public class TicketsSpecification {
 
@@ -72,6 +73,12 @@ public class TicketsSpecification {
     }
 
 
+    // Empty list matches nothing
+    public static Specification<Ticket> idIn(Collection<Long> ids) {
+        return (root, query, cb) ->
+                ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
     public static Specification<Ticket> globalSearch(String searchTerm) {
         return (root, query, cb) -> {
             if (searchTerm == null || searchTerm.trim().isEmpty()) {
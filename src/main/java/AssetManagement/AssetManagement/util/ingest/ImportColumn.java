@@ -0,0 +1,107 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * One column of an import template: its position, a name for messages and how the cell is
+ * converted. Importers declare their columns as constants and read them with
+ * {@link SheetRow#get(ImportColumn)}; a cell that does not convert rejects the row.
+ */
+public final class ImportColumn<V> {
+
+    @FunctionalInterface
+    interface Reader<V> {
+        V read(SheetRow row, int index);
+    }
+
+    private final int index;
+    private final String name;
+    private final Reader<V> reader;
+    private final boolean required;
+
+    private ImportColumn(int index, String name, Reader<V> reader, boolean required) {
+        this.index = index;
+        this.name = name;
+        this.reader = reader;
+        this.required = required;
+    }
+
+    /** Trimmed text; numbers become whole numbers (phone numbers, ids). */
+    public static ImportColumn<String> text(int index, String name) {
+        return new ImportColumn<>(index, name, SheetRow::getString, false);
+    }
+
+    /** Trimmed text that keeps decimals and shows dates as YYYY-MM-DD. */
+    public static ImportColumn<String> displayText(int index, String name) {
+        return new ImportColumn<>(index, name, SheetRow::getText, false);
+    }
+
+    /** A date-formatted cell or ISO text (YYYY-MM-DD). */
+    public static ImportColumn<LocalDate> date(int index, String name) {
+        return new ImportColumn<>(index, name, (row, i) -> {
+            try {
+                return row.getDate(i);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Invalid date at column " + (i + 1));
+            }
+        }, false);
+    }
+
+    /** A numeric cell, or text holding a number. */
+    public static ImportColumn<BigDecimal> decimal(int index, String name) {
+        return new ImportColumn<>(index, name, (row, i) -> {
+            BigDecimal number = row.getNumber(i);
+            if (number != null) {
+                return number;
+            }
+            String text = row.getString(i);
+            if (text == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number '" + text + "' at column " + (i + 1));
+            }
+        }, false);
+    }
+
+    /** An enum constant, matched case-insensitively. */
+    public static <E extends Enum<E>> ImportColumn<E> enumeration(int index, String name, Class<E> type) {
+        return new ImportColumn<>(index, name, (row, i) -> {
+            String text = row.getString(i);
+            if (text == null) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(type, text.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid enum value '" + text + "' at column " + (i + 1));
+            }
+        }, false);
+    }
+
+    /** The same column, rejecting rows where it is empty. */
+    public ImportColumn<V> required() {
+        return new ImportColumn<>(index, name, reader, true);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    V read(SheetRow row) {
+        V value = reader.read(row, index);
+        if (required && value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,5 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+/** A mapped row together with its 1-based row number in the file. */
+public record ImportRecord<R>(int rowNumber, R value) {
+}
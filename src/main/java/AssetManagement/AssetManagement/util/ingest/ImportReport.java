@@ -0,0 +1,47 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+import AssetManagement.AssetManagement.dto.RowError;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/** Running totals of one import. Only used from the importing thread. */
+public class ImportReport {
+
+    private int rowsRead;
+    private int accepted;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void accept() {
+        accepted++;
+    }
+
+    public void reject(int rowNumber, String message) {
+        errors.add(new RowError(rowNumber, message));
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    /** Data rows in the file, header and blank rows not counted. */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public int getRejected() {
+        return errors.size();
+    }
+
+    /** Errors ordered by row number. */
+    public List<RowError> getErrors() {
+        List<RowError> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingInt(RowError::rowNumber));
+        return sorted;
+    }
+}
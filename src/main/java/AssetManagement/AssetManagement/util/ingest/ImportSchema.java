@@ -0,0 +1,18 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+/**
+ * Turns one data row into the record an importer works with. Runs on the engine's
+ * validation threads, so it may only read the row and lookups that do not change during
+ * the import; anything that touches the database belongs in the {@link ImportSink}.
+ * Throwing rejects the row with the exception's message.
+ */
+@FunctionalInterface
+public interface ImportSchema<R> {
+
+    R map(SheetRow row);
+
+    /** Leading rows skipped as headers. */
+    default int headerRows() {
+        return 1;
+    }
+}
@@ -0,0 +1,14 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+import java.util.List;
+
+/**
+ * Receives validated records in batches, in file order and always on the thread that
+ * started the import. The sink reports each record through the {@link ImportReport}; if it
+ * throws, every record of the batch is rejected with the exception's message.
+ */
+@FunctionalInterface
+public interface ImportSink<R> {
+
+    void write(List<ImportRecord<R>> batch, ImportReport report);
+}
@@ -0,0 +1,155 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared pipeline behind the spreadsheet imports. The upload is streamed row by row
+ * (XLSX, XLS or CSV), rows are cut into batches and each batch is mapped by the importer's
+ * {@link ImportSchema} on a pool of validation threads, one batch per core. Mapped batches
+ * go to the {@link ImportSink} in file order on the calling thread, so sinks can use the
+ * caller's transaction and security context. Parsing stays at most one batch per
+ * validation thread ahead of the sink, which keeps memory flat whatever the file size.
+ */
+@Slf4j
+@Component
+public class IngestionEngine {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final int parallelism;
+    private final ExecutorService validators;
+
+    public IngestionEngine(@Value("${app.import.validationThreads:0}") int validationThreads) {
+        this.parallelism = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.validators = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "import-validator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <R> ImportReport ingest(MultipartFile file, ImportSchema<R> schema, ImportSink<R> sink) {
+        return ingest(file, schema, sink, DEFAULT_BATCH_SIZE);
+    }
+
+    public <R> ImportReport ingest(MultipartFile file, ImportSchema<R> schema, ImportSink<R> sink, int batchSize) {
+        ImportReport report = new ImportReport();
+        Deque<Future<List<Mapped<R>>>> inFlight = new ArrayDeque<>();
+
+        File temp = null;
+        try {
+            // The streaming reader needs random access to the zip, so spool the upload to disk
+            temp = Files.createTempFile("import-", ".upload").toFile();
+            file.transferTo(temp);
+
+            List<SheetRow> batch = new ArrayList<>(batchSize);
+            StreamingSheetReader.read(temp, row -> {
+                if (row.getRowNumber() <= schema.headerRows() || row.isBlank()) {
+                    return;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    inFlight.add(validators.submit(mapping(schema, List.copyOf(batch))));
+                    batch.clear();
+                    while (inFlight.size() > parallelism) {
+                        drain(inFlight.poll(), sink, report);
+                    }
+                }
+            });
+            if (!batch.isEmpty()) {
+                inFlight.add(validators.submit(mapping(schema, List.copyOf(batch))));
+            }
+            while (!inFlight.isEmpty()) {
+                drain(inFlight.poll(), sink, report);
+            }
+        } catch (IOException e) {
+            report.reject(0, "Failed to read file: " + e.getMessage());
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            if (temp != null && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+        return report;
+    }
+
+    // Runs on a validation thread; a row that fails to map is kept as an error in its place
+    private static <R> Callable<List<Mapped<R>>> mapping(ImportSchema<R> schema, List<SheetRow> rows) {
+        return () -> {
+            List<Mapped<R>> mapped = new ArrayList<>(rows.size());
+            for (SheetRow row : rows) {
+                try {
+                    mapped.add(new Mapped<>(row.getRowNumber(), schema.map(row), null));
+                } catch (RuntimeException e) {
+                    mapped.add(new Mapped<>(row.getRowNumber(), null, messageOf(e)));
+                }
+            }
+            return mapped;
+        };
+    }
+
+    private static <R> void drain(Future<List<Mapped<R>>> future, ImportSink<R> sink, ImportReport report) {
+        List<Mapped<R>> mapped;
+        try {
+            mapped = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import validation failed", e.getCause());
+        }
+
+        List<ImportRecord<R>> records = new ArrayList<>(mapped.size());
+        for (Mapped<R> row : mapped) {
+            report.rowRead();
+            if (row.error() != null) {
+                report.reject(row.rowNumber(), row.error());
+            } else {
+                records.add(new ImportRecord<>(row.rowNumber(), row.value()));
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        try {
+            sink.write(records, report);
+        } catch (RuntimeException e) {
+            log.warn("Import batch of {} rows failed: {}", records.size(), e.getMessage());
+            for (ImportRecord<R> record : records) {
+                report.reject(record.rowNumber(), messageOf(e));
+            }
+        }
+    }
+
+    private static String messageOf(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : "Unknown error";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validators.shutdownNow();
+    }
+
+    private record Mapped<R>(int rowNumber, R value, String error) {
+    }
+}
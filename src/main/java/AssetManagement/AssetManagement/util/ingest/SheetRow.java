@@ -0,0 +1,92 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * One spreadsheet row as read by {@link StreamingSheetReader}. Getters follow the rules the
+ * import services used with the POI DOM: numeric cells read as strings become whole numbers,
+ * dates come from date-formatted numeric cells or ISO text (YYYY-MM-DD). CSV rows only have
+ * text cells.
+ */
+public class SheetRow {
+
+    // A cell is either text or a number; numbers remember whether their style is a date format
+    record Cell(String text, Double number, boolean date) {
+    }
+
+    private final int rowNumber;
+    private final Map<Integer, Cell> cells;
+
+    SheetRow(int rowNumber, Map<Integer, Cell> cells) {
+        this.rowNumber = rowNumber;
+        this.cells = cells;
+    }
+
+    /** 1-based row number as shown in Excel. */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public boolean isBlank() {
+        for (Cell cell : cells.values()) {
+            if (cell.number() != null || (cell.text() != null && !cell.text().isBlank())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Reads a column declared in an {@link ImportSchema}. */
+    public <V> V get(ImportColumn<V> column) {
+        return column.read(this);
+    }
+
+    public String getString(int column) {
+        Cell cell = cells.get(column);
+        if (cell == null) {
+            return null;
+        }
+        if (cell.number() != null) {
+            return String.valueOf(cell.number().longValue());
+        }
+        if (cell.text() == null || cell.text().isBlank()) {
+            return null;
+        }
+        return cell.text().trim();
+    }
+
+    /** Like {@link #getString} but keeps decimals and renders dates as YYYY-MM-DD. */
+    public String getText(int column) {
+        Cell cell = cells.get(column);
+        if (cell == null || cell.number() == null) {
+            return getString(column);
+        }
+        if (cell.date()) {
+            return DateUtil.getLocalDateTime(cell.number()).toLocalDate().toString();
+        }
+        double value = cell.number();
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    /** Only numeric cells; text that looks like a number is not converted. */
+    public BigDecimal getNumber(int column) {
+        Cell cell = cells.get(column);
+        return cell != null && cell.number() != null ? BigDecimal.valueOf(cell.number()) : null;
+    }
+
+    public LocalDate getDate(int column) {
+        Cell cell = cells.get(column);
+        if (cell == null) {
+            return null;
+        }
+        if (cell.number() != null) {
+            return cell.date() ? DateUtil.getLocalDateTime(cell.number()).toLocalDate() : null;
+        }
+        String text = cell.text() != null ? cell.text().trim() : null;
+        return text != null && !text.isEmpty() ? LocalDate.parse(text) : null;
+    }
+}
@@ -0,0 +1,288 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+import org.apache.poi.EmptyFileException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads the first sheet of a spreadsheet row by row without building the workbook in memory.
+ * XLSX files are parsed with SAX straight from the sheet XML; legacy XLS files (at most 65k
+ * rows) are opened with the usermodel and fed through the same callback. Plain text uploads
+ * are read as UTF-8 CSV.
+ */
+public final class StreamingSheetReader {
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(SheetRow row) throws Exception;
+    }
+
+    private StreamingSheetReader() {
+    }
+
+    /** Calls {@code handler} for every row of the first sheet, header row included. */
+    public static void read(File file, RowHandler handler) throws IOException {
+        FileMagic magic;
+        try (InputStream in = FileMagic.prepareToCheckMagic(Files.newInputStream(file.toPath()))) {
+            magic = FileMagic.valueOf(in);
+        }
+
+        if (magic == FileMagic.OLE2) {
+            readLegacy(file, handler);
+        } else if (magic == FileMagic.OOXML) {
+            readXlsx(file, handler);
+        } else if (magic == FileMagic.UNKNOWN) {
+            readCsv(file, handler);
+        } else {
+            throw new IOException("Unsupported spreadsheet format; upload an .xlsx, .xls or .csv file");
+        }
+    }
+
+    private static void readXlsx(File file, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(strings, styles, handler));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (EmptyFileException | OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("Could not open spreadsheet: " + e.getMessage(), e);
+        } catch (SAXException e) {
+            // Handler failures are tunnelled through SAX; hand back the original exception
+            if (e.getException() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getException() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Could not parse spreadsheet: " + e.getMessage(), e);
+        }
+    }
+
+    private static void readLegacy(File file, RowHandler handler) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                Map<Integer, SheetRow.Cell> cells = new HashMap<>();
+                for (Cell cell : row) {
+                    SheetRow.Cell value = switch (cell.getCellType()) {
+                        case STRING -> new SheetRow.Cell(cell.getStringCellValue(), null, false);
+                        case NUMERIC -> new SheetRow.Cell(null, cell.getNumericCellValue(), DateUtil.isCellDateFormatted(cell));
+                        case BOOLEAN -> new SheetRow.Cell(String.valueOf(cell.getBooleanCellValue()), null, false);
+                        default -> null;
+                    };
+                    if (value != null) {
+                        cells.put(cell.getColumnIndex(), value);
+                    }
+                }
+                handleRow(handler, new SheetRow(row.getRowNum() + 1, cells));
+            }
+        }
+    }
+
+    // RFC 4180: fields separated by commas, quoted fields may hold commas, quotes ("") and line breaks
+    private static void readCsv(File file, RowHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            Map<Integer, SheetRow.Cell> cells = new HashMap<>();
+            StringBuilder field = new StringBuilder();
+            int rowNumber = 1;
+            int column = 0;
+            boolean quoted = false;
+            boolean first = true;
+            boolean pending = false;
+
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (first) {
+                    first = false;
+                    if (c == '\uFEFF') {
+                        continue;
+                    }
+                }
+                pending = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    putText(cells, column++, field);
+                } else if (c == '\n') {
+                    putText(cells, column, field);
+                    handleRow(handler, new SheetRow(rowNumber++, cells));
+                    cells = new HashMap<>();
+                    column = 0;
+                    pending = false;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (pending) {
+                putText(cells, column, field);
+                handleRow(handler, new SheetRow(rowNumber, cells));
+            }
+        }
+    }
+
+    private static void putText(Map<Integer, SheetRow.Cell> cells, int column, StringBuilder field) {
+        if (!field.isEmpty()) {
+            cells.put(column, new SheetRow.Cell(field.toString(), null, false));
+            field.setLength(0);
+        }
+    }
+
+    private static void handleRow(RowHandler handler, SheetRow row) throws IOException {
+        try {
+            handler.handle(row);
+        } catch (RuntimeException | IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    // SAX handler for one worksheet part (sheetN.xml)
+    private static final class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+        private final RowHandler handler;
+
+        private int rowNumber;
+        private Map<Integer, SheetRow.Cell> cells;
+
+        private int column;
+        private String type;
+        private int styleIndex;
+        private boolean inValue;
+        private final StringBuilder value = new StringBuilder();
+
+        SheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, RowHandler handler) {
+            this.strings = strings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                    cells = new HashMap<>();
+                }
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? new CellReference(ref).getCol() : column + 1;
+                    type = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = s != null ? Integer.parseInt(s) : -1;
+                    value.setLength(0);
+                }
+                // <v> holds the value; <t> the text of an inline string
+                case "v", "t" -> inValue = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> {
+                    SheetRow.Cell cell = toCell();
+                    if (cell != null) {
+                        cells.put(column, cell);
+                    }
+                }
+                case "row" -> {
+                    try {
+                        handleRow(handler, new SheetRow(rowNumber, cells));
+                    } catch (IOException | RuntimeException e) {
+                        throw new SAXException(e);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private SheetRow.Cell toCell() {
+            String raw = value.toString();
+            if (type == null || type.equals("n")) {
+                if (raw.isEmpty()) {
+                    return null;
+                }
+                return new SheetRow.Cell(null, Double.parseDouble(raw), isDateStyle());
+            }
+            return switch (type) {
+                case "s" -> new SheetRow.Cell(strings.getItemAt(Integer.parseInt(raw)).getString(), null, false);
+                case "str", "inlineStr" -> new SheetRow.Cell(raw, null, false);
+                case "b" -> new SheetRow.Cell(String.valueOf("1".equals(raw)), null, false);
+                // Error cells carry no value
+                default -> null;
+            };
+        }
+
+        private boolean isDateStyle() {
+            if (styleIndex < 0 || styles == null) {
+                return false;
+            }
+            XSSFCellStyle style = styles.getStyleAt(styleIndex);
+            return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        }
+    }
+}
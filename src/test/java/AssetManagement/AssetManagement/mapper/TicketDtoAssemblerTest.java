@@ -0,0 +1,137 @@
+package AssetManagement.AssetManagement.mapper;
+
+import AssetManagement.AssetManagement.dto.TicketDTO;
+import AssetManagement.AssetManagement.dto.UserDTO;
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.entity.TicketMessage;
+import AssetManagement.AssetManagement.entity.User;
+import AssetManagement.AssetManagement.enums.TicketMessageType;
+import AssetManagement.AssetManagement.enums.TicketStatus;
+import AssetManagement.AssetManagement.repository.TicketMessageRepository;
+import AssetManagement.AssetManagement.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TicketDtoAssemblerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 6, 9, 0);
+
+    private final User employee = user(1L, "priya");
+    private final User assignee = user(2L, "ravi");
+    private final User formerAssignee = user(3L, "amit");
+
+    private TicketMessageRepository ticketMessageRepository;
+    private TicketMapper ticketMapper;
+    private TicketDtoAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        ticketMessageRepository = mock(TicketMessageRepository.class);
+        UserService userService = mock(UserService.class);
+        when(userService.convertUserToDto(any())).thenAnswer(call -> {
+            User user = call.getArgument(0);
+            UserDTO dto = new UserDTO();
+            dto.setId(user.getId());
+            dto.setUsername(user.getUsername());
+            return dto;
+        });
+
+        ticketMapper = new TicketMapper(ticketMessageRepository, userService);
+        assembler = new TicketDtoAssembler(ticketMessageRepository, userService);
+    }
+
+    @Test
+    void firstResponseIsTheFirstMessageFromAnyoneButTheEmployee() {
+        Ticket ticket = ticket(10L);
+        givenMessages(
+                message(101L, ticket, employee, CREATED.plusMinutes(5)),
+                message(102L, ticket, formerAssignee, CREATED.plusHours(2)),
+                message(103L, ticket, assignee, CREATED.plusHours(5)),
+                message(104L, ticket, employee, CREATED.plusHours(6)));
+
+        TicketDTO dto = assembler.toDTO(ticket);
+
+        // The former assignee's reply counts even though the ticket has moved on
+        assertThat(dto.getFirstRespondedAt()).isEqualTo(CREATED.plusHours(2));
+        assertThat(dto.getLastUpdated()).isEqualTo(CREATED.plusHours(6));
+    }
+
+    @Test
+    void assemblerAndMapperAgreeOnEveryField() {
+        Ticket answered = ticket(10L);
+        List<TicketMessage> answeredMessages = List.of(
+                message(101L, answered, employee, CREATED.plusMinutes(5)),
+                message(102L, answered, formerAssignee, CREATED.plusHours(2)),
+                message(103L, answered, assignee, null));
+        Ticket unanswered = ticket(11L);
+        unanswered.setStatus(TicketStatus.CLOSED);
+        List<TicketMessage> unansweredMessages = List.of(message(111L, unanswered, employee, CREATED.plusDays(1)));
+        Ticket withoutEmployee = ticket(12L);
+        withoutEmployee.setEmployee(null);
+        List<TicketMessage> anonymousMessages = List.of(message(121L, withoutEmployee, assignee, CREATED.plusHours(1)));
+
+        List<TicketMessage> all = new ArrayList<>();
+        all.addAll(answeredMessages);
+        all.addAll(unansweredMessages);
+        all.addAll(anonymousMessages);
+        when(ticketMessageRepository.findByTicketIdInWithSender(anyCollection())).thenReturn(all);
+
+        List<TicketDTO> batched = assembler.toDTOs(List.of(answered, unanswered, withoutEmployee));
+
+        when(ticketMessageRepository.findByTicket(any())).thenReturn(answeredMessages);
+        assertThat(batched.get(0)).isEqualTo(ticketMapper.toDTO(answered));
+        when(ticketMessageRepository.findByTicket(any())).thenReturn(unansweredMessages);
+        assertThat(batched.get(1)).isEqualTo(ticketMapper.toDTO(unanswered));
+        when(ticketMessageRepository.findByTicket(any())).thenReturn(anonymousMessages);
+        assertThat(batched.get(2)).isEqualTo(ticketMapper.toDTO(withoutEmployee));
+
+        assertThat(batched.get(0).getFirstRespondedAt()).isEqualTo(CREATED.plusHours(2));
+        assertThat(batched.get(1).getFirstRespondedAt()).isNull();
+        assertThat(batched.get(2).getFirstRespondedAt()).isNull();
+    }
+
+    private void givenMessages(TicketMessage... messages) {
+        when(ticketMessageRepository.findByTicketIdInWithSender(anyCollection())).thenReturn(List.of(messages));
+    }
+
+    private Ticket ticket(Long id) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setTitle("Laptop not booting");
+        ticket.setStatus(TicketStatus.OPEN);
+        ticket.setEmployee(employee);
+        ticket.setAssignee(assignee);
+        ticket.setCreatedBy(employee.getUsername());
+        ticket.setCreatedAt(CREATED);
+        ticket.setUpdatedAt(CREATED.plusMinutes(1));
+        return ticket;
+    }
+
+    private static TicketMessage message(Long id, Ticket ticket, User sender, LocalDateTime sentAt) {
+        TicketMessage message = new TicketMessage();
+        message.setId(id);
+        message.setTicket(ticket);
+        message.setSender(sender);
+        message.setMessage("message " + id);
+        message.setSentAt(sentAt);
+        message.setTicketMessageType(TicketMessageType.PUBLIC_RESPONSE);
+        return message;
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,93 @@
+package AssetManagement.AssetManagement.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoIpResolverTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void convertsDottedAddresses() {
+        assertThat(GeoIpResolver.ipv4ToLong("0.0.0.0")).isZero();
+        assertThat(GeoIpResolver.ipv4ToLong("10.0.1.2")).isEqualTo((10L << 24) + (1 << 8) + 2);
+        assertThat(GeoIpResolver.ipv4ToLong("255.255.255.255")).isEqualTo(0xFFFFFFFFL);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1.2.3", "1.2.3.4.5", "1..2.3", "1.2.3.", "256.0.0.1", "1.2.3.1000",
+            "a.b.c.d", "1.2.3.4 ", "::1", "2001:db8::1"})
+    void rejectsAnythingElse(String ip) {
+        assertThat(GeoIpResolver.ipv4ToLong(ip)).isEqualTo(-1);
+    }
+
+    @Test
+    void findsTheRangeContainingAnAddress() throws IOException {
+        GeoIpResolver resolver = resolverFor("""
+                # start,end,city
+                10.0.1.0,10.0.1.255,Mumbai
+                10.0.0.0,10.0.0.255,Pune
+                8.8.8.0 , 8.8.8.255 , Mountain View
+
+                not a range
+                192.168.1.10,192.168.1.1,Backwards
+                10.0.3.0,10.0.3.x,Broken
+                """);
+
+        assertThat(resolver.resolve("10.0.0.0")).isEqualTo("Pune");
+        assertThat(resolver.resolve("10.0.0.255")).isEqualTo("Pune");
+        assertThat(resolver.resolve("10.0.1.128")).isEqualTo("Mumbai");
+        assertThat(resolver.resolve("8.8.8.8")).isEqualTo("Mountain View");
+    }
+
+    @Test
+    void addressesOutsideEveryRangeAreUnknown() throws IOException {
+        GeoIpResolver resolver = resolverFor("""
+                10.0.0.0,10.0.0.255,Pune
+                10.0.2.0,10.0.2.255,Mumbai
+                """);
+
+        // Before the first range, in a gap, after the last one, and in a skipped line
+        assertThat(resolver.resolve("1.1.1.1")).isEqualTo("Unknown");
+        assertThat(resolver.resolve("10.0.1.1")).isEqualTo("Unknown");
+        assertThat(resolver.resolve("10.0.3.0")).isEqualTo("Unknown");
+        assertThat(resolver.resolve("fe80::1")).isEqualTo("Unknown");
+        assertThat(resolver.resolve(null)).isEqualTo("Unknown");
+    }
+
+    @Test
+    void loopbackIsLocalhost() throws IOException {
+        GeoIpResolver resolver = resolverFor("127.0.0.0,127.255.255.255,Nowhere\n");
+
+        assertThat(resolver.resolve("127.0.0.1")).isEqualTo("Localhost");
+        assertThat(resolver.resolve("0:0:0:0:0:0:0:1")).isEqualTo("Localhost");
+    }
+
+    @Test
+    void missingFileResolvesEverythingToUnknown() {
+        GeoIpResolver resolver = new GeoIpResolver();
+        ReflectionTestUtils.setField(resolver, "rangesPath", dir.resolve("missing.csv").toString());
+        resolver.load();
+
+        assertThat(resolver.resolve("10.0.0.1")).isEqualTo("Unknown");
+    }
+
+    private GeoIpResolver resolverFor(String ranges) throws IOException {
+        Path file = dir.resolve("ip-ranges.csv");
+        Files.writeString(file, ranges);
+        GeoIpResolver resolver = new GeoIpResolver();
+        ReflectionTestUtils.setField(resolver, "rangesPath", file.toString());
+        resolver.load();
+        return resolver;
+    }
+}
@@ -0,0 +1,107 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.AssetSearchDocument;
+import AssetManagement.AssetManagement.entity.Asset;
+import AssetManagement.AssetManagement.enums.AssetStatus;
+import AssetManagement.AssetManagement.repository.AssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AssetSearchIndexTest {
+
+    private AssetSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        AssetRepository assetRepository = mock(AssetRepository.class);
+        when(assetRepository.findAllSearchDocuments()).thenReturn(List.of(
+                new AssetSearchDocument(1L, "Dell Latitude 5420", "SN-DL-001", "Dell", "Latitude", "Laptop for finance"),
+                new AssetSearchDocument(2L, "HP LaserJet", "HPLJ-2200", "HP", "LaserJet Pro", "Printer next to the Dell laptops"),
+                new AssetSearchDocument(3L, "Dell", "X1", "Dell", null, null),
+                new AssetSearchDocument(4L, "abcbc xbcd", null, null, null, null)));
+        index = new AssetSearchIndex(assetRepository);
+    }
+
+    @Test
+    void isNotReadyUntilBuilt() {
+        assertThat(index.isReady()).isFalse();
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+    }
+
+    @Test
+    void ranksExactOverPrefixOverContainsAndByField() {
+        index.rebuild();
+
+        // 3: exact name and brand; 1: name prefix and exact brand; 2: only the description
+        assertThat(index.search("Dell")).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void matchesInsideWordsAndIgnoresCase() {
+        index.rebuild();
+
+        assertThat(index.search("ASERJE")).containsExactly(2L);
+        assertThat(index.search("dl-0")).containsExactly(1L);
+    }
+
+    @Test
+    void checksTheRealSubstringAfterTheTrigramIntersection() {
+        index.rebuild();
+
+        // Asset 4 has every trigram of the query (abc, bcb, cbc, bcd) but not the query itself
+        assertThat(index.search("abcbcd")).isEmpty();
+        assertThat(index.search("abcbc")).containsExactly(4L);
+    }
+
+    @Test
+    void shortQueriesScanAllDocuments() {
+        index.rebuild();
+
+        assertThat(index.search("hp")).containsExactly(2L);
+        assertThat(index.search(" ")).isEmpty();
+        assertThat(index.search(null)).isEmpty();
+    }
+
+    @Test
+    void equalScoresPutNewerAssetsFirst() {
+        index.rebuild();
+        index.update(new AssetSearchDocument(7L, "Dock", null, null, null, null));
+        index.update(new AssetSearchDocument(8L, "Dock", null, null, null, null));
+
+        assertThat(index.search("dock")).containsExactly(8L, 7L);
+    }
+
+    @Test
+    void updatesAndRemovalsApplyOutsideATransaction() {
+        index.rebuild();
+
+        index.update(new AssetSearchDocument(1L, "Lenovo ThinkPad", "SN-LN-001", "Lenovo", "T14", null));
+        index.remove(2L);
+
+        assertThat(index.search("5420")).isEmpty();
+        assertThat(index.search("thinkpad")).containsExactly(1L);
+        assertThat(index.search("laserjet")).isEmpty();
+    }
+
+    @Test
+    void deletedAssetsLeaveTheIndex() {
+        index.rebuild();
+        Asset asset = new Asset();
+        asset.setId(3L);
+        asset.setName("Dell");
+        asset.setStatus(AssetStatus.DELETED);
+
+        index.update(asset);
+
+        assertThat(index.search("dell")).containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,47 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.InboundMail;
+import AssetManagement.AssetManagement.dto.MailboxChanges;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** In-memory mailbox that answers every sync with the same delta page, like a replayed token. */
+class FakeMailboxSource implements MailboxSource {
+
+    private final List<InboundMail> page;
+    private final List<String> markedRead = new ArrayList<>();
+    private int markReadFailures;
+
+    FakeMailboxSource(List<InboundMail> page) {
+        this.page = page;
+    }
+
+    /** The next {@code count} markRead calls fail, as a Graph outage would. */
+    void failNextMarkRead(int count) {
+        markReadFailures = count;
+    }
+
+    List<String> markedRead() {
+        return markedRead;
+    }
+
+    @Override
+    public String mailbox() {
+        return "support@example.com";
+    }
+
+    @Override
+    public MailboxChanges fetchChanges(String deltaToken) {
+        return new MailboxChanges(page, "delta-1");
+    }
+
+    @Override
+    public void markRead(String messageId) {
+        if (markReadFailures > 0) {
+            markReadFailures--;
+            throw new IllegalStateException("Graph unavailable");
+        }
+        markedRead.add(messageId);
+    }
+}
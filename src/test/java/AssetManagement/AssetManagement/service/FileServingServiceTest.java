@@ -0,0 +1,259 @@
+package AssetManagement.AssetManagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileServingServiceTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final long MODIFIED = 1_700_000_000_000L;
+    // "<hex mtime>-<hex length>"
+    private static final String LEGACY_ETAG = "\"18bcfe56800-a\"";
+    private static final String HASH = "ab".repeat(32);
+
+    @TempDir
+    Path dir;
+
+    private FileStorageService fileStorageService;
+    private FileServingService service;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileStorageService = mock(FileStorageService.class);
+        service = new FileServingService(fileStorageService);
+        file = write("manual.txt");
+    }
+
+    @Test
+    void servesTheWholeFileWithValidators() throws IOException {
+        MockHttpServletResponse response = serve(get());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentType()).startsWith("text/plain");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(LEGACY_ETAG);
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(httpDate(MODIFIED));
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("private, max-age=86400");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).isNull();
+    }
+
+    @Test
+    void storedBlobsUseTheirHashAsAnImmutableEtag() throws IOException {
+        Path blob = write(HASH + ".pdf");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.serveFile(blob, null, "Invoice 7.pdf", get(), response);
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + HASH + ".pdf\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("private, max-age=31536000, immutable");
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION))
+                .startsWith("attachment;")
+                .contains("Invoice");
+    }
+
+    @Test
+    void storeKeysAreResolvedThroughTheStore() throws IOException {
+        Path blob = write(HASH);
+        when(fileStorageService.resolveKey(HASH)).thenReturn(Optional.of(blob));
+        when(fileStorageService.contentTypeOf(HASH)).thenReturn(Optional.of("image/png"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.serve(HASH, dir, null, get(), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void missingFilesAndPathsOutsideTheUploadDirectoryAre404() throws IOException {
+        when(fileStorageService.resolveKey(HASH)).thenReturn(Optional.empty());
+        Path uploads = Files.createDirectory(dir.resolve("uploads"));
+
+        for (String reference : new String[]{HASH, "missing.txt", "../manual.txt"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            service.serve(reference, uploads, null, get(), response);
+            assertThat(response.getStatus()).as(reference).isEqualTo(404);
+        }
+    }
+
+    // Conditional requests
+
+    @ParameterizedTest
+    @ValueSource(strings = {LEGACY_ETAG, "W/" + LEGACY_ETAG, "\"other\", " + LEGACY_ETAG, "*"})
+    void matchingIfNoneMatchIs304(String ifNoneMatch) throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(LEGACY_ETAG);
+    }
+
+    @Test
+    void ifNoneMatchWinsOverIfModifiedSince() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED + 60_000));
+
+        assertThat(serve(request).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void ifModifiedSinceComparesWholeSeconds() throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(MODIFIED + 400));
+
+        assertThat(serve(ifModifiedSince(httpDate(MODIFIED))).getStatus()).isEqualTo(304);
+        assertThat(serve(ifModifiedSince(httpDate(MODIFIED - 1000))).getStatus()).isEqualTo(200);
+        assertThat(serve(ifModifiedSince("not a date")).getStatus()).isEqualTo(200);
+    }
+
+    // Ranges
+
+    @ParameterizedTest
+    @CsvSource({
+            "bytes=2-5,   2, 5, 2345",
+            "bytes=7-,    7, 9, 789",
+            "bytes=-3,    7, 9, 789",
+            "bytes=-50,   0, 9, 0123456789",
+            "bytes=8-100, 8, 9, 89",
+            "bytes=4-4,   4, 4, 4"
+    })
+    void singleRangeIs206(String range, long start, long end, String body) throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, range);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes " + start + "-" + end + "/10");
+        assertThat(response.getContentLengthLong()).isEqualTo(end - start + 1);
+        assertThat(response.getContentAsString()).isEqualTo(body);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bytes=10-", "bytes=6-2", "bytes=-0"})
+    void unsatisfiableRangeIs416(String range) throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, range);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bytes=0-1,4-5", "bytes=abc", "bytes=5", "items=0-1"})
+    void otherRangesGetTheWholeFile(String range) throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, range);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void ifRangeOnlyHonoursTheRangeForTheCurrentVersion() throws IOException {
+        assertThat(serve(rangeIf(LEGACY_ETAG)).getStatus()).isEqualTo(206);
+        assertThat(serve(rangeIf(httpDate(MODIFIED))).getStatus()).isEqualTo(206);
+
+        MockHttpServletResponse stale = serve(rangeIf("\"0-0\""));
+        assertThat(stale.getStatus()).isEqualTo(200);
+        assertThat(stale.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(serve(rangeIf(httpDate(MODIFIED - 1000))).getStatus()).isEqualTo(200);
+    }
+
+    // Writing the body
+
+    @Test
+    void headSendsHeadersOnly() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/files/manual.txt");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void leavesTheBodyToSendfileWhenTheConnectorSupportsIt() throws IOException {
+        MockHttpServletRequest request = get();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=3-6");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(3L);
+        // Tomcat's end is exclusive
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(7L);
+    }
+
+    private Path write(String name) throws IOException {
+        Path path = dir.resolve(name);
+        Files.writeString(path, CONTENT, StandardCharsets.US_ASCII);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(MODIFIED));
+        return path;
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serveFile(file, "text/plain", null, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/files/manual.txt");
+    }
+
+    private static MockHttpServletRequest ifModifiedSince(String value) {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, value);
+        return request;
+    }
+
+    private static MockHttpServletRequest rangeIf(String ifRange) {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        return request;
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atOffset(ZoneOffset.UTC));
+    }
+}
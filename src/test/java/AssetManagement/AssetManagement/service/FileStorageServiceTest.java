@@ -0,0 +1,179 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.entity.StoredFile;
+import AssetManagement.AssetManagement.repository.StoredFileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path root;
+
+    // The stored_files table
+    private final Map<String, StoredFile> rows = new ConcurrentHashMap<>();
+
+    private FileStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        StoredFileRepository repository = mock(StoredFileRepository.class);
+        when(repository.findBySha256(anyString())).thenAnswer(call -> Optional.ofNullable(rows.get(call.<String>getArgument(0))));
+        doAnswer(call -> {
+            rows.computeIfAbsent(call.getArgument(0), sha256 -> new StoredFile(null, sha256, call.getArgument(1),
+                    call.getArgument(2), call.getArgument(3), 0, call.getArgument(4)));
+            return null;
+        }).when(repository).insertIfAbsent(anyString(), anyLong(), any(), anyString(), any(LocalDateTime.class));
+        when(repository.addReference(anyString())).thenAnswer(call -> update(call.getArgument(0), +1));
+        when(repository.releaseReference(anyString())).thenAnswer(call -> {
+            StoredFile row = rows.get(call.<String>getArgument(0));
+            return row != null && row.getRefCount() > 0 ? update(row.getSha256(), -1) : 0;
+        });
+        when(repository.deleteUnreferenced(anyString())).thenAnswer(call -> {
+            StoredFile row = rows.get(call.<String>getArgument(0));
+            return row != null && row.getRefCount() == 0 && rows.remove(row.getSha256(), row) ? 1 : 0;
+        });
+
+        service = new FileStorageService(repository, root.toString());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void sameBytesShareOneBlobAndCountEachRecord() throws IOException {
+        String first = store("manual.pdf", "same bytes");
+        String second = store("copy.PDF", "same bytes");
+
+        assertThat(first).isEqualTo(second).endsWith(".pdf");
+        assertThat(rows).hasSize(1);
+        assertThat(refCount(first)).isEqualTo(2);
+        assertThat(service.resolveKey(first)).isPresent();
+    }
+
+    @Test
+    void releasingOneOfTwoReferencesKeepsTheBlob() throws IOException {
+        String key = store("a.pdf", "shared");
+        store("b.pdf", "shared");
+        Path blob = service.resolveKey(key).orElseThrow();
+
+        service.deleteFor(key, () -> {
+        });
+        commit();
+
+        assertThat(refCount(key)).isEqualTo(1);
+        assertThat(blob).exists();
+    }
+
+    @Test
+    void lastReleaseRemovesTheRowTheBlobAndItsDerivatives() throws IOException {
+        String key = store("photo.jpg", "pixels");
+        Path blob = service.resolveKey(key).orElseThrow();
+        Path thumbnail = service.derivativePath(key, "thumb.jpg");
+        Files.writeString(thumbnail, "small");
+
+        service.release(key);
+
+        // Moved aside at once, deleted only once the transaction commits
+        assertThat(rows).isEmpty();
+        assertThat(blob).doesNotExist();
+        assertThat(thumbnail).exists();
+
+        commit();
+
+        assertThat(blob.getParent()).isEmptyDirectory();
+        assertThat(service.resolveKey(key)).isEmpty();
+    }
+
+    @Test
+    void rollbackPutsTheBlobBack() throws IOException {
+        String key = store("photo.jpg", "pixels");
+        Path blob = service.resolveKey(key).orElseThrow();
+
+        service.release(key);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(blob).hasContent("pixels");
+    }
+
+    @Test
+    void reuploadAfterTheLastReleaseWritesTheBlobAgain() throws IOException {
+        String key = store("photo.jpg", "pixels");
+        service.release(key);
+        commit();
+
+        assertThat(store("again.jpg", "pixels")).isEqualTo(key);
+        assertThat(refCount(key)).isEqualTo(1);
+        assertThat(service.resolveKey(key).orElseThrow()).hasContent("pixels");
+    }
+
+    @Test
+    void blobPathsAreReleasedLikeKeysAndLegacyNamesAreIgnored() throws IOException {
+        String key = store("sim.pdf", "contract");
+        Path blob = service.resolveKey(key).orElseThrow();
+
+        service.release("1712345678_contract.pdf");
+        assertThat(refCount(key)).isEqualTo(1);
+
+        service.release(blob.toString());
+        commit();
+        assertThat(rows).isEmpty();
+        assertThat(blob).doesNotExist();
+    }
+
+    private String store(String name, String content) throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", name, "application/octet-stream",
+                content.getBytes(StandardCharsets.UTF_8));
+        return service.storeFor(file, stored -> FileStorageService.keyOf(stored, name));
+    }
+
+    private int update(String sha256, int delta) {
+        StoredFile row = rows.get(sha256);
+        if (row == null) {
+            return 0;
+        }
+        row.setRefCount(row.getRefCount() + delta);
+        return 1;
+    }
+
+    private int refCount(String key) {
+        return rows.get(key.substring(0, 64)).getRefCount();
+    }
+
+    private static void commit() {
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
@@ -0,0 +1,134 @@
+package AssetManagement.AssetManagement.service;
+
+import AssetManagement.AssetManagement.dto.InboundMail;
+import AssetManagement.AssetManagement.entity.ProcessedInboundMail;
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.entity.User;
+import AssetManagement.AssetManagement.repository.MailboxSyncStateRepository;
+import AssetManagement.AssetManagement.repository.ProcessedInboundMailRepository;
+import AssetManagement.AssetManagement.repository.TicketRepository;
+import AssetManagement.AssetManagement.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MailboxIngestionServiceTest {
+
+    private final Set<String> processed = new HashSet<>();
+    private final AtomicLong ticketIds = new AtomicLong();
+
+    private TicketRepository ticketRepository;
+    private MailOutboxService mailOutboxService;
+    private MailboxSyncStateRepository syncStateRepository;
+    private EmailService emailService;
+    private ScheduledJobMonitor jobMonitor;
+    private MailboxIngestionService ingestion;
+
+    @BeforeEach
+    void setUp() {
+        ProcessedInboundMailRepository processedRepository = mock(ProcessedInboundMailRepository.class);
+        when(processedRepository.existsById(anyString())).thenAnswer(call -> processed.contains(call.<String>getArgument(0)));
+        when(processedRepository.save(any())).thenAnswer(call -> {
+            ProcessedInboundMail mail = call.getArgument(0);
+            processed.add(mail.getMessageKey());
+            return mail;
+        });
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        ticketRepository = mock(TicketRepository.class);
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(call -> {
+            Ticket ticket = call.getArgument(0);
+            ticket.setId(ticketIds.incrementAndGet());
+            return ticket;
+        });
+
+        User sender = new User();
+        sender.setId(7L);
+        sender.setEmail("priya@mahavirgroup.co");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllByEmail("priya@mahavirgroup.co")).thenReturn(List.of(sender));
+
+        mailOutboxService = mock(MailOutboxService.class);
+        emailService = new EmailService(mailOutboxService, processedRepository, transactionManager);
+        ReflectionTestUtils.setField(emailService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(emailService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(emailService, "ticketSearchEngine", mock(TicketSearchEngine.class));
+
+        syncStateRepository = mock(MailboxSyncStateRepository.class);
+        when(syncStateRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+        when(jobLeaseService.isLeader()).thenReturn(true);
+        jobMonitor = new ScheduledJobMonitor(jobLeaseService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ingestion != null) {
+            ingestion.shutdown();
+        }
+    }
+
+    @Test
+    void replayedDeltaPageCreatesOneTicket() {
+        FakeMailboxSource source = new FakeMailboxSource(List.of(newTicketMail("AAMk-1", "<printer-1@mahavirgroup.co>")));
+        ingestion = new MailboxIngestionService(source, emailService, syncStateRepository, jobMonitor);
+
+        ingestion.syncMailbox();
+        ingestion.syncMailbox();
+
+        verify(ticketRepository, times(1)).save(any(Ticket.class));
+        verify(mailOutboxService, times(1)).enqueueTicketAcknowledgment(
+                eq(1L), eq("priya@mahavirgroup.co"), any(), anyString(), anyString(), any());
+        assertThat(source.markedRead()).containsExactly("AAMk-1", "AAMk-1");
+    }
+
+    @Test
+    void retryAfterFailedMarkReadDoesNotCreateSecondTicket() {
+        FakeMailboxSource source = new FakeMailboxSource(List.of(newTicketMail("AAMk-2", "<printer-2@mahavirgroup.co>")));
+        source.failNextMarkRead(1);
+        ingestion = new MailboxIngestionService(source, emailService, syncStateRepository, jobMonitor);
+
+        ingestion.syncMailbox();
+        // The failed message kept the old delta token
+        verify(syncStateRepository, never()).save(any());
+
+        ingestion.syncMailbox();
+
+        verify(ticketRepository, times(1)).save(any(Ticket.class));
+        verify(syncStateRepository, times(1)).save(any());
+        assertThat(source.markedRead()).containsExactly("AAMk-2");
+    }
+
+    @Test
+    void messageKeyFallsBackToMailboxId() {
+        InboundMail withoutHeader = new InboundMail("AAMk-3", "conv", null, "s", "a@b.c", "", List.of(), null, false);
+        InboundMail other = new InboundMail("AAMk-4", "conv", " ", "s", "a@b.c", "", List.of(), null, false);
+
+        assertThat(EmailService.messageKeyOf(withoutHeader)).hasSize(64).isNotEqualTo(EmailService.messageKeyOf(other));
+    }
+
+    private static InboundMail newTicketMail(String id, String internetMessageId) {
+        return new InboundMail(id, "conversation-" + id, internetMessageId, "Printer not working",
+                "priya@mahavirgroup.co", "<p>The 2nd floor printer jams.</p>", List.of(),
+                OffsetDateTime.parse("2026-10-18T09:00:00Z"), false);
+    }
+}
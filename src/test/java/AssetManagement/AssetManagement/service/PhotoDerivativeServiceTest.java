@@ -0,0 +1,62 @@
+package AssetManagement.AssetManagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoDerivativeServiceTest {
+
+    @Test
+    void readsOrientationInBothByteOrders() {
+        assertThat(PhotoDerivativeService.orientationOf(app1(ByteOrder.BIG_ENDIAN, 6))).isEqualTo(6);
+        assertThat(PhotoDerivativeService.orientationOf(app1(ByteOrder.LITTLE_ENDIAN, 8))).isEqualTo(8);
+    }
+
+    @Test
+    void ignoresOtherSegmentsAndBadValues() {
+        assertThat(PhotoDerivativeService.orientationOf("http://ns.adobe.com/xap/1.0/".getBytes())).isZero();
+        assertThat(PhotoDerivativeService.orientationOf(app1(ByteOrder.BIG_ENDIAN, 9))).isZero();
+        byte[] truncated = new byte[16];
+        System.arraycopy(app1(ByteOrder.BIG_ENDIAN, 6), 0, truncated, 0, truncated.length);
+        assertThat(PhotoDerivativeService.orientationOf(truncated)).isZero();
+    }
+
+    @Test
+    void rotatesClockwiseForOrientationSix() {
+        // 2x1 image: red on the left, blue on the right
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        image.setRGB(1, 0, 0x0000FF);
+
+        BufferedImage upright = PhotoDerivativeService.orient(image, 6);
+
+        // Turned 90 degrees clockwise, the left pixel ends up on top
+        assertThat(upright.getWidth()).isEqualTo(1);
+        assertThat(upright.getHeight()).isEqualTo(2);
+        assertThat(upright.getRGB(0, 0) & 0xFFFFFF).isEqualTo(0xFF0000);
+        assertThat(upright.getRGB(0, 1) & 0xFFFFFF).isEqualTo(0x0000FF);
+    }
+
+    @Test
+    void leavesUprightImagesAlone() {
+        BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        assertThat(PhotoDerivativeService.orient(image, 1)).isSameAs(image);
+    }
+
+    // "Exif\0\0" + TIFF header + IFD0 with one entry (Orientation, SHORT, count 1)
+    private static byte[] app1(ByteOrder order, int orientation) {
+        ByteBuffer buffer = ByteBuffer.allocate(6 + 8 + 2 + 12 + 4).order(order);
+        buffer.put("Exif".getBytes()).put((byte) 0).put((byte) 0);
+        buffer.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        buffer.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        buffer.putShort((short) 42).putInt(8);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        buffer.putInt(0);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,60 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BackupRetentionPolicyTest {
+
+    // 2026-10-18 is a Sunday: 10-12..10-18 is ISO week 42, 10-05..10-11 week 41, 09-28..10-04 week 40
+    private static final List<BackupEntry> ENTRIES = List.of(
+            entry("2026-10-18T19:00"),
+            entry("2026-10-18T07:00"),
+            entry("2026-10-17T19:00"),
+            entry("2026-10-16T19:00"),
+            entry("2026-10-12T07:00"),
+            entry("2026-10-11T19:00"),
+            entry("2026-10-05T07:00"),
+            entry("2026-10-04T19:00"),
+            entry("2026-09-27T19:00"));
+
+    @Test
+    void keepsNewestPerDayAndPerWeek() {
+        assertThat(new BackupRetentionPolicy(2, 3).keep(ENTRIES)).containsExactlyInAnyOrder(
+                // Daily: the two newest days
+                "2026-10-18T19:00", "2026-10-17T19:00",
+                // Weekly: newest of weeks 41 and 40 (week 42's is already kept)
+                "2026-10-11T19:00", "2026-10-04T19:00");
+    }
+
+    @Test
+    void dailyOnlyKeepsOneBackupPerDay() {
+        assertThat(new BackupRetentionPolicy(3, 0).keep(ENTRIES))
+                .containsExactlyInAnyOrder("2026-10-18T19:00", "2026-10-17T19:00", "2026-10-16T19:00");
+    }
+
+    @Test
+    void alwaysKeepsTheNewestBackup() {
+        assertThat(new BackupRetentionPolicy(1, 0).keep(ENTRIES)).containsExactly("2026-10-18T19:00");
+    }
+
+    @Test
+    void keepsEverythingWhileUnderTheLimits() {
+        List<BackupEntry> two = List.of(entry("2026-10-18T07:00"), entry("2026-10-17T07:00"));
+        assertThat(new BackupRetentionPolicy(7, 4).keep(two)).hasSize(2);
+    }
+
+    @Test
+    void requiresADailyGeneration() {
+        assertThatThrownBy(() -> new BackupRetentionPolicy(0, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Named by its time, so the assertions read as dates
+    private static BackupEntry entry(String createdAt) {
+        return new BackupEntry(createdAt, LocalDateTime.parse(createdAt), 1, 1, "x", 1);
+    }
+}
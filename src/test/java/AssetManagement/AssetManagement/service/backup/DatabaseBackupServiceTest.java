@@ -0,0 +1,125 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseBackupServiceTest {
+
+    private static final String SQL = "CREATE TABLE assets (id BIGINT);\nINSERT INTO assets VALUES (1),(2);";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesVerifiedGzipAndRecordsItInTheManifest() throws Exception {
+        DatabaseBackupService service = service(StubDumpCommand.completed(SQL), 7, 4);
+
+        BackupEntry entry = service.backup();
+
+        Path file = directory.resolve(entry.file());
+        assertThat(entry.file()).matches("backup_\\d{8}_\\d{6}\\.sql\\.gz");
+        String restored;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            restored = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(restored).startsWith(SQL).contains("-- Dump completed");
+        assertThat(entry.uncompressedBytes()).isEqualTo(restored.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(entry.sizeBytes()).isEqualTo(Files.size(file));
+        assertThat(entry.sha256()).isEqualTo(sha256(file));
+
+        assertThat(service.readManifest()).containsExactly(entry);
+        assertThat(leftoverParts()).isEmpty();
+    }
+
+    @Test
+    void rejectsTruncatedDump() throws Exception {
+        DatabaseBackupService service = service(new StubDumpCommand(SQL + "\nINSERT INTO assets VALUES (3", "", 0), 7, 4);
+
+        assertThatThrownBy(service::backup)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("truncated");
+
+        assertThat(backupFiles()).isEmpty();
+        assertThat(leftoverParts()).isEmpty();
+        assertThat(service.readManifest()).isEmpty();
+    }
+
+    @Test
+    void rejectsFailedDumpWithItsError() throws Exception {
+        DatabaseBackupService service = service(
+                new StubDumpCommand("", "mysqldump: Got error: 1045: Access denied", 2), 7, 4);
+
+        assertThatThrownBy(service::backup)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("code 2")
+                .hasMessageContaining("Access denied");
+
+        assertThat(backupFiles()).isEmpty();
+        assertThat(service.readManifest()).isEmpty();
+    }
+
+    @Test
+    void rotatesOutGenerationsBeyondRetention() throws Exception {
+        // Ten earlier daily backups; keep three days and no weekly ones
+        List<BackupEntry> earlier = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int day = 1; day <= 10; day++) {
+            String name = "backup_old_" + day + ".sql.gz";
+            Files.writeString(directory.resolve(name), "old");
+            earlier.add(new BackupEntry(name, now.minusDays(day), 3, 3, "x", 1));
+        }
+        Files.writeString(directory.resolve("backup_legacy.sql"), "plain dump from before the manifest");
+        objectMapper.writeValue(directory.resolve("manifest.json").toFile(), earlier);
+
+        BackupEntry entry = service(StubDumpCommand.completed(SQL), 3, 0).backup();
+
+        assertThat(service(StubDumpCommand.completed(SQL), 3, 0).readManifest())
+                .extracting(BackupEntry::file)
+                .containsExactly("backup_old_2.sql.gz", "backup_old_1.sql.gz", entry.file());
+        assertThat(backupFiles()).containsExactlyInAnyOrder(
+                "backup_old_1.sql.gz", "backup_old_2.sql.gz", entry.file(), "backup_legacy.sql");
+    }
+
+    private DatabaseBackupService service(DatabaseDumpCommand command, int daily, int weekly) {
+        return new DatabaseBackupService(command, objectMapper, directory.toString(), daily, weekly, 1);
+    }
+
+    private List<String> backupFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("backup_"))
+                    .toList();
+        }
+    }
+
+    private List<String> leftoverParts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".part"))
+                    .toList();
+        }
+    }
+
+    private static String sha256(Path file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+    }
+}
@@ -0,0 +1,61 @@
+package AssetManagement.AssetManagement.service.backup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/** Dump command whose process prints a fixed dump and exits with a given code. */
+class StubDumpCommand implements DatabaseDumpCommand {
+
+    private final byte[] stdout;
+    private final byte[] stderr;
+    private final int exitCode;
+
+    StubDumpCommand(String stdout, String stderr, int exitCode) {
+        this.stdout = stdout.getBytes(StandardCharsets.UTF_8);
+        this.stderr = stderr.getBytes(StandardCharsets.UTF_8);
+        this.exitCode = exitCode;
+    }
+
+    static StubDumpCommand completed(String sql) {
+        return new StubDumpCommand(sql + "\n-- Dump completed on 2026-10-18  7:00:01\n", "", 0);
+    }
+
+    @Override
+    public Process start() {
+        return new Process() {
+            private final InputStream out = new ByteArrayInputStream(stdout);
+            private final InputStream err = new ByteArrayInputStream(stderr);
+
+            @Override
+            public OutputStream getOutputStream() {
+                return OutputStream.nullOutputStream();
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return out;
+            }
+
+            @Override
+            public InputStream getErrorStream() {
+                return err;
+            }
+
+            @Override
+            public int waitFor() {
+                return exitCode;
+            }
+
+            @Override
+            public int exitValue() {
+                return exitCode;
+            }
+
+            @Override
+            public void destroy() {
+            }
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package AssetManagement.AssetManagement.service.impl;
+
+import AssetManagement.AssetManagement.dto.TicketMessageSearchSource;
+import AssetManagement.AssetManagement.dto.TicketSearchSource;
+import AssetManagement.AssetManagement.repository.TicketMessageRepository;
+import AssetManagement.AssetManagement.repository.TicketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InvertedIndexTicketSearchEngineTest {
+
+    private final List<TicketSearchSource> tickets = new ArrayList<>(List.of(
+            new TicketSearchSource(1L, "Printer jammed on second floor", "The HP printer jams daily",
+                    "Priya Shah", "Ravi Kumar", "Pune Office"),
+            new TicketSearchSource(2L, "VPN not connecting", "Cannot reach the printer share over VPN",
+                    "Amit Rao", null, "Mumbai"),
+            new TicketSearchSource(3L, "Laptop battery", "Battery drains fast", "Priya Shah", null, "Pune Office"),
+            new TicketSearchSource(4L, "Mouse", null, null, null, null),
+            new TicketSearchSource(5L, "Mouse cable replaced with keyboard", null, null, null, null)));
+
+    private TicketRepository ticketRepository;
+    private InvertedIndexTicketSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ticketRepository = mock(TicketRepository.class);
+        when(ticketRepository.findSearchSourcesAfter(anyLong(), any())).thenAnswer(call -> {
+            long afterId = call.getArgument(0);
+            return tickets.stream().filter(ticket -> ticket.id() > afterId).toList();
+        });
+        when(ticketRepository.findSearchSource(anyLong())).thenAnswer(call -> {
+            long id = call.getArgument(0);
+            return tickets.stream().filter(ticket -> ticket.id() == id).findFirst();
+        });
+
+        TicketMessageRepository ticketMessageRepository = mock(TicketMessageRepository.class);
+        when(ticketMessageRepository.findSearchSourcesByTicketIdIn(anyCollection())).thenAnswer(call -> {
+            Collection<Long> ids = call.getArgument(0);
+            return ids.contains(3L)
+                    ? List.of(new TicketMessageSearchSource(3L, "<p>Also the printer&nbsp;icon is missing</p>", "Ravi Kumar"))
+                    : List.of();
+        });
+
+        engine = new InvertedIndexTicketSearchEngine(ticketRepository, ticketMessageRepository);
+        engine.buildOnStartup();
+        await(engine::isReady);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void titleMatchesOutrankDescriptionAndMessages() {
+        List<Long> hits = engine.search("printer", 10);
+
+        assertThat(hits).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(hits.get(0)).isEqualTo(1L);
+    }
+
+    @Test
+    void shorterTicketsRankHigherForTheSameTerm() {
+        // Same title weight for "mouse"; BM25 length normalisation favours ticket 4 over the newer 5
+        assertThat(engine.search("mouse", 10)).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void everyTermHasToMatch() {
+        assertThat(engine.search("printer vpn", 10)).containsExactly(2L);
+        assertThat(engine.search("printer mumbai", 10)).containsExactly(2L);
+        assertThat(engine.search("printer nowhere", 10)).isEmpty();
+    }
+
+    @Test
+    void onlyTheLastTermMatchesAsPrefix() {
+        assertThat(engine.search("vpn conn", 10)).containsExactly(2L);
+        assertThat(engine.search("batt", 10)).containsExactly(3L);
+        // Too short to expand
+        assertThat(engine.search("ba", 10)).isEmpty();
+        assertThat(engine.search("batt laptop", 10)).isEmpty();
+    }
+
+    @Test
+    void indexesNamesAndMessageBodiesWithoutHtml() {
+        assertThat(engine.search("priya", 10)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(engine.search("icon", 10)).containsExactly(3L);
+        assertThat(engine.search("nbsp", 10)).isEmpty();
+    }
+
+    @Test
+    void ticketNumberComesFirst() {
+        assertThat(engine.search("#2", 10)).containsExactly(2L);
+        assertThat(engine.search("3", 10)).containsExactly(3L);
+        assertThat(engine.search("#99", 10)).isEmpty();
+    }
+
+    @Test
+    void limitsTheNumberOfHits() {
+        assertThat(engine.search("printer", 1)).containsExactly(1L);
+    }
+
+    @Test
+    void reindexPicksUpChangedTickets() {
+        tickets.set(1, new TicketSearchSource(2L, "Wifi drops", "Office wifi drops hourly", "Amit Rao", null, "Mumbai"));
+
+        engine.reindex(2L);
+        await(() -> !engine.search("wifi", 10).isEmpty());
+
+        assertThat(engine.search("wifi", 10)).containsExactly(2L);
+        assertThat(engine.search("vpn", 10)).isEmpty();
+    }
+
+    @Test
+    void reindexDropsDeletedTickets() {
+        tickets.remove(3);
+
+        engine.reindex(4L);
+        await(() -> engine.search("mouse", 10).size() == 1);
+
+        assertThat(engine.search("mouse", 10)).containsExactly(5L);
+    }
+
+    @Test
+    void tokenizerDropsStopWordsSingleCharactersAndMarkup() {
+        assertThat(InvertedIndexTicketSearchEngine.tokenize("<b>The</b> printer is on 2nd floor, a B"))
+                .containsExactly("printer", "2nd", "floor");
+        assertThat(InvertedIndexTicketSearchEngine.tokenize(null)).isEmpty();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Index did not catch up within 5 seconds");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
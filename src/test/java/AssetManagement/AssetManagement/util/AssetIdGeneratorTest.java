@@ -0,0 +1,190 @@
+package AssetManagement.AssetManagement.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AssetIdGeneratorTest {
+
+    private static final int BLOCK_SIZE = 50;
+
+    // The asset_tag_block row, shared by every generator like the database is by every node
+    private final AtomicLong nextValue = new AtomicLong(1001);
+    private final AtomicInteger reservations = new AtomicInteger();
+    private volatile boolean rowExists = true;
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("asset"))).thenReturn(1);
+
+        // UPDATE ... LAST_INSERT_ID(next_value) + ? followed by SELECT LAST_INSERT_ID()
+        long[] lastInsertId = new long[1];
+        PreparedStatement update = mock(PreparedStatement.class);
+        when(update.executeUpdate()).thenAnswer(call -> {
+            if (!rowExists) {
+                return 0;
+            }
+            lastInsertId[0] = nextValue.getAndAdd(BLOCK_SIZE);
+            reservations.incrementAndGet();
+            return 1;
+        });
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenAnswer(call -> lastInsertId[0]);
+        Statement select = mock(Statement.class);
+        when(select.executeQuery(anyString())).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(update);
+        when(connection.createStatement()).thenReturn(select);
+
+        // Generators only reach the database under their refill lock; this one lock stands in for
+        // the row lock so that two generators cannot interleave on the shared statement mocks
+        Object rowLock = new Object();
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(call -> {
+            synchronized (rowLock) {
+                return ((ConnectionCallback<?>) call.getArgument(0)).doInConnection(connection);
+            }
+        });
+    }
+
+    @Test
+    void handsOutConsecutiveNumbersFromOneBlock() {
+        AssetIdGenerator generator = newGenerator();
+
+        assertThat(LongStream.generate(generator::next).limit(BLOCK_SIZE + 1).toArray())
+                .containsExactly(LongStream.range(1001, 1001 + BLOCK_SIZE + 1).toArray());
+        assertThat(reservations).hasValue(2);
+        assertThat(AssetIdGenerator.getNextId()).isEqualTo(1001 + BLOCK_SIZE + 1);
+    }
+
+    @Test
+    void refillsOncePerBlockUnderContention() throws Exception {
+        AssetIdGenerator generator = newGenerator();
+        int threads = 8;
+        int perThread = 1000;
+
+        Set<Long> ids = takeConcurrently(threads, perThread, generator);
+
+        // Every number used exactly once, and no block reserved by a thread that lost the race
+        assertThat(ids).hasSize(threads * perThread);
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(
+                LongStream.range(1001, 1001 + threads * perThread).boxed().toList());
+        assertThat(reservations).hasValue(threads * perThread / BLOCK_SIZE);
+    }
+
+    @Test
+    void nodesSharingTheRowNeverHandOutTheSameNumber() throws Exception {
+        AssetIdGenerator first = newGenerator();
+        AssetIdGenerator second = newGenerator();
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ids.addAll(takeConcurrently(4, 777, first));
+        List<Long> fromSecond = new ArrayList<>(takeConcurrently(4, 777, second));
+        for (Long id : fromSecond) {
+            assertThat(ids.add(id)).as("id %d handed out twice", id).isTrue();
+        }
+        assertThat(ids).hasSize(2 * 4 * 777);
+    }
+
+    @Test
+    void failsWhenTheBlockRowIsMissing() {
+        AssetIdGenerator generator = newGenerator();
+        rowExists = false;
+
+        assertThatThrownBy(generator::next)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("asset_tag_block");
+    }
+
+    @Test
+    void firstStartContinuesAfterTheHighestTagInUse() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("asset"))).thenReturn(0);
+        when(jdbcTemplate.queryForObject(contains("asset_sequence"), eq(Long.class))).thenReturn(41L);
+        when(jdbcTemplate.queryForObject(contains("FROM asset WHERE"), eq(Long.class))).thenReturn(57L);
+
+        newGenerator();
+
+        verify(jdbcTemplate).update(contains("INSERT IGNORE INTO asset_tag_block"), eq("asset"), eq(58L));
+    }
+
+    @Test
+    void firstStartOnAnEmptyDatabaseStartsAtOne() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("asset"))).thenReturn(0);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenThrow(new DataAccessResourceFailureException("no such table"));
+
+        newGenerator();
+
+        verify(jdbcTemplate).update(contains("INSERT IGNORE INTO asset_tag_block"), eq("asset"), eq(1L));
+    }
+
+    private AssetIdGenerator newGenerator() {
+        return new AssetIdGenerator(jdbcTemplate, transactionManager, BLOCK_SIZE);
+    }
+
+    private static Set<Long> takeConcurrently(int threads, int perThread, AssetIdGenerator generator) throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        if (!ids.add(generator.next())) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(duplicates).hasValue(0);
+        return ids;
+    }
+}
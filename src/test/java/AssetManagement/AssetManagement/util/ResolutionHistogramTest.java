@@ -0,0 +1,94 @@
+package AssetManagement.AssetManagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResolutionHistogramTest {
+
+    @Test
+    void emptyHistogramHasNoPercentile() {
+        assertThat(new ResolutionHistogram().percentile(0.5, 0, 0)).isNull();
+    }
+
+    @Test
+    void interpolatesInsideTheBucketHoldingTheRank() {
+        ResolutionHistogram histogram = new ResolutionHistogram();
+        for (int minutes = 1; minutes <= 100; minutes++) {
+            histogram.add(minutes);
+        }
+
+        // 14 below 15m, 15 in [15, 30), 30 in [30, 60): rank 50 is 21/30 into [30, 60)
+        assertThat(histogram.percentile(0.5, 1, 100)).isEqualTo(51L);
+        // Rank 90 falls in [60, 120); the estimate (105) is clamped to the real maximum
+        assertThat(histogram.percentile(0.9, 1, 100)).isEqualTo(100L);
+        // Rank 1 is in the first bucket, interpolated to 1/14 of 15m
+        assertThat(histogram.percentile(0.0, 1, 100)).isEqualTo(1L);
+    }
+
+    @Test
+    void clampsToTheTrackedExtremes() {
+        ResolutionHistogram histogram = new ResolutionHistogram();
+        histogram.add(50);
+
+        // The bucket [30, 60) alone would say 60
+        assertThat(histogram.percentile(0.5, 50, 50)).isEqualTo(50L);
+    }
+
+    @Test
+    void boundsBelongToTheNextBucket() {
+        ResolutionHistogram histogram = new ResolutionHistogram();
+        histogram.add(15);
+        histogram.add(-5);
+
+        assertThat(histogram.encode()).startsWith("1,1,0,");
+    }
+
+    @Test
+    void lastBucketIsOpenEnded() {
+        ResolutionHistogram histogram = new ResolutionHistogram();
+        histogram.add(200_000);
+
+        assertThat(histogram.percentile(0.99, 0, 200_000)).isEqualTo(200_000L);
+    }
+
+    @Test
+    void mergedHistogramsGiveTheSamePercentilesAsOne() {
+        ResolutionHistogram whole = new ResolutionHistogram();
+        ResolutionHistogram monday = new ResolutionHistogram();
+        ResolutionHistogram tuesday = new ResolutionHistogram();
+        for (int minutes = 0; minutes < 5_000; minutes += 7) {
+            whole.add(minutes);
+            (minutes % 2 == 0 ? monday : tuesday).add(minutes);
+        }
+
+        monday.merge(tuesday);
+
+        assertThat(monday.total()).isEqualTo(whole.total());
+        for (double q : new double[]{0.5, 0.9, 0.95}) {
+            assertThat(monday.percentile(q, 0, 4_998)).isEqualTo(whole.percentile(q, 0, 4_998));
+        }
+    }
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        ResolutionHistogram histogram = new ResolutionHistogram();
+        histogram.add(10);
+        histogram.add(3_000);
+        histogram.add(3_000);
+
+        ResolutionHistogram decoded = ResolutionHistogram.decode(histogram.encode());
+
+        assertThat(decoded.encode()).isEqualTo(histogram.encode());
+        assertThat(decoded.encode().split(",")).hasSize(ResolutionHistogram.BUCKETS);
+        assertThat(decoded.total()).isEqualTo(3);
+    }
+
+    @Test
+    void decodesMissingOrShortRows() {
+        assertThat(ResolutionHistogram.decode(null).total()).isZero();
+        assertThat(ResolutionHistogram.decode("").total()).isZero();
+        // Rows written with fewer buckets keep their counts
+        assertThat(ResolutionHistogram.decode("2, 3").total()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,67 @@
+package AssetManagement.AssetManagement.util;
+
+import AssetManagement.AssetManagement.entity.Ticket;
+import AssetManagement.AssetManagement.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketCursorTest {
+
+    @Test
+    void roundTripsThroughTheOpaqueForm() {
+        TicketCursor cursor = new TicketCursor(LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_000_000), 4711L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("|", "=", "+", "/");
+        assertThat(TicketCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTicketsWithoutCreatedAt() {
+        TicketCursor cursor = new TicketCursor(null, 12L);
+
+        assertThat(TicketCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void takesThePositionOfATicket() {
+        Ticket ticket = new Ticket();
+        ticket.setId(9L);
+        ticket.setCreatedAt(LocalDateTime.of(2026, 1, 2, 3, 4));
+
+        assertThat(TicketCursor.of(ticket)).isEqualTo(new TicketCursor(LocalDateTime.of(2026, 1, 2, 3, 4), 9L));
+    }
+
+    @Test
+    void noCursorMeansTheFirstPage() {
+        assertThat(TicketCursor.decode(null)).isNull();
+        assertThat(TicketCursor.decode("  ")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "bm8tc2VwYXJhdG9y"})
+    void rejectsGarbage(String cursor) {
+        assertThatThrownBy(() -> TicketCursor.decode(cursor))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2026-13-01T00:00|5", "2026-10-18T09:30|five", "|"})
+    void rejectsMalformedPositions(String raw) {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> TicketCursor.decode(cursor))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
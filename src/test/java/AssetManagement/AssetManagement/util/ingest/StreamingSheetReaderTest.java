@@ -0,0 +1,230 @@
+package AssetManagement.AssetManagement.util.ingest;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingSheetReaderTest {
+
+    @TempDir
+    Path dir;
+
+    // CSV (RFC 4180)
+
+    @Test
+    void csvSkipsTheBomAndHandlesCrLf() throws IOException {
+        List<SheetRow> rows = read(csv("\uFEFFname,qty\r\nMouse,5\r\n"));
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getString(0)).isEqualTo("name");
+        assertThat(rows.get(1).getRowNumber()).isEqualTo(2);
+        assertThat(rows.get(1).getString(0)).isEqualTo("Mouse");
+        assertThat(rows.get(1).getString(1)).isEqualTo("5");
+        // CSV cells are text, never numbers
+        assertThat(rows.get(1).getNumber(1)).isNull();
+    }
+
+    @Test
+    void csvQuotedFieldsHoldCommasQuotesAndLineBreaks() throws IOException {
+        List<SheetRow> rows = read(csv("\"Dell, Inc.\",\"He said \"\"hi\"\"\",\"line one\nline two\",plain\n"
+                + "next,row\n"));
+
+        assertThat(rows).hasSize(2);
+        SheetRow row = rows.get(0);
+        assertThat(row.getString(0)).isEqualTo("Dell, Inc.");
+        assertThat(row.getString(1)).isEqualTo("He said \"hi\"");
+        assertThat(row.getString(2)).isEqualTo("line one\nline two");
+        assertThat(row.getString(3)).isEqualTo("plain");
+        assertThat(rows.get(1).getRowNumber()).isEqualTo(2);
+        assertThat(rows.get(1).getString(1)).isEqualTo("row");
+    }
+
+    @Test
+    void csvEmptyFieldsAndBlankLinesHaveNoCells() throws IOException {
+        List<SheetRow> rows = read(csv("a,,\"\",d\n\n  ,x\n"));
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).getString(0)).isEqualTo("a");
+        assertThat(rows.get(0).getString(1)).isNull();
+        assertThat(rows.get(0).getString(2)).isNull();
+        assertThat(rows.get(0).getString(3)).isEqualTo("d");
+        assertThat(rows.get(1).isBlank()).isTrue();
+        assertThat(rows.get(2).getString(0)).isNull();
+        assertThat(rows.get(2).getString(1)).isEqualTo("x");
+    }
+
+    @Test
+    void csvLastRowNeedsNoLineBreak() throws IOException {
+        assertThat(read(csv("a\nb"))).extracting(row -> row.getString(0)).containsExactly("a", "b");
+        assertThat(read(csv("a\n\"b\""))).extracting(row -> row.getString(0)).containsExactly("a", "b");
+        assertThat(read(csv("a\nb\n"))).hasSize(2);
+    }
+
+    @Test
+    void csvIsReadAsUtf8WithIsoDates() throws IOException {
+        SheetRow row = read(csv("Café Münster,2024-03-15\n")).get(0);
+
+        assertThat(row.getString(0)).isEqualTo("Café Münster");
+        assertThat(row.getDate(1)).isEqualTo(LocalDate.of(2024, 3, 15));
+    }
+
+    // XLSX (SAX)
+
+    @Test
+    void xlsxCellsMapToTextNumbersAndDates() throws IOException {
+        File file = dir.resolve("assets.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+            Sheet sheet = workbook.createSheet("Assets");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("  Name  ");
+            header.createCell(3).setCellValue("Gap before");
+
+            Row row = sheet.createRow(4);
+            row.createCell(0).setCellValue(12.5);
+            row.createCell(1).setCellValue(42);
+            row.createCell(2).setCellValue(LocalDate.of(2024, 3, 15));
+            row.getCell(2).setCellStyle(dateStyle);
+            row.createCell(3).setCellValue(true);
+            row.createCell(4).setCellFormula("\"ab\"&\"cd\"");
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateFormulaCell(row.getCell(4));
+            row.createCell(5).setCellErrorValue(FormulaError.DIV0.getCode());
+
+            workbook.createSheet("Ignored").createRow(0).createCell(0).setCellValue("second sheet");
+            write(workbook, file);
+        }
+
+        List<SheetRow> rows = read(file);
+
+        assertThat(rows).extracting(SheetRow::getRowNumber).containsExactly(1, 5);
+        SheetRow header = rows.get(0);
+        assertThat(header.getString(0)).isEqualTo("Name");
+        assertThat(header.getString(1)).isNull();
+        assertThat(header.getString(3)).isEqualTo("Gap before");
+
+        SheetRow row = rows.get(1);
+        assertThat(row.getString(0)).isEqualTo("12");
+        assertThat(row.getText(0)).isEqualTo("12.5");
+        assertThat(row.getNumber(0)).isEqualByComparingTo(new BigDecimal("12.5"));
+        assertThat(row.getText(1)).isEqualTo("42");
+        assertThat(row.getDate(1)).isNull();
+        assertThat(row.getDate(2)).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(row.getText(2)).isEqualTo("2024-03-15");
+        assertThat(row.getString(3)).isEqualTo("true");
+        assertThat(row.getString(4)).isEqualTo("abcd");
+        assertThat(row.getString(5)).isNull();
+    }
+
+    @Test
+    void xlsxInlineStringsAreRead() throws IOException {
+        File file = dir.resolve("inline.xlsx").toFile();
+        // The streaming workbook writes inline strings instead of a shared strings table
+        SXSSFWorkbook workbook = new SXSSFWorkbook();
+        try {
+            Row row = workbook.createSheet().createRow(0);
+            row.createCell(0).setCellValue("inline");
+            row.createCell(1).setCellValue(7);
+            write(workbook, file);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+
+        SheetRow row = read(file).get(0);
+        assertThat(row.getString(0)).isEqualTo("inline");
+        assertThat(row.getString(1)).isEqualTo("7");
+    }
+
+    @Test
+    void xlsxHandlerFailuresSurfaceUnwrapped() throws IOException {
+        File file = dir.resolve("fail.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet().createRow(0).createCell(0).setCellValue("x");
+            write(workbook, file);
+        }
+
+        assertThatThrownBy(() -> StreamingSheetReader.read(file, row -> {
+            throw new IllegalArgumentException("bad row " + row.getRowNumber());
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad row 1");
+
+        assertThatThrownBy(() -> StreamingSheetReader.read(file, row -> {
+            throw new Exception("checked");
+        })).isInstanceOf(IOException.class).hasRootCauseMessage("checked");
+    }
+
+    // XLS and other formats
+
+    @Test
+    void legacyXlsGoesThroughTheSameCallback() throws IOException {
+        File file = dir.resolve("assets.xls").toFile();
+        try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            Row row = workbook.createSheet().createRow(2);
+            row.createCell(0).setCellValue("Laptop");
+            row.createCell(1).setCellValue(3);
+            row.createCell(2).setCellValue(LocalDate.of(2023, 12, 1));
+            row.getCell(2).setCellStyle(dateStyle);
+            write(workbook, file);
+        }
+
+        List<SheetRow> rows = read(file);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getRowNumber()).isEqualTo(3);
+        assertThat(rows.get(0).getString(0)).isEqualTo("Laptop");
+        assertThat(rows.get(0).getNumber(1)).isEqualByComparingTo("3");
+        assertThat(rows.get(0).getDate(2)).isEqualTo(LocalDate.of(2023, 12, 1));
+    }
+
+    @Test
+    void rejectsOtherFormats() throws IOException {
+        Path pdf = dir.resolve("scan.pdf");
+        Files.writeString(pdf, "%PDF-1.7\n%...", StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> read(pdf.toFile()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unsupported spreadsheet format");
+    }
+
+    private File csv(String content) throws IOException {
+        Path file = Files.createTempFile(dir, "import", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private static void write(Workbook workbook, File file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            workbook.write(out);
+        }
+    }
+
+    private static List<SheetRow> read(File file) throws IOException {
+        List<SheetRow> rows = new ArrayList<>();
+        StreamingSheetReader.read(file, rows::add);
+        return rows;
+    }
+}